@@ -0,0 +1,52 @@
+package in.ac.iitj.instiapp.benchmarks;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import in.ac.iitj.instiapp.payload.User.UserBaseDto;
+import in.ac.iitj.instiapp.payload.common.ApiResponse;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Envelope every controller wraps its response in. Construction formats the timestamp, serialization is what Spring MVC
+ * does with the returned body.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ApiResponseBenchmark {
+
+    @Param({"1", "20", "100"})
+    public int items;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private List<UserBaseDto> users;
+    private ApiResponse<List<UserBaseDto>> response;
+
+    @Setup
+    public void setUp() {
+        users = new ArrayList<>(items);
+        for (int i = 0; i < items; i++) {
+            users.add(new UserBaseDto("Name " + i, "user" + i, "user" + i + "@iitj.ac.in", "student", "https://avatar/" + i));
+        }
+        response = ApiResponse.success(users, "Users fetched successfully");
+    }
+
+    @Benchmark
+    public ApiResponse<List<UserBaseDto>> construct() {
+        return ApiResponse.success(users, "Users fetched successfully");
+    }
+
+    @Benchmark
+    public String serialize() throws JsonProcessingException {
+        return objectMapper.writeValueAsString(response);
+    }
+
+    @Benchmark
+    public String constructAndSerialize() throws JsonProcessingException {
+        return objectMapper.writeValueAsString(ApiResponse.success(users, "Users fetched successfully"));
+    }
+}
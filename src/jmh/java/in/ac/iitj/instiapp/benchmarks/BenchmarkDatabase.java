@@ -0,0 +1,77 @@
+package in.ac.iitj.instiapp.benchmarks;
+
+import com.zaxxer.hikari.HikariDataSource;
+import in.ac.iitj.instiapp.Repository.impl.BusRepositoryImpl;
+import in.ac.iitj.instiapp.mappers.Scheduling.Buses.BusOverrideDtoMapperImpl;
+import in.ac.iitj.instiapp.mappers.Scheduling.Buses.BusRouteDtoMapperImpl;
+import in.ac.iitj.instiapp.mappers.Scheduling.Buses.BusRunDtoMapperImpl;
+import in.ac.iitj.instiapp.mappers.Scheduling.Buses.RouteStopDtoMapperImpl;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+import org.springframework.transaction.annotation.EnableTransactionManagement;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+/**
+ * Minimal persistence context for repository benchmarks: an in-memory H2 database in PostgreSQL mode with the schema
+ * generated from the entities, and the repositories wired the same way as in the application.
+ * <p>
+ * Set {@code -Dbenchmark.jdbcUrl}, {@code -Dbenchmark.jdbcUser} and {@code -Dbenchmark.jdbcPassword} to run against
+ * a real PostgreSQL instead, the schema is created and dropped by Hibernate.
+ */
+@Configuration
+@EnableTransactionManagement
+@Import({BusRepositoryImpl.class, BusRunDtoMapperImpl.class, BusRouteDtoMapperImpl.class, RouteStopDtoMapperImpl.class,
+        BusOverrideDtoMapperImpl.class})
+public class BenchmarkDatabase {
+
+    @Bean(destroyMethod = "close")
+    public HikariDataSource dataSource() {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl(System.getProperty("benchmark.jdbcUrl",
+                "jdbc:h2:mem:benchmark;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH;NON_KEYWORDS=DAY,MONTH,YEAR,INTERVAL,VALUE;DB_CLOSE_DELAY=-1"));
+        dataSource.setUsername(System.getProperty("benchmark.jdbcUser", "sa"));
+        dataSource.setPassword(System.getProperty("benchmark.jdbcPassword", ""));
+        return dataSource;
+    }
+
+    @Bean
+    public LocalContainerEntityManagerFactoryBean entityManagerFactory(DataSource dataSource) {
+        LocalContainerEntityManagerFactoryBean factory = new LocalContainerEntityManagerFactoryBean();
+        factory.setDataSource(dataSource);
+        factory.setPackagesToScan("in.ac.iitj.instiapp.database.entities");
+        factory.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+        factory.setJpaPropertyMap(Map.of(
+                "hibernate.hbm2ddl.auto", "create-drop",
+                // Same table and column names as Spring Boot generates
+                "hibernate.physical_naming_strategy", "org.hibernate.boot.model.naming.CamelCaseToUnderscoresNamingStrategy",
+                "hibernate.implicit_naming_strategy", "org.springframework.boot.orm.jpa.hibernate.SpringImplicitNamingStrategy",
+                "hibernate.jdbc.batch_size", "500"
+        ));
+        return factory;
+    }
+
+    @Bean
+    public EntityManager entityManager(EntityManagerFactory entityManagerFactory) {
+        return SharedEntityManagerCreator.createSharedEntityManager(entityManagerFactory);
+    }
+
+    @Bean
+    public JpaTransactionManager transactionManager(EntityManagerFactory entityManagerFactory) {
+        return new JpaTransactionManager(entityManagerFactory);
+    }
+
+    @Bean
+    public JdbcTemplate jdbcTemplate(DataSource dataSource) {
+        return new JdbcTemplate(dataSource);
+    }
+}
@@ -0,0 +1,114 @@
+package in.ac.iitj.instiapp.benchmarks;
+
+import in.ac.iitj.instiapp.Repository.BusRepository;
+import in.ac.iitj.instiapp.Utils.PageCursor;
+import in.ac.iitj.instiapp.database.entities.Scheduling.Buses.*;
+import in.ac.iitj.instiapp.payload.Scheduling.Buses.BusScheduleDto;
+import in.ac.iitj.instiapp.payload.Scheduling.Buses.BusTimetableRowDto;
+import in.ac.iitj.instiapp.payload.common.CursorPage;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Time;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Bus timetable read paths against a seeded {@link BenchmarkDatabase}.
+ * <p>
+ * {@code locations} sets the data set size: there is one route and one run per 10 locations, every route stops at
+ * {@value #STOPS_PER_ROUTE} locations and every bus drives {@value #RUNS_PER_BUS} runs.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class BusRepositoryBenchmark {
+
+    private static final int STOPS_PER_ROUTE = 10;
+    private static final int RUNS_PER_BUS = 10;
+    private static final int PAGE_SIZE = 20;
+
+    @Param({"1000", "20000"})
+    public int locations;
+
+    private AnnotationConfigApplicationContext context;
+    private BusRepository busRepository;
+    private String busNumber;
+    private PageCursor firstPage;
+    private PageCursor lastPage;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new AnnotationConfigApplicationContext(BenchmarkDatabase.class);
+        busRepository = context.getBean(BusRepository.class);
+        seed(context.getBean(JdbcTemplate.class));
+
+        busNumber = "B" + (locations / 10 / RUNS_PER_BUS / 2);
+        firstPage = PageCursor.of(null, PAGE_SIZE);
+        long maxId = context.getBean(JdbcTemplate.class).queryForObject("select max(id) from bus_location", Long.class);
+        lastPage = PageCursor.of(PageCursor.encode(maxId - PAGE_SIZE), PAGE_SIZE);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    private void seed(JdbcTemplate jdbcTemplate) {
+        int routes = locations / 10;
+        int buses = Math.max(1, routes / RUNS_PER_BUS);
+
+        List<String> locationNames = IntStream.range(0, locations).mapToObj(i -> "LOCATION" + i).toList();
+        List<String> routeNames = IntStream.range(0, routes).mapToObj(i -> "ROUTE" + i).toList();
+        List<String> busNumbers = IntStream.range(0, buses).mapToObj(i -> "B" + i).toList();
+        busRepository.saveBusLocations(locationNames);
+        busRepository.saveBusRoutes(routeNames);
+        jdbcTemplate.batchUpdate("insert into bus_schedule (bus_number) values (?)", busNumbers, 500,
+                (ps, number) -> ps.setString(1, number));
+
+        Map<String, Long> locationIds = busRepository.getBusLocationIdsByNames(locationNames);
+        Map<String, Long> routeIds = busRepository.getBusRouteIdsByNames(routeNames);
+        Map<String, Long> busIds = busRepository.getBusScheduleIdsByBusNumbers(busNumbers);
+
+        List<RouteStop> stops = new ArrayList<>(routes * STOPS_PER_ROUTE);
+        List<BusRun> runs = new ArrayList<>(routes);
+        for (int route = 0; route < routes; route++) {
+            BusRoute busRoute = new BusRoute(routeIds.get(routeNames.get(route)));
+            for (int stop = 0; stop < STOPS_PER_ROUTE; stop++) {
+                BusLocation location = new BusLocation(locationIds.get(locationNames.get((route * 7 + stop) % locations)));
+                Time time = Time.valueOf(String.format("%02d:%02d:00", 6 + route % 12, stop * 5));
+                stops.add(new RouteStop(busRoute, location, stop + 1, time, time));
+            }
+            BusSchedule bus = new BusSchedule(busNumbers.get(route % buses));
+            bus.setId(busIds.get(bus.getBusNumber()));
+            runs.add(new BusRun(bus, busRoute, Time.valueOf(String.format("%02d:00:00", 6 + route % 12)),
+                    route % 2 == 0 ? ScheduleType.WEEKDAY : ScheduleType.WEEKEND));
+        }
+        busRepository.saveRouteStops(stops);
+        busRepository.saveBusRuns(runs);
+    }
+
+    @Benchmark
+    public BusScheduleDto getBusSchedule() {
+        return busRepository.getBusSchedule(busNumber);
+    }
+
+    @Benchmark
+    public List<BusTimetableRowDto> getTimetableRows() {
+        return busRepository.getTimetableRows();
+    }
+
+    @Benchmark
+    public CursorPage<String> getBusLocationsFirstPage() {
+        return busRepository.getListOfBusLocations(firstPage);
+    }
+
+    @Benchmark
+    public CursorPage<String> getBusLocationsLastPage() {
+        return busRepository.getListOfBusLocations(lastPage);
+    }
+}
@@ -0,0 +1,90 @@
+package in.ac.iitj.instiapp.benchmarks;
+
+import in.ac.iitj.instiapp.Repository.KeyRingRepository;
+import in.ac.iitj.instiapp.Repository.RevokedTokenRepository;
+import in.ac.iitj.instiapp.config.JwtProvider;
+import in.ac.iitj.instiapp.payload.Auth.KeyRingKeyDto;
+import in.ac.iitj.instiapp.services.JWTTokens.KeyRing;
+import in.ac.iitj.instiapp.services.JWTTokens.TokenRevocationList;
+import in.ac.iitj.instiapp.services.JWTTokens.VerifiedClaimsCache;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token checks done on every authenticated request, revocation is checked against an empty revocation list
+ * and tokens are signed with a key ring key, so the kid lookup is part of the cost
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class JwtProviderBenchmark {
+
+    private JwtProvider jwtProvider;
+    private String accessToken;
+    private String bearerToken;
+
+    @Setup
+    public void setUp() {
+        jwtProvider = new JwtProvider(new TokenRevocationList(new NoRevokedTokens()), new KeyRing(new InMemoryKeyRing(), ""), new VerifiedClaimsCache());
+        accessToken = jwtProvider.generateAccessToken(new UsernamePasswordAuthenticationToken(
+                "username", null, List.of(new SimpleGrantedAuthority("ROLE_USER"))));
+        bearerToken = "Bearer " + accessToken;
+    }
+
+    @Benchmark
+    public boolean validateAccessToken() {
+        return jwtProvider.validateAccessToken(accessToken);
+    }
+
+    @Benchmark
+    public String getUsernameFromToken() {
+        return jwtProvider.getUsernameFromToken(bearerToken);
+    }
+
+    static final class NoRevokedTokens implements RevokedTokenRepository {
+        @Override
+        public void revoke(String tokenId, Instant expiresAt) {
+        }
+
+        @Override
+        public boolean isRevoked(String tokenId) {
+            return false;
+        }
+
+        @Override
+        public List<String> getUnexpiredTokenIds() {
+            return List.of();
+        }
+
+        @Override
+        public int deleteExpired(Instant now, int batchSize) {
+            return 0;
+        }
+    }
+
+    /**
+     * Key ring table in memory, the key ring publishes its first keys into it
+     */
+    static final class InMemoryKeyRing implements KeyRingRepository {
+        private final List<KeyRingKeyDto> keys = new CopyOnWriteArrayList<>();
+
+        @Override
+        public List<KeyRingKeyDto> getUnexpiredKeys(Instant now) {
+            return keys.stream().filter(key -> key.getExpiresAt().isAfter(now)).toList();
+        }
+
+        @Override
+        public boolean insertKey(KeyRingKeyDto key) {
+            if (keys.stream().anyMatch(existing -> existing.getKid().equals(key.getKid()))) {
+                return false;
+            }
+            return keys.add(key);
+        }
+    }
+}
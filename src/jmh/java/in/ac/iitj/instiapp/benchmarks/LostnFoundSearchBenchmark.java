@@ -0,0 +1,79 @@
+package in.ac.iitj.instiapp.benchmarks;
+
+import in.ac.iitj.instiapp.Repository.LostnFoundRepository;
+import in.ac.iitj.instiapp.Utils.RankCursor;
+import in.ac.iitj.instiapp.database.entities.LostnFound.LostnFoundType;
+import in.ac.iitj.instiapp.payload.LostnFound.LostnFoundDto;
+import in.ac.iitj.instiapp.payload.LostnFound.LostnFoundSearchRowDto;
+import in.ac.iitj.instiapp.payload.common.CursorPage;
+import in.ac.iitj.instiapp.services.LostnFound.LostnFoundSearchIndex;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Search over generated lost and found items: a common word, a typo, a prefix and a three word query.
+ * {@code rebuild} measures building the whole index, done every few minutes and after location changes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class LostnFoundSearchBenchmark {
+
+    private static final String[] OBJECTS = {"wallet", "bottle", "umbrella", "earphones", "charger", "calculator", "keys",
+            "jacket", "spectacles", "watch", "notebook", "backpack", "phone", "laptop", "cycle", "helmet", "bracelet", "pendrive"};
+    private static final String[] COLORS = {"black", "blue", "red", "green", "white", "brown", "grey", "silver", "pink", "yellow"};
+    private static final String[] FILLER = {"with", "near", "left", "the", "in", "on", "at", "small", "large", "old", "new",
+            "broken", "sticker", "cover", "name", "written", "inside", "outside", "bench", "table", "room", "floor"};
+
+    @Param({"10000", "100000"})
+    public int items;
+
+    @Param({"wallet", "walet", "calcu", "blue water bottle"})
+    public String query;
+
+    private List<LostnFoundSearchRowDto> rows;
+    private LostnFoundSearchIndex searchIndex;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        rows = new ArrayList<>(items);
+        for (int i = 1; i <= items; i++) {
+            StringBuilder extraInfo = new StringBuilder()
+                    .append(COLORS[random.nextInt(COLORS.length)]).append(' ')
+                    .append(OBJECTS[random.nextInt(OBJECTS.length)]);
+            for (int word = random.nextInt(12); word > 0; word--) {
+                // Rare words so the vocabulary grows with the items like real descriptions
+                extraInfo.append(' ').append(random.nextInt(4) == 0 ? "w" + random.nextInt(items / 2 + 1) : FILLER[random.nextInt(FILLER.length)]);
+            }
+            rows.add(new LostnFoundSearchRowDto((long) i, "item" + i, null, "user" + random.nextInt(5000),
+                    "Location " + random.nextInt(60), random.nextBoolean() ? LostnFoundType.LOST : LostnFoundType.FOUND,
+                    extraInfo.toString(), random.nextInt(4) == 0, null, null));
+        }
+
+        LostnFoundRepository lostnFoundRepository = mock(LostnFoundRepository.class);
+        when(lostnFoundRepository.getSearchRows()).thenReturn(rows);
+        searchIndex = new LostnFoundSearchIndex(lostnFoundRepository);
+        searchIndex.rebuild();
+    }
+
+    @Benchmark
+    public CursorPage<LostnFoundDto> search() {
+        return searchIndex.search(query, Optional.empty(), Optional.of(false), RankCursor.of(null, 20));
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public void rebuild() {
+        searchIndex.rebuild();
+    }
+}
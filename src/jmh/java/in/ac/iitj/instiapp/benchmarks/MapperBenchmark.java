@@ -0,0 +1,110 @@
+package in.ac.iitj.instiapp.benchmarks;
+
+import in.ac.iitj.instiapp.database.entities.Scheduling.Buses.*;
+import in.ac.iitj.instiapp.database.entities.Scheduling.Calendar.Calendar;
+import in.ac.iitj.instiapp.database.entities.User.Organisation.Organisation;
+import in.ac.iitj.instiapp.database.entities.User.Organisation.OrganisationPermission;
+import in.ac.iitj.instiapp.database.entities.User.Organisation.OrganisationRole;
+import in.ac.iitj.instiapp.database.entities.User.User;
+import in.ac.iitj.instiapp.mappers.Scheduling.Buses.BusRouteDtoMapper;
+import in.ac.iitj.instiapp.mappers.Scheduling.Buses.BusRouteDtoMapperImpl;
+import in.ac.iitj.instiapp.mappers.Scheduling.Buses.BusRunDtoMapper;
+import in.ac.iitj.instiapp.mappers.Scheduling.Buses.BusRunDtoMapperImpl;
+import in.ac.iitj.instiapp.mappers.Scheduling.Buses.RouteStopDtoMapperImpl;
+import in.ac.iitj.instiapp.mappers.User.Organisation.OrganisationRoleDtoMapperImpl;
+import in.ac.iitj.instiapp.mappers.User.UserDetailedDtoMapper;
+import in.ac.iitj.instiapp.mappers.User.UserDetailedDtoMapperImpl;
+import in.ac.iitj.instiapp.payload.Scheduling.Buses.BusRouteDto;
+import in.ac.iitj.instiapp.payload.Scheduling.Buses.BusRunDto;
+import in.ac.iitj.instiapp.payload.User.UserDetailedDto;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+import java.sql.Time;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * MapStruct mappers on the bus timetable and user profile read paths.
+ * The generated mappers use field injection, so they are wired by a plain Spring context holding only the mappers.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class MapperBenchmark {
+
+    @Param({"5", "50"})
+    public int stops;
+
+    @Param({"1", "20"})
+    public int organisationRoles;
+
+    private AnnotationConfigApplicationContext context;
+    private BusRunDtoMapper busRunDtoMapper;
+    private BusRouteDtoMapper busRouteDtoMapper;
+    private UserDetailedDtoMapper userDetailedDtoMapper;
+
+    private BusRun busRun;
+    private BusRouteDto busRouteDto;
+    private User user;
+
+    @Setup
+    public void setUp() {
+        context = new AnnotationConfigApplicationContext(
+                BusRunDtoMapperImpl.class, BusRouteDtoMapperImpl.class, RouteStopDtoMapperImpl.class,
+                UserDetailedDtoMapperImpl.class, OrganisationRoleDtoMapperImpl.class);
+        busRunDtoMapper = context.getBean(BusRunDtoMapper.class);
+        busRouteDtoMapper = context.getBean(BusRouteDtoMapper.class);
+        userDetailedDtoMapper = context.getBean(UserDetailedDtoMapper.class);
+
+        BusRoute route = new BusRoute("ROUTE");
+        List<RouteStop> routeStops = new ArrayList<>(stops);
+        for (int stop = 0; stop < stops; stop++) {
+            BusLocation location = new BusLocation((long) stop);
+            location.setName("LOCATION" + stop);
+            Time time = Time.valueOf(String.format("%02d:%02d:00", 6 + stop / 60, stop % 60));
+            routeStops.add(new RouteStop(route, location, stop + 1, time, time));
+        }
+        route.setStops(routeStops);
+        busRun = new BusRun(new BusSchedule("B1"), route, Time.valueOf("06:00:00"), ScheduleType.WEEKDAY);
+        busRouteDto = busRouteDtoMapper.toDto(route);
+
+        user = new User("Name", "username", "user@iitj.ac.in", "9999999999", "https://avatar");
+        user.setCalendar(new Calendar("calendar-public-id"));
+        Set<OrganisationRole> roles = new HashSet<>();
+        for (int i = 0; i < organisationRoles; i++) {
+            Organisation organisation = new Organisation((long) i);
+            organisation.setUser(new User("organisation" + i));
+            roles.add(new OrganisationRole(organisation, "ROLE" + i, OrganisationPermission.READ));
+        }
+        user.setOrganisationRoleSet(roles);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public BusRunDto busRunToDto() {
+        return busRunDtoMapper.toDto(busRun);
+    }
+
+    @Benchmark
+    public BusRouteDto busRouteToDto() {
+        return busRouteDtoMapper.toDto(busRun.getRoute());
+    }
+
+    @Benchmark
+    public BusRoute busRouteToEntity() {
+        return busRouteDtoMapper.toEntity(busRouteDto);
+    }
+
+    @Benchmark
+    public UserDetailedDto userToDetailedDto() {
+        return userDetailedDtoMapper.toUserDetailedDto(user);
+    }
+}
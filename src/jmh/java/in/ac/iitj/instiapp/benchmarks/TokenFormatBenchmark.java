@@ -0,0 +1,88 @@
+package in.ac.iitj.instiapp.benchmarks;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jwt.JWTClaimsSet;
+import in.ac.iitj.instiapp.config.JwtProvider;
+import in.ac.iitj.instiapp.services.JWTTokens.JWEConstants;
+import in.ac.iitj.instiapp.services.JWTTokens.JWEService;
+import in.ac.iitj.instiapp.services.JWTTokens.KeyRing;
+import in.ac.iitj.instiapp.services.JWTTokens.TokenRevocationList;
+import in.ac.iitj.instiapp.services.JWTTokens.VerifiedClaimsCache;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.security.KeyPairGenerator;
+import java.security.NoSuchAlgorithmException;
+import java.text.ParseException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per request cost of the HS256 tokens of {@link JwtProvider} against the RSA-OAEP-256 / A256GCM encrypted tokens of {@link JWEService}.
+ * The {@code Cold} benchmarks evict the token after each use so every call verifies or decrypts it, the others hit the claims cache.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class TokenFormatBenchmark {
+
+    private JwtProvider jwtProvider;
+    private JWEService jweService;
+    private Authentication authentication;
+    private JWTClaimsSet claimsSet;
+    private String jwtToken;
+    private String jweToken;
+
+    @Setup
+    public void setUp() throws NoSuchAlgorithmException, ParseException, JOSEException {
+        VerifiedClaimsCache verifiedClaimsCache = new VerifiedClaimsCache();
+        jwtProvider = new JwtProvider(new TokenRevocationList(new JwtProviderBenchmark.NoRevokedTokens()), new KeyRing(new JwtProviderBenchmark.InMemoryKeyRing(), ""), verifiedClaimsCache);
+        KeyPairGenerator keyGen = KeyPairGenerator.getInstance("RSA");
+        keyGen.initialize(2048);
+        jweService = new JWEService(keyGen.generateKeyPair(), verifiedClaimsCache);
+
+        authentication = new UsernamePasswordAuthenticationToken("username", null, List.of(new SimpleGrantedAuthority("ROLE_USER")));
+        claimsSet = new JWTClaimsSet.Builder()
+                .claim(JWEConstants.KEYS_STATE, JWEConstants.STATES.STATE_APPROVED.name())
+                .claim(JWEConstants.KEYS_DEVICE_ID, "device")
+                .build();
+        jwtToken = jwtProvider.generateAccessToken(authentication);
+        jweToken = jweService.encryptData(claimsSet, "username", JWEConstants.ExpirationDuration.MEDIUM);
+    }
+
+    @Benchmark
+    public String jwtIssue() {
+        return jwtProvider.generateAccessToken(authentication);
+    }
+
+    @Benchmark
+    public String jweIssue() throws ParseException, JOSEException {
+        return jweService.encryptData(claimsSet, "username", JWEConstants.ExpirationDuration.MEDIUM);
+    }
+
+    @Benchmark
+    public Authentication jwtVerifyCold() {
+        Authentication result = jwtProvider.getAuthentication(jwtToken);
+        jwtProvider.evictToken(jwtToken);
+        return result;
+    }
+
+    @Benchmark
+    public JWTClaimsSet jweDecryptCold() throws ParseException, JOSEException {
+        JWTClaimsSet result = jweService.extractClaims(jweToken);
+        jweService.evictToken(jweToken);
+        return result;
+    }
+
+    @Benchmark
+    public Authentication jwtVerifyCached() {
+        return jwtProvider.getAuthentication(jwtToken);
+    }
+
+    @Benchmark
+    public JWTClaimsSet jweDecryptCached() throws ParseException, JOSEException {
+        return jweService.extractClaims(jweToken);
+    }
+}
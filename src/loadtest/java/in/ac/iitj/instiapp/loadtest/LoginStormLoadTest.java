@@ -0,0 +1,282 @@
+package in.ac.iitj.instiapp.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import in.ac.iitj.instiapp.InstiappApplication;
+import org.junit.jupiter.api.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.AutoConfigurationPackage;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.FilterType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Start-of-term login spike against the running application and a real database.
+ * <p>
+ * Every virtual user signs in through the full OAuth2 code flow against {@link StubGoogleServer}, signs in again with the
+ * token cookies of its first login, then calls an authenticated endpoint with its access token. Each phase reports
+ * throughput, p50/p99 latency and database statements per operation, background work triggered by the phase included.
+ * <p>
+ * Run with: {@code mvn -P loadtest test -Dloadtest.jdbcUrl=jdbc:postgresql://localhost:5432/instiapp -Dloadtest.jdbcUser=... -Dloadtest.jdbcPassword=...}
+ * and optionally {@code -Dloadtest.users=2000 -Dloadtest.concurrency=200}. Users created by the run are deleted afterwards.
+ */
+@SpringBootTest(classes = LoginStormLoadTest.LoadTestApplication.class, webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public class LoginStormLoadTest {
+
+    private static final int USERS = Integer.getInteger("loadtest.users", 2000);
+    private static final int CONCURRENCY = Integer.getInteger("loadtest.concurrency", 200);
+    private static final String EMAIL_PREFIX = "loadtest-" + Long.toString(System.currentTimeMillis(), 36) + "-";
+    private static final StubGoogleServer GOOGLE = startGoogle();
+
+    @LocalServerPort
+    int port;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    StatementCounter statementCounter;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final List<PhaseResult> results = new ArrayList<>();
+    private HttpClient client;
+    private List<VirtualUser> users;
+
+    /**
+     * The application without the fixtures in src/test/java, whose components would otherwise be scanned into the context
+     */
+    @SpringBootConfiguration
+    @EnableAutoConfiguration
+    @AutoConfigurationPackage(basePackageClasses = InstiappApplication.class)
+    @ComponentScan(basePackageClasses = InstiappApplication.class, excludeFilters = {
+            @ComponentScan.Filter(type = FilterType.ASSIGNABLE_TYPE, classes = InstiappApplication.class),
+            @ComponentScan.Filter(type = FilterType.REGEX, pattern = "in\\.ac\\.iitj\\.instiapp\\.(Tests|loadtest)\\..*")
+    })
+    static class LoadTestApplication {
+        @Bean
+        static StatementCounter statementCounter() {
+            return new StatementCounter();
+        }
+    }
+
+    @DynamicPropertySource
+    static void properties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> System.getProperty("loadtest.jdbcUrl", "jdbc:postgresql://localhost:5432/instiapp"));
+        registry.add("spring.datasource.username", () -> System.getProperty("loadtest.jdbcUser", "postgres"));
+        registry.add("spring.datasource.password", () -> System.getProperty("loadtest.jdbcPassword", "postgres"));
+        registry.add("spring.datasource.hikari.maximum-pool-size", () -> Integer.getInteger("loadtest.poolSize", 20));
+        registry.add("spring.jpa.hibernate.ddl-auto", () -> "update");
+        registry.add("aws.paramstore.enabled", () -> "false");
+        registry.add("spring.cloud.aws.parameterstore.enabled", () -> "false");
+
+        registry.add("spring.security.oauth2.client.registration.google.client-id", () -> "loadtest");
+        registry.add("spring.security.oauth2.client.registration.google.client-secret", () -> "loadtest");
+        registry.add("spring.security.oauth2.client.registration.google.redirect-uri", () -> "{baseUrl}/login/oauth2/code/{registrationId}");
+        // Without openid the login uses the userinfo endpoint, no ID token has to be signed by the stub
+        registry.add("spring.security.oauth2.client.registration.google.scope", () -> "email,profile");
+        registry.add("spring.security.oauth2.client.provider.google.authorization-uri", () -> GOOGLE.baseUrl() + "/authorize");
+        registry.add("spring.security.oauth2.client.provider.google.token-uri", () -> GOOGLE.baseUrl() + "/token");
+        registry.add("spring.security.oauth2.client.provider.google.user-info-uri", () -> GOOGLE.baseUrl() + "/userinfo");
+        registry.add("spring.security.oauth2.client.provider.google.user-name-attribute", () -> "email");
+    }
+
+    private static StubGoogleServer startGoogle() {
+        try {
+            return new StubGoogleServer(32);
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not start the Google stand-in", e);
+        }
+    }
+
+    @BeforeAll
+    void setUp() {
+        if (jdbcTemplate.queryForObject("select count(*) from user_type where name = 'Student'", Long.class) == 0) {
+            jdbcTemplate.update("insert into user_type (name) values ('Student')");
+        }
+        client = HttpClient.newBuilder()
+                .followRedirects(HttpClient.Redirect.NEVER)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+        users = new ArrayList<>(USERS);
+        for (int i = 0; i < USERS; i++) {
+            users.add(new VirtualUser(EMAIL_PREFIX + i + "@iitj.ac.in"));
+        }
+    }
+
+    @AfterAll
+    void tearDown() {
+        System.out.println("Login storm, " + USERS + " users, concurrency " + CONCURRENCY);
+        results.forEach(System.out::println);
+        GOOGLE.close();
+        int deleted = jdbcTemplate.update("delete from users where email like ?", EMAIL_PREFIX + "%");
+        System.out.println("Deleted " + deleted + " load test users");
+    }
+
+    @Test
+    @Order(1)
+    void firstLogin() throws Exception {
+        PhaseResult result = phase("first-login", this::login);
+        assertThat(result.failures).isZero();
+    }
+
+    @Test
+    @Order(2)
+    void repeatLogin() throws Exception {
+        // Token cookies of the first login are sent along, the handler reuses them
+        PhaseResult result = phase("repeat-login", this::login);
+        assertThat(result.failures).isZero();
+    }
+
+    @Test
+    @Order(3)
+    void authenticatedRequest() throws Exception {
+        PhaseResult result = phase("authenticated", user -> {
+            HttpResponse<String> response = client.send(HttpRequest.newBuilder(URI.create(appUrl("/api/users/getUserDetailed")))
+                    .header("Authorization", "Bearer " + user.accessToken)
+                    .GET().build(), HttpResponse.BodyHandlers.ofString());
+            expectStatus(response, 200);
+        });
+        assertThat(result.failures).isZero();
+    }
+
+    private void login(VirtualUser user) throws Exception {
+        HttpResponse<Void> start = user.send(client, appUrl("/oauth2/authorization/google"));
+        expectStatus(start, 302);
+
+        String authorize = location(start) + "&login_hint=" + URLEncoder.encode(user.email, StandardCharsets.UTF_8);
+        HttpResponse<Void> granted = client.send(HttpRequest.newBuilder(URI.create(authorize)).GET().build(), HttpResponse.BodyHandlers.discarding());
+        expectStatus(granted, 302);
+
+        HttpResponse<String> callback = user.sendForBody(client, location(granted));
+        expectStatus(callback, 200);
+        user.accessToken = objectMapper.readTree(callback.body()).get("accessToken").asText();
+    }
+
+    private PhaseResult phase(String name, Operation operation) throws InterruptedException {
+        long[] latencies = new long[users.size()];
+        AtomicInteger failures = new AtomicInteger();
+        List<Callable<Void>> tasks = new ArrayList<>(users.size());
+        for (int i = 0; i < users.size(); i++) {
+            int index = i;
+            tasks.add(() -> {
+                long start = System.nanoTime();
+                try {
+                    operation.run(users.get(index));
+                } catch (Exception e) {
+                    if (failures.getAndIncrement() < 5) {
+                        System.err.println(name + " failed for " + users.get(index).email + ": " + e);
+                    }
+                }
+                latencies[index] = System.nanoTime() - start;
+                return null;
+            });
+        }
+
+        long statementsBefore = statementCounter.count();
+        long start = System.nanoTime();
+        ExecutorService phaseExecutor = Executors.newFixedThreadPool(CONCURRENCY);
+        try {
+            phaseExecutor.invokeAll(tasks);
+        } finally {
+            phaseExecutor.shutdown();
+        }
+        long elapsed = System.nanoTime() - start;
+        // Let background work started by the phase, like the profile sync after a login, finish and be counted
+        Thread.sleep(1000);
+
+        PhaseResult result = new PhaseResult(name, latencies, failures.get(), elapsed, statementCounter.count() - statementsBefore);
+        results.add(result);
+        return result;
+    }
+
+    private String appUrl(String path) {
+        return "http://localhost:" + port + path;
+    }
+
+    private static String location(HttpResponse<?> response) {
+        return response.headers().firstValue("Location").orElseThrow(() -> new IllegalStateException("Redirect without Location"));
+    }
+
+    private static void expectStatus(HttpResponse<?> response, int status) {
+        if (response.statusCode() != status) {
+            throw new IllegalStateException(response.uri() + " returned " + response.statusCode() + " instead of " + status);
+        }
+    }
+
+    @FunctionalInterface
+    private interface Operation {
+        void run(VirtualUser user) throws Exception;
+    }
+
+    /**
+     * One browser, keeps the cookies the application sets. One shared HttpClient serves every user,
+     * so cookies are tracked here instead of in a CookieManager per client
+     */
+    private static final class VirtualUser {
+        final String email;
+        final Map<String, String> cookies = new ConcurrentHashMap<>();
+        volatile String accessToken;
+
+        VirtualUser(String email) {
+            this.email = email;
+        }
+
+        HttpResponse<Void> send(HttpClient client, String url) throws IOException, InterruptedException {
+            HttpResponse<Void> response = client.send(request(url), HttpResponse.BodyHandlers.discarding());
+            storeCookies(response);
+            return response;
+        }
+
+        HttpResponse<String> sendForBody(HttpClient client, String url) throws IOException, InterruptedException {
+            HttpResponse<String> response = client.send(request(url), HttpResponse.BodyHandlers.ofString());
+            storeCookies(response);
+            return response;
+        }
+
+        private HttpRequest request(String url) {
+            HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(url)).GET();
+            if (!cookies.isEmpty()) {
+                StringJoiner header = new StringJoiner("; ");
+                cookies.forEach((name, value) -> header.add(name + "=" + value));
+                builder.header("Cookie", header.toString());
+            }
+            return builder.build();
+        }
+
+        private void storeCookies(HttpResponse<?> response) {
+            for (String setCookie : response.headers().allValues("Set-Cookie")) {
+                String pair = setCookie.split(";", 2)[0];
+                int separator = pair.indexOf('=');
+                String name = pair.substring(0, separator).trim();
+                String value = pair.substring(separator + 1).trim();
+                if (value.isEmpty() || setCookie.contains("Max-Age=0")) {
+                    cookies.remove(name);
+                } else {
+                    cookies.put(name, value);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package in.ac.iitj.instiapp.loadtest;
+
+import java.util.Arrays;
+
+/**
+ * Latencies and statement count of one phase of a load test
+ */
+final class PhaseResult {
+
+    final String name;
+    final long[] latenciesNanos;
+    final int failures;
+    final long elapsedNanos;
+    final long statements;
+
+    PhaseResult(String name, long[] latenciesNanos, int failures, long elapsedNanos, long statements) {
+        this.name = name;
+        this.latenciesNanos = latenciesNanos.clone();
+        Arrays.sort(this.latenciesNanos);
+        this.failures = failures;
+        this.elapsedNanos = elapsedNanos;
+        this.statements = statements;
+    }
+
+    double throughputPerSecond() {
+        return latenciesNanos.length / (elapsedNanos / 1e9);
+    }
+
+    double percentileMillis(double percentile) {
+        if (latenciesNanos.length == 0) {
+            return 0;
+        }
+        int rank = (int) Math.ceil(percentile / 100 * latenciesNanos.length);
+        return latenciesNanos[Math.max(rank, 1) - 1] / 1e6;
+    }
+
+    double statementsPerOperation() {
+        return latenciesNanos.length == 0 ? 0 : (double) statements / latenciesNanos.length;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%-16s ops=%6d failures=%5d throughput=%9.1f/s p50=%8.2fms p99=%8.2fms statements/op=%6.2f",
+                name, latenciesNanos.length, failures, throughputPerSecond(), percentileMillis(50), percentileMillis(99), statementsPerOperation());
+    }
+}
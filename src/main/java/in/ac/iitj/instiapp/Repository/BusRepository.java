@@ -1,30 +1,76 @@
 package in.ac.iitj.instiapp.Repository;
 
+import in.ac.iitj.instiapp.payload.common.CursorPage;
+import in.ac.iitj.instiapp.Utils.PageCursor;
 import in.ac.iitj.instiapp.database.entities.Scheduling.Buses.*;
+import in.ac.iitj.instiapp.payload.Scheduling.Buses.BusDepartureDto;
 import in.ac.iitj.instiapp.payload.Scheduling.Buses.BusOverrideDto;
 import in.ac.iitj.instiapp.payload.Scheduling.Buses.BusRunDto;
 import in.ac.iitj.instiapp.payload.Scheduling.Buses.BusScheduleDto;
-import org.springframework.data.domain.Pageable;
+import in.ac.iitj.instiapp.payload.Scheduling.Buses.BusTimetableRowDto;
+import java.time.LocalTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 public interface BusRepository {
     // Bus Location
+    // Writes are single statements, the outcome is read from the affected row count instead of a prior existence check
+
+    /**
+     * @throws org.springframework.dao.DataIntegrityViolationException if the location already exists
+     */
     void saveBusLocation(String name);
-    List<String> getListOfBusLocations(Pageable pageable);
+    CursorPage<String> getListOfBusLocations(PageCursor cursor);
     Long isBusLocationExists(String name);
+
+    /**
+     * @throws org.springframework.dao.EmptyResultDataAccessException if there is no location named {@code oldName}
+     * @throws org.springframework.dao.DataIntegrityViolationException if a location named {@code newName} already exists
+     */
     void updateBusLocation(String oldName, String newName);
+
+    /**
+     * @throws org.springframework.dao.EmptyResultDataAccessException if the location does not exist
+     * @throws org.springframework.dao.DataIntegrityViolationException if a route still stops at the location
+     */
     void deleteBusLocation(String name);
     BusLocation getLocationById(Long id);
 
+    /**
+     * @return names of the routes with a stop at the location, empty if none stops there or it does not exist
+     */
+    List<String> getRouteNamesByLocationName(String name);
+
     // Bus Schedule
+
+    /**
+     * @throws org.springframework.dao.DataIntegrityViolationException if the bus number already exists
+     */
     void saveBusSchedule(String busNumber);
     BusScheduleDto getBusSchedule(String busNumber);
-    List<String> getBusNumbers(Pageable pageable);
+    CursorPage<String> getBusNumbers(PageCursor cursor);
     Long existsBusSchedule(String busNumber);
+
+    /**
+     * @throws org.springframework.dao.EmptyResultDataAccessException if {@code oldBusNumber} does not exist
+     * @throws org.springframework.dao.DataIntegrityViolationException if {@code newBusNumber} already exists
+     */
     void updateBusSchedule(String oldBusNumber, String newBusNumber);
+
+    /**
+     * Deletes the bus together with its runs and overrides in one statement
+     * @throws org.springframework.dao.EmptyResultDataAccessException if the bus number does not exist
+     * @throws org.springframework.dao.DataIntegrityViolationException if a run or override of the bus is added concurrently
+     */
     void deleteBusSchedule(String busNumber);
     BusSchedule getBusScheduleByBusNumber(String busNumber);
 
+    /**
+     * @return bus number of the schedule, null if it does not exist
+     */
+    String getBusNumberByScheduleId(Long scheduleId);
+
     // BusRun with Route
     void saveBusRunWithRoute(BusRun busRun);
     List<BusRun> getBusRunsForRoute(String busNumber, Long routeId);
@@ -41,10 +87,120 @@ public interface BusRepository {
     List<RouteStop> getRouteStopsByRouteId(Long routeId);
     BusRoute findBusRouteByRouteName(String routeName);
 
-    // BusOverride (if still needed)
+    // Bulk import
+    /**
+     * @param names location names, resolved with a single {@code IN} query
+     * @return id of every location that exists, keyed by name. Missing names are absent from the map
+     */
+    Map<String, Long> getBusLocationIdsByNames(Collection<String> names);
+
+    /**
+     * @param busNumbers resolved with a single {@code IN} query
+     * @return id of every bus schedule that exists, keyed by bus number
+     */
+    Map<String, Long> getBusScheduleIdsByBusNumbers(Collection<String> busNumbers);
+
+    /**
+     * @param routeNames resolved with a single {@code IN} query
+     * @return id of every route that exists, keyed by route name
+     * @throws org.springframework.dao.IncorrectResultSizeDataAccessException if two routes share one of the names
+     */
+    Map<String, Long> getBusRouteIdsByNames(Collection<String> routeNames);
+
+    /**
+     * Inserts the locations with one JDBC batch
+     */
+    void saveBusLocations(Collection<String> names);
+
+    /**
+     * Inserts the routes (without stops) with one JDBC batch
+     */
+    void saveBusRoutes(Collection<String> routeNames);
+
+    /**
+     * Inserts the stops with one JDBC batch.
+     * @Assumtions only the ids of {@link RouteStop#getRoute()} and {@link RouteStop#getLocation()} are read, both must exist
+     */
+    void saveRouteStops(List<RouteStop> stops);
+
+    /**
+     * Inserts the runs with one JDBC batch.
+     * @Assumtions only the ids of {@link BusRun#getBusSchedule()} and {@link BusRun#getRoute()} are read, both must exist
+     */
+    void saveBusRuns(List<BusRun> busRuns);
+
+    // Timetable
+    /**
+     * @return every (run, stop) pair of the timetable in a single query, ordered by run id and stop order. A run whose route
+     * has no stops is one row with null stop fields
+     */
+    List<BusTimetableRowDto> getTimetableRows();
+
+    // Departures board
+    /**
+     * Rewrites the bus_departure rows of the given buses and routes from the timetable tables, in the current transaction.
+     * Both collections empty rewrites every row.
+     */
+    void refreshBusDepartures(Collection<String> busNumbers, Collection<String> routeNames);
+
+    /**
+     * Renames the location in its bus_departure rows, in the current transaction
+     */
+    void renameBusDepartureLocation(String oldName, String newName);
+
+    /**
+     * Index-only range scan on bus_departure
+     * @param from inclusive
+     * @param to inclusive
+     * @return departures from the location sorted by time
+     */
+    List<BusDepartureDto> getBusDepartures(String locationName, ScheduleType scheduleType, LocalTime from, LocalTime to, int limit);
+
+    // Change feed
+    /**
+     * @return current version of the bus timetable, 0 if nothing was ever written
+     */
+    long getBusVersion();
+
+    /**
+     * Increments the bus timetable version and logs which bus numbers and route names the write touched.
+     * Must run inside the writing transaction, the version row stays locked until it ends.
+     * @param busNumbers bus numbers whose runs changed
+     * @param routeNames route names whose stops changed
+     * @return the new version. If both collections are empty one row without keys is logged, meaning everything may have changed
+     */
+    long saveBusChange(String operation, Collection<String> busNumbers, Collection<String> routeNames);
+
+    /**
+     * @return change log rows with a version greater than {@code version}, served from the index on bus_change.version
+     */
+    List<BusChange> getBusChangesSince(long version);
+
+    List<BusRun> getBusRunsByBusNumbers(Collection<String> busNumbers);
+
+    List<BusRoute> getBusRoutesByNames(Collection<String> routeNames);
+
+    // BusOverride
+    /**
+     * @throws org.springframework.dao.EmptyResultDataAccessException if the bus number or the route name of the override does not exist
+     * @throws org.springframework.dao.DataIntegrityViolationException if the public id is taken
+     */
     void saveBusOverride(String busNumber, BusOverride busOverride);
     boolean existsBusOverrideByPublicId(String publicId);
+
+    /**
+     * @return overrides overlapping the month, ordered by start date. Single range scan on bus_override.override_date
+     */
     List<BusOverrideDto> getBusOverrideForYearAndMonth(int year, int month);
+
+    /**
+     * @return every override with its bus and route, used to build the in-memory override index
+     */
+    List<BusOverride> getAllBusOverrides();
+
+    /**
+     * @throws org.springframework.dao.EmptyResultDataAccessException if no override has the public id
+     */
     void updateBusOverride(String publicId, BusOverride newBusOverride);
     void deleteBusOverride(List<String> busOverrideIds);
 }
\ No newline at end of file
@@ -3,7 +3,8 @@ package in.ac.iitj.instiapp.Repository;
 import in.ac.iitj.instiapp.database.entities.Scheduling.Calendar.Events;
 import in.ac.iitj.instiapp.database.entities.User.User;
 import in.ac.iitj.instiapp.payload.Scheduling.Calendar.EventsDto;
-import org.springframework.data.domain.Pageable;
+import in.ac.iitj.instiapp.payload.common.CursorPage;
+import in.ac.iitj.instiapp.Utils.PageCursor;
 
 import java.sql.Time;
 import java.util.Date;
@@ -17,7 +18,7 @@ public interface EventsRepository {
     void updateEvent(Events event);
     void deleteEvent(Long id);
     boolean existsEventByTitle(String title);
-    List<EventsDto> getPaginatedEventsDto(Pageable pageable);
+    CursorPage<EventsDto> getPaginatedEventsDto(PageCursor cursor);
     List<EventsDto> getRecurringEventsDto();
     void deleteEventsByUser(User user);
     Long countEventsByUser(User user);
@@ -6,8 +6,9 @@ package in.ac.iitj.instiapp.Repository;
 //update grievance
 // username title object
 import in.ac.iitj.instiapp.database.entities.Grievance;
+import in.ac.iitj.instiapp.Utils.PageCursor;
 import in.ac.iitj.instiapp.payload.GrievanceDto;
-import org.springframework.data.domain.Pageable;
+import in.ac.iitj.instiapp.payload.common.CursorPage;
 
 
 import java.util.List;
@@ -18,7 +19,7 @@ public interface GrievanceRepository {
 
     public Long existGrievance(String publicId);
     public String save(Grievance grievance);
-    public List<GrievanceDto> getGrievancesByFilter(Optional<String> title, Optional<String> description,Optional<String> organisationName, Optional<Boolean> resolved,Pageable pageable);
+    public CursorPage<GrievanceDto> getGrievancesByFilter(Optional<String> title, Optional<String> description,Optional<String> organisationName, Optional<Boolean> resolved,PageCursor cursor);
     public void deleteGrievance(String publicId);
     public void updateGrievance(String publicId, Grievance grievance);
     public GrievanceDto getGrievance(String publicId);
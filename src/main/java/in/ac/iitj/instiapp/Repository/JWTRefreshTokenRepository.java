@@ -2,14 +2,14 @@ package in.ac.iitj.instiapp.Repository;
 
 import in.ac.iitj.instiapp.database.entities.Auth.JWTRefreshToken;
 
+import java.time.Instant;
 import java.util.Map;
 
 public interface JWTRefreshTokenRepository {
 
     /**
-     * If refresh token already exists for the DeviceId and Username then it updates the info
+     * Inserts the refresh token, or replaces the token and expiry of the existing row of the same user and DeviceId, in one statement
      * @param jwtRefreshToken userId shouldn't be null
-     *                        userName shouldn't be null
      */
     void save(JWTRefreshToken jwtRefreshToken);
 
@@ -27,4 +27,10 @@ public interface JWTRefreshTokenRepository {
     void deleteByUserNameAndDeviceId(String userName, String deviceId);
 
     void deleteByUserName(String userName);
+
+    /**
+     * Deletes at most {@code batchSize} refresh tokens that expired before {@code now}
+     * @return number of rows deleted, less than {@code batchSize} once no expired token is left
+     */
+    int deleteExpired(Instant now, int batchSize);
 }
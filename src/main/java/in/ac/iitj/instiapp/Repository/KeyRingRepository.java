@@ -0,0 +1,20 @@
+package in.ac.iitj.instiapp.Repository;
+
+import in.ac.iitj.instiapp.payload.Auth.KeyRingKeyDto;
+
+import java.time.Instant;
+import java.util.List;
+
+public interface KeyRingRepository {
+
+    /**
+     * @return keys of every purpose that have not expired at {@code now}, including keys whose {@code notBefore} is still ahead
+     */
+    List<KeyRingKeyDto> getUnexpiredKeys(Instant now);
+
+    /**
+     * Inserts the key unless a key with the same kid exists, instances publishing the same kid at once insert it only once
+     * @return true if the key was inserted
+     */
+    boolean insertKey(KeyRingKeyDto key);
+}
@@ -1,11 +1,17 @@
 package in.ac.iitj.instiapp.Repository;
 
+import in.ac.iitj.instiapp.payload.common.CursorPage;
+import in.ac.iitj.instiapp.Utils.PageCursor;
 import in.ac.iitj.instiapp.database.entities.LostnFound.Locations;
 import in.ac.iitj.instiapp.database.entities.LostnFound.LostnFound;
 import in.ac.iitj.instiapp.database.entities.LostnFound.LostnFoundType;
+import in.ac.iitj.instiapp.payload.LostnFound.LostnFoundArchiveBatchDto;
 import in.ac.iitj.instiapp.payload.LostnFound.LostnFoundDto;
+import in.ac.iitj.instiapp.payload.LostnFound.LostnFoundSearchRowDto;
 import in.ac.iitj.instiapp.payload.User.Student.StudentBaseDto;
 import org.springframework.data.domain.Pageable;
+
+import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
 import java.util.Optional;
@@ -65,11 +71,12 @@ public interface LostnFoundRepository {
     * @param owner cannot be null must be Optional.empty()
     * @param finder cannot be null must be Optional.empty()
     * @param landmark cannot be null must be Optional.empty()
-    * @param pageable
-    * @return List of all the lost and found dto based on the given filter
+    * @param includeArchived also return items moved to lostnfound_archive, they have no media
+    * @param cursor keyset position, items are ordered by id
+    * @return Page of the lost and found dto based on the given filter
     */
-   List<LostnFoundDto> getLostnFoundByFilter(
-           LostnFoundType type, Optional<Boolean> status ,Optional<String> owner , Optional<String> finder, Optional<String> landmark ,  Pageable pageable
+   CursorPage<LostnFoundDto> getLostnFoundByFilter(
+           LostnFoundType type, Optional<Boolean> status ,Optional<String> owner , Optional<String> finder, Optional<String> landmark , boolean includeArchived, PageCursor cursor
    );
 
    /**
@@ -79,12 +86,62 @@ public interface LostnFoundRepository {
     */
    void updateLostnFound(LostnFound lostnFound , String publicId);
 
+   /**
+    * Inserts the item in one statement, resolving finder and owner by username, landmark by location name and media by public id
+    * @param lostnFoundDto
+    * @throws org.springframework.dao.DataIntegrityViolationException naming every given finder, owner, landmark or media that doesn't exist,
+    * or when an item with the public id already exists
+    */
+   void saveLostnFound(LostnFoundDto lostnFoundDto);
+
+   /**
+    * Updates the item in one statement, resolving references like {@link #saveLostnFound(LostnFoundDto)}.
+    * Finder and owner are always replaced, landmark, extra info, status and media only when given
+    * @param lostnFoundDto identifies the item by its public id
+    * @throws org.springframework.dao.EmptyResultDataAccessException when no item has the public id
+    * @throws org.springframework.dao.DataIntegrityViolationException naming every given finder, owner, landmark or media that doesn't exist
+    */
+   void updateLostnFound(LostnFoundDto lostnFoundDto);
+
+   /**
+    * @return every lost and found item in id order, used to build the search index and the match index
+    */
+   List<LostnFoundSearchRowDto> getSearchRows();
+
+   /**
+    * @param publicId
+    * @return the item or Optional.empty() if no item has the public id
+    */
+   Optional<LostnFoundSearchRowDto> getSearchRow(String publicId);
+
+   /**
+    * @param landmarkName
+    * @return every item at the location, empty if there is none
+    */
+   List<LostnFoundSearchRowDto> getSearchRowsByLandmark(String landmarkName);
+
    /**
     * @param publicId
     * @return String publicId of media or return Optional.empty()
     */
    Optional<String> deleteLostnFound(String publicId);
 
+   /**
+    * Moves up to batchSize resolved items, and items created before createdBefore, to lostnfound_archive in one statement.
+    * Rows locked by another transaction are skipped
+    * @param createdBefore items created before it are archived even if not resolved
+    * @param archivedAt recorded on the archived rows
+    * @return number of archived items and the ids of their media
+    */
+   LostnFoundArchiveBatchDto archiveLostnFound(Instant createdBefore, Instant archivedAt, int batchSize);
+
+   /**
+    * Deletes media rows no lost and found item, grievance, announcement or organisation uses anymore
+    * @param mediaIds media of archived items
+    * @return public ids of the deleted media
+    */
+   List<String> deleteUnusedMedia(List<Long> mediaIds);
+
    boolean isOwner(String userName, String publicId);
    boolean isFinder(String userName, String publicId);
 
@@ -2,14 +2,14 @@ package in.ac.iitj.instiapp.Repository;
 
 import in.ac.iitj.instiapp.database.entities.Auth.OAuth2Tokens;
 
+import java.time.Instant;
 import java.util.Optional;
 
 public interface OAuth2TokenRepository {
 
     /**
-     * If it exists it updates acessToken and refreshToken and expirationTime
+     * Inserts the tokens, or replaces accessToken and refreshToken of the existing row of the same user and deviceId, in one statement
      * @param oAuth2Token userId shouldn't be null
-     *                    userName shouldn't be null
      */
     void save(OAuth2Tokens oAuth2Token);
 
@@ -27,4 +27,10 @@ public interface OAuth2TokenRepository {
 
     void deleteByDeviceIdAndUserName(String deviceId, String userName);
 
+    /**
+     * Deletes at most {@code batchSize} rows that were last saved or updated before {@code cutoff}
+     * @return number of rows deleted, less than {@code batchSize} once no such row is left
+     */
+    int deleteUnusedSince(Instant cutoff, int batchSize);
+
 }
@@ -0,0 +1,30 @@
+package in.ac.iitj.instiapp.Repository;
+
+import java.time.Instant;
+import java.util.List;
+
+public interface RevokedTokenRepository {
+
+    /**
+     * Revokes a token, revoking an already revoked token does nothing
+     * @param tokenId jti of the token
+     * @param expiresAt exp of the token, the row is only needed until then
+     */
+    void revoke(String tokenId, Instant expiresAt);
+
+    /**
+     * @return true if the token is revoked and not yet expired
+     */
+    boolean isRevoked(String tokenId);
+
+    /**
+     * @return jti of every revoked token that has not expired yet
+     */
+    List<String> getUnexpiredTokenIds();
+
+    /**
+     * Deletes at most {@code batchSize} revocations of tokens that expired before {@code now}
+     * @return number of rows deleted
+     */
+    int deleteExpired(Instant now, int batchSize);
+}
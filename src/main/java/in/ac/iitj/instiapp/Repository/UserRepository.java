@@ -1,7 +1,11 @@
 package in.ac.iitj.instiapp.Repository;
 
+import in.ac.iitj.instiapp.payload.common.CursorPage;
+import in.ac.iitj.instiapp.Utils.PageCursor;
 import in.ac.iitj.instiapp.database.entities.User.User;
+import in.ac.iitj.instiapp.database.entities.User.Organisation.OrganisationPermission;
 import in.ac.iitj.instiapp.database.entities.User.Usertype;
+import in.ac.iitj.instiapp.payload.Auth.OAuth2LoginUserDto;
 import in.ac.iitj.instiapp.payload.User.Organisation.OrganisationRoleDto;
 import in.ac.iitj.instiapp.payload.User.UserBaseDto;
 import in.ac.iitj.instiapp.payload.User.UserDetailedDto;
@@ -12,6 +16,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 
@@ -107,10 +112,10 @@ public interface UserRepository {
     /**
      * Should be used with caution as it may introduce long database calls
      * @param usertype
-     * @param pageable
-     * @return List of UsersBaseDto with a specific call
+     * @param cursor keyset position, users are ordered by id
+     * @return Page of UsersBaseDto with a specific call
      */
-    List<UserBaseDto> getListUserLimitedByUsertype(String usertype,Pageable pageable);
+    CursorPage<UserBaseDto> getListUserLimitedByUsertype(String usertype,PageCursor cursor);
 
 
     /**
@@ -132,6 +137,15 @@ public interface UserRepository {
     Set<OrganisationRoleDto> getOrganisationRoleDTOsByUsername(String username, Pageable pageable);
 
 
+    /**
+     * Every organisation the user has a role in, in one query
+     * @param username
+     * @return organisation username -> permission of the user's role in it, the strongest one if it has several.
+     *         Empty map if the user has no role or doesn't exist
+     */
+    Map<String, OrganisationPermission> getOrganisationPermissions(String username);
+
+
     /**
      * @return -1 if it doesn't exists
      */
@@ -144,6 +158,16 @@ public interface UserRepository {
      */
     Long emailExists(String email);
 
+    /**
+     * Resolves the user of an OAuth2 login by email and creates it on the first login, in one statement.
+     * An existing user is returned unchanged, the other parameters are only used to create the user
+     * @param userName username of the new user, should not depend on anything but the email so concurrent first logins agree on it
+     * @return username, user type, name and avatar of the user, created is true if this call inserted it
+     * @throws org.springframework.dao.EmptyResultDataAccessException if the user doesn't exist and userTypeName doesn't exist
+     * @throws org.springframework.dao.DataIntegrityViolationException if userName is already taken by another email
+     */
+    OAuth2LoginUserDto getOrCreateOauth2User(String email, String name, String userName, String password, String userTypeName);
+
     /**
      * @apiNote The api using this functions if refreshes on userInteraction should have strict rateLimits To prevent exceeding quotas
      * for oauth2
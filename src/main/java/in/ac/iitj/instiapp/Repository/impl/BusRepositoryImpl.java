@@ -1,23 +1,38 @@
 package in.ac.iitj.instiapp.Repository.impl;
 
+import in.ac.iitj.instiapp.payload.common.CursorPage;
+import in.ac.iitj.instiapp.Utils.PageCursor;
 import in.ac.iitj.instiapp.Repository.BusRepository;
 import in.ac.iitj.instiapp.database.entities.Scheduling.Buses.*;
+import in.ac.iitj.instiapp.mappers.Scheduling.Buses.BusOverrideDtoMapper;
 import in.ac.iitj.instiapp.mappers.Scheduling.Buses.BusRunDtoMapper;
+import in.ac.iitj.instiapp.payload.Scheduling.Buses.BusDepartureDto;
 import in.ac.iitj.instiapp.payload.Scheduling.Buses.BusOverrideDto;
 import in.ac.iitj.instiapp.payload.Scheduling.Buses.BusRunDto;
 import in.ac.iitj.instiapp.payload.Scheduling.Buses.BusScheduleDto;
+import in.ac.iitj.instiapp.payload.Scheduling.Buses.BusTimetableRowDto;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.NoResultException;
 import jakarta.persistence.Query;
 import jakarta.transaction.Transactional;
-import org.springframework.dao.DataAccessException;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.dao.EmptyResultDataAccessException;
-import org.springframework.data.domain.Pageable;
+import org.springframework.dao.IncorrectResultSizeDataAccessException;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Repository;
 
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
@@ -26,14 +41,19 @@ import java.util.stream.Collectors;
 public class BusRepositoryImpl implements BusRepository {
 
     private static final org.slf4j.Logger log = org.slf4j.LoggerFactory.getLogger(BusRepositoryImpl.class);
+    private static final String FETCH_GRAPH = "jakarta.persistence.fetchgraph";
+    private static final int BATCH_SIZE = 500;
     private final JdbcTemplate jdbcTemplate;
     private final EntityManager entityManager;
     private final BusRunDtoMapper busRunDtoMapper;
+    private final BusOverrideDtoMapper busOverrideDtoMapper;
 
-    public BusRepositoryImpl(JdbcTemplate jdbcTemplate, EntityManager entityManager, BusRunDtoMapper busRunDtoMapper) {
+    public BusRepositoryImpl(JdbcTemplate jdbcTemplate, EntityManager entityManager, BusRunDtoMapper busRunDtoMapper,
+                             BusOverrideDtoMapper busOverrideDtoMapper) {
         this.jdbcTemplate = jdbcTemplate;
         this.entityManager = entityManager;
         this.busRunDtoMapper = busRunDtoMapper;
+        this.busOverrideDtoMapper = busOverrideDtoMapper;
     }
 
     // ------------------- Bus Location Operations -------------------
@@ -41,47 +61,43 @@ public class BusRepositoryImpl implements BusRepository {
     @Override
     @Transactional
     public void saveBusLocation(String name) {
-        if (isBusLocationExists(name) != -1L) {
+        int inserted = jdbcTemplate.update("insert into bus_location (name) values (?) on conflict (name) do nothing", name);
+        if (inserted == 0) {
             throw new DataIntegrityViolationException("Bus location already exists");
         }
-        jdbcTemplate.update("insert into bus_location (name) values(?)", name);
-        entityManager.flush();
     }
 
     @Override
-    public List<String> getListOfBusLocations(Pageable pageable) {
-        Query query = entityManager.createQuery("select name from BusLocation t", String.class);
-        query.setFirstResult((int) pageable.getOffset());
-        query.setMaxResults(pageable.getPageSize());
-        return query.getResultList();
+    public CursorPage<String> getListOfBusLocations(PageCursor cursor) {
+        return cursor.toPage(entityManager.createQuery("select t.id, t.name from BusLocation t where t.id > :after order by t.id", Object[].class)
+                .setParameter("after", cursor.afterId())
+                .setMaxResults(cursor.limit())
+                .getResultList());
     }
 
     @Override
     public Long isBusLocationExists(String name) {
-        try {
-            return jdbcTemplate.queryForObject("SELECT id FROM bus_location WHERE name = ?", Long.class, name);
-        } catch (DataAccessException ignored) {
-            return -1L;
-        }
+        return firstIdOrMinusOne(jdbcTemplate.queryForList("SELECT id FROM bus_location WHERE name = ?", Long.class, name));
     }
 
     @Override
     public void updateBusLocation(String oldName, String newName) {
-        if (isBusLocationExists(oldName).equals(-1L)) {
-            throw new EmptyResultDataAccessException("Bus location does not exist with name " + oldName, 1);
+        int updated;
+        try {
+            updated = jdbcTemplate.update("update bus_location set name=? where name=?", newName, oldName);
+        } catch (DuplicateKeyException e) {
+            throw new DataIntegrityViolationException("Bus location already exists with name " + newName, e);
         }
-        if (isBusLocationExists(newName) != -1L) {
-            throw new DataIntegrityViolationException("Bus location already exists with name " + newName);
+        if (updated == 0) {
+            throw new EmptyResultDataAccessException("Bus location does not exist with name " + oldName, 1);
         }
-        jdbcTemplate.update("update bus_location set name=? where name=?", newName, oldName);
     }
 
     @Override
     public void deleteBusLocation(String name) {
-        if (isBusLocationExists(name).equals(-1L)) {
+        if (jdbcTemplate.update("delete from bus_location where name=?", name) == 0) {
             throw new EmptyResultDataAccessException("Bus location does not exist", 1);
         }
-        jdbcTemplate.update("delete from bus_location where name=?", name);
     }
 
     @Override
@@ -94,27 +110,45 @@ public class BusRepositoryImpl implements BusRepository {
                 .getSingleResult();
     }
 
+    @Override
+    public List<String> getRouteNamesByLocationName(String name) {
+        return jdbcTemplate.queryForList("""
+                SELECT DISTINCT r.route_name
+                FROM route_stop rs
+                JOIN bus_route r ON r.id = rs.route_id
+                JOIN bus_location bl ON bl.id = rs.location_id
+                WHERE bl.name = ?
+                ORDER BY r.route_name
+                """, String.class, name);
+    }
+
     // ------------------- BusSchedule Operations -------------------
     @Override
     @Transactional
     public void saveBusSchedule(String busNumber) {
-        if (existsBusSchedule(busNumber) != -1L) {
+        int inserted = jdbcTemplate.update("insert into bus_schedule (bus_number) values (?) on conflict (bus_number) do nothing", busNumber);
+        if (inserted == 0) {
             throw new DataIntegrityViolationException("Bus Number already exists with name " + busNumber);
         }
-        entityManager.persist(new BusSchedule(busNumber));
     }
 
     @Override
     public BusScheduleDto getBusSchedule(String busNumber) {
-        if (existsBusSchedule(busNumber) != -1L) {
-            List<BusRun> busRuns = getBusRunsByBusNumber(busNumber);
-            Set<BusRunDto> busRunDtos = busRuns.stream()
-                    .map(busRunDtoMapper::toDto)
-                    .collect(Collectors.toSet());
-            // Return an empty schedule or fetch runs by route if needed
-            return new BusScheduleDto(busNumber, busRunDtos);
+        // One select for the schedule, its runs, routes, stops and locations. See BusSchedule.GRAPH_RUNS_WITH_STOPS
+        BusSchedule busSchedule;
+        try {
+            busSchedule = entityManager.createQuery(
+                            "SELECT bs FROM BusSchedule bs WHERE bs.busNumber = :busNumber", BusSchedule.class)
+                    .setParameter("busNumber", busNumber)
+                    .setHint(FETCH_GRAPH, entityManager.getEntityGraph(BusSchedule.GRAPH_RUNS_WITH_STOPS))
+                    .getSingleResult();
+        } catch (NoResultException e) {
+            throw new EmptyResultDataAccessException("Bus Number" + busNumber + "Does not exists", 1);
         }
-        throw new EmptyResultDataAccessException("Bus Number" + busNumber + "Does not exists", 1);
+        Set<BusRunDto> busRunDtos = busSchedule.getRuns().stream()
+                .map(busRunDtoMapper::toDto)
+                .collect(Collectors.toSet());
+        return new BusScheduleDto(busNumber, busRunDtos);
     }
 
     @Override
@@ -130,46 +164,53 @@ public class BusRepositoryImpl implements BusRepository {
     }
 
     @Override
-    public List<String> getBusNumbers(Pageable pageable) {
-        return entityManager.createQuery("select bs.busNumber from BusSchedule bs", String.class)
-                .setFirstResult((int) pageable.getOffset())
-                .setMaxResults(pageable.getPageSize())
-                .getResultList();
+    public CursorPage<String> getBusNumbers(PageCursor cursor) {
+        return cursor.toPage(entityManager.createQuery("select bs.id, bs.busNumber from BusSchedule bs where bs.id > :after order by bs.id", Object[].class)
+                .setParameter("after", cursor.afterId())
+                .setMaxResults(cursor.limit())
+                .getResultList());
     }
 
     @Override
     public Long existsBusSchedule(String busNumber) {
-        try {
-            return jdbcTemplate.queryForObject("select id from bus_schedule where bus_number = ?", Long.class, busNumber);
-        } catch (DataAccessException e) {
-            log.error(e.getMessage());
-            return -1L;
-        }
+        return firstIdOrMinusOne(jdbcTemplate.queryForList("select id from bus_schedule where bus_number = ?", Long.class, busNumber));
     }
 
     @Override
     public void updateBusSchedule(String oldBusNumber, String newBusNumber) {
-        if (!existsBusSchedule(newBusNumber).equals(-1L)) {
-            throw new DataIntegrityViolationException("Bus with number" + newBusNumber + " already exists");
+        int updated;
+        try {
+            updated = jdbcTemplate.update("update bus_schedule set bus_number=? where bus_number=?", newBusNumber, oldBusNumber);
+        } catch (DuplicateKeyException e) {
+            throw new DataIntegrityViolationException("Bus with number" + newBusNumber + " already exists", e);
         }
-        if (existsBusSchedule(oldBusNumber).equals(-1L)) {
+        if (updated == 0) {
             throw new EmptyResultDataAccessException("Bus with number" + oldBusNumber + " not found", 1);
         }
-        jdbcTemplate.update("update bus_schedule set bus_number=? where bus_number=?", newBusNumber, oldBusNumber);
     }
 
     @Override
     @Transactional
     public void deleteBusSchedule(String busNumber) {
-        if (existsBusSchedule(busNumber).equals(-1L)) {
+        // Runs and overrides of the bus go in the same statement, foreign keys are checked once it ends
+        int deleted = jdbcTemplate.update("""
+                WITH bus AS (SELECT id FROM bus_schedule WHERE bus_number = ?),
+                     runs AS (DELETE FROM bus_run WHERE bus_schedule_id IN (SELECT id FROM bus)),
+                     overrides AS (DELETE FROM bus_override WHERE bus_schedule_id IN (SELECT id FROM bus))
+                DELETE FROM bus_schedule WHERE id IN (SELECT id FROM bus)
+                """, busNumber);
+        if (deleted == 0) {
             throw new EmptyResultDataAccessException("Bus schedule with bus_number " + busNumber + " not found", 1);
         }
-        entityManager.createQuery("DELETE FROM BusSchedule bs WHERE bs.busNumber = :busNumber")
-                .setParameter("busNumber", busNumber)
-                .executeUpdate();
         log.info("Successfully deleted BusSchedule for busNumber: {}", busNumber);
     }
 
+    @Override
+    public String getBusNumberByScheduleId(Long scheduleId) {
+        List<String> busNumbers = jdbcTemplate.queryForList("SELECT bus_number FROM bus_schedule WHERE id = ?", String.class, scheduleId);
+        return busNumbers.isEmpty() ? null : busNumbers.get(0);
+    }
+
     // ------------------- BusRun with Route Operations -------------------
     @Override
     @Transactional
@@ -179,18 +220,22 @@ public class BusRepositoryImpl implements BusRepository {
 
     @Override
     public Long isBusRouteExists(String name) {
-        try {
-            return jdbcTemplate.queryForObject("SELECT id FROM bus_route WHERE route_name = ?", Long.class, name);
-        } catch (DataAccessException ignored) {
-            return -1L;
-        }
+        return firstIdOrMinusOne(jdbcTemplate.queryForList("SELECT id FROM bus_route WHERE route_name = ?", Long.class, name));
+    }
+
+    /**
+     * Keeps the -1L convention of the exists methods without swallowing real data access errors
+     */
+    private static Long firstIdOrMinusOne(List<Long> ids) {
+        return ids.isEmpty() ? -1L : ids.get(0);
     }
 
     @Override
     public List<BusRun> getBusRunsForRoute(String busNumber, Long routeId) {
-        return entityManager.createQuery("SELECT br FROM BusRun br WHERE br.busSchedule.busNumber = :busNumber AND br.route.routeId = :routeId", BusRun.class)
+        return entityManager.createQuery("SELECT br FROM BusRun br WHERE br.busSchedule.busNumber = :busNumber AND br.route.id = :routeId", BusRun.class)
                 .setParameter("busNumber", busNumber)
                 .setParameter("routeId", routeId)
+                .setHint(FETCH_GRAPH, entityManager.getEntityGraph(BusRun.GRAPH_ROUTE_WITH_STOPS))
                 .getResultList();
     }
 
@@ -199,6 +244,7 @@ public class BusRepositoryImpl implements BusRepository {
         return entityManager.createQuery(
                         "SELECT br FROM BusRun br WHERE br.busSchedule.busNumber = :busNumber", BusRun.class)
                 .setParameter("busNumber", busNumber)
+                .setHint(FETCH_GRAPH, entityManager.getEntityGraph(BusRun.GRAPH_ROUTE_WITH_STOPS))
                 .getResultList();
     }
 
@@ -220,7 +266,9 @@ public class BusRepositoryImpl implements BusRepository {
 
     @Override
     public List<BusRoute> getAllBusRoutes() {
-        return entityManager.createQuery("SELECT r FROM BusRoute r", BusRoute.class).getResultList();
+        return entityManager.createQuery(
+                        "SELECT DISTINCT r FROM BusRoute r LEFT JOIN FETCH r.stops s LEFT JOIN FETCH s.location", BusRoute.class)
+                .getResultList();
     }
 
     @Override
@@ -236,7 +284,7 @@ public class BusRepositoryImpl implements BusRepository {
 
     @Override
     public List<RouteStop> getRouteStopsByRouteId(Long routeId) {
-        return entityManager.createQuery("SELECT s FROM RouteStop s WHERE s.route.routeId = :routeId ORDER BY s.stopOrder ASC", RouteStop.class)
+        return entityManager.createQuery("SELECT s FROM RouteStop s JOIN FETCH s.location WHERE s.route.id = :routeId ORDER BY s.stopOrder ASC", RouteStop.class)
                 .setParameter("routeId", routeId)
                 .getResultList();
     }
@@ -253,6 +301,252 @@ public class BusRepositoryImpl implements BusRepository {
         }
     }
 
+    // ------------------- Bulk Import Operations -------------------
+    @Override
+    public Map<String, Long> getBusLocationIdsByNames(Collection<String> names) {
+        return idsByName("select bl.name, bl.id from BusLocation bl where bl.name in :names", names);
+    }
+
+    @Override
+    public Map<String, Long> getBusScheduleIdsByBusNumbers(Collection<String> busNumbers) {
+        return idsByName("select bs.busNumber, bs.id from BusSchedule bs where bs.busNumber in :names", busNumbers);
+    }
+
+    @Override
+    public Map<String, Long> getBusRouteIdsByNames(Collection<String> routeNames) {
+        return idsByName("select r.routeName, r.id from BusRoute r where r.routeName in :names", routeNames);
+    }
+
+    private Map<String, Long> idsByName(String jpql, Collection<String> names) {
+        Map<String, Long> ids = new HashMap<>();
+        if (names.isEmpty()) {
+            return ids;
+        }
+        entityManager.createQuery(jpql, Object[].class)
+                .setParameter("names", names)
+                .getResultList()
+                .forEach(row -> {
+                    Long previous = ids.put((String) row[0], (Long) row[1]);
+                    // Route names aren't unique, keeping either id would attach rows to the wrong route
+                    if (previous != null && !previous.equals(row[1])) {
+                        throw new IncorrectResultSizeDataAccessException("More than one row named " + row[0], 1, 2);
+                    }
+                });
+        return ids;
+    }
+
+    @Override
+    @Transactional
+    public void saveBusLocations(Collection<String> names) {
+        jdbcTemplate.batchUpdate("insert into bus_location (name) values (?)", names, BATCH_SIZE,
+                (ps, name) -> ps.setString(1, name));
+    }
+
+    @Override
+    @Transactional
+    public void saveBusRoutes(Collection<String> routeNames) {
+        jdbcTemplate.batchUpdate("insert into bus_route (route_name) values (?)", routeNames, BATCH_SIZE,
+                (ps, routeName) -> ps.setString(1, routeName));
+    }
+
+    @Override
+    @Transactional
+    public void saveRouteStops(List<RouteStop> stops) {
+        jdbcTemplate.batchUpdate(
+                "insert into route_stop (route_id, location_id, stop_order, arrival_time, departure_time) values (?, ?, ?, ?, ?)",
+                stops, BATCH_SIZE,
+                (ps, stop) -> {
+                    ps.setLong(1, stop.getRoute().getId());
+                    ps.setLong(2, stop.getLocation().getId());
+                    ps.setInt(3, stop.getStopOrder());
+                    ps.setTime(4, stop.getArrivalTime());
+                    ps.setTime(5, stop.getDepartureTime());
+                });
+    }
+
+    @Override
+    @Transactional
+    public void saveBusRuns(List<BusRun> busRuns) {
+        jdbcTemplate.batchUpdate(
+                "insert into bus_run (bus_schedule_id, route_id, start_time, schedule_type) values (?, ?, ?, ?)",
+                busRuns, BATCH_SIZE,
+                (ps, busRun) -> {
+                    ps.setLong(1, busRun.getBusSchedule().getId());
+                    ps.setLong(2, busRun.getRoute().getId());
+                    ps.setTime(3, busRun.getStartTime());
+                    ps.setString(4, busRun.getScheduleType() == null ? null : busRun.getScheduleType().name());
+                });
+    }
+
+    // ------------------- Timetable Operations -------------------
+    @Override
+    public List<BusTimetableRowDto> getTimetableRows() {
+        String sql = """
+        SELECT bs.bus_number, br.id AS run_id, br.start_time, br.schedule_type,
+               r.id AS route_id, r.route_name,
+               rs.stop_order, bl.id AS location_id, bl.name AS location_name,
+               rs.arrival_time, rs.departure_time
+        FROM bus_run br
+        JOIN bus_schedule bs ON bs.id = br.bus_schedule_id
+        JOIN bus_route r ON r.id = br.route_id
+        LEFT JOIN route_stop rs ON rs.route_id = r.id
+        LEFT JOIN bus_location bl ON bl.id = rs.location_id
+        ORDER BY br.id, rs.stop_order
+    """;
+        return jdbcTemplate.query(sql, (rs, rowNum) -> new BusTimetableRowDto(
+                rs.getString("bus_number"),
+                rs.getLong("run_id"),
+                rs.getTime("start_time"),
+                rs.getString("schedule_type") == null ? null : ScheduleType.valueOf(rs.getString("schedule_type")),
+                rs.getLong("route_id"),
+                rs.getString("route_name"),
+                rs.getObject("stop_order", Integer.class),
+                rs.getObject("location_id", Long.class),
+                rs.getString("location_name"),
+                rs.getTime("arrival_time"),
+                rs.getTime("departure_time")
+        ));
+    }
+
+    // ------------------- Departures Board Operations -------------------
+    @Override
+    @Transactional
+    public void refreshBusDepartures(Collection<String> busNumbers, Collection<String> routeNames) {
+        // Pending JPA writes must be visible to the INSERT ... SELECT below
+        entityManager.flush();
+
+        boolean all = busNumbers.isEmpty() && routeNames.isEmpty();
+        List<Object> args = new ArrayList<>(busNumbers);
+        args.addAll(routeNames);
+
+        String deleteFilter = all ? "" : " WHERE " + keyFilter("bus_number", "route_name", busNumbers, routeNames);
+        jdbcTemplate.update("DELETE FROM bus_departure" + deleteFilter, args.toArray());
+
+        String selectFilter = all ? "" : " AND (" + keyFilter("bs.bus_number", "r.route_name", busNumbers, routeNames) + ")";
+        jdbcTemplate.update("""
+                INSERT INTO bus_departure (run_id, bus_number, route_name, location_name, stop_order, departure_time, schedule_type)
+                SELECT run_id, bus_number, route_name, location_name, stop_order,
+                       start_time + (departure_time - first_departure), schedule_type
+                FROM (
+                    SELECT br.id AS run_id, bs.bus_number, r.route_name, bl.name AS location_name, rs.stop_order,
+                           br.start_time, rs.departure_time, br.schedule_type,
+                           first_value(rs.departure_time) OVER (PARTITION BY br.id ORDER BY rs.stop_order) AS first_departure
+                    FROM bus_run br
+                    JOIN bus_schedule bs ON bs.id = br.bus_schedule_id
+                    JOIN bus_route r ON r.id = br.route_id
+                    JOIN route_stop rs ON rs.route_id = r.id
+                    JOIN bus_location bl ON bl.id = rs.location_id
+                    WHERE br.schedule_type IS NOT NULL%s
+                ) stops
+                """.formatted(selectFilter), args.toArray());
+    }
+
+    @Override
+    public void renameBusDepartureLocation(String oldName, String newName) {
+        jdbcTemplate.update("UPDATE bus_departure SET location_name = ? WHERE location_name = ?", newName, oldName);
+    }
+
+    /**
+     * @return {@code busColumn IN (?, ...) OR routeColumn IN (?, ...)}, without the parts whose keys are empty
+     */
+    private static String keyFilter(String busColumn, String routeColumn, Collection<String> busNumbers, Collection<String> routeNames) {
+        List<String> parts = new ArrayList<>(2);
+        if (!busNumbers.isEmpty()) {
+            parts.add(busColumn + " IN (" + String.join(", ", Collections.nCopies(busNumbers.size(), "?")) + ")");
+        }
+        if (!routeNames.isEmpty()) {
+            parts.add(routeColumn + " IN (" + String.join(", ", Collections.nCopies(routeNames.size(), "?")) + ")");
+        }
+        return String.join(" OR ", parts);
+    }
+
+    @Override
+    public List<BusDepartureDto> getBusDepartures(String locationName, ScheduleType scheduleType, LocalTime from, LocalTime to, int limit) {
+        return jdbcTemplate.query("""
+                        SELECT bus_number, route_name, location_name, stop_order, departure_time
+                        FROM bus_departure
+                        WHERE schedule_type = ? AND location_name = ? AND departure_time >= ? AND departure_time <= ?
+                        ORDER BY departure_time
+                        LIMIT ?
+                        """,
+                (rs, rowNum) -> new BusDepartureDto(
+                        rs.getString("bus_number"),
+                        rs.getString("route_name"),
+                        rs.getString("location_name"),
+                        rs.getInt("stop_order"),
+                        rs.getTime("departure_time"),
+                        scheduleType
+                ),
+                scheduleType.name(), locationName, Time.valueOf(from), Time.valueOf(to), limit);
+    }
+
+    // ------------------- Change Feed Operations -------------------
+    @Override
+    public long getBusVersion() {
+        List<Long> version = jdbcTemplate.queryForList("select version from bus_version where id = ?", Long.class, BusVersion.ROW_ID);
+        return version.isEmpty() ? 0L : version.get(0);
+    }
+
+    @Override
+    @Transactional
+    public long saveBusChange(String operation, Collection<String> busNumbers, Collection<String> routeNames) {
+        // The upsert takes a row lock held until commit, writers are serialised and versions commit in order
+        Long version = jdbcTemplate.queryForObject("""
+                insert into bus_version (id, version) values (?, 1)
+                on conflict (id) do update set version = bus_version.version + 1
+                returning version
+                """, Long.class, BusVersion.ROW_ID);
+
+        List<Object[]> rows = new ArrayList<>();
+        busNumbers.forEach(busNumber -> rows.add(new Object[]{busNumber, null}));
+        routeNames.forEach(routeName -> rows.add(new Object[]{null, routeName}));
+        if (rows.isEmpty()) {
+            rows.add(new Object[]{null, null});
+        }
+        Timestamp changedAt = Timestamp.from(Instant.now());
+        jdbcTemplate.batchUpdate(
+                "insert into bus_change (version, operation, bus_number, route_name, changed_at) values (?, ?, ?, ?, ?)",
+                rows, BATCH_SIZE,
+                (ps, row) -> {
+                    ps.setLong(1, version);
+                    ps.setString(2, operation);
+                    ps.setString(3, (String) row[0]);
+                    ps.setString(4, (String) row[1]);
+                    ps.setTimestamp(5, changedAt);
+                });
+        return version;
+    }
+
+    @Override
+    public List<BusChange> getBusChangesSince(long version) {
+        return entityManager.createQuery("SELECT c FROM BusChange c WHERE c.version > :version ORDER BY c.version", BusChange.class)
+                .setParameter("version", version)
+                .getResultList();
+    }
+
+    @Override
+    public List<BusRun> getBusRunsByBusNumbers(Collection<String> busNumbers) {
+        if (busNumbers.isEmpty()) {
+            return List.of();
+        }
+        return entityManager.createQuery(
+                        "SELECT br FROM BusRun br WHERE br.busSchedule.busNumber IN :busNumbers", BusRun.class)
+                .setParameter("busNumbers", busNumbers)
+                .setHint(FETCH_GRAPH, entityManager.getEntityGraph(BusRun.GRAPH_ROUTE_WITH_STOPS))
+                .getResultList();
+    }
+
+    @Override
+    public List<BusRoute> getBusRoutesByNames(Collection<String> routeNames) {
+        if (routeNames.isEmpty()) {
+            return List.of();
+        }
+        return entityManager.createQuery(
+                        "SELECT DISTINCT r FROM BusRoute r LEFT JOIN FETCH r.stops s LEFT JOIN FETCH s.location WHERE r.routeName IN :routeNames", BusRoute.class)
+                .setParameter("routeNames", routeNames)
+                .getResultList();
+    }
+
     @Override
     public String findBusFromBusRoute(String routeName){
         try{
@@ -308,36 +602,95 @@ public class BusRepositoryImpl implements BusRepository {
     }
 
 
-    // ------------------- BusOverride Operations (if still needed) -------------------
+    // ------------------- BusOverride Operations -------------------
     @Override
+    @Transactional
     public void saveBusOverride(String busNumber, BusOverride busOverride) {
-        // Implement as needed for new structure
+        BusSchedule busSchedule = getBusScheduleByBusNumber(busNumber);
+        if (busSchedule == null) {
+            throw new EmptyResultDataAccessException("Bus Number " + busNumber + " does not exist", 1);
+        }
+        if (existsBusOverrideByPublicId(busOverride.getPublicId())) {
+            throw new DataIntegrityViolationException("Bus override already exists with public id " + busOverride.getPublicId());
+        }
+        busOverride.setId(null);
+        busOverride.setBusSchedule(busSchedule);
+        busOverride.setRoute(resolveOverrideRoute(busOverride.getRoute()));
         entityManager.persist(busOverride);
     }
 
     @Override
     public boolean existsBusOverrideByPublicId(String publicId) {
-        // Implement as needed for new structure
-        return false;
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                "select exists(select 1 from bus_override where public_id = ?)", Boolean.class, publicId));
     }
 
     @Override
     public List<BusOverrideDto> getBusOverrideForYearAndMonth(int year, int month) {
-        // Implement as needed for new structure
-        return null;
+        LocalDate monthStart = LocalDate.of(year, month, 1);
+        // Overrides overlapping the month start at most MAX_SPAN_DAYS before it, the scan on override_date stays bounded
+        return entityManager.createQuery("""
+                        SELECT o FROM BusOverride o JOIN FETCH o.busSchedule LEFT JOIN FETCH o.route
+                        WHERE o.overrideDate >= :scanFrom AND o.overrideDate < :nextMonth AND o.endDate >= :monthStart
+                        ORDER BY o.overrideDate
+                        """, BusOverride.class)
+                .setParameter("scanFrom", monthStart.minusDays(BusOverride.MAX_SPAN_DAYS))
+                .setParameter("nextMonth", monthStart.plusMonths(1))
+                .setParameter("monthStart", monthStart)
+                .getResultStream()
+                .map(busOverrideDtoMapper::toDto)
+                .toList();
+    }
+
+    @Override
+    public List<BusOverride> getAllBusOverrides() {
+        return entityManager.createQuery(
+                        "SELECT o FROM BusOverride o JOIN FETCH o.busSchedule LEFT JOIN FETCH o.route", BusOverride.class)
+                .getResultList();
     }
 
     @Override
+    @Transactional
     public void updateBusOverride(String publicId, BusOverride newBusOverride) {
-        // Implement as needed for new structure
+        BusOverride busOverride;
+        try {
+            busOverride = entityManager.createQuery("SELECT o FROM BusOverride o WHERE o.publicId = :publicId", BusOverride.class)
+                    .setParameter("publicId", publicId)
+                    .getSingleResult();
+        } catch (NoResultException e) {
+            throw new EmptyResultDataAccessException("Bus override does not exist with public id " + publicId, 1);
+        }
+        busOverride.setOverrideType(newBusOverride.getOverrideType());
+        busOverride.setRoute(resolveOverrideRoute(newBusOverride.getRoute()));
+        busOverride.setStartTime(newBusOverride.getStartTime());
+        busOverride.setOverrideDate(newBusOverride.getOverrideDate());
+        busOverride.setEndDate(newBusOverride.getEndDate());
+        busOverride.setDescription(newBusOverride.getDescription());
     }
 
     @Override
+    @Transactional
     public void deleteBusOverride(List<String> busOverrideIds) {
-        // Implement as needed for new structure
+        if (busOverrideIds.isEmpty()) {
+            return;
+        }
+        entityManager.createQuery("DELETE FROM BusOverride o WHERE o.publicId IN :publicIds")
+                .setParameter("publicIds", busOverrideIds)
+                .executeUpdate();
     }
 
-
-
-    // Remove all legacy BusSnippet, fromLocation, toLocation, and point-to-point logic.
+    /**
+     * @param route route given by name only, may be null
+     * @return the managed route with that name
+     */
+    private BusRoute resolveOverrideRoute(BusRoute route) {
+        if (route == null || route.getRouteName() == null) {
+            return null;
+        }
+        BusRoute managed = findBusRouteByRouteName(route.getRouteName());
+        if (managed == null) {
+            throw new EmptyResultDataAccessException("Bus route " + route.getRouteName() + " does not exist", 1);
+        }
+        return managed;
+    }
 }
@@ -1,5 +1,7 @@
 package in.ac.iitj.instiapp.Repository.impl;
 
+import in.ac.iitj.instiapp.payload.common.CursorPage;
+import in.ac.iitj.instiapp.Utils.PageCursor;
 import in.ac.iitj.instiapp.Repository.EventsRepository;
 import in.ac.iitj.instiapp.database.entities.Scheduling.Calendar.Events;
 import in.ac.iitj.instiapp.database.entities.Scheduling.Calendar.Calendar;
@@ -14,7 +16,6 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.dao.EmptyResultDataAccessException;
-import org.springframework.data.domain.Pageable;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Repository;
 
@@ -174,10 +175,10 @@ public class EventsRepositoryImpl implements EventsRepository {
     }
 
     @Override
-    public List<EventsDto> getPaginatedEventsDto(Pageable pageable) {
+    public CursorPage<EventsDto> getPaginatedEventsDto(PageCursor cursor) {
         try {
-            return entityManager.createQuery(
-                            "SELECT new in.ac.iitj.instiapp.payload.Scheduling.Calendar.EventsDto( " +
+            return cursor.toPage(entityManager.createQuery(
+                            "SELECT e.id, new in.ac.iitj.instiapp.payload.Scheduling.Calendar.EventsDto( " +
                                     "    e.calendar.public_id, " +          // Calendar Public ID
                                     "    e.calendar.user.userName, " +    // Calendar User's Username
                                     "    e.Title, " +                     // Event Title
@@ -192,13 +193,13 @@ public class EventsRepositoryImpl implements EventsRepository {
                                     "    e.recurrence.count, " +           // Recurrence Count
                                     "    e.recurrence.interval, " +        // Recurrence Interval
                                     "    e.isHide " +                     // Is Hidden
-                                    ") FROM Events e", EventsDto.class)
-                    .setFirstResult((int) pageable.getOffset())  // Paginate by offset
-                    .setMaxResults(pageable.getPageSize())      // Set page size
-                    .getResultList();
+                                    ") FROM Events e WHERE e.id > :after ORDER BY e.id", Object[].class)
+                    .setParameter("after", cursor.afterId())  // Keyset on the primary key
+                    .setMaxResults(cursor.limit())           // Page size plus one to detect the next page
+                    .getResultList());
         } catch (NoResultException e) {
             log.error("No paginated events found");
-            return List.of();
+            return new CursorPage<>(List.of(), null);
         }
     }
 
@@ -84,8 +84,9 @@ import org.springframework.jdbc.core.JdbcTemplate;
 import in.ac.iitj.instiapp.database.entities.User.User;
 import in.ac.iitj.instiapp.database.entities.Media.Media;
 import in.ac.iitj.instiapp.Repository.UserRepository;
+import in.ac.iitj.instiapp.Utils.PageCursor;
+import in.ac.iitj.instiapp.payload.common.CursorPage;
 
-import org.springframework.data.domain.Pageable;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -126,21 +127,22 @@ public class GrievanceRepositoryImpl implements GrievanceRepository {
         return grievance.getPublicId();
     }
 
-    public List<GrievanceDto> getGrievancesByFilter(Optional<String> title, Optional<String> description,Optional<String> organisationName, Optional<Boolean> resolved,Pageable pageable){
+    public CursorPage<GrievanceDto> getGrievancesByFilter(Optional<String> title, Optional<String> description,Optional<String> organisationName, Optional<Boolean> resolved,PageCursor cursor){
 
-            return entityManager.createQuery("select new in.ac.iitj.instiapp.payload.GrievanceDto(gr.publicId,gr.Title,gr.Description,gr.userFrom.userName,gr.organisationRole.organisation.user.userName,gr.organisationRole.roleName,gr.organisationRole.permission,gr.resolved,gr.media.publicId) from Grievance gr where"+
+            return cursor.toPage(entityManager.createQuery("select gr.id, new in.ac.iitj.instiapp.payload.GrievanceDto(gr.publicId,gr.Title,gr.Description,gr.userFrom.userName,gr.organisationRole.organisation.user.userName,gr.organisationRole.roleName,gr.organisationRole.permission,gr.resolved,gr.media.publicId) from Grievance gr where"+
                                     "(:title is null or gr.Title = :title) and " +
                                     "(:description is null or gr.Description = :description) and " +
                                     "(:organisationName is null or gr.organisationRole.organisation.user.userName = :organisationName) and "+
-                                    "(:resolved is null or gr.resolved = :resolved)",
-                            GrievanceDto.class)
+                                    "(:resolved is null or gr.resolved = :resolved) and " +
+                                    "gr.id > :after order by gr.id",
+                            Object[].class)
                     .setParameter("title", title.orElse(null))
                     .setParameter("description", description.orElse(null))
                     .setParameter("organisationName", organisationName.orElse(null))
                     .setParameter("resolved",resolved.orElse(null))
-                    .setFirstResult((int) pageable.getOffset())
-                    .setMaxResults(pageable.getPageSize())
-                    .getResultList();
+                    .setParameter("after", cursor.afterId())
+                    .setMaxResults(cursor.limit())
+                    .getResultList());
     }
 
     @Override
@@ -2,53 +2,39 @@ package in.ac.iitj.instiapp.Repository.impl;
 
 import in.ac.iitj.instiapp.Repository.JWTRefreshTokenRepository;
 import in.ac.iitj.instiapp.database.entities.Auth.JWTRefreshToken;
-import in.ac.iitj.instiapp.database.entities.User.User;
-import jakarta.persistence.EntityManager;
-import jakarta.transaction.Transactional;
 import org.springframework.dao.DataAccessException;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Repository;
 
+import java.sql.Timestamp;
+import java.time.Instant;
 import java.util.Collections;
 import java.util.Map;
 
 @Repository
 public class JWTRefreshTokenRepositoryImpl implements JWTRefreshTokenRepository {
-    private final EntityManager entityManager;
     private final JdbcTemplate jdbcTemplate;
 
 
-    public JWTRefreshTokenRepositoryImpl(EntityManager entityManager, JdbcTemplate jdbcTemplate) {
-        this.entityManager = entityManager;
+    public JWTRefreshTokenRepositoryImpl(JdbcTemplate jdbcTemplate) {
         this.jdbcTemplate = jdbcTemplate;
     }
 
-    /*Username should not be null*/
-    @Transactional
+    /*User id should not be null*/
     @Override
     public void save(JWTRefreshToken jwtRefreshToken) {
-
-
-        if (!getRefreshTokenAndTokenExpireTimeByDeviceIdAndUserName(jwtRefreshToken.getDeviceId(), jwtRefreshToken.getUser().getUserName()).isEmpty()) {
-
-
-            entityManager.createQuery("update JWTRefreshToken  set refreshToken = :refreshToken, refreshTokenExpires = :refreshTokenExpires where deviceId = :deviceId and user.id = :userId")
-                    .setParameter("refreshToken", jwtRefreshToken.getRefreshToken())
-                    .setParameter("refreshTokenExpires", jwtRefreshToken.getRefreshTokenExpires())
-                    .setParameter("deviceId", jwtRefreshToken.getDeviceId())
-                    .setParameter("userId", jwtRefreshToken.getUser().getId())
-                    .executeUpdate();
-           return;
-        }
-        User u = entityManager.getReference(User.class, jwtRefreshToken.getUser().getId());
-        jwtRefreshToken.setUser(u);
-        entityManager.persist(jwtRefreshToken);
+        jdbcTemplate.update("insert into jwt_refresh_token (user_id, device_id, refresh_token, refresh_token_expires) values (?, ?, ?, ?) " +
+                        "on conflict (user_id, device_id) do update set refresh_token = excluded.refresh_token, refresh_token_expires = excluded.refresh_token_expires",
+                jwtRefreshToken.getUser().getId(),
+                jwtRefreshToken.getDeviceId(),
+                jwtRefreshToken.getRefreshToken(),
+                jwtRefreshToken.getRefreshTokenExpires() == null ? null : Timestamp.from(jwtRefreshToken.getRefreshTokenExpires()));
     }
 
     @Override
     public Map getRefreshTokenAndTokenExpireTimeByDeviceIdAndUserName(String deviceId, String userName) {
         try {
-            return jdbcTemplate.queryForMap("select refresh_token as refreshToken, refresh_token_expires as expirationTime from jwt_refresh_token WHERE user_id = (SELECT id FROM users WHERE user_name = ?)  and device_id = ?", userName, deviceId);
+            return jdbcTemplate.queryForMap("select t.refresh_token as refreshToken, t.refresh_token_expires as expirationTime from jwt_refresh_token t join users u on u.id = t.user_id WHERE u.user_name = ? and t.device_id = ?", userName, deviceId);
         } catch (DataAccessException ignored) {
             return Collections.emptyMap();
         }
@@ -65,7 +51,13 @@ public class JWTRefreshTokenRepositoryImpl implements JWTRefreshTokenRepository
     @Override
     public void deleteByUserName(String userName) {
         try{
-        jdbcTemplate.update("DELETE FROM jwt_refresh_token WHERE user_id = (SELECT id FROM users WHERE user_name = ?)", userName);}
+        jdbcTemplate.update("DELETE FROM jwt_refresh_token USING users u WHERE user_id = u.id and u.user_name = ?", userName);}
         catch (DataAccessException ignored){}
     }
+
+    @Override
+    public int deleteExpired(Instant now, int batchSize) {
+        return jdbcTemplate.update("DELETE FROM jwt_refresh_token WHERE id IN (SELECT id FROM jwt_refresh_token WHERE refresh_token_expires < ? LIMIT ?)",
+                Timestamp.from(now), batchSize);
+    }
 }
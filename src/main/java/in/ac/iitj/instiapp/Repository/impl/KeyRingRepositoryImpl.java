@@ -0,0 +1,39 @@
+package in.ac.iitj.instiapp.Repository.impl;
+
+import in.ac.iitj.instiapp.Repository.KeyRingRepository;
+import in.ac.iitj.instiapp.database.entities.Auth.KeyRingKey;
+import in.ac.iitj.instiapp.payload.Auth.KeyRingKeyDto;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+
+@Repository
+public class KeyRingRepositoryImpl implements KeyRingRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public KeyRingRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public List<KeyRingKeyDto> getUnexpiredKeys(Instant now) {
+        return jdbcTemplate.query("select kid, purpose, secret, not_before, expires_at from key_ring where expires_at > ? order by not_before",
+                (rs, rowNum) -> new KeyRingKeyDto(
+                        rs.getString("kid"),
+                        KeyRingKey.Purpose.valueOf(rs.getString("purpose")),
+                        rs.getString("secret"),
+                        rs.getTimestamp("not_before").toInstant(),
+                        rs.getTimestamp("expires_at").toInstant()),
+                Timestamp.from(now));
+    }
+
+    @Override
+    public boolean insertKey(KeyRingKeyDto key) {
+        return jdbcTemplate.update("insert into key_ring (kid, purpose, secret, not_before, expires_at) values (?, ?, ?, ?, ?) on conflict (kid) do nothing",
+                key.getKid(), key.getPurpose().name(), key.getSecret(), Timestamp.from(key.getNotBefore()), Timestamp.from(key.getExpiresAt())) == 1;
+    }
+}
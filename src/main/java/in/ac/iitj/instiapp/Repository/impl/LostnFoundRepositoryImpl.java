@@ -1,10 +1,14 @@
 package in.ac.iitj.instiapp.Repository.impl;
 
+import in.ac.iitj.instiapp.payload.common.CursorPage;
+import in.ac.iitj.instiapp.Utils.PageCursor;
 import in.ac.iitj.instiapp.Repository.UserRepository;
 import in.ac.iitj.instiapp.database.entities.LostnFound.Locations;
 import in.ac.iitj.instiapp.database.entities.LostnFound.LostnFoundType;
 import in.ac.iitj.instiapp.database.entities.User.Organisation.Organisation;
+import in.ac.iitj.instiapp.payload.LostnFound.LostnFoundArchiveBatchDto;
 import in.ac.iitj.instiapp.payload.LostnFound.LostnFoundDto;
+import in.ac.iitj.instiapp.payload.LostnFound.LostnFoundSearchRowDto;
 import in.ac.iitj.instiapp.payload.User.Student.StudentBaseDto;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.Query;
@@ -16,12 +20,18 @@ import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.dao.EmptyResultDataAccessException;
 import org.springframework.data.domain.Pageable;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
 import org.springframework.stereotype.Repository;
 import in.ac.iitj.instiapp.database.entities.LostnFound.LostnFound;
 import in.ac.iitj.instiapp.database.entities.User.User;
 import in.ac.iitj.instiapp.database.entities.Media.Media;
 
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
 
 @Repository
@@ -89,6 +99,9 @@ public class LostnFoundRepositoryImpl implements in.ac.iitj.instiapp.Repository.
             entityManager.createQuery(
                     "UPDATE LostnFound lf SET lf.Landmark = null WHERE lf.Landmark.name = :name"
             ).setParameter("name", locationName).executeUpdate();
+            entityManager.createQuery(
+                    "UPDATE LostnFoundArchive lf SET lf.Landmark = null WHERE lf.Landmark.name = :name"
+            ).setParameter("name", locationName).executeUpdate();
 
             // Step 2: Delete the Location
             entityManager.createQuery(
@@ -108,91 +121,275 @@ public class LostnFoundRepositoryImpl implements in.ac.iitj.instiapp.Repository.
     }
 
     @Override
-    public List<LostnFoundDto> getLostnFoundByFilter(
+    public CursorPage<LostnFoundDto> getLostnFoundByFilter(
+            LostnFoundType type,
+            Optional<Boolean> status,
+            Optional<String> owner,
+            Optional<String> finder,
+            Optional<String> landmark,
+            boolean includeArchived,
+            PageCursor cursor) {
+
+        List<Object[]> rows = filterQuery(false, type, status, owner, finder, landmark, cursor).getResultList();
+        if (!includeArchived) {
+            return cursor.toPage(rows);
+        }
+
+        // Both tables share the id sequence, the page is the first rows of both merged by id
+        List<Object[]> archivedRows = filterQuery(true, type, status, owner, finder, landmark, cursor).getResultList();
+        List<Object[]> merged = new ArrayList<>(cursor.limit());
+        int hot = 0;
+        int archived = 0;
+        while (merged.size() < cursor.limit() && (hot < rows.size() || archived < archivedRows.size())) {
+            if (archived == archivedRows.size()
+                    || (hot < rows.size() && ((Number) rows.get(hot)[0]).longValue() < ((Number) archivedRows.get(archived)[0]).longValue())) {
+                merged.add(rows.get(hot++));
+            } else {
+                merged.add(archivedRows.get(archived++));
+            }
+        }
+        return cursor.toPage(merged);
+    }
+
+    private TypedQuery<Object[]> filterQuery(
+            boolean archive,
             LostnFoundType type,
             Optional<Boolean> status,
             Optional<String> owner,
             Optional<String> finder,
             Optional<String> landmark,
-            Pageable pageable) {
+            PageCursor cursor) {
 
         String ql =
-                "select new in.ac.iitj.instiapp.payload.LostnFound.LostnFoundDto(" +
+                "select l.id, new in.ac.iitj.instiapp.payload.LostnFound.LostnFoundDto(" +
                         "l.publicId, " +
                         "f.userName, " +            // alias for finder
                         "o.userName, " +            // alias for owner
                         "lm.name, " +               // alias for landmark
                         "l.type, " +
                         "l.extraInfo, " +
-                        "l.status, " +
-                        "m.publicId" +              // alias for media
+                        "l.status" +
+                        (archive ? "" : ", m.publicId") +  // alias for media, archived items have none
                         ") " +
-                        "from LostnFound l " +
+                        (archive ? "from LostnFoundArchive l " : "from LostnFound l ") +
                         "left join l.finder f " +
                         "left join l.owner o " +
                         "left join l.Landmark lm " +   // or l.landmark if your field is lowercase
-                        "left join l.media m " +
+                        (archive ? "" : "left join l.media m ") +
                         "where l.type = :type " +
                         "AND (:status is null or l.status = :status) " +
                         "AND (:owner is null or o.userName = :owner) " +
                         "AND (:finder is null or f.userName = :finder) " +
-                        "AND (:landmark is null or lm.name = :landmark)";
+                        "AND (:landmark is null or lm.name = :landmark) " +
+                        "AND l.id > :after " +
+                        "order by l.id";
 
-        TypedQuery<LostnFoundDto> query = entityManager.createQuery(ql, LostnFoundDto.class);
+        TypedQuery<Object[]> query = entityManager.createQuery(ql, Object[].class);
         query.setParameter("type", type);
         query.setParameter("status", status.orElse(null));
         query.setParameter("owner", owner.orElse(null));
         query.setParameter("finder", finder.orElse(null));
         query.setParameter("landmark", landmark.orElse(null));
-
-        query.setFirstResult((int) pageable.getOffset());
-        query.setMaxResults(pageable.getPageSize());
-
-        return query.getResultList();
+        query.setParameter("after", cursor.afterId());
+        query.setMaxResults(cursor.limit());
+        return query;
     }
 
 
 
     @Override
     public void updateLostnFound(LostnFound lostnFound, String publicId) {
-        if(exsitLostnFound(publicId) == -1L){
+        int rowsAffected = jdbcTemplate.update(
+                "UPDATE lostnfound SET " +
+                        "finder_id = ?, " +
+                        "owner_id = ?, " +
+                        "landmark_id = CASE WHEN cast(? as integer) IS NULL THEN landmark_id ELSE ? END, " +
+                        "extra_info = CASE WHEN ? IS NULL THEN extra_info ELSE ? END, " +
+                        "status = CASE WHEN ? IS NULL THEN status ELSE ? END, " +
+                        "media_id = CASE WHEN cast(? as integer) IS NULL THEN media_id ELSE ? END " +
+                        "WHERE public_id = ?",
+                // Parameters for query in order:
+                Optional.ofNullable(lostnFound.getFinder())
+                        .map(User::getId).orElse(null),
+                Optional.ofNullable(lostnFound.getOwner())
+                        .map(User::getId).orElse(null),
+
+                Optional.ofNullable(lostnFound.getLandmark())
+                        .map(Locations::getId).orElse(null),
+                Optional.ofNullable(lostnFound.getLandmark())
+                        .map(Locations::getId).orElse(null),
+
+                lostnFound.getExtraInfo(),
+                lostnFound.getExtraInfo(),
+
+                lostnFound.getStatus(),
+                lostnFound.getStatus(),
+
+                Optional.ofNullable(lostnFound.getMedia())
+                        .map(Media::getId).orElse(null),
+                Optional.ofNullable(lostnFound.getMedia())
+                        .map(Media::getId).orElse(null),
+
+                publicId
+        );
+        if (rowsAffected == 0) {
             throw new EmptyResultDataAccessException("the lost and found with public id " + publicId +"does not exists" , 1);
         }
-        else {
-            jdbcTemplate.update(
-                    "UPDATE lostnfound SET " +
-                            "finder_id = ?, " +
-                            "owner_id = ?, " +
-                            "landmark_id = CASE WHEN cast(? as integer) IS NULL THEN landmark_id ELSE ? END, " +
-                            "extra_info = CASE WHEN ? IS NULL THEN extra_info ELSE ? END, " +
-                            "status = CASE WHEN ? IS NULL THEN status ELSE ? END, " +
-                            "media_id = CASE WHEN cast(? as integer) IS NULL THEN media_id ELSE ? END " +
-                            "WHERE public_id = ?",
-                    // Parameters for query in order:
-                    Optional.ofNullable(lostnFound.getFinder())
-                            .map(User::getId).orElse(null),
-                    Optional.ofNullable(lostnFound.getOwner())
-                            .map(User::getId).orElse(null),
-
-                    Optional.ofNullable(lostnFound.getLandmark())
-                            .map(Locations::getId).orElse(null),
-                    Optional.ofNullable(lostnFound.getLandmark())
-                            .map(Locations::getId).orElse(null),
-
-                    lostnFound.getExtraInfo(),
-                    lostnFound.getExtraInfo(),
-
-                    lostnFound.getStatus(),
-                    lostnFound.getStatus(),
-
-                    Optional.ofNullable(lostnFound.getMedia())
-                            .map(Media::getId).orElse(null),
-                    Optional.ofNullable(lostnFound.getMedia())
-                            .map(Media::getId).orElse(null),
-
-                    publicId
-            );
+    }
+
+    // Resolves the natural keys given as the first four parameters, a key that is null stays unresolved
+    private static final String REFERENCES_CTE =
+            "with p as (select cast(? as varchar) as finder, cast(? as varchar) as owner, cast(? as varchar) as landmark, cast(? as varchar) as media), " +
+            "r as (select p.*, " +
+                    "(select u.id from users u where u.user_name = p.finder) as finder_id, " +
+                    "(select u.id from users u where u.user_name = p.owner) as owner_id, " +
+                    "(select lo.id from locations lo where lo.name = p.landmark) as landmark_id, " +
+                    "(select m.id from media m where m.public_id = p.media) as media_id " +
+                    "from p) ";
+
+    private static final String REFERENCES_RESOLVED =
+            "(r.finder is null or r.finder_id is not null) and (r.owner is null or r.owner_id is not null) " +
+            "and (r.landmark is null or r.landmark_id is not null) and (r.media is null or r.media_id is not null) ";
+
+    @Override
+    public void saveLostnFound(LostnFoundDto lostnFoundDto) {
+        String sql = REFERENCES_CTE +
+                ", inserted as (" +
+                    "insert into lostnfound (public_id, finder_id, owner_id, landmark_id, type, extra_info, status, media_id, created_at) " +
+                    "select ?, r.finder_id, r.owner_id, r.landmark_id, ?, ?, ?, r.media_id, current_timestamp from r " +
+                    "where " + REFERENCES_RESOLVED +
+                    "returning id) " +
+                "select r.finder_id, r.owner_id, r.landmark_id, r.media_id, (select id from inserted) as id, true as item_exists from r";
+
+        ResolvedReferences references = jdbcTemplate.queryForObject(sql, ResolvedReferences.ROW_MAPPER,
+                referenceParameters(lostnFoundDto,
+                        lostnFoundDto.getPublicId(),
+                        lostnFoundDto.getType() == null ? null : lostnFoundDto.getType().name(),
+                        lostnFoundDto.getExtraInfo(),
+                        lostnFoundDto.getStatus()));
+        references.check(lostnFoundDto);
+    }
+
+    @Override
+    public void updateLostnFound(LostnFoundDto lostnFoundDto) {
+        String sql = REFERENCES_CTE +
+                ", updated as (" +
+                    "update lostnfound l set " +
+                    "finder_id = r.finder_id, " +
+                    "owner_id = r.owner_id, " +
+                    "landmark_id = coalesce(r.landmark_id, l.landmark_id), " +
+                    "extra_info = coalesce(cast(? as varchar), l.extra_info), " +
+                    "status = coalesce(cast(? as boolean), l.status), " +
+                    "media_id = coalesce(r.media_id, l.media_id) " +
+                    "from r " +
+                    "where l.public_id = ? and " + REFERENCES_RESOLVED +
+                    "returning l.id) " +
+                "select r.finder_id, r.owner_id, r.landmark_id, r.media_id, (select id from updated) as id, " +
+                "exists (select 1 from lostnfound where public_id = ?) as item_exists from r";
+
+        ResolvedReferences references = jdbcTemplate.queryForObject(sql, ResolvedReferences.ROW_MAPPER,
+                referenceParameters(lostnFoundDto,
+                        lostnFoundDto.getExtraInfo(),
+                        lostnFoundDto.getStatus(),
+                        lostnFoundDto.getPublicId(),
+                        lostnFoundDto.getPublicId()));
+        references.check(lostnFoundDto);
+    }
+
+    private static Object[] referenceParameters(LostnFoundDto lostnFoundDto, Object... statementParameters) {
+        Object[] parameters = new Object[4 + statementParameters.length];
+        parameters[0] = lostnFoundDto.getFinder() == null ? null : lostnFoundDto.getFinder().getUserName();
+        parameters[1] = lostnFoundDto.getOwner() == null ? null : lostnFoundDto.getOwner().getUserName();
+        parameters[2] = lostnFoundDto.getLandmarkName();
+        parameters[3] = lostnFoundDto.getMedia() == null ? null : lostnFoundDto.getMedia().getPublicId();
+        System.arraycopy(statementParameters, 0, parameters, 4, statementParameters.length);
+        return parameters;
+    }
+
+    /**
+     * Ids the natural keys of a write resolved to, and the id of the written row, null if nothing was written
+     */
+    private static final class ResolvedReferences {
+        static final RowMapper<ResolvedReferences> ROW_MAPPER = (rs, rowNum) -> new ResolvedReferences(
+                rs.getObject("finder_id", Long.class),
+                rs.getObject("owner_id", Long.class),
+                rs.getObject("landmark_id", Long.class),
+                rs.getObject("media_id", Long.class),
+                rs.getObject("id", Long.class),
+                rs.getBoolean("item_exists"));
+
+        final Long finderId;
+        final Long ownerId;
+        final Long landmarkId;
+        final Long mediaId;
+        final Long writtenId;
+        final boolean itemExists;
+
+        ResolvedReferences(Long finderId, Long ownerId, Long landmarkId, Long mediaId, Long writtenId, boolean itemExists) {
+            this.finderId = finderId;
+            this.ownerId = ownerId;
+            this.landmarkId = landmarkId;
+            this.mediaId = mediaId;
+            this.writtenId = writtenId;
+            this.itemExists = itemExists;
         }
+
+        void check(LostnFoundDto lostnFoundDto) {
+            if (!itemExists) {
+                throw new EmptyResultDataAccessException("the lost and found with public id " + lostnFoundDto.getPublicId() + " does not exists", 1);
+            }
+            if (writtenId != null) {
+                return;
+            }
+            List<String> missing = new ArrayList<>();
+            if (lostnFoundDto.getFinder() != null && lostnFoundDto.getFinder().getUserName() != null && finderId == null) {
+                missing.add("Finder with username '" + lostnFoundDto.getFinder().getUserName() + "' does not exist.");
+            }
+            if (lostnFoundDto.getOwner() != null && lostnFoundDto.getOwner().getUserName() != null && ownerId == null) {
+                missing.add("Owner with username '" + lostnFoundDto.getOwner().getUserName() + "' does not exist.");
+            }
+            if (lostnFoundDto.getLandmarkName() != null && landmarkId == null) {
+                missing.add("Location with name '" + lostnFoundDto.getLandmarkName() + "' does not exist.");
+            }
+            if (lostnFoundDto.getMedia() != null && lostnFoundDto.getMedia().getPublicId() != null && mediaId == null) {
+                missing.add("Media with publicId '" + lostnFoundDto.getMedia().getPublicId() + "' does not exist.");
+            }
+            if (missing.isEmpty()) {
+                // Deleted between the existence check and the write of the same statement
+                throw new EmptyResultDataAccessException("the lost and found with public id " + lostnFoundDto.getPublicId() + " does not exists", 1);
+            }
+            throw new DataIntegrityViolationException(String.join(" ", missing));
+        }
+    }
+
+    private static final String SEARCH_ROW_QL =
+            "select new in.ac.iitj.instiapp.payload.LostnFound.LostnFoundSearchRowDto(" +
+                    "l.id, l.publicId, f.userName, o.userName, lm.name, l.type, l.extraInfo, l.status, m.publicId, l.createdAt) " +
+                    "from LostnFound l " +
+                    "left join l.finder f " +
+                    "left join l.owner o " +
+                    "left join l.Landmark lm " +
+                    "left join l.media m ";
+
+    @Override
+    public List<LostnFoundSearchRowDto> getSearchRows() {
+        return entityManager.createQuery(SEARCH_ROW_QL + "order by l.id", LostnFoundSearchRowDto.class)
+                .getResultList();
+    }
+
+    @Override
+    public Optional<LostnFoundSearchRowDto> getSearchRow(String publicId) {
+        return entityManager.createQuery(SEARCH_ROW_QL + "where l.publicId = :publicId", LostnFoundSearchRowDto.class)
+                .setParameter("publicId", publicId)
+                .getResultStream()
+                .findFirst();
+    }
+
+    @Override
+    public List<LostnFoundSearchRowDto> getSearchRowsByLandmark(String landmarkName) {
+        return entityManager.createQuery(SEARCH_ROW_QL + "where lm.name = :landmarkName order by l.id", LostnFoundSearchRowDto.class)
+                .setParameter("landmarkName", landmarkName)
+                .getResultList();
     }
 
     @Override
@@ -220,6 +417,44 @@ public class LostnFoundRepositoryImpl implements in.ac.iitj.instiapp.Repository.
 
     }
 
+    @Override
+    public LostnFoundArchiveBatchDto archiveLostnFound(Instant createdBefore, Instant archivedAt, int batchSize) {
+        String sql = """
+            with batch as (
+                select id from lostnfound
+                where status = true or created_at < ?
+                order by id
+                limit ?
+                for update skip locked
+            ), moved as (
+                delete from lostnfound l using batch
+                where l.id = batch.id
+                returning l.id, l.public_id, l.finder_id, l.owner_id, l.landmark_id, l.type, l.extra_info, l.status, l.media_id, l.created_at
+            ), archived as (
+                insert into lostnfound_archive (id, public_id, finder_id, owner_id, landmark_id, type, extra_info, status, created_at, archived_at)
+                select id, public_id, finder_id, owner_id, landmark_id, type, extra_info, status, created_at, cast(? as timestamptz) from moved
+            )
+            select media_id from moved
+        """;
+        List<Long> mediaIds = jdbcTemplate.query(sql, (rs, rowNum) -> rs.getObject("media_id", Long.class),
+                Timestamp.from(createdBefore), batchSize, Timestamp.from(archivedAt));
+        return new LostnFoundArchiveBatchDto(mediaIds.size(), mediaIds.stream().filter(Objects::nonNull).toList());
+    }
+
+    @Override
+    public List<String> deleteUnusedMedia(List<Long> mediaIds) {
+        if (mediaIds.isEmpty()) {
+            return List.of();
+        }
+        String sql = "delete from media m where m.id in (" + String.join(", ", Collections.nCopies(mediaIds.size(), "?")) + ") " +
+                "and not exists (select 1 from lostnfound l where l.media_id = m.id) " +
+                "and not exists (select 1 from grievance g where g.media_id = m.id) " +
+                "and not exists (select 1 from announcements_media a where a.media_id = m.id) " +
+                "and not exists (select 1 from organisation_media o where o.media_id = m.id) " +
+                "returning m.public_id";
+        return jdbcTemplate.queryForList(sql, String.class, mediaIds.toArray());
+    }
+
     public boolean isOwner(String userName, String publicId){
         TypedQuery<String> query = entityManager.createQuery("SELECT l.owner.userName FROM LostnFound l WHERE l.publicId = :publicId", String.class)
                                                 .setParameter("publicId", publicId);
@@ -4,10 +4,11 @@ import in.ac.iitj.instiapp.Repository.OAuth2TokenRepository;
 import in.ac.iitj.instiapp.database.entities.Auth.OAuth2Tokens;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.NoResultException;
-import jakarta.transaction.Transactional;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Repository;
 
+import java.sql.Timestamp;
+import java.time.Instant;
 import java.util.Optional;
 
 @Repository
@@ -23,20 +24,14 @@ public class OAuthTokenRepositoryImpl implements OAuth2TokenRepository {
 
 
     @Override
-    @Transactional
     public void save(OAuth2Tokens oAuth2Token) {
-
-        if(getByUsernameAndDeviceId(oAuth2Token.getUser().getUserName(), oAuth2Token.getDeviceId()).isPresent()) {
-            jdbcTemplate.update("update  oauth2tokens set access_token = ?, refresh_token = ? where user_id = ? and device_id = ? ",
-                    oAuth2Token.getAccessToken(),
-                    oAuth2Token.getRefreshToken(),
-                    oAuth2Token.getUser().getId(),
-                    oAuth2Token.getDeviceId()
-                    );
-            return;
-        }
-        entityManager.persist(oAuth2Token);
-
+        jdbcTemplate.update("insert into oauth2tokens (user_id, device_id, access_token, refresh_token, last_used_at) values (?, ?, ?, ?, current_timestamp) " +
+                        "on conflict (user_id, device_id) do update set access_token = excluded.access_token, refresh_token = excluded.refresh_token, last_used_at = excluded.last_used_at",
+                oAuth2Token.getUser().getId(),
+                oAuth2Token.getDeviceId(),
+                oAuth2Token.getAccessToken(),
+                oAuth2Token.getRefreshToken()
+        );
     }
 
     @Override
@@ -56,7 +51,7 @@ public class OAuthTokenRepositoryImpl implements OAuth2TokenRepository {
 
     @Override
     public void updateAccessToken(String deviceId, String userName, String accessToken) {
-        jdbcTemplate.update("update oauth2tokens  set access_token = ? from users u where user_id = u.id and device_id = ? and u.user_name = ? ",accessToken,deviceId, userName);
+        jdbcTemplate.update("update oauth2tokens  set access_token = ?, last_used_at = current_timestamp from users u where user_id = u.id and device_id = ? and u.user_name = ? ",accessToken,deviceId, userName);
     }
 
     @Override
@@ -68,4 +63,10 @@ public class OAuthTokenRepositoryImpl implements OAuth2TokenRepository {
     public void deleteByDeviceIdAndUserName(String deviceId, String userName) {
         jdbcTemplate.update("delete  from oauth2tokens using users u where device_id = ? and user_id = u.id and u.user_name = ? ",deviceId,userName);
     }
+
+    @Override
+    public int deleteUnusedSince(Instant cutoff, int batchSize) {
+        return jdbcTemplate.update("delete from oauth2tokens where id in (select id from oauth2tokens where last_used_at < ? limit ?)",
+                Timestamp.from(cutoff), batchSize);
+    }
 }
@@ -0,0 +1,42 @@
+package in.ac.iitj.instiapp.Repository.impl;
+
+import in.ac.iitj.instiapp.Repository.RevokedTokenRepository;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+
+@Repository
+public class RevokedTokenRepositoryImpl implements RevokedTokenRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public RevokedTokenRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void revoke(String tokenId, Instant expiresAt) {
+        jdbcTemplate.update("insert into revoked_token (token_id, expires_at, revoked_at) values (?, ?, ?) on conflict (token_id) do nothing",
+                tokenId, Timestamp.from(expiresAt), Timestamp.from(Instant.now()));
+    }
+
+    @Override
+    public boolean isRevoked(String tokenId) {
+        return !jdbcTemplate.queryForList("select 1 from revoked_token where token_id = ? and expires_at > ?", Integer.class,
+                tokenId, Timestamp.from(Instant.now())).isEmpty();
+    }
+
+    @Override
+    public List<String> getUnexpiredTokenIds() {
+        return jdbcTemplate.queryForList("select token_id from revoked_token where expires_at > ?", String.class, Timestamp.from(Instant.now()));
+    }
+
+    @Override
+    public int deleteExpired(Instant now, int batchSize) {
+        return jdbcTemplate.update("delete from revoked_token where token_id in (select token_id from revoked_token where expires_at < ? limit ?)",
+                Timestamp.from(now), batchSize);
+    }
+}
@@ -1,9 +1,13 @@
 package in.ac.iitj.instiapp.Repository.impl;
 
+import in.ac.iitj.instiapp.payload.common.CursorPage;
+import in.ac.iitj.instiapp.Utils.PageCursor;
 import in.ac.iitj.instiapp.Repository.UserRepository;
 import in.ac.iitj.instiapp.database.entities.Scheduling.Calendar.Calendar;
 import in.ac.iitj.instiapp.database.entities.User.User;
+import in.ac.iitj.instiapp.database.entities.User.Organisation.OrganisationPermission;
 import in.ac.iitj.instiapp.database.entities.User.Usertype;
+import in.ac.iitj.instiapp.payload.Auth.OAuth2LoginUserDto;
 import in.ac.iitj.instiapp.payload.User.Organisation.OrganisationRoleDto;
 import in.ac.iitj.instiapp.payload.User.UserBaseDto;
 import in.ac.iitj.instiapp.payload.User.UserDetailedDto;
@@ -14,17 +18,23 @@ import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.dao.EmptyResultDataAccessException;
 import org.springframework.data.domain.Pageable;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.HashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 
 @Repository
 public class UserRepositoryImpl implements UserRepository {
 
+    private static final RowMapper<OAuth2LoginUserDto> OAUTH2_LOGIN_USER_ROW_MAPPER = (rs, rowNum) ->
+            new OAuth2LoginUserDto(rs.getString(1), rs.getString(2), rs.getString(3), rs.getString(4), rs.getBoolean(5));
+
     private  final  JdbcTemplate jdbcTemplate;
     private  final  EntityManager entityManager;
 
@@ -162,12 +172,12 @@ public class UserRepositoryImpl implements UserRepository {
 
 
     @Override
-    public List<UserBaseDto> getListUserLimitedByUsertype(String usertype, Pageable pageable) {
-        return entityManager.createQuery("select new in.ac.iitj.instiapp.payload.User.UserBaseDto(u.name, u.userName, u.email, u.userType.name,u.avatarUrl) from User  u where u.userType.name = :usertypename",UserBaseDto.class)
+    public CursorPage<UserBaseDto> getListUserLimitedByUsertype(String usertype, PageCursor cursor) {
+        return cursor.toPage(entityManager.createQuery("select u.id, new in.ac.iitj.instiapp.payload.User.UserBaseDto(u.name, u.userName, u.email, u.userType.name,u.avatarUrl) from User  u where u.userType.name = :usertypename and u.id > :after order by u.id", Object[].class)
                 .setParameter("usertypename",usertype)
-                .setFirstResult((int) pageable.getOffset())
-                .setMaxResults(pageable.getPageSize())
-                .getResultList();
+                .setParameter("after", cursor.afterId())
+                .setMaxResults(cursor.limit())
+                .getResultList());
     }
 
     @Override
@@ -200,6 +210,22 @@ public class UserRepositoryImpl implements UserRepository {
     }
 
 
+    @Override
+    public Map<String, OrganisationPermission> getOrganisationPermissions(String username) {
+        List<Object[]> rows = entityManager.createQuery(
+                        "select uor.organisation.user.userName, uor.permission from User u join u.organisationRoleSet uor where u.userName = :username",
+                        Object[].class)
+                .setParameter("username", username)
+                .getResultList();
+
+        Map<String, OrganisationPermission> permissions = new HashMap<>();
+        for (Object[] row : rows) {
+            permissions.merge((String) row[0], (OrganisationPermission) row[1],
+                    (current, other) -> current.includes(other) ? current : other);
+        }
+        return permissions;
+    }
+
     @Override
     public Long usernameExists(String username) {
         return jdbcTemplate.queryForObject("select coalesce(MAX(id), -1) from users where user_name = ?",Long.class,username);
@@ -211,6 +237,29 @@ public class UserRepositoryImpl implements UserRepository {
 
     }
 
+    @Override
+    public OAuth2LoginUserDto getOrCreateOauth2User(String email, String name, String userName, String password, String userTypeName) {
+        // The insert is invisible to the second branch, which returns the existing user when the insert hit the email conflict
+        List<OAuth2LoginUserDto> users = jdbcTemplate.query(
+                "with created as (" +
+                        "insert into users (name, user_name, email, password, user_type_id) select ?, ?, ?, ?, t.id from user_type t where t.name = ? " +
+                        "on conflict (email) do nothing returning user_name, user_type_id, name, avatar_url) " +
+                "select c.user_name, t.name as user_type_name, c.name, c.avatar_url, true as created from created c left join user_type t on t.id = c.user_type_id " +
+                "union all " +
+                "select u.user_name, t.name, u.name, u.avatar_url, false from users u left join user_type t on t.id = u.user_type_id where u.email = ? and not exists (select 1 from created)",
+                OAUTH2_LOGIN_USER_ROW_MAPPER,
+                name, userName, email, password, userTypeName, email);
+        if (users.isEmpty()) {
+            // Lost a race with a concurrent first login of the same email, its row is committed by now
+            users = jdbcTemplate.query("select u.user_name, t.name, u.name, u.avatar_url, false from users u left join user_type t on t.id = u.user_type_id where u.email = ?",
+                    OAUTH2_LOGIN_USER_ROW_MAPPER, email);
+        }
+        if (users.isEmpty()) {
+            throw new EmptyResultDataAccessException("User Type " + userTypeName + " doesn't exist in database", 1);
+        }
+        return users.get(0);
+    }
+
     @Override
     public void updateOauth2Info(String newName, String avatarURL, String userName) {
         if(usernameExists(userName) == -1L){
@@ -1,63 +1,131 @@
 package in.ac.iitj.instiapp.Utils;
 
+import in.ac.iitj.instiapp.database.entities.Auth.KeyRingKey;
+import in.ac.iitj.instiapp.services.JWTTokens.KeyRing;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.client.HttpServerErrorException;
 
 import javax.crypto.*;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.InvalidAlgorithmParameterException;
 import java.security.InvalidKeyException;
 import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
 import java.util.Base64;
 
 public class AESUtil {
 
 
     private static final String AES_Algorithm = "AES";
+    private static final String AES_Transformation = "AES/GCM/NoPadding";
+    private static final int IV_LENGTH = 12;
+    private static final int TAG_LENGTH_BITS = 128;
+    // Separates the kid from the encrypted value, base64url never contains it
+    private static final char KID_SEPARATOR = '.';
     private static final Logger log = LoggerFactory.getLogger(AESUtil.class);
 
-    private static Cipher cipherEncryptor;
-    private static Cipher cipherDecryptor;
+    private static final SecureRandom secureRandom = new SecureRandom();
 
+    // Cipher instances aren't thread-safe, each thread keeps its own and initialises it per call with a fresh IV
+    private static final ThreadLocal<Cipher> cipher = ThreadLocal.withInitial(AESUtil::newCipher);
 
-    private static void refreshKeyAndCipher(){
+    // Used while no key ring is set or the ring has no AES key, and for values without kid
+    private static volatile SecretKey secretKey = generateKey();
+    private static volatile KeyRing keyRing;
+
+
+    private static SecretKey generateKey(){
         try {
-            SecretKey secretKey = KeyGenerator.getInstance(AES_Algorithm).generateKey();
-            cipherEncryptor = Cipher.getInstance(AES_Algorithm);
-            cipherEncryptor.init(Cipher.ENCRYPT_MODE, secretKey);
-            cipherDecryptor = Cipher.getInstance(AES_Algorithm);
-            cipherDecryptor.init(Cipher.DECRYPT_MODE, secretKey);
-        }catch (NoSuchAlgorithmException | NoSuchPaddingException  | InvalidKeyException e){
+            return KeyGenerator.getInstance(AES_Algorithm).generateKey();
+        }catch (NoSuchAlgorithmException e){
             log.error(e.getMessage());
             throw new HttpServerErrorException(HttpStatus.INTERNAL_SERVER_ERROR);
         }
     }
 
-    static {
-      refreshKeyAndCipher();
+    private static Cipher newCipher(){
+        try {
+            return Cipher.getInstance(AES_Transformation);
+        }catch (NoSuchAlgorithmException | NoSuchPaddingException e){
+            log.error(e.getMessage());
+            throw new HttpServerErrorException(HttpStatus.INTERNAL_SERVER_ERROR);
+        }
     }
 
 
+    /**
+     * Output is base64url of the IV followed by the ciphertext and tag, the same payload encrypts differently every time.
+     * With a key ring it is prefixed by the kid of the active key, so the value can be decrypted after the key rotates
+     */
     public static String  encrypt(String payload){
+        KeyRing ring = keyRing;
+        KeyRing.Entry activeKey = ring == null ? null : ring.activeKey(KeyRingKey.Purpose.AES);
+        byte[] iv = new byte[IV_LENGTH];
+        secureRandom.nextBytes(iv);
         try {
-            return Base64.getUrlEncoder().encodeToString( cipherEncryptor.doFinal(payload.getBytes()));
-        } catch (IllegalBlockSizeException  | BadPaddingException e) {
+            Cipher encryptor = cipher.get();
+            encryptor.init(Cipher.ENCRYPT_MODE, activeKey == null ? secretKey : activeKey.getSecretKey(), new GCMParameterSpec(TAG_LENGTH_BITS, iv));
+            byte[] encrypted = encryptor.doFinal(payload.getBytes(StandardCharsets.UTF_8));
+            String value = Base64.getUrlEncoder().encodeToString(ByteBuffer.allocate(IV_LENGTH + encrypted.length).put(iv).put(encrypted).array());
+            return activeKey == null ? value : activeKey.getKid() + KID_SEPARATOR + value;
+        } catch (InvalidKeyException | InvalidAlgorithmParameterException | IllegalBlockSizeException  | BadPaddingException e) {
             log.error(e.getMessage());
             throw new HttpServerErrorException(HttpStatus.INTERNAL_SERVER_ERROR);
         }
     }
 
     public static String decrypt(String payload){
+        SecretKey key = secretKey;
+        int separator = payload.indexOf(KID_SEPARATOR);
+        if (separator >= 0) {
+            KeyRing ring = keyRing;
+            key = ring == null ? null : ring.key(KeyRingKey.Purpose.AES, payload.substring(0, separator));
+            if (key == null)
+                throw new IllegalArgumentException("cannot decrypt value");
+            payload = payload.substring(separator + 1);
+        }
         try {
-            return new String(cipherDecryptor.doFinal(Base64.getUrlDecoder().decode(payload)));
-        }catch (IllegalBlockSizeException | BadPaddingException e){
+            byte[] decoded = Base64.getUrlDecoder().decode(payload);
+            if (decoded.length <= IV_LENGTH)
+                throw new IllegalArgumentException("cannot decrypt value");
+            Cipher decryptor = cipher.get();
+            decryptor.init(Cipher.DECRYPT_MODE, key, new GCMParameterSpec(TAG_LENGTH_BITS, decoded, 0, IV_LENGTH));
+            return new String(decryptor.doFinal(decoded, IV_LENGTH, decoded.length - IV_LENGTH), StandardCharsets.UTF_8);
+        }catch (InvalidKeyException | InvalidAlgorithmParameterException | IllegalBlockSizeException | BadPaddingException e){
             log.error(e.getMessage());
             throw new IllegalArgumentException("cannot decrypt value");
         }
     }
 
+    /**
+     * Encrypts with the active AES key of the ring from now on, values with the kid of any unexpired key of the ring can be decrypted
+     */
+    public static void useKeyRing(KeyRing ring){
+        keyRing = ring;
+    }
+
+    /**
+     * Replaces the key with the configured one, every instance sharing it can decrypt what the others encrypted
+     * @param base64Key base64 of a 128, 192 or 256 bit key
+     * @throws IllegalArgumentException if the key isn't valid base64 or has another length
+     */
+    public static void loadKey(String base64Key){
+        byte[] key = Base64.getDecoder().decode(base64Key.trim());
+        if (key.length != 16 && key.length != 24 && key.length != 32)
+            throw new IllegalArgumentException("AES key has to be 128, 192 or 256 bits");
+        secretKey = new SecretKeySpec(key, AES_Algorithm);
+    }
+
+    /**
+     * Replaces the key with a random one, values encrypted before can't be decrypted anymore
+     */
     public static void reloadKey(){
-        refreshKeyAndCipher();
+        secretKey = generateKey();
     }
 
 }
@@ -0,0 +1,102 @@
+package in.ac.iitj.instiapp.Utils;
+
+import in.ac.iitj.instiapp.payload.common.CursorPage;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Keyset pagination over the primary key.
+ * <p>
+ * A page is the first {@code size} rows with {@code id > afterId} in {@code ORDER BY id}, so every page costs one index
+ * range scan no matter how deep it is and rows inserted meanwhile never shift or repeat items. The client only sees an
+ * opaque cursor encoding the id of the last row it received.
+ * <p>
+ * Queries select the id next to the item, {@code select e.id, new Dto(...) ... where e.id > :after order by e.id},
+ * and fetch {@link #limit()} rows, one more than the page size, to tell whether there is a next page.
+ */
+public final class PageCursor {
+
+    public static final int DEFAULT_SIZE = 20;
+    public static final int MAX_SIZE = 100;
+
+    private static final String VERSION_PREFIX = "v1:";
+
+    private final long afterId;
+    private final int size;
+
+    private PageCursor(long afterId, int size) {
+        this.afterId = afterId;
+        this.size = size;
+    }
+
+    /**
+     * @param cursor token from {@link CursorPage#getNextCursor()}, null or blank for the first page
+     * @param size number of items per page, null for {@link #DEFAULT_SIZE}
+     * @throws IllegalArgumentException if the cursor is malformed or the size is not between 1 and {@link #MAX_SIZE}
+     */
+    public static PageCursor of(String cursor, Integer size) {
+        int pageSize = size == null ? DEFAULT_SIZE : size;
+        if (pageSize < 1 || pageSize > MAX_SIZE) {
+            throw new IllegalArgumentException("Page size must be between 1 and " + MAX_SIZE);
+        }
+        return new PageCursor(decode(cursor), pageSize);
+    }
+
+    /**
+     * Last id seen by the client, the next page starts after it. 0 for the first page
+     */
+    public long afterId() {
+        return afterId;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Rows to fetch, one more than the page size
+     */
+    public int limit() {
+        return size + 1;
+    }
+
+    /**
+     * @param rows {@code [Long id, T item]} in id order, at most {@link #limit()} of them
+     */
+    @SuppressWarnings("unchecked")
+    public <T> CursorPage<T> toPage(List<Object[]> rows) {
+        int count = Math.min(rows.size(), size);
+        List<T> items = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            items.add((T) rows.get(i)[1]);
+        }
+        String next = rows.size() > size ? encode(((Number) rows.get(count - 1)[0]).longValue()) : null;
+        return new CursorPage<>(items, next);
+    }
+
+    public static String encode(long id) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((VERSION_PREFIX + id).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static long decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return 0L;
+        }
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            if (decoded.startsWith(VERSION_PREFIX)) {
+                long id = Long.parseLong(decoded.substring(VERSION_PREFIX.length()));
+                if (id >= 0) {
+                    return id;
+                }
+            }
+        } catch (IllegalArgumentException ignored) {
+            // NumberFormatException is an IllegalArgumentException too
+        }
+        throw new IllegalArgumentException("Invalid page cursor");
+    }
+}
@@ -0,0 +1,77 @@
+package in.ac.iitj.instiapp.Utils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Keyset pagination over ranked results, the ranked counterpart of {@link PageCursor}.
+ * <p>
+ * Results are ordered by number of matched query terms descending, then score descending, then id ascending. A page is
+ * the first {@code size} results after the last (matched terms, score, id) the client received, which the opaque cursor
+ * encodes, so no result is skipped or repeated while the scores stay the same.
+ */
+public final class RankCursor {
+
+    private static final String VERSION_PREFIX = "r2:";
+
+    private final int afterMatchedTerms;
+    private final float afterScore;
+    private final long afterId;
+    private final int size;
+
+    private RankCursor(int afterMatchedTerms, float afterScore, long afterId, int size) {
+        this.afterMatchedTerms = afterMatchedTerms;
+        this.afterScore = afterScore;
+        this.afterId = afterId;
+        this.size = size;
+    }
+
+    /**
+     * @param cursor token from {@link in.ac.iitj.instiapp.payload.common.CursorPage#getNextCursor()}, null or blank for the first page
+     * @param size number of items per page, null for {@link PageCursor#DEFAULT_SIZE}
+     * @throws IllegalArgumentException if the cursor is malformed or the size is not between 1 and {@link PageCursor#MAX_SIZE}
+     */
+    public static RankCursor of(String cursor, Integer size) {
+        int pageSize = size == null ? PageCursor.DEFAULT_SIZE : size;
+        if (pageSize < 1 || pageSize > PageCursor.MAX_SIZE) {
+            throw new IllegalArgumentException("Page size must be between 1 and " + PageCursor.MAX_SIZE);
+        }
+        if (cursor == null || cursor.isBlank()) {
+            return new RankCursor(Integer.MAX_VALUE, Float.POSITIVE_INFINITY, 0L, pageSize);
+        }
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            if (decoded.startsWith(VERSION_PREFIX)) {
+                String[] parts = decoded.substring(VERSION_PREFIX.length()).split(":", 3);
+                int matchedTerms = Integer.parseInt(parts[0]);
+                float score = Float.intBitsToFloat(Integer.parseInt(parts[1]));
+                long id = Long.parseLong(parts[2]);
+                if (parts.length == 3 && matchedTerms >= 0 && !Float.isNaN(score) && id >= 0) {
+                    return new RankCursor(matchedTerms, score, id, pageSize);
+                }
+            }
+        } catch (IllegalArgumentException | ArrayIndexOutOfBoundsException ignored) {
+            // NumberFormatException is an IllegalArgumentException too
+        }
+        throw new IllegalArgumentException("Invalid page cursor");
+    }
+
+    /**
+     * @return true if the result comes after the cursor, i.e. belongs to this page or a later one
+     */
+    public boolean isAfter(int matchedTerms, float score, long id) {
+        if (matchedTerms != afterMatchedTerms) {
+            return matchedTerms < afterMatchedTerms;
+        }
+        return score < afterScore || (score == afterScore && id > afterId);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public static String encode(int matchedTerms, float score, long id) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((VERSION_PREFIX + matchedTerms + ":" + Float.floatToIntBits(score) + ":" + id).getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,38 @@
+package in.ac.iitj.instiapp.authfiles;
+
+import in.ac.iitj.instiapp.database.entities.User.Organisation.OrganisationPermission;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Organisation permissions of one user at the time it was loaded, immutable so it can be shared between requests
+ */
+public final class AuthorizationSnapshot {
+
+    private final Map<String, OrganisationPermission> permissions;
+
+    public AuthorizationSnapshot(Map<String, OrganisationPermission> permissions) {
+        this.permissions = Map.copyOf(permissions);
+    }
+
+    /**
+     * @return permission of the user's role in the organisation, empty if the user has no role in it
+     */
+    public Optional<OrganisationPermission> getPermission(String organisationUsername) {
+        return Optional.ofNullable(permissions.get(organisationUsername));
+    }
+
+    /**
+     * @return true if the user's role in the organisation allows at least {@code required}
+     */
+    public boolean hasPermission(String organisationUsername, OrganisationPermission required) {
+        OrganisationPermission permission = permissions.get(organisationUsername);
+        return permission != null && permission.includes(required);
+    }
+
+    public Set<String> getOrganisations() {
+        return permissions.keySet();
+    }
+}
@@ -0,0 +1,131 @@
+package in.ac.iitj.instiapp.authfiles;
+
+import in.ac.iitj.instiapp.Repository.UserRepository;
+import in.ac.iitj.instiapp.database.entities.User.Organisation.OrganisationPermission;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * {@link AuthorizationSnapshot} per username, so a permission check costs one query per user and TTL instead of one per check.
+ * <p>
+ * Snapshots are bounded to {@link #MAX_CACHED_USERS} users and reloaded after {@link #TTL_MILLIS}. Role changes made through
+ * {@link in.ac.iitj.instiapp.services.OrganisationRoleService} evict the affected snapshots right away and again after the
+ * transaction commits, other instances see them after the TTL.
+ * <p>
+ * Usable in {@code @PreAuthorize}, e.g. {@code @PreAuthorize("@organisationAuthorization.hasPermission(#organisationUsername, 'MASTER', authentication)")}
+ */
+@Service("organisationAuthorization")
+public class AuthorizationSnapshotCache {
+
+    private static final int MAX_CACHED_USERS = 10_000;
+    private static final long TTL_MILLIS = 10 * 60 * 1000;
+
+    private final UserRepository userRepository;
+    private final Map<String, CachedSnapshot> snapshots = new ConcurrentHashMap<>();
+
+    // Bumped by every eviction, a snapshot loaded while an eviction ran may be stale and isn't cached
+    private final AtomicLong evictions = new AtomicLong();
+
+    public AuthorizationSnapshotCache(UserRepository userRepository) {
+        this.userRepository = userRepository;
+    }
+
+    /**
+     * @return true if the authenticated user is the organisation itself, or has a role in it that allows at least {@code permission}
+     * @throws IllegalArgumentException if {@code permission} isn't an {@link OrganisationPermission}
+     */
+    public boolean hasPermission(String organisationUsername, String permission, Authentication authentication) {
+        OrganisationPermission required = OrganisationPermission.valueOf(permission);
+        if (authentication == null || !authentication.isAuthenticated()) {
+            return false;
+        }
+        return hasPermission(organisationUsername, required, authentication.getName());
+    }
+
+    /**
+     * @return true if the user is the organisation itself, or has a role in it that allows at least {@code required}
+     */
+    public boolean hasPermission(String organisationUsername, OrganisationPermission required, String username) {
+        if (organisationUsername == null || username == null) {
+            return false;
+        }
+        if (organisationUsername.equals(username)) {
+            return true;
+        }
+        return getSnapshot(username).hasPermission(organisationUsername, required);
+    }
+
+    public AuthorizationSnapshot getSnapshot(String username) {
+        long now = System.currentTimeMillis();
+        CachedSnapshot cached = snapshots.get(username);
+        if (cached != null) {
+            if (cached.expiresAt > now) {
+                return cached.snapshot;
+            }
+            snapshots.remove(username, cached);
+        }
+
+        long evictionsBefore = evictions.get();
+        AuthorizationSnapshot snapshot = new AuthorizationSnapshot(userRepository.getOrganisationPermissions(username));
+        if (snapshots.size() >= MAX_CACHED_USERS) {
+            evictExpired(now);
+        }
+        if (snapshots.size() < MAX_CACHED_USERS) {
+            snapshots.put(username, new CachedSnapshot(snapshot, now + TTL_MILLIS));
+            // An eviction that ran during the load may have missed this entry
+            if (evictions.get() != evictionsBefore) {
+                snapshots.remove(username);
+            }
+        }
+        return snapshot;
+    }
+
+    /**
+     * Evicts the snapshot of a user whose roles changed
+     */
+    public void evictUser(String username) {
+        evictNowAndAfterCommit(() -> snapshots.remove(username));
+    }
+
+    /**
+     * Evicts the snapshot of every user with a role in the organisation, for changes to a role shared by several users
+     */
+    public void evictOrganisation(String organisationUsername) {
+        evictNowAndAfterCommit(() -> snapshots.values().removeIf(cached -> cached.snapshot.getPermission(organisationUsername).isPresent()));
+    }
+
+    private void evictNowAndAfterCommit(Runnable eviction) {
+        evictions.incrementAndGet();
+        eviction.run();
+        // Until the commit, concurrent loads still read the old roles
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evictions.incrementAndGet();
+                    eviction.run();
+                }
+            });
+        }
+    }
+
+    private void evictExpired(long now) {
+        snapshots.values().removeIf(cached -> cached.expiresAt <= now);
+    }
+
+    private static final class CachedSnapshot {
+        final AuthorizationSnapshot snapshot;
+        final long expiresAt;
+
+        CachedSnapshot(AuthorizationSnapshot snapshot, long expiresAt) {
+            this.snapshot = snapshot;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,200 @@
+package in.ac.iitj.instiapp.authfiles;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.AccessLevel;
+import lombok.Getter;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
+import org.springframework.security.web.util.matcher.OrRequestMatcher;
+import org.springframework.security.web.util.matcher.RequestMatcher;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * In-process token bucket rate limiter with one bucket per rule and client.
+ * <p>
+ * A bucket holds up to {@code capacity} tokens and gains one every {@code refillInterval}, a request takes a token or is
+ * throttled. The bucket is a single {@link AtomicLong}, the time at which it will be full again, updated with compare and set,
+ * so admitting a request never locks. Buckets live in {@link #STRIPES} concurrent maps picked by key hash. A full bucket
+ * behaves like a missing one, so buckets idle for {@link #IDLE_AFTER} are evicted a stripe at a time, and a stripe that
+ * reaches its share of {@link #MAX_BUCKETS} drops its full buckets before growing.
+ * <p>
+ * Admitted and throttled requests are counted in {@code instiapp.ratelimit.requests}, tagged with the rule and the outcome.
+ */
+public class RateLimiter {
+
+    private static final int STRIPES = 16;
+    private static final int MAX_BUCKETS = 100_000;
+    private static final Duration IDLE_AFTER = Duration.ofMinutes(10);
+
+    private final List<Rule> rules;
+    private final LongSupplier nanoClock;
+    @SuppressWarnings("unchecked")
+    private final ConcurrentHashMap<String, AtomicLong>[] stripes = new ConcurrentHashMap[STRIPES];
+
+    public RateLimiter(List<Rule> rules, MeterRegistry meterRegistry) {
+        this(rules, meterRegistry, System::nanoTime);
+    }
+
+    /**
+     * @param nanoClock monotonic clock in nanoseconds, like {@link System#nanoTime()}
+     */
+    public RateLimiter(List<Rule> rules, MeterRegistry meterRegistry, LongSupplier nanoClock) {
+        this.rules = List.copyOf(rules);
+        this.nanoClock = nanoClock;
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new ConcurrentHashMap<>();
+        }
+        for (Rule rule : this.rules) {
+            rule.admitted = requestCounter(meterRegistry, rule, "admitted");
+            rule.throttled = requestCounter(meterRegistry, rule, "throttled");
+        }
+        Gauge.builder("instiapp.ratelimit.buckets", this, RateLimiter::bucketCount)
+                .description("Rate limit buckets held in memory")
+                .register(meterRegistry);
+    }
+
+    /**
+     * @return first rule matching the request, null if the request isn't limited
+     */
+    public Rule match(HttpServletRequest request) {
+        for (Rule rule : rules) {
+            if (rule.matcher.matches(request)) {
+                return rule;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Takes a token from the client's bucket of the rule
+     *
+     * @param client username or IP address of the client
+     * @return 0 if the request is admitted, otherwise nanoseconds until the bucket has a token again
+     */
+    public long tryAcquire(Rule rule, String client) {
+        String key = rule.name + '|' + client;
+        long interval = rule.refillInterval.toNanos();
+        long burst = interval * rule.capacity;
+        long now = nanoClock.getAsLong();
+
+        AtomicLong fullAt = bucket(key, now);
+        while (true) {
+            long current = fullAt.get();
+            // A full bucket's fullAt lies in the past, it can't hold more than capacity tokens
+            long updated = Math.max(current, now) + interval;
+            long wait = updated - now - burst;
+            if (wait > 0) {
+                rule.throttled.increment();
+                return wait;
+            }
+            if (fullAt.compareAndSet(current, updated)) {
+                rule.admitted.increment();
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Evicts the buckets that have been full for {@link #IDLE_AFTER}
+     */
+    @Scheduled(fixedDelay = 1, initialDelay = 1, timeUnit = TimeUnit.MINUTES)
+    public void evictIdleBuckets() {
+        long idleSince = nanoClock.getAsLong() - IDLE_AFTER.toNanos();
+        for (ConcurrentHashMap<String, AtomicLong> stripe : stripes) {
+            // A request racing the eviction may update a removed bucket, at worst it gets its token back
+            stripe.values().removeIf(fullAt -> fullAt.get() - idleSince <= 0);
+        }
+    }
+
+    public int bucketCount() {
+        int count = 0;
+        for (ConcurrentHashMap<String, AtomicLong> stripe : stripes) {
+            count += stripe.size();
+        }
+        return count;
+    }
+
+    private AtomicLong bucket(String key, long now) {
+        ConcurrentHashMap<String, AtomicLong> stripe = stripes[Math.floorMod(key.hashCode(), STRIPES)];
+        AtomicLong fullAt = stripe.get(key);
+        if (fullAt != null) {
+            return fullAt;
+        }
+        if (stripe.size() >= MAX_BUCKETS / STRIPES) {
+            stripe.values().removeIf(bucket -> bucket.get() - now <= 0);
+            if (stripe.size() >= MAX_BUCKETS / STRIPES) {
+                // Every bucket of the stripe is in use, a fresh bucket that isn't kept admits at most one burst
+                return new AtomicLong(now);
+            }
+        }
+        return stripe.computeIfAbsent(key, k -> new AtomicLong(now));
+    }
+
+    private static Counter requestCounter(MeterRegistry meterRegistry, Rule rule, String outcome) {
+        return Counter.builder("instiapp.ratelimit.requests")
+                .description("Requests checked by the rate limiter")
+                .tag("rule", rule.name)
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+
+    @Getter
+    public static final class Rule {
+        private final String name;
+        private final int capacity;
+        private final Duration refillInterval;
+        private final RequestMatcher matcher;
+        @Getter(AccessLevel.NONE)
+        private Counter admitted;
+        @Getter(AccessLevel.NONE)
+        private Counter throttled;
+
+        /**
+         * @param patterns ant patterns of the paths the rule applies to
+         * @param methods  HTTP methods the rule applies to, empty for every method
+         * @param capacity requests a client can make in a burst
+         * @param refillPerMinute tokens added to a bucket per minute
+         */
+        public Rule(String name, List<String> patterns, List<String> methods, int capacity, int refillPerMinute) {
+            if (patterns.isEmpty() || capacity < 1 || refillPerMinute < 1) {
+                throw new IllegalArgumentException("Rate limit rule " + name + " needs a pattern, a capacity and a refill rate");
+            }
+            this.name = name;
+            this.capacity = capacity;
+            this.refillInterval = Duration.ofMinutes(1).dividedBy(refillPerMinute);
+
+            List<RequestMatcher> matchers = new ArrayList<>();
+            for (String pattern : patterns) {
+                if (methods.isEmpty()) {
+                    matchers.add(new AntPathRequestMatcher(pattern));
+                } else {
+                    methods.forEach(method -> matchers.add(new AntPathRequestMatcher(pattern, method)));
+                }
+            }
+            this.matcher = new OrRequestMatcher(matchers);
+        }
+
+        public Rule(String name, String pattern, String methods, int capacity, int refillPerMinute) {
+            this(name, splitList(pattern), splitList(methods), capacity, refillPerMinute);
+        }
+
+        private static List<String> splitList(String value) {
+            return Arrays.stream(value.split(","))
+                    .map(String::trim)
+                    .filter(item -> !item.isEmpty())
+                    .toList();
+        }
+    }
+}
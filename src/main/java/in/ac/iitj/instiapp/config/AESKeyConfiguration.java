@@ -0,0 +1,24 @@
+package in.ac.iitj.instiapp.config;
+
+import in.ac.iitj.instiapp.Utils.AESUtil;
+import in.ac.iitj.instiapp.services.JWTTokens.KeyRing;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Points {@link AESUtil} at the key ring, and loads the key for values without kid from {@code aes.secret-key} once at startup
+ */
+@Configuration
+public class AESKeyConfiguration {
+
+    private static final org.slf4j.Logger log = org.slf4j.LoggerFactory.getLogger(AESKeyConfiguration.class);
+
+    public AESKeyConfiguration(KeyRing keyRing, @Value("${aes.secret-key:}") String base64Key) {
+        AESUtil.useKeyRing(keyRing);
+        if (base64Key.isBlank()) {
+            log.info("aes.secret-key is not configured, values without kid are only readable by the instance that encrypted them");
+            return;
+        }
+        AESUtil.loadKey(base64Key);
+    }
+}
@@ -1,9 +1,6 @@
 package in.ac.iitj.instiapp.config;
 
-import in.ac.iitj.instiapp.database.entities.User.Usertype;
-import in.ac.iitj.instiapp.payload.Auth.SignupDto;
-import in.ac.iitj.instiapp.payload.User.UserBaseDto;
-import in.ac.iitj.instiapp.payload.User.UserDetailedDto;
+import in.ac.iitj.instiapp.payload.Auth.OAuth2LoginUserDto;
 import in.ac.iitj.instiapp.services.UserService;
 import io.jsonwebtoken.io.IOException;
 import jakarta.servlet.http.Cookie;
@@ -15,28 +12,25 @@ import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.User;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.oauth2.core.user.OAuth2User;
 import org.springframework.security.web.authentication.AuthenticationSuccessHandler;
 import org.springframework.stereotype.Component;
 
 import java.util.Collections;
 import java.util.List;
-import java.util.UUID;
+import java.util.Objects;
 
 @Component
 public class GoogleOAuth2SuccessHandler implements AuthenticationSuccessHandler {
 
+    private static final org.slf4j.Logger log = org.slf4j.LoggerFactory.getLogger(GoogleOAuth2SuccessHandler.class);
+
     @Autowired
     private UserService userService;
 
     @Autowired
     private JwtProvider jwtProvider;
 
-    @Autowired
-    private PasswordEncoder passwordEncoder;
-
     @Override
     public void onAuthenticationSuccess(HttpServletRequest request,
                                         HttpServletResponse response,
@@ -48,70 +42,34 @@ public class GoogleOAuth2SuccessHandler implements AuthenticationSuccessHandler
         String firstName = oauthUser.getAttribute("given_name");
         String lastName = oauthUser.getAttribute("family_name");
 
-        System.out.println("[OAuth2] Email: " + email);
-        System.out.println("[OAuth2] First Name: " + firstName);
-        System.out.println("[OAuth2] Last Name: " + lastName);
-
-        Long userExists = userService.emailExists(email);
-        System.out.println("[OAuth2] User exists check returned: " + userExists);
-
-        Usertype userType = new Usertype();
-        userType.setName("Student");
-        userType.setId(1L);
-
-        boolean isNew = false;
-
-        if (userExists == -1L) {
-            System.out.println("[OAuth2] No existing user. Proceeding with signup...");
-
-            String generatedUsername = userService.createUsername(firstName, lastName, email);
-            System.out.println("[OAuth2] Generated Username: " + generatedUsername);
-
-            SignupDto newUser = new SignupDto(
-                    firstName,
-                    email,
-                    generatedUsername,
-                    UUID.randomUUID().toString(),
-                    "",
-                    userType
-            );
-
-            try {
-                userService.save(newUser);
-                System.out.println("[OAuth2] New user saved successfully.");
-            } catch (Exception e) {
-                System.err.println("[OAuth2] Error saving new user: " + e.getMessage());
-                e.printStackTrace();
-                response.sendError(HttpServletResponse.SC_INTERNAL_SERVER_ERROR, "User creation failed.");
-                return;
-            }
-
-            isNew = true;
-        } else {
-            System.out.println("[OAuth2] Existing user found. Skipping signup.");
+        // One statement resolves the user, or creates it on the first login
+        OAuth2LoginUserDto user;
+        try {
+            user = userService.getOrCreateOauth2User(email, firstName, lastName);
+        } catch (Exception e) {
+            log.error("[OAuth2] Could not resolve or create user for {}", email, e);
+            response.sendError(HttpServletResponse.SC_INTERNAL_SERVER_ERROR, "User creation failed.");
+            return;
+        }
+        String username = user.getUserName();
+        boolean isNew = user.isCreated();
+        log.debug("[OAuth2] Login of {} as {}, new user: {}", email, username, isNew);
+
+        // Name and avatar are synced off the request thread, the login does not wait for them. Most logins change neither
+        String fullName = oauthUser.getAttribute("name");
+        String name = fullName == null ? firstName : fullName;
+        String avatarUrl = oauthUser.getAttribute("picture");
+        if (!Objects.equals(name, user.getName()) || !Objects.equals(avatarUrl, user.getAvatarUrl())) {
+            userService.syncOauth2ProfileAsync(name, avatarUrl, username);
         }
 
-        String username = userService.getUsernameFromEmail(email);
-        System.out.println("[OAuth2] Resolved username from email: " + username);
-
-        UserDetailedDto userDetailedDto = userService.getUserDetailed(username);
-        System.out.println("[OAuth2] Retrieved UserDetailedDto for login.");
-
-        List<GrantedAuthority> authorities = Collections.singletonList(
-                new SimpleGrantedAuthority(userDetailedDto.getUserTypeName())
-        );
-
-        var userDetails = User.builder()
-                .username(username)
-                .password(userDetailedDto.getPassword())
-                .authorities(authorities)
-                .build();
+        List<GrantedAuthority> authorities = user.getUserTypeName() == null
+                ? Collections.emptyList()
+                : Collections.singletonList(new SimpleGrantedAuthority(user.getUserTypeName()));
 
-        Authentication newAuth = new UsernamePasswordAuthenticationToken(
-                userDetails, null, userDetails.getAuthorities());
+        Authentication newAuth = UsernamePasswordAuthenticationToken.authenticated(username, null, authorities);
 
         SecurityContextHolder.getContext().setAuthentication(newAuth);
-        System.out.println("[OAuth2] Spring Security context updated with new authentication.");
 
         String accessToken = null;
         String refreshToken = null;
@@ -164,6 +122,5 @@ public class GoogleOAuth2SuccessHandler implements AuthenticationSuccessHandler
                 String.format("{\"username\":\"%s\", \"message\":\"%s\", \"accessToken\":\"%s\", \"refreshToken\":\"%s\"}",
                         username, message, accessToken, refreshToken)
         );
-        System.out.println("[OAuth2] Cookie tokens written to response.");
     }
 }
\ No newline at end of file
@@ -1,11 +1,23 @@
 package in.ac.iitj.instiapp.config;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Header;
+import io.jsonwebtoken.Jws;
+import io.jsonwebtoken.JwtBuilder;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.SignatureAlgorithm;
-import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.ProtectedHeader;
+import io.jsonwebtoken.security.InvalidKeyException;
+import in.ac.iitj.instiapp.database.entities.Auth.KeyRingKey;
+import in.ac.iitj.instiapp.exception.InvalidTokenException;
+import in.ac.iitj.instiapp.services.JWTTokens.KeyRing;
+import in.ac.iitj.instiapp.services.JWTTokens.TokenRevocationList;
+import in.ac.iitj.instiapp.services.JWTTokens.VerifiedClaimsCache;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.stereotype.Service;
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.Jwts;
@@ -14,60 +26,109 @@ import io.jsonwebtoken.security.Keys;
 
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
+import java.security.Key;
+import java.util.Collection;
 import java.util.Date;
 import java.util.List;
+import java.util.UUID;
 import java.util.stream.Collectors;
 
 @Service
 public class JwtProvider {
 
-    SecretKey key = Keys.hmacShaKeyFor(JwtConstant.SECRET_KEY.getBytes(StandardCharsets.UTF_8));
+    private static final org.slf4j.Logger log = org.slf4j.LoggerFactory.getLogger(JwtProvider.class);
+    private static final String BEARER_PREFIX = "Bearer ";
+
+    // Parsers are immutable and thread-safe, one instance serves every request
+    private final JwtParser parser;
+
+    private final TokenRevocationList tokenRevocationList;
+    private final KeyRing keyRing;
+    private final VerifiedClaimsCache verifiedClaimsCache;
 
     private final long ACCESS_TOKEN_EXPIRATION = 1000 * 60 * 60 * 24 * 3; // 3 days
     private final long REFRESH_TOKEN_EXPIRATION = 1000 * 60 * 60 * 24 * 15; // 15 days
 
+    public JwtProvider(TokenRevocationList tokenRevocationList, KeyRing keyRing, VerifiedClaimsCache verifiedClaimsCache) {
+        this.tokenRevocationList = tokenRevocationList;
+        this.keyRing = keyRing;
+        this.verifiedClaimsCache = verifiedClaimsCache;
+        this.parser = Jwts.parser().keyLocator(this::verificationKey).build();
+    }
+
     public String generateAccessToken(Authentication auth) {
         List<String> authorities = auth.getAuthorities().stream()
                 .map(GrantedAuthority::getAuthority)
                 .collect(Collectors.toList());
 
-        return Jwts.builder()
+        return sign(Jwts.builder()
+                .id(UUID.randomUUID().toString())
                 .setIssuedAt(new Date())
                 .setExpiration(new Date(new Date().getTime() + ACCESS_TOKEN_EXPIRATION))
                 .claim("username", auth.getName())
                 .claim("authorities", authorities)
-                .claim("token_type", "access") // Added token type claim
-                .signWith(key)
-                .compact();
+                .claim("token_type", "access")); // Added token type claim
     }
 
     public String generateRefreshToken(Authentication auth) {
-        return Jwts.builder()
+        return sign(Jwts.builder()
+                .id(UUID.randomUUID().toString())
                 .setIssuedAt(new Date())
                 .setExpiration(new Date(new Date().getTime() + REFRESH_TOKEN_EXPIRATION))
                 .claim("username", auth.getName())
-                .claim("token_type", "refresh") // Added token type claim
-                .signWith(key)
+                .claim("token_type", "refresh")); // Added token type claim
+    }
+
+    /**
+     * Signs with the active key of the key ring and names it in the {@code kid} header
+     * @throws IllegalStateException if the key ring has no usable key
+     */
+    private String sign(JwtBuilder builder) {
+        KeyRing.Entry signingKey = keyRing.activeKey(KeyRingKey.Purpose.JWT);
+        if (signingKey == null) {
+            throw new IllegalStateException("The key ring has no key to sign tokens with");
+        }
+        return builder.header().keyId(signingKey.getKid()).and()
+                .signWith(signingKey.getSecretKey())
                 .compact();
     }
 
+    /**
+     * Key named by the {@code kid} header. Tokens without kid were signed with {@link JwtConstant#SECRET_KEY}, which is
+     * public, so anyone can forge them and they are never accepted
+     * @throws InvalidKeyException if the token has no kid, the kid is unknown or its key has expired
+     */
+    private Key verificationKey(Header header) {
+        String kid = header instanceof ProtectedHeader protectedHeader ? protectedHeader.getKeyId() : null;
+        if (kid == null) {
+            throw new InvalidKeyException("Tokens without key id are not accepted");
+        }
+        SecretKey secretKey = keyRing.key(KeyRingKey.Purpose.JWT, kid);
+        if (secretKey == null) {
+            throw new InvalidKeyException("Unknown key id " + kid);
+        }
+        return secretKey;
+    }
+
+    /**
+     * @param jwt value of the {@code Authorization} header
+     * @throws InvalidTokenException if the value is not a {@code Bearer} token
+     */
     public String getUsernameFromToken(String jwt) {
-        jwt = jwt.substring(7);
-        Claims claims = Jwts.parser().verifyWith(key).build().parseSignedClaims(jwt).getPayload();
+        if (jwt == null || !jwt.startsWith(BEARER_PREFIX)) {
+            throw new InvalidTokenException("Authorization header is not a Bearer token");
+        }
+        Claims claims = verifiedClaims(jwt.substring(BEARER_PREFIX.length()));
         return String.valueOf(claims.get("username"));
     }
+
     public boolean validateAccessToken(String jwt) {
         try {
-            Claims claims = Jwts.parser()                     // returns JwtParserBuilder (new in 0.12.x)
-                    .verifyWith(key)                          // verifyWith() exists in 0.12.6
-                    .build()
-                    .parseSignedClaims(jwt)
-                    .getPayload();
-            System.out.println("Token expiry: " + claims.getExpiration());
-            System.out.println("Current time: " + new Date());
+            Claims claims = verifiedClaims(jwt);
+            log.debug("Token expiry: {}", claims.getExpiration());
             return claims.getExpiration().after(new Date());
         } catch (Exception e) {
-            System.out.println("Token validation failed: " + e.getMessage());
+            log.debug("Token validation failed: {}", e.getMessage());
             return false;
         }
     }
@@ -75,15 +136,99 @@ public class JwtProvider {
     // FIXED: Added token type validation
     public boolean validateRefreshToken(String jwt) {
         try {
-            Claims claims = Jwts.parser()                     // returns JwtParserBuilder (new in 0.12.x)
-                    .verifyWith(key)                          // verifyWith() exists in 0.12.6
-                    .build()
-                    .parseSignedClaims(jwt)
-                    .getPayload();
+            Claims claims = verifiedClaims(jwt);
             return "refresh".equals(claims.get("token_type"));
         } catch (Exception e) {
-            System.out.println("Refresh token validation failed: " + e.getMessage());
+            log.debug("Refresh token validation failed: {}", e.getMessage());
             return false;
         }
     }
+
+    /**
+     * Authentication of an access token built from its {@code username} and {@code authorities} claims, the user is not loaded
+     * @param jwt compact token without the {@code Bearer } prefix
+     * @return authenticated token with the username as principal, null if the token is invalid, expired or not an access token
+     */
+    public Authentication getAuthentication(String jwt) {
+        Claims claims;
+        try {
+            claims = verifiedClaims(jwt);
+        } catch (JwtException | IllegalArgumentException e) {
+            log.debug("Access token rejected: {}", e.getMessage());
+            return null;
+        }
+        String username = claims.get("username", String.class);
+        if (!"access".equals(claims.get("token_type")) || username == null) {
+            return null;
+        }
+
+        List<GrantedAuthority> authorities = List.of();
+        if (claims.get("authorities") instanceof Collection<?> names) {
+            authorities = names.stream()
+                    .map(name -> (GrantedAuthority) new SimpleGrantedAuthority(String.valueOf(name)))
+                    .toList();
+        }
+        return UsernamePasswordAuthenticationToken.authenticated(username, null, authorities);
+    }
+
+    /**
+     * Revokes a token before its expiry, every later use of it is rejected. Invalid or expired tokens are ignored
+     * @param jwt compact token, with or without the {@code Bearer } prefix
+     */
+    public void revokeToken(String jwt) {
+        if (jwt == null || jwt.isBlank()) {
+            return;
+        }
+        String token = jwt.startsWith(BEARER_PREFIX) ? jwt.substring(BEARER_PREFIX.length()) : jwt;
+        try {
+            Claims claims = parsedClaims(token);
+            if (claims.getId() != null && claims.getExpiration() != null) {
+                tokenRevocationList.revoke(claims.getId(), claims.getExpiration().toInstant());
+            }
+        } catch (JwtException | IllegalArgumentException e) {
+            log.debug("Revocation skipped: {}", e.getMessage());
+        }
+        evictToken(token);
+    }
+
+    /**
+     * Drops a token from the verified claims cache, called on logout so the next use of the token is verified again
+     * @param jwt compact token, with or without the {@code Bearer } prefix
+     */
+    public void evictToken(String jwt) {
+        if (jwt == null || jwt.isBlank()) {
+            return;
+        }
+        verifiedClaimsCache.evict(jwt.startsWith(BEARER_PREFIX) ? jwt.substring(BEARER_PREFIX.length()) : jwt);
+    }
+
+    /**
+     * Claims of a token whose signature has already been verified, without verifying or decoding it again.
+     * A cached token is served until its {@code exp}, after that it is parsed again so the parser reports the expiry.
+     * @throws io.jsonwebtoken.JwtException if the token is malformed, has an invalid signature, is expired or revoked
+     */
+    private Claims verifiedClaims(String jwt) {
+        Claims claims = parsedClaims(jwt);
+        // Revocation is checked on every use, cached claims of a token revoked by another instance are rejected too
+        if (claims.getId() != null && tokenRevocationList.isRevoked(claims.getId())) {
+            throw new JwtException("Token has been revoked");
+        }
+        return claims;
+    }
+
+    private Claims parsedClaims(String jwt) {
+        Claims cached = verifiedClaimsCache.get(jwt, Claims.class);
+        if (cached != null) {
+            return cached;
+        }
+
+        Jws<Claims> jws = parser.parseSignedClaims(jwt);
+        Claims claims = jws.getPayload();
+        Date expiration = claims.getExpiration();
+        // Tokens without exp are never evicted by time, they are not cached
+        if (expiration != null) {
+            verifiedClaimsCache.put(jwt, claims, expiration.getTime());
+        }
+        return claims;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,59 @@
+package in.ac.iitj.instiapp.config;
+
+import in.ac.iitj.instiapp.authfiles.RateLimiter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Rate limit rules of the auth and write endpoints.
+ * <p>
+ * {@code ratelimit.rules} lists the rules in the order they are matched. Every rule reads {@code ratelimit.<rule>.pattern}
+ * (comma separated ant patterns), {@code ratelimit.<rule>.methods} (comma separated, blank for every method),
+ * {@code ratelimit.<rule>.capacity} and {@code ratelimit.<rule>.refill-per-minute}, falling back to the defaults below.
+ * {@code ratelimit.enabled=false} turns throttling off.
+ */
+@Configuration
+public class RateLimitConfiguration {
+
+    private static final String DEFAULT_RULES = "auth,lostnfound-create,grievance-create,organisation-write";
+
+    // pattern, methods, capacity, refill per minute
+    private static final Map<String, String[]> DEFAULTS = Map.of(
+            "auth", new String[]{"/api/v1/auth/**", "", "20", "10"},
+            "lostnfound-create", new String[]{"/api/lostnfound/", "POST", "10", "5"},
+            "grievance-create", new String[]{"/api/grievance/create", "POST", "5", "2"},
+            // Organisation saves upload their media to Cloudinary
+            "organisation-write", new String[]{"/api/organisations/**", "POST,PUT", "10", "5"}
+    );
+
+    @Bean
+    public RateLimiter rateLimiter(Environment environment, MeterRegistry meterRegistry) {
+        List<RateLimiter.Rule> rules = new ArrayList<>();
+        if (environment.getProperty("ratelimit.enabled", Boolean.class, true)) {
+            for (String name : environment.getProperty("ratelimit.rules", DEFAULT_RULES).split(",")) {
+                name = name.trim();
+                if (!name.isEmpty()) {
+                    rules.add(rule(environment, name));
+                }
+            }
+        }
+        return new RateLimiter(rules, meterRegistry);
+    }
+
+    private static RateLimiter.Rule rule(Environment environment, String name) {
+        String[] defaults = DEFAULTS.getOrDefault(name, new String[]{"", "", "0", "0"});
+        String prefix = "ratelimit." + name + ".";
+        return new RateLimiter.Rule(
+                name,
+                environment.getProperty(prefix + "pattern", defaults[0]),
+                environment.getProperty(prefix + "methods", defaults[1]),
+                environment.getProperty(prefix + "capacity", Integer.class, Integer.parseInt(defaults[2])),
+                environment.getProperty(prefix + "refill-per-minute", Integer.class, Integer.parseInt(defaults[3])));
+    }
+}
@@ -0,0 +1,106 @@
+package in.ac.iitj.instiapp.config;
+
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.boot.autoconfigure.orm.jpa.EntityManagerFactoryDependsOnPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Changes to existing data that Hibernate's schema update cannot make itself, such as removing rows that would violate
+ * a unique constraint before the constraint is added.
+ * <p>
+ * Runs once on startup, before the entity manager factory and with it the schema update. Every step checks the catalog
+ * first and does nothing on a new database or once its change is in place.
+ */
+@Component(SchemaMigrations.BEAN_NAME)
+public class SchemaMigrations implements InitializingBean {
+
+    private static final org.slf4j.Logger log = org.slf4j.LoggerFactory.getLogger(SchemaMigrations.class);
+    static final String BEAN_NAME = "schemaMigrations";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public SchemaMigrations(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Bean
+    static EntityManagerFactoryDependsOnPostProcessor schemaMigrationsBeforeSchemaUpdate() {
+        return new EntityManagerFactoryDependsOnPostProcessor(BEAN_NAME);
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        keepNewestTokenPerDevice("jwt_refresh_token", "uk_jwt_refresh_token_user_device");
+        keepNewestTokenPerDevice("oauth2tokens", "uk_oauth2tokens_user_device");
+        renameDuplicateUsers("email");
+        renameDuplicateUsers("user_name");
+        backfillLostnFoundCreatedAt();
+    }
+
+    /**
+     * Deletes every row of a user and device but the newest, the one with the highest id, so the unique constraint on
+     * (user_id, device_id) can be created
+     */
+    private void keepNewestTokenPerDevice(String table, String constraint) {
+        if (!tableExists(table) || constraintExists(constraint)) {
+            return;
+        }
+        int deleted = jdbcTemplate.update("delete from " + table + " a using " + table + " b " +
+                "where a.user_id = b.user_id and a.device_id = b.device_id and a.id < b.id");
+        log.info("Deleted {} older duplicate rows per user and device from {}", deleted, table);
+    }
+
+    /**
+     * Gives every user sharing a value of the column with an older user a value of its own, the old one suffixed with
+     * the user's id, so the column can become unique. The oldest user keeps the value and with it the logins by email.
+     * Users are renamed rather than deleted, other tables reference them.
+     */
+    private void renameDuplicateUsers(String column) {
+        if (!tableExists("users") || uniqueIndexExists("users", column)) {
+            return;
+        }
+        int renamed = jdbcTemplate.update("update users u set " + column + " = u." + column + " || '.duplicate-' || u.id " +
+                "where exists (select 1 from users o where o." + column + " = u." + column + " and o.id < u.id)");
+        log.info("Renamed {} users sharing their {} with an older user", renamed, column);
+    }
+
+    /**
+     * Gives items reported before lostnfound.created_at existed the time of the migration and makes the column not null
+     * with a default, so the archiver doesn't take them for old items. The schema update adds a missing column with the
+     * default itself but never changes the nullability of an existing one.
+     */
+    private void backfillLostnFoundCreatedAt() {
+        if (!tableExists("lostnfound") || !nullableColumnExists("lostnfound", "created_at")) {
+            return;
+        }
+        int updated = jdbcTemplate.update("update lostnfound set created_at = now() where created_at is null");
+        jdbcTemplate.execute("alter table lostnfound alter column created_at set default current_timestamp");
+        jdbcTemplate.execute("alter table lostnfound alter column created_at set not null");
+        log.info("Set the creation time of {} lost and found items reported before it was recorded", updated);
+    }
+
+    private boolean nullableColumnExists(String table, String column) {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                "select exists (select 1 from information_schema.columns " +
+                        "where table_schema = current_schema() and table_name = ? and column_name = ? and is_nullable = 'YES')",
+                Boolean.class, table, column));
+    }
+
+    private boolean uniqueIndexExists(String table, String column) {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                "select exists (select 1 from pg_index i join pg_attribute a on a.attrelid = i.indrelid and a.attnum = i.indkey[0] " +
+                        "where i.indrelid = to_regclass(?) and i.indisunique and i.indnatts = 1 and a.attname = ?)",
+                Boolean.class, table, column));
+    }
+
+    private boolean tableExists(String table) {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject("select to_regclass(?) is not null", Boolean.class, table));
+    }
+
+    private boolean constraintExists(String constraint) {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                "select exists (select 1 from pg_constraint where conname = ?)", Boolean.class, constraint));
+    }
+}
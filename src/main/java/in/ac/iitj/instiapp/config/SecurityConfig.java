@@ -1,9 +1,14 @@
 package in.ac.iitj.instiapp.config;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import in.ac.iitj.instiapp.authfiles.JwtAuthenticationFilter;
+import in.ac.iitj.instiapp.authfiles.RateLimitFilter;
+import in.ac.iitj.instiapp.authfiles.RateLimiter;
 import jakarta.servlet.http.Cookie;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
@@ -13,6 +18,7 @@ import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RestController;
@@ -31,9 +37,16 @@ import jakarta.servlet.http.HttpServletRequest;
 public class SecurityConfig {
 
     private final GoogleOAuth2SuccessHandler googleOAuth2SuccessHandler;
+    private final JwtProvider jwtProvider;
+    private final RateLimiter rateLimiter;
+    private final ObjectMapper objectMapper;
 
-    public SecurityConfig(GoogleOAuth2SuccessHandler googleOAuth2SuccessHandler) {
+    public SecurityConfig(GoogleOAuth2SuccessHandler googleOAuth2SuccessHandler, JwtProvider jwtProvider,
+                          RateLimiter rateLimiter, ObjectMapper objectMapper) {
         this.googleOAuth2SuccessHandler = googleOAuth2SuccessHandler;
+        this.jwtProvider = jwtProvider;
+        this.rateLimiter = rateLimiter;
+        this.objectMapper = objectMapper;
     }
 
     @Bean
@@ -41,11 +54,18 @@ public class SecurityConfig {
         http
                 .csrf(csrf -> csrf.disable())
                 .cors(cors -> cors.disable())
+                // Requests are authenticated from the access token by JwtAuthenticationFilter, the security context is never kept in a session
                 .sessionManagement(session -> session
-                        .sessionCreationPolicy(SessionCreationPolicy.IF_REQUIRED)
+                        .sessionCreationPolicy(SessionCreationPolicy.STATELESS)
                 )
+                .addFilterBefore(new JwtAuthenticationFilter(jwtProvider), UsernamePasswordAuthenticationFilter.class)
+                // Throttled requests are rejected before they reach a controller or take a database connection
+                .addFilterAfter(new RateLimitFilter(rateLimiter, objectMapper), JwtAuthenticationFilter.class)
                 .authorizeHttpRequests(auth -> auth
-                        .requestMatchers("/", "/error", "/api/v1/auth/**", "/oauth2/**", "/login/**", "/api/users/**", "/api/**").permitAll()
+                        .requestMatchers("/", "/error", "/api/v1/auth/**", "/oauth2/**", "/login/**").permitAll()
+                        // Reads are public apart from the caller's own profile, every write needs an access token
+                        .requestMatchers(HttpMethod.GET, "/api/users/getUserDetailed").authenticated()
+                        .requestMatchers(HttpMethod.GET, "/api/**").permitAll()
                         .anyRequest().authenticated()
                 )
                 .oauth2Login(oauth -> oauth
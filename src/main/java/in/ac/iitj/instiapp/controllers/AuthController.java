@@ -70,6 +70,16 @@ public class AuthController {
         }
         SecurityContextHolder.clearContext();
 
+        // --- revoke the tokens being logged out, they are rejected from now on instead of at their expiry ---
+        jwtProvider.revokeToken(request.getHeader("Authorization"));
+        if (request.getCookies() != null) {
+            for (Cookie cookie : request.getCookies()) {
+                if ("accessToken".equals(cookie.getName()) || "refreshToken".equals(cookie.getName())) {
+                    jwtProvider.revokeToken(cookie.getValue());
+                }
+            }
+        }
+
         // --- clear your JWT cookies (always mark them Secure=true so they actually overwrite) ---
         clearCookie(response, "accessToken", "/");
         clearCookie(response, "refreshToken", "/");
@@ -1,65 +1,87 @@
 package in.ac.iitj.instiapp.controllers;
 
+import in.ac.iitj.instiapp.Utils.PageCursor;
 import in.ac.iitj.instiapp.database.entities.Scheduling.Buses.BusOverride;
+import in.ac.iitj.instiapp.database.entities.Scheduling.Buses.ScheduleType;
 import in.ac.iitj.instiapp.payload.Scheduling.Buses.*;
 import in.ac.iitj.instiapp.services.BusService;
+import in.ac.iitj.instiapp.services.JourneyPlannerService;
+import in.ac.iitj.instiapp.services.Scheduling.Buses.BusOverrideIndex;
+import in.ac.iitj.instiapp.services.Scheduling.Buses.BusTimetableCsvParser;
 import jakarta.persistence.EntityNotFoundException;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.dao.DataIntegrityViolationException;
-import org.springframework.data.domain.Pageable;
+import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.dao.IncorrectResultSizeDataAccessException;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
 import java.util.List;
 
 @RestController
 @RequestMapping("/api")
 public class BusController {
     private final BusService busService;
+    private final JourneyPlannerService journeyPlannerService;
 
     @Autowired
-    public BusController(BusService busService) {
+    public BusController(BusService busService, JourneyPlannerService journeyPlannerService) {
         this.busService = busService;
+        this.journeyPlannerService = journeyPlannerService;
     }
 
     // ------------------- Bus Location Endpoints -------------------
 
     @PostMapping("/bus-location")
     public ResponseEntity<String> saveBusLocation(@Valid @RequestBody BusLocationDto busLocationDto) {
-        busService.saveBusLocation(busLocationDto.getName());
+        try {
+            busService.saveBusLocation(busLocationDto.getName());
+        } catch (DataIntegrityViolationException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body("Error: Bus location already exists.");
+        }
         return ResponseEntity.status(HttpStatus.CREATED).body("BusLocation saved successfully");
     }
 
     @GetMapping("/bus-locations")
-    public List<String> getBusLocations(Pageable pageable){
-        return busService.getBusLocations(pageable);
+    public ResponseEntity<?> getBusLocations(@RequestParam(required = false) String cursor, @RequestParam(required = false) Integer size){
+        try {
+            return ResponseEntity.ok(busService.getBusLocations(PageCursor.of(cursor, size)));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
     }
 
 
     @PutMapping("/bus-location")
     public ResponseEntity<String> updateBusLocation(@Valid @RequestParam String oldName, @Valid @RequestParam String newName) {
-        Long oldNameExists = busService.isBusLocationExist(oldName);
-        Long newNameExists = busService.isBusLocationExist(newName);
-        if (oldNameExists == -1L) {
+        try {
+            busService.updateBusLocation(oldName, newName);
+        } catch (EmptyResultDataAccessException e) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Error: Old bus location does not exist.");
-        }
-        if (newNameExists != -1L) {
+        } catch (DataIntegrityViolationException e) {
             return ResponseEntity.status(HttpStatus.CONFLICT).body("Error: New bus location name already exists.");
         }
-        busService.updateBusLocation(oldName, newName);
         return ResponseEntity.ok("Bus location updated successfully.");
     }
 
 
     @DeleteMapping("/bus-location")
     public ResponseEntity<String> deleteBusLocation(@Valid @RequestParam String name) {
-        Long oldNameExists = busService.isBusLocationExist(name);
-        if(oldNameExists == -1L) {
+        try {
+            busService.deleteBusLocation(name);
+        } catch (EmptyResultDataAccessException e) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Error: Bus location does not exist.");
+        } catch (DataIntegrityViolationException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body("Error: Bus location is a stop of a route.");
         }
-        busService.deleteBusLocation(name);
         return ResponseEntity.ok("Bus location deleted successfully.");
     }
 
@@ -68,74 +90,116 @@ public class BusController {
 
     @PostMapping("/bus-schedule")
     public ResponseEntity<String> saveBusSchedule(@Valid @RequestParam String busNumber) {
-        busService.saveBusSchedule(busNumber);
+        try {
+            busService.saveBusSchedule(busNumber);
+        } catch (DataIntegrityViolationException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body("Error: Bus number already exists.");
+        }
         return ResponseEntity.status(HttpStatus.CREATED).body("BusSchedule saved successfully");
     }
 
     @GetMapping("/bus-schedule")
-    public ResponseEntity<?> getBusSchedule(@Valid @RequestParam String busNumber) {
-        Long busNumberExists = busService.existsBusSchedule(busNumber);
-        if (busNumberExists == -1L) {
+    public ResponseEntity<?> getBusSchedule(@Valid @RequestParam String busNumber, WebRequest webRequest) {
+        String eTag = busDataETag();
+        if (webRequest.checkNotModified(eTag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build();
+        }
+        try {
+            return ResponseEntity.ok().eTag(eTag).body(busService.getBusSchedule(busNumber));
+        } catch (EmptyResultDataAccessException e) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body("The bus number is not found");
         }
-        return ResponseEntity.ok(busService.getBusSchedule(busNumber));
     }
 
     @GetMapping("/bus-numbers")
-    public List<String> getBusNumbers(Pageable pageable) {
-        return busService.getBusNumbers(pageable);
+    public ResponseEntity<?> getBusNumbers(@RequestParam(required = false) String cursor, @RequestParam(required = false) Integer size) {
+        try {
+            return ResponseEntity.ok(busService.getBusNumbers(PageCursor.of(cursor, size)));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
     }
 
     @PutMapping("/bus-schedule")
     public ResponseEntity<String> updateBusSchedule(@Valid @RequestParam String oldBusNumber, @Valid @RequestParam String newBusNumber) {
-        Long oldBusExists = busService.existsBusSchedule(oldBusNumber);
-        Long newBusExists = busService.existsBusSchedule(newBusNumber);
-        if (oldBusExists == -1L) {
+        try {
+            busService.updateBusSchedule(oldBusNumber, newBusNumber);
+        } catch (EmptyResultDataAccessException e) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Error: Old bus number does not exist.");
-        }
-        if (newBusExists != -1L) {
+        } catch (DataIntegrityViolationException e) {
             return ResponseEntity.status(HttpStatus.CONFLICT).body("Error: New bus number already exists.");
         }
-        busService.updateBusSchedule(oldBusNumber, newBusNumber);
         return ResponseEntity.ok("Bus schedule updated successfully.");
     }
 
     @DeleteMapping("/bus-schedule")
     public ResponseEntity<String> deleteBusSchedule(@Valid @RequestParam String busNumber) {
-        Long busExists = busService.existsBusSchedule(busNumber);
-        if (busExists == -1L) {
+        try {
+            busService.deleteBusSchedule(busNumber);
+        } catch (EmptyResultDataAccessException e) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Error: Bus schedule does not exist.");
+        } catch (DataIntegrityViolationException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body("Error: Bus schedule was changed while deleting it.");
         }
-        busService.deleteBusSchedule(busNumber);
         return ResponseEntity.ok("Bus schedule deleted successfully.");
     }
 
     // ------------------- Bus Override Endpoints -------------------
 
 
-//    @PostMapping("/bus-override")
-//    public ResponseEntity<String> saveBusOverride(@Valid @RequestParam String busNumber, @Valid @RequestBody BusOverride busOverride) {
-//        busService.saveBusOverride(busNumber, busOverride);
-//        return ResponseEntity.status(HttpStatus.CREATED).body("Bus override saved successfully.");
-//    }
-//
-//    @GetMapping("bus-override")
-//    public ResponseEntity<List<BusOverrideDto>> getBusOverrideForYearAndMonth(@Valid @RequestParam int year, @Valid @RequestParam int month) {
-//        return ResponseEntity.ok(busService.getBusOverrideForYearAndMonth(year, month));
-//    }
-//    @PutMapping("/bus-override")
-//    public ResponseEntity<String> updateBusOverride(@Valid @RequestParam String publicId, @Valid @RequestBody BusOverride newBusOverride) {
-//        if (!busService.existsBusOverrideByPublicId(publicId)) {
-//            return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Error: Bus override does not exist.");
-//        }
-//        busService.updateBusOverride(publicId, newBusOverride);
-//        return ResponseEntity.ok("Bus override updated successfully.");
-//    }
-//    @DeleteMapping("/bus-override")
-//    public ResponseEntity<String> deleteBusOverride(@Valid @RequestBody List<String> busOverrideIds) {
-//        busService.deleteBusOverride(busOverrideIds);
-//        return ResponseEntity.ok("Bus overrides deleted successfully.");
-//    }
+    @PostMapping("/bus-override")
+    public ResponseEntity<String> saveBusOverride(@Valid @RequestParam String busNumber, @Valid @RequestBody BusOverride busOverride) {
+        try {
+            busService.saveBusOverride(busNumber, busOverride);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body("Error: " + e.getMessage());
+        } catch (EmptyResultDataAccessException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Error: Bus number or route does not exist.");
+        } catch (DataIntegrityViolationException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body("Error: Bus override already exists.");
+        }
+        return ResponseEntity.status(HttpStatus.CREATED).body("Bus override saved successfully.");
+    }
+
+    @GetMapping("/bus-override")
+    public ResponseEntity<List<BusOverrideDto>> getBusOverrideForYearAndMonth(@Valid @RequestParam int year, @Valid @RequestParam int month) {
+        if (month < 1 || month > 12) {
+            return ResponseEntity.badRequest().body(null);
+        }
+        return ResponseEntity.ok(busService.getBusOverrideForYearAndMonth(year, month));
+    }
+
+    @PutMapping("/bus-override")
+    public ResponseEntity<String> updateBusOverride(@Valid @RequestParam String publicId, @Valid @RequestBody BusOverride newBusOverride) {
+        try {
+            busService.updateBusOverride(publicId, newBusOverride);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body("Error: " + e.getMessage());
+        } catch (EmptyResultDataAccessException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Error: Bus override or route does not exist.");
+        }
+        return ResponseEntity.ok("Bus override updated successfully.");
+    }
+
+    @DeleteMapping("/bus-override")
+    public ResponseEntity<String> deleteBusOverride(@Valid @RequestBody List<String> busOverrideIds) {
+        busService.deleteBusOverride(busOverrideIds);
+        return ResponseEntity.ok("Bus overrides deleted successfully.");
+    }
+
+    /**
+     * Runs of a bus on a date with overrides applied, answered from the in-memory override index
+     * @param date defaults to today
+     */
+    @GetMapping("/bus-schedule/effective")
+    public ResponseEntity<BusScheduleDto> getEffectiveBusSchedule(@RequestParam String busNumber,
+                                                                  @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        try {
+            return ResponseEntity.ok(busService.getEffectiveBusSchedule(busNumber, date == null ? LocalDate.now() : date));
+        } catch (EmptyResultDataAccessException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(null);
+        }
+    }
 
     // ------------------- BusRoute and RouteStop Endpoints-------------------
 
@@ -146,9 +210,13 @@ public class BusController {
     }
 
     @GetMapping("/bus-routes")
-    public ResponseEntity<List<BusRouteDto>> getAllBusRoutes() {
+    public ResponseEntity<List<BusRouteDto>> getAllBusRoutes(WebRequest webRequest) {
+        String eTag = busDataETag();
+        if (webRequest.checkNotModified(eTag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build();
+        }
         List<BusRouteDto> routes = busService.getAllBusRoutes();
-        return ResponseEntity.ok(routes);
+        return ResponseEntity.ok().eTag(eTag).body(routes);
     }
     @GetMapping("/bus-routes/{routeId}")
     public ResponseEntity<BusRouteDto> getBusRoute(@PathVariable Long routeId) {
@@ -224,16 +292,133 @@ public class BusController {
             return ResponseEntity.status(HttpStatus.CONFLICT).body(null);
         }
     }
-}
-
-
-
 
+    // ------------------- Change Feed Endpoints -------------------
 
+    /**
+     * Runs and routes changed after {@code since}, see {@link BusService#getBusChanges(long)}
+     */
+    @GetMapping("/bus/changes")
+    public ResponseEntity<BusChangesDto> getBusChanges(@RequestParam(defaultValue = "0") long since) {
+        if (since < 0) {
+            return ResponseEntity.badRequest().body(null);
+        }
+        return ResponseEntity.ok(busService.getBusChanges(since));
+    }
 
+    /**
+     * Strong ETag shared by the bus reads. Read before the body so a concurrent write can only make the body newer than the tag
+     */
+    private String busDataETag() {
+        return "\"" + busService.getBusVersion() + "\"";
+    }
 
+    /**
+     * Departures board of a stop, served from the bus_departure read model
+     * @param from start of the window, defaults to the current time
+     * @param minutes length of the window
+     * @param scheduleType defaults to today's schedule type
+     */
+    @GetMapping("/bus-departure-board")
+    public ResponseEntity<List<BusDepartureDto>> getDepartureBoard(@RequestParam String location,
+                                                                   @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.TIME) LocalTime from,
+                                                                   @RequestParam(defaultValue = "60") int minutes,
+                                                                   @RequestParam(required = false) ScheduleType scheduleType,
+                                                                   @RequestParam(defaultValue = "20") int limit) {
+        if (minutes < 1 || minutes > 24 * 60 || limit < 1 || limit > 100) {
+            return ResponseEntity.badRequest().body(null);
+        }
+        return ResponseEntity.ok(busService.getDepartureBoard(location,
+                scheduleType == null ? BusOverrideIndex.scheduleTypeOf(LocalDate.now()) : scheduleType,
+                from == null ? LocalTime.now().withNano(0) : from,
+                Duration.ofMinutes(minutes),
+                limit));
+    }
 
+    // ------------------- Journey Planner Endpoints -------------------
+
+    /**
+     * Earliest arrival itinerary between two stops, answered from the in-memory journey graph
+     * @param after defaults to the current time
+     * @param scheduleType defaults to today's schedule type
+     */
+    @GetMapping("/bus/journey")
+    public ResponseEntity<JourneyDto> planJourney(@RequestParam String from,
+                                                  @RequestParam String to,
+                                                  @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.TIME) LocalTime after,
+                                                  @RequestParam(required = false) ScheduleType scheduleType) {
+        try {
+            JourneyDto journey = journeyPlannerService.planJourney(from, to,
+                    after == null ? LocalTime.now() : after,
+                    scheduleType == null ? BusOverrideIndex.scheduleTypeOf(LocalDate.now()) : scheduleType);
+            if (journey == null) {
+                return ResponseEntity.status(HttpStatus.NOT_FOUND).body(null);
+            }
+            return ResponseEntity.ok(journey);
+        } catch (EmptyResultDataAccessException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(null);
+        }
+    }
 
+    // ------------------- Bulk Import Endpoints -------------------
 
+    /**
+     * Imports a whole timetable in one transaction, see {@link BusService#importBusTimetable(List)}
+     */
+    @PostMapping(value = "/bus-timetable/import", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<?> importBusTimetable(@RequestBody List<BusRunDto> busRunDtos) {
+        try {
+            return ResponseEntity.status(HttpStatus.CREATED).body(busService.importBusTimetable(busRunDtos));
+        } catch (EntityNotFoundException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
+        } catch (DataIntegrityViolationException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body("Error: A bus already runs on one of the imported routes.");
+        } catch (IncorrectResultSizeDataAccessException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body("Error: " + e.getMessage() + ", rename the duplicate routes first.");
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
 
+    /**
+     * Same as the JSON import, the body is parsed with {@link BusTimetableCsvParser}
+     */
+    @PostMapping(value = "/bus-timetable/import", consumes = "text/csv")
+    public ResponseEntity<?> importBusTimetableCsv(@RequestBody String csv) {
+        List<BusRunDto> busRunDtos;
+        try {
+            busRunDtos = BusTimetableCsvParser.parse(csv);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+        return importBusTimetable(busRunDtos);
+    }
 
+    // ------------------- Timetable Endpoints -------------------
+
+    /**
+     * Next departures from a stop, answered from the in-memory timetable index.
+     * @param after defaults to the current time
+     * @param scheduleType defaults to today's schedule type
+     */
+    @GetMapping("/bus-departures")
+    public ResponseEntity<List<BusDepartureDto>> getNextDepartures(@RequestParam String location,
+                                                                   @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.TIME) LocalTime after,
+                                                                   @RequestParam(required = false) ScheduleType scheduleType,
+                                                                   @RequestParam(defaultValue = "5") int limit) {
+        if (limit < 1 || limit > 50) {
+            return ResponseEntity.badRequest().body(null);
+        }
+        if (after == null) {
+            after = LocalTime.now();
+        }
+        if (scheduleType == null) {
+            scheduleType = BusOverrideIndex.scheduleTypeOf(LocalDate.now());
+        }
+        try {
+            return ResponseEntity.ok(busService.getNextDepartures(location, scheduleType, after, limit));
+        } catch (EmptyResultDataAccessException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(null);
+        }
+    }
+}
@@ -1,6 +1,5 @@
 package in.ac.iitj.instiapp.controllers;
 
-import in.ac.iitj.instiapp.config.JwtProvider;
 import in.ac.iitj.instiapp.database.entities.Grievance;
 import in.ac.iitj.instiapp.mappers.GrievanceDtoMapper;
 import in.ac.iitj.instiapp.payload.GrievanceDto;
@@ -12,6 +11,7 @@ import in.ac.iitj.instiapp.services.UserService;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.authorization.method.AuthorizeReturnObject;
+import org.springframework.security.core.Authentication;
 import org.springframework.web.HttpMediaTypeException;
 import org.springframework.web.bind.annotation.*;
 
@@ -23,16 +23,14 @@ import java.util.Objects;
 public class GrievanceController {
 
     public final GrievanceService grievanceService;
-    private final JwtProvider jwtProvider;
     private final GrievanceDtoMapper grievanceDtoMapper;
     private final UserService userService;
     private final OrganisationRoleService organisationRoleService;
 
     public GrievanceController(
-            GrievanceService grievanceService, JwtProvider jwtProvider, GrievanceDtoMapper grievanceDtoMapper, UserService userService,
+            GrievanceService grievanceService, GrievanceDtoMapper grievanceDtoMapper, UserService userService,
             OrganisationRoleService organisationRoleService) {
         this.grievanceService = grievanceService;
-        this.jwtProvider = jwtProvider;
         this.grievanceDtoMapper = grievanceDtoMapper;
         this.userService = userService;
         this.organisationRoleService = organisationRoleService;
@@ -40,12 +38,12 @@ public class GrievanceController {
 
     @PostMapping("/create")
     public ApiResponse<GrievanceDto> createGrievance(
-            @RequestHeader("Authorization") String jwt,
+            Authentication authentication,
             @RequestBody GrievanceDto grievanceDto
     ) {
         try {
             // 1. Populate the DTO
-            String userName = jwtProvider.getUsernameFromToken(jwt);
+            String userName = authentication.getName();
             log.debug("Looking up userName=[{}] (length={})", userName, userName.length());
             UserBaseDto user = userService.getUserLimited(userName);
             grievanceDto.setUserFrom(user);
@@ -113,10 +111,10 @@ public class GrievanceController {
     }
 
     @PutMapping("/update")
-    public ApiResponse<GrievanceDto> updateGrievance(@RequestHeader("Authorization") String jwt,
+    public ApiResponse<GrievanceDto> updateGrievance(Authentication authentication,
                                                      @RequestBody GrievanceDto grievanceDto) {
 
-        String userName = jwtProvider.getUsernameFromToken(jwt);
+        String userName = authentication.getName();
         GrievanceDto grievance = grievanceService.getGrievance(grievanceDto.getPublicId());
         if(!grievance.getUserFrom().getUserName().equals(userName)) {
             return ApiResponse.error(
@@ -153,8 +151,8 @@ public class GrievanceController {
     }
 
     @DeleteMapping("/delete/{publicId}")
-    public ApiResponse<GrievanceDto> deleteGrievance(@RequestHeader("Authorization") String jwt, @PathVariable String publicId) {
-        String userName = jwtProvider.getUsernameFromToken(jwt);
+    public ApiResponse<GrievanceDto> deleteGrievance(Authentication authentication, @PathVariable String publicId) {
+        String userName = authentication.getName();
 
         boolean doesOwn = grievanceService.doesOwn(publicId,userName);
 
@@ -1,9 +1,12 @@
 package in.ac.iitj.instiapp.controllers;
 
-import in.ac.iitj.instiapp.config.JwtProvider;
+import in.ac.iitj.instiapp.payload.common.CursorPage;
+import in.ac.iitj.instiapp.Utils.PageCursor;
+import in.ac.iitj.instiapp.Utils.RankCursor;
 import in.ac.iitj.instiapp.database.entities.LostnFound.Locations;
 import in.ac.iitj.instiapp.database.entities.LostnFound.LostnFoundType;
 import in.ac.iitj.instiapp.payload.LostnFound.LostnFoundDto;
+import in.ac.iitj.instiapp.payload.LostnFound.LostnFoundMatchDto;
 import in.ac.iitj.instiapp.payload.User.UserBaseDto;
 import in.ac.iitj.instiapp.payload.common.ApiResponse;
 import in.ac.iitj.instiapp.services.LostnFoundService;
@@ -14,6 +17,7 @@ import org.springframework.dao.EmptyResultDataAccessException;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
 import org.springframework.security.core.parameters.P;
 import org.springframework.web.bind.annotation.*;
 
@@ -27,13 +31,11 @@ public class LostnFoundController {
 
     private final LostnFoundService lostnFoundService;
     private final ValidationUtil validationUtil;
-    private final JwtProvider jwtProvider;
 
     @Autowired
-    public LostnFoundController(LostnFoundService lostnFoundService, ValidationUtil validationUtil, JwtProvider jwtProvider) {
+    public LostnFoundController(LostnFoundService lostnFoundService, ValidationUtil validationUtil) {
         this.lostnFoundService = lostnFoundService;
         this.validationUtil = validationUtil;
-        this.jwtProvider = jwtProvider;
     }
 
     /*--------------------------------------------------------LOCATIONS---------------------------------------------------*/
@@ -180,9 +182,9 @@ public class LostnFoundController {
     /*-----------------------------------------------------LOST AND FOUND-------------------------------------------------*/
 
     @PostMapping("/")
-    public ResponseEntity<ApiResponse<Void>> saveLostAndFound(@RequestHeader("Authorization") String jwt,@Valid @RequestBody LostnFoundDto lostnFoundDto) {
+    public ResponseEntity<ApiResponse<Void>> saveLostAndFound(Authentication authentication,@Valid @RequestBody LostnFoundDto lostnFoundDto) {
         try {
-            String userName = jwtProvider.getUsernameFromToken(jwt);
+            String userName = authentication.getName();
             UserBaseDto userBaseDto = new UserBaseDto();
             userBaseDto.setUserName(userName);
             if(lostnFoundDto.getType() == LostnFoundType.LOST)
@@ -220,12 +222,12 @@ public class LostnFoundController {
     }
 
     @PutMapping("/")
-    public ResponseEntity<ApiResponse<Void>> updateLostAndFound(@RequestHeader("Authorization") String jwt,@Valid @RequestBody LostnFoundDto lostnFoundDto) {
+    public ResponseEntity<ApiResponse<Void>> updateLostAndFound(Authentication authentication,@Valid @RequestBody LostnFoundDto lostnFoundDto) {
 
         LostnFoundType lostnFoundType = lostnFoundService.findTypeByPublicId(lostnFoundDto.getPublicId());
         boolean isOwner=false,isFinder=false;
         try {
-            String userName = jwtProvider.getUsernameFromToken(jwt);
+            String userName = authentication.getName();
             System.out.println("User trying to access : "+userName);
             UserBaseDto userBaseDto = new UserBaseDto();
             userBaseDto.setUserName(userName);
@@ -304,8 +306,8 @@ public class LostnFoundController {
     }
 
     @DeleteMapping("/{publicId}")
-    public ResponseEntity<ApiResponse<Void>> deleteLostAndFound(@RequestHeader("Authorization") String jwt, @PathVariable String publicId) {
-            String userName = jwtProvider.getUsernameFromToken(jwt);
+    public ResponseEntity<ApiResponse<Void>> deleteLostAndFound(Authentication authentication, @PathVariable String publicId) {
+            String userName = authentication.getName();
         boolean isOwner;
         try {
             isOwner = lostnFoundService.isOwner(userName, publicId);
@@ -364,15 +366,17 @@ public class LostnFoundController {
     }
 
     @GetMapping("/")
-    public ResponseEntity<ApiResponse<List<LostnFoundDto>>> getLostAndFoundByFilter(
+    public ResponseEntity<ApiResponse<CursorPage<LostnFoundDto>>> getLostAndFoundByFilter(
             @RequestParam Optional<Boolean> status,
             @RequestParam(required = true) LostnFoundType type,
             @RequestParam Optional<String> owner,
             @RequestParam Optional<String> finder,
             @RequestParam Optional<String> landmark,
-            Pageable pageable) {
+            @RequestParam(defaultValue = "false") boolean includeArchived,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
         try {
-            List<LostnFoundDto> items = lostnFoundService.getLostAndFoundByFilter(type, status, owner, finder, landmark, pageable);
+            CursorPage<LostnFoundDto> items = lostnFoundService.getLostAndFoundByFilter(type, status, owner, finder, landmark, includeArchived, PageCursor.of(cursor, size));
             return ResponseEntity.ok(
                     new ApiResponse<>(
                             HttpStatus.OK.value(),
@@ -382,6 +386,15 @@ public class LostnFoundController {
                             null
                     )
             );
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(new ApiResponse<>(
+                            HttpStatus.BAD_REQUEST.value(),
+                            "LOSTNFOUND_INVALID_CURSOR",
+                            e.getMessage(),
+                            null,
+                            null
+                    ));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(new ApiResponse<>(
@@ -393,4 +406,87 @@ public class LostnFoundController {
                     ));
         }
     }
+
+    @GetMapping("/search")
+    public ResponseEntity<ApiResponse<CursorPage<LostnFoundDto>>> searchLostAndFound(
+            @RequestParam String q,
+            @RequestParam Optional<LostnFoundType> type,
+            @RequestParam Optional<Boolean> status,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        if (q.isBlank()) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(new ApiResponse<>(
+                            HttpStatus.BAD_REQUEST.value(),
+                            "LOSTNFOUND_EMPTY_QUERY",
+                            "Search query must not be empty",
+                            null,
+                            null
+                    ));
+        }
+        try {
+            CursorPage<LostnFoundDto> items = lostnFoundService.searchLostAndFound(q, type, status, RankCursor.of(cursor, size));
+            return ResponseEntity.ok(
+                    new ApiResponse<>(
+                            HttpStatus.OK.value(),
+                            null,
+                            "Lost and Found items fetched successfully",
+                            items,
+                            null
+                    )
+            );
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(new ApiResponse<>(
+                            HttpStatus.BAD_REQUEST.value(),
+                            "LOSTNFOUND_INVALID_CURSOR",
+                            e.getMessage(),
+                            null,
+                            null
+                    ));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(new ApiResponse<>(
+                            HttpStatus.INTERNAL_SERVER_ERROR.value(),
+                            "LOSTNFOUND_SEARCH_ERROR",
+                            "Error searching lost and found items: " + e.getMessage(),
+                            null,
+                            null
+                    ));
+        }
+    }
+
+    @GetMapping("/{publicId}/matches")
+    public ResponseEntity<ApiResponse<List<LostnFoundMatchDto>>> getMatchSuggestions(@PathVariable String publicId) {
+        try {
+            List<LostnFoundMatchDto> matches = lostnFoundService.getMatchSuggestions(publicId);
+            return ResponseEntity.ok(
+                    new ApiResponse<>(
+                            HttpStatus.OK.value(),
+                            null,
+                            "Match suggestions fetched successfully",
+                            matches,
+                            null
+                    )
+            );
+        } catch (EmptyResultDataAccessException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(new ApiResponse<>(
+                            HttpStatus.NOT_FOUND.value(),
+                            "LOSTNFOUND_NOT_FOUND",
+                            e.getMessage(),
+                            null,
+                            null
+                    ));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(new ApiResponse<>(
+                            HttpStatus.INTERNAL_SERVER_ERROR.value(),
+                            "LOSTNFOUND_MATCH_ERROR",
+                            "Error fetching match suggestions: " + e.getMessage(),
+                            null,
+                            null
+                    ));
+        }
+    }
 }
@@ -1,6 +1,5 @@
 package in.ac.iitj.instiapp.controllers;
 
-import in.ac.iitj.instiapp.config.JwtProvider;
 import in.ac.iitj.instiapp.database.entities.User.Organisation.OrganisationType;
 import in.ac.iitj.instiapp.payload.User.Organisation.OrganisationBaseDto;
 import in.ac.iitj.instiapp.payload.User.Organisation.OrganisationDetailedDto;
@@ -13,6 +12,7 @@ import org.springframework.dao.EmptyResultDataAccessException;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
@@ -20,12 +20,10 @@ import java.util.List;
 @RestController
 @RequestMapping("/api/organisations")
 public class OrganisationController {    private final OrganisationService organisationService;
-    private final JwtProvider jwtProvider;
 
     @Autowired
-    public OrganisationController(OrganisationService organisationService, JwtProvider jwtProvider) {
+    public OrganisationController(OrganisationService organisationService) {
         this.organisationService = organisationService;
-        this.jwtProvider = jwtProvider;
     }
 
     /*--------------------------------------------------------ORGANISATION TYPES---------------------------------------------------*/
@@ -170,9 +168,9 @@ public class OrganisationController {    private final OrganisationService organ
     /*--------------------------------------------------------ORGANISATIONS---------------------------------------------------*/
 
     @PostMapping("/")
-    public ResponseEntity<ApiResponse<Void>> saveOrganisation(@RequestHeader("Authorization") String jwt, @Valid @RequestBody OrganisationBaseDto organisationBaseDto) {
+    public ResponseEntity<ApiResponse<Void>> saveOrganisation(Authentication authentication, @Valid @RequestBody OrganisationBaseDto organisationBaseDto) {
         try {
-            String username = jwtProvider.getUsernameFromToken(jwt);
+            String username = authentication.getName();
             organisationService.saveOrganisation(organisationBaseDto, username);
             return ResponseEntity.status(HttpStatus.CREATED)
                     .body(new ApiResponse<>(
@@ -317,8 +315,8 @@ public class OrganisationController {    private final OrganisationService organ
     }
 
     @PutMapping("/{username}")
-    public ResponseEntity<ApiResponse<Void>> updateOrganisation(@RequestHeader("Authorization") String jwt, @PathVariable String username, @Valid @RequestBody OrganisationBaseDto organisationBaseDto) {
-        String currentUser = jwtProvider.getUsernameFromToken(jwt);
+    public ResponseEntity<ApiResponse<Void>> updateOrganisation(Authentication authentication, @PathVariable String username, @Valid @RequestBody OrganisationBaseDto organisationBaseDto) {
+        String currentUser = authentication.getName();
         
         // Check if current user is authorized to update this organisation
         if (!currentUser.equals(username)) {
@@ -372,8 +370,8 @@ public class OrganisationController {    private final OrganisationService organ
     }
 
     @DeleteMapping("/{username}")
-    public ResponseEntity<ApiResponse<Void>> deleteOrganisation(@RequestHeader("Authorization") String jwt, @PathVariable String username) {
-        String currentUser = jwtProvider.getUsernameFromToken(jwt);
+    public ResponseEntity<ApiResponse<Void>> deleteOrganisation(Authentication authentication, @PathVariable String username) {
+        String currentUser = authentication.getName();
         
         // Check if current user is authorized to delete this organisation
         if (!currentUser.equals(username)) {
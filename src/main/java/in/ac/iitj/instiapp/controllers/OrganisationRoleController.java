@@ -1,6 +1,5 @@
 package in.ac.iitj.instiapp.controllers;
 
-import in.ac.iitj.instiapp.config.JwtProvider;
 import in.ac.iitj.instiapp.payload.User.Organisation.AddUserToRoleRequest;
 import in.ac.iitj.instiapp.payload.User.Organisation.OrganisationRoleDto;
 import in.ac.iitj.instiapp.payload.User.UserBaseDto;
@@ -14,6 +13,7 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
@@ -22,22 +22,19 @@ import java.util.Map;
 @RestController
 @RequestMapping("/api/organisation-roles")
 public class OrganisationRoleController {    private final OrganisationRoleService organisationRoleService;
-    private final JwtProvider jwtProvider;
 
     @Autowired
-    public OrganisationRoleController(OrganisationRoleService organisationRoleService,
-                                    JwtProvider jwtProvider) {
+    public OrganisationRoleController(OrganisationRoleService organisationRoleService) {
         this.organisationRoleService = organisationRoleService;
-        this.jwtProvider = jwtProvider;
     }
 
     /*--------------------------------------------------------ORGANISATION ROLES---------------------------------------------------*/
 
     @PostMapping("/{organisationUsername}")
-    public ResponseEntity<ApiResponse<Void>> saveOrganisationRole(@RequestHeader("Authorization") String jwt,
+    public ResponseEntity<ApiResponse<Void>> saveOrganisationRole(Authentication authentication,
                                                                  @PathVariable String organisationUsername,
                                                                  @Valid @RequestBody OrganisationRoleDto organisationRoleDto) {
-        String currentUser = jwtProvider.getUsernameFromToken(jwt);
+        String currentUser = authentication.getName();
         
         // Check if current user is authorized to add roles to this organisation
         if (!currentUser.equals(organisationUsername)) {
@@ -127,11 +124,11 @@ public class OrganisationRoleController {    private final OrganisationRoleServi
     }
 
     @PutMapping("/{organisationUsername}/{oldRoleName}")
-    public ResponseEntity<ApiResponse<Void>> updateOrganisationRole(@RequestHeader("Authorization") String jwt,
+    public ResponseEntity<ApiResponse<Void>> updateOrganisationRole(Authentication authentication,
                                                                    @PathVariable String organisationUsername,
                                                                    @PathVariable String oldRoleName,
                                                                    @Valid @RequestBody OrganisationRoleDto newOrganisationRoleDto) {
-        String currentUser = jwtProvider.getUsernameFromToken(jwt);
+        String currentUser = authentication.getName();
         
         // Check if current user is authorized to update roles for this organisation
         if (!currentUser.equals(organisationUsername)) {
@@ -187,11 +184,11 @@ public class OrganisationRoleController {    private final OrganisationRoleServi
     }
 
     @DeleteMapping("/{organisationUsername}/{roleName}")
-    public ResponseEntity<ApiResponse<Void>> deleteOrganisationRole(@RequestHeader("Authorization") String jwt,
+    public ResponseEntity<ApiResponse<Void>> deleteOrganisationRole(Authentication authentication,
                                                                    @PathVariable String organisationUsername,
                                                                    @PathVariable String roleName,
                                                                    @RequestParam String deletedRoleName) {
-        String currentUser = jwtProvider.getUsernameFromToken(jwt);
+        String currentUser = authentication.getName();
         
         // Check if current user is authorized to delete roles for this organisation
         if (!currentUser.equals(organisationUsername)) {
@@ -240,8 +237,8 @@ public class OrganisationRoleController {    private final OrganisationRoleServi
     /*--------------------------------------------------------USER ROLE MANAGEMENT---------------------------------------------------*/
 
     @PostMapping("/users")
-    public ResponseEntity<ApiResponse<Void>> addUserToOrganisationRole(@RequestHeader("Authorization") String jwt, @Valid @RequestBody AddUserToRoleRequest request) {
-        String currentUser = jwtProvider.getUsernameFromToken(jwt);
+    public ResponseEntity<ApiResponse<Void>> addUserToOrganisationRole(Authentication authentication, @Valid @RequestBody AddUserToRoleRequest request) {
+        String currentUser = authentication.getName();
 
         // Check if current user is authorized to manage users for this organisation
         if (!currentUser.equals(request.getOrganisationUsername())) {
@@ -331,8 +328,8 @@ public class OrganisationRoleController {    private final OrganisationRoleServi
     }
 
     @DeleteMapping("/users")
-    public ResponseEntity<ApiResponse<Void>> removeUserFromOrganisationRole(@RequestHeader("Authorization") String jwt, @Valid @RequestBody AddUserToRoleRequest request) {
-        String currentUser = jwtProvider.getUsernameFromToken(jwt);
+    public ResponseEntity<ApiResponse<Void>> removeUserFromOrganisationRole(Authentication authentication, @Valid @RequestBody AddUserToRoleRequest request) {
+        String currentUser = authentication.getName();
 
         String organisationUsername = request.getOrganisationUsername();
         String roleName = request.getRoleName();
@@ -2,7 +2,6 @@ package in.ac.iitj.instiapp.controllers;
 
 import com.nimbusds.jwt.JWTClaimsSet;
 import com.nimbusds.jwt.SignedJWT;
-import in.ac.iitj.instiapp.config.JwtProvider;
 import in.ac.iitj.instiapp.payload.Auth.SignupDto;
 import in.ac.iitj.instiapp.payload.Auth.UpdateUserDto;
 import in.ac.iitj.instiapp.payload.User.UserBaseDto;
@@ -14,6 +13,7 @@ import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.dao.EmptyResultDataAccessException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.oauth2.core.user.OAuth2User;
 import org.springframework.web.bind.annotation.*;
@@ -29,12 +29,10 @@ import in.ac.iitj.instiapp.database.entities.User.User;
 public class UserController {
 
     private final UserService userService;
-    private final JwtProvider jwtProvider;
 
     @Autowired
-    public UserController(UserService userService, JwtProvider jwtProvider) {
+    public UserController(UserService userService) {
         this.userService = userService;
-        this.jwtProvider = jwtProvider;
     }
 
     @GetMapping("/getUserLimited")
@@ -43,14 +41,14 @@ public class UserController {
     }
 
     @GetMapping("/getUserDetailed")
-    public ResponseEntity<UserDetailedDto> getUserDetailed(@RequestHeader("Authorization") String jwt) {
-        String userName = jwtProvider.getUsernameFromToken(jwt);
+    public ResponseEntity<UserDetailedDto> getUserDetailed(Authentication authentication) {
+        String userName = authentication.getName();
         return ResponseEntity.ok(userService.getUserDetailed(userName));
     }
 
     @PutMapping("/updateUserProfile")
-    public ResponseEntity<Map<String,Object>> updateUserProfile(@RequestHeader("Authorization") String jwt, @RequestBody UpdateUserDto updateUserDto) {
-        UserDetailedDto userDetailedDto = userService.getUserDetailed(jwtProvider.getUsernameFromToken(jwt));
+    public ResponseEntity<Map<String,Object>> updateUserProfile(Authentication authentication, @RequestBody UpdateUserDto updateUserDto) {
+        UserDetailedDto userDetailedDto = userService.getUserDetailed(authentication.getName());
         userDetailedDto.setPhoneNumber(updateUserDto.getPhoneNumber());
         userDetailedDto.setAvatarUrl(updateUserDto.getAvatarUrl());
         Long status = userService.updateUserDetails(userDetailedDto);
@@ -10,7 +10,9 @@ import lombok.Setter;
 import java.time.Instant;
 
 @Entity
-@Table(name = "jwt_refresh_token")
+@Table(name = "jwt_refresh_token",
+        uniqueConstraints = @UniqueConstraint(name = "uk_jwt_refresh_token_user_device", columnNames = {"user_id", "device_id"}),
+        indexes = @Index(name = "idx_jwt_refresh_token_expires", columnList = "refresh_token_expires"))
 @Getter
 @Setter
 @AllArgsConstructor
@@ -0,0 +1,48 @@
+package in.ac.iitj.instiapp.database.entities.Auth;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.Instant;
+
+/**
+ * Versioned key shared by every instance. The newest key whose {@code notBefore} has passed signs or encrypts,
+ * every unexpired key of the purpose is accepted when verifying or decrypting
+ */
+@Entity
+@Table(name = "key_ring")
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class KeyRingKey {
+
+    // kid header of the tokens and prefix of the values made with this key
+    @jakarta.persistence.Id
+    @Column(length = 64)
+    String kid;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    Purpose purpose;
+
+    // base64 of the raw key bytes
+    @Column(nullable = false, length = 128)
+    String secret;
+
+    @Column(nullable = false)
+    Instant notBefore;
+
+    @Column(nullable = false)
+    Instant expiresAt;
+
+    public enum Purpose {
+        /** HMAC key of the access and refresh tokens of {@link in.ac.iitj.instiapp.config.JwtProvider} */
+        JWT,
+        /** AES key of {@link in.ac.iitj.instiapp.Utils.AESUtil} */
+        AES
+    }
+}
@@ -6,8 +6,12 @@ import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.Instant;
 
 @Entity
+@Table(uniqueConstraints = @UniqueConstraint(name = "uk_oauth2tokens_user_device", columnNames = {"user_id", "device_id"}))
 @AllArgsConstructor
 @NoArgsConstructor
 @Getter
@@ -31,6 +35,11 @@ public class OAuth2Tokens {
     @Column(nullable = true)
     String refreshToken;
 
+    // Set on every save and access token update, idle rows are purged by ExpiredTokenReaper
+    @CreationTimestamp
+    @Column(nullable = false, columnDefinition = "timestamp(6) with time zone default current_timestamp")
+    Instant lastUsedAt;
+
 
 
     public OAuth2Tokens(String username, String deviceId, String accessToken, String refreshToken ) {
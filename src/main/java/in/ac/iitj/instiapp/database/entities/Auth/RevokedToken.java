@@ -0,0 +1,32 @@
+package in.ac.iitj.instiapp.database.entities.Auth;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.Instant;
+
+/**
+ * Token revoked before its expiry, kept until {@code expiresAt} after which the token is rejected by its {@code exp} anyway
+ */
+@Entity
+@Table(name = "revoked_token", indexes = @Index(name = "idx_revoked_token_expires_at", columnList = "expires_at"))
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class RevokedToken {
+
+    // jti claim of the token
+    @jakarta.persistence.Id
+    @Column(length = 64)
+    String tokenId;
+
+    @Column(nullable = false)
+    Instant expiresAt;
+
+    @Column(nullable = false)
+    Instant revokedAt;
+}
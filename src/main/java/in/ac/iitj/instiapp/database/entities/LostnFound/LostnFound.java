@@ -4,6 +4,9 @@ import in.ac.iitj.instiapp.database.entities.Media.Media;
 import in.ac.iitj.instiapp.database.entities.User.User;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.Instant;
 
 
 @Entity
@@ -45,4 +48,8 @@ public class LostnFound {
     @ManyToOne
     @JoinColumn(name = "media_id", nullable = true)
     Media media;
+
+    @CreationTimestamp
+    @Column(nullable = false, updatable = false, columnDefinition = "timestamp(6) with time zone default current_timestamp")
+    Instant createdAt;
 }
@@ -0,0 +1,54 @@
+package in.ac.iitj.instiapp.database.entities.LostnFound;
+
+import in.ac.iitj.instiapp.database.entities.User.User;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+
+/**
+ * Resolved or old {@link LostnFound} items, moved out of the lostnfound table by
+ * {@link in.ac.iitj.instiapp.services.LostnFound.LostnFoundArchiver}. Their media is deleted when they are archived.
+ */
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "lostnfound_archive")
+public class LostnFoundArchive {
+
+    // Same id as in lostnfound, so both tables are paginated together
+    @Id
+    Long Id;
+
+    @Column(nullable = false , unique = true )
+    String publicId;
+
+    @ManyToOne
+    @JoinColumn(name = "finder_id", nullable = true)
+    User finder;
+
+    @ManyToOne
+    @JoinColumn(name = "owner_id", nullable = true)
+    User owner;
+
+    @ManyToOne
+    Locations Landmark;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    LostnFoundType type;
+
+    @Column( nullable = true)
+    String extraInfo;
+
+    @Column( nullable = false)
+    Boolean status;
+
+    @Column(nullable = true)
+    Instant createdAt;
+
+    @Column(nullable = false)
+    Instant archivedAt;
+}
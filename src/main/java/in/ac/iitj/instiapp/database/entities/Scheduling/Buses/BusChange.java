@@ -0,0 +1,51 @@
+package in.ac.iitj.instiapp.database.entities.Scheduling.Buses;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.Instant;
+
+/**
+ * Change log of the bus timetable, one row per bus number or route name touched by a write.
+ * A row with neither a bus number nor a route name means the write could affect every schedule and clients have to
+ * download the full timetable again. Location writes are logged as the routes stopping at the location.
+ */
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "bus_change", indexes = @Index(name = "idx_bus_change_version", columnList = "version"))
+public class BusChange {
+
+    @jakarta.persistence.Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long Id;
+
+    /**
+     * Value of {@link BusVersion} after the write
+     */
+    @Column(nullable = false)
+    private Long version;
+
+    @Column(nullable = false)
+    private String operation;
+
+    private String busNumber;
+
+    private String routeName;
+
+    @Column(nullable = false)
+    private Instant changedAt;
+
+    public BusChange(Long version, String operation, String busNumber, String routeName, Instant changedAt) {
+        this.version = version;
+        this.operation = operation;
+        this.busNumber = busNumber;
+        this.routeName = routeName;
+        this.changedAt = changedAt;
+    }
+}
@@ -0,0 +1,55 @@
+package in.ac.iitj.instiapp.database.entities.Scheduling.Buses;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.sql.Time;
+
+/**
+ * Read model for the departures board, one row per (run, stop) with the stop's departure already shifted by the run's start time.
+ * Rows are derived from bus_run, bus_schedule, bus_route, route_stop and bus_location and rewritten by
+ * {@link in.ac.iitj.instiapp.services.impl.BusServiceImpl} in the same transaction as every bus write, never edit them directly.
+ * <p>
+ * The board index starts with the lookup columns and contains every selected column, so board queries are index-only range scans.
+ */
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "bus_departure", indexes = {
+        @Index(name = "idx_bus_departure_board", columnList = "schedule_type, location_name, departure_time, bus_number, route_name, stop_order"),
+        @Index(name = "idx_bus_departure_bus_number", columnList = "bus_number"),
+        @Index(name = "idx_bus_departure_route_name", columnList = "route_name")
+})
+public class BusDeparture {
+
+    @jakarta.persistence.Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long Id;
+
+    @Column(nullable = false)
+    private Long runId;
+
+    @Column(nullable = false)
+    private String busNumber;
+
+    @Column(nullable = false)
+    private String routeName;
+
+    @Column(nullable = false)
+    private String locationName;
+
+    @Column(nullable = false)
+    private Integer stopOrder;
+
+    @Column(nullable = false)
+    private Time departureTime;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private ScheduleType scheduleType;
+}
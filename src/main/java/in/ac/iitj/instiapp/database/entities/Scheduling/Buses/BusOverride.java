@@ -7,16 +7,22 @@ import lombok.NoArgsConstructor;
 import lombok.Setter;
 
 import java.sql.Time;
-import java.util.Date;
+import java.time.LocalDate;
 
+/**
+ * Change to the regular runs of a bus between {@code overrideDate} and {@code endDate}, both inclusive.
+ * Overrides span at most {@link #MAX_SPAN_DAYS} days so month lookups stay a bounded range scan on override_date.
+ */
 @Entity
 @Getter
 @Setter
 @NoArgsConstructor
 @AllArgsConstructor
-@Table(name = "bus_override")
+@Table(name = "bus_override", indexes = @Index(name = "idx_bus_override_date", columnList = "override_date"))
 public class BusOverride {
 
+    public static final int MAX_SPAN_DAYS = 62;
+
     @jakarta.persistence.Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     Long Id;
@@ -24,22 +30,41 @@ public class BusOverride {
     @Column(nullable = false,unique = true)
     private String publicId;
 
-    @ManyToOne
+    @ManyToOne(optional = false)
     private BusSchedule busSchedule;
 
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private BusOverrideType overrideType;
+
+    /**
+     * Route of the extra run, or of the cancelled runs. Null cancels every run of the bus
+     */
+    @ManyToOne
+    private BusRoute route;
 
-    //BusSnippet busSnippet;
+    /**
+     * Start time of the extra run, or of the cancelled run. Null cancels every run on the route
+     */
+    private Time startTime;
 
+    @Column(name = "override_date", nullable = false)
+    private LocalDate overrideDate;
 
-    private Date overrideDate;
+    @Column(nullable = false)
+    private LocalDate endDate;
 
     private String description;
 
 
-    public BusOverride(String publicId, Date overrideDate, String description) {
+    public BusOverride(String publicId, BusOverrideType overrideType, BusRoute route, Time startTime,
+                       LocalDate overrideDate, LocalDate endDate, String description) {
         this.publicId = publicId;
-        //this.busSnippet = busSnippet;
+        this.overrideType = overrideType;
+        this.route = route;
+        this.startTime = startTime;
         this.overrideDate = overrideDate;
+        this.endDate = endDate;
         this.description = description;
     }
 }
@@ -0,0 +1,12 @@
+package in.ac.iitj.instiapp.database.entities.Scheduling.Buses;
+
+public enum BusOverrideType {
+    /**
+     * Removes runs of the bus: every run if no route is given, runs on the route otherwise, narrowed to one run by the start time
+     */
+    CANCELLATION,
+    /**
+     * Adds a run of the bus on the given route at the given start time
+     */
+    EXTRA_RUN
+}
@@ -20,8 +20,24 @@ uniqueConstraints = {
 @UniqueConstraint(columnNames = {"bus_schedule_id", "route_id"})
     }
 )
+@NamedEntityGraph(
+        name = BusRun.GRAPH_ROUTE_WITH_STOPS,
+        attributeNodes = {
+                @NamedAttributeNode("busSchedule"),
+                @NamedAttributeNode(value = "route", subgraph = "route")
+        },
+        subgraphs = {
+                @NamedSubgraph(name = "route", attributeNodes = @NamedAttributeNode(value = "stops", subgraph = "stop")),
+                @NamedSubgraph(name = "stop", attributeNodes = @NamedAttributeNode("location"))
+        }
+)
 public class BusRun {
 
+    /**
+     * Loads the run with its bus, route, stops and stop locations in a single select
+     */
+    public static final String GRAPH_ROUTE_WITH_STOPS = "BusRun.routeWithStops";
+
     @jakarta.persistence.Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long Id;
@@ -13,8 +13,22 @@ import java.util.Set;
 @NoArgsConstructor
 @AllArgsConstructor
 @Table(name = "bus_schedule")
+@NamedEntityGraph(
+        name = BusSchedule.GRAPH_RUNS_WITH_STOPS,
+        attributeNodes = @NamedAttributeNode(value = "runs", subgraph = "run"),
+        subgraphs = {
+                @NamedSubgraph(name = "run", attributeNodes = @NamedAttributeNode(value = "route", subgraph = "route")),
+                @NamedSubgraph(name = "route", attributeNodes = @NamedAttributeNode(value = "stops", subgraph = "stop")),
+                @NamedSubgraph(name = "stop", attributeNodes = @NamedAttributeNode("location"))
+        }
+)
 public class BusSchedule {
 
+    /**
+     * Loads the schedule with every run, route, stop and stop location in a single select
+     */
+    public static final String GRAPH_RUNS_WITH_STOPS = "BusSchedule.runsWithStops";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long Id;
@@ -0,0 +1,28 @@
+package in.ac.iitj.instiapp.database.entities.Scheduling.Buses;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Single row counter incremented by every bus write.
+ * The increment locks the row until the writing transaction ends, so versions become visible in increasing order.
+ */
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "bus_version")
+public class BusVersion {
+
+    public static final long ROW_ID = 1L;
+
+    @jakarta.persistence.Id
+    private Long Id;
+
+    @Column(nullable = false)
+    private Long version;
+}
@@ -2,8 +2,15 @@ package in.ac.iitj.instiapp.database.entities.User.Organisation;
 
 public enum OrganisationPermission {
 
+    // Declared strongest first
     MASTER,
     INTERMEDIATE,
-    READ
+    READ;
 
+    /**
+     * @return true if this permission allows everything {@code other} allows
+     */
+    public boolean includes(OrganisationPermission other) {
+        return ordinal() <= other.ordinal();
+    }
 }
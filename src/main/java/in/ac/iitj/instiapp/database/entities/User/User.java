@@ -29,10 +29,10 @@ public class User{
     @Column(nullable = false)
     String name;
 
-    @Column(nullable = false)
+    @Column(nullable = false, unique = true)
     String userName;
 
-    @Column(nullable = false)
+    @Column(nullable = false, unique = true)
     String email;
 
     @NotBlank(message = "Password is required")
@@ -0,0 +1,12 @@
+package in.ac.iitj.instiapp.exception;
+
+import io.jsonwebtoken.JwtException;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.UNAUTHORIZED)
+public class InvalidTokenException extends JwtException {
+    public InvalidTokenException(String message) {
+        super(message);
+    }
+}
@@ -17,9 +17,7 @@ public interface BusOverrideDtoMapper {
 
 
     @Mapping(source = "busSchedule.busNumber",target = "busScheduleBusNumber")
-//    @Mapping(source = "busSnippet.timeOfDeparture", target = "timeOfDeparture")
-//    @Mapping(source = "busSnippet.fromLocation", target = "fromLocationName")
-//    @Mapping(source = "busSnippet.toLocation", target = "toLocationName")
+    @Mapping(source = "route.routeName", target = "routeName")
     BusOverrideDto toDto(BusOverride busOverride);
 
     @InheritInverseConfiguration
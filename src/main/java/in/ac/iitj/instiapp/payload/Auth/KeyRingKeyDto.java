@@ -0,0 +1,24 @@
+package in.ac.iitj.instiapp.payload.Auth;
+
+import in.ac.iitj.instiapp.database.entities.Auth.KeyRingKey;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.Instant;
+
+/**
+ * DTO for {@link KeyRingKey}, also the format of the key ring fallback file
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class KeyRingKeyDto {
+    String kid;
+    KeyRingKey.Purpose purpose;
+    String secret;
+    Instant notBefore;
+    Instant expiresAt;
+}
@@ -0,0 +1,19 @@
+package in.ac.iitj.instiapp.payload.Auth;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * User resolved by an OAuth2 login, enough to issue its tokens
+ */
+@Getter
+@AllArgsConstructor
+public class OAuth2LoginUserDto {
+    String userName;
+    String userTypeName;
+    // Profile as stored, compared with the provider's to skip syncing an unchanged one
+    String name;
+    String avatarUrl;
+    // true if this login created the user
+    boolean created;
+}
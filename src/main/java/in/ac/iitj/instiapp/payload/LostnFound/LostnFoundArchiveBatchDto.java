@@ -0,0 +1,15 @@
+package in.ac.iitj.instiapp.payload.LostnFound;
+
+import lombok.Value;
+
+import java.util.List;
+
+/**
+ * Result of moving one batch of items to the archive
+ */
+@Value
+public class LostnFoundArchiveBatchDto {
+    int archived;
+    // Ids of the media the archived items had
+    List<Long> mediaIds;
+}
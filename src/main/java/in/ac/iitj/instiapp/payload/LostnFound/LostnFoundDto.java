@@ -36,4 +36,9 @@ public LostnFoundDto(String publicId , String finder_username , String owner_use
     this.media = new MediaBaseDto(media_publicId);
 
 }
+
+    // For archived items, their media is deleted
+    public LostnFoundDto(String publicId , String finder_username , String owner_username , String landmark_name, LostnFoundType type, String extra_info, Boolean status) {
+        this(publicId, finder_username, owner_username, landmark_name, type, extra_info, status, null);
+    }
 }
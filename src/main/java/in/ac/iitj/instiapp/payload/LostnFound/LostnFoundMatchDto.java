@@ -0,0 +1,20 @@
+package in.ac.iitj.instiapp.payload.LostnFound;
+
+import lombok.Value;
+
+import java.io.Serializable;
+
+/**
+ * An open item of the opposite type that may be the same object, with how its score was made up
+ */
+@Value
+public class LostnFoundMatchDto implements Serializable {
+    LostnFoundDto item;
+    // Between 0 and 1, suggestions are ordered by it
+    float score;
+    // Estimated Jaccard similarity of the words of both extra infos
+    float textSimilarity;
+    float landmarkSimilarity;
+    // Null if either item has no creation time
+    Long daysApart;
+}
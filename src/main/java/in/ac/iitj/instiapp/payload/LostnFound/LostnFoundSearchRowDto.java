@@ -0,0 +1,31 @@
+package in.ac.iitj.instiapp.payload.LostnFound;
+
+import in.ac.iitj.instiapp.database.entities.LostnFound.LostnFoundType;
+import lombok.Value;
+import lombok.With;
+
+import java.io.Serializable;
+import java.time.Instant;
+
+/**
+ * One lost and found item with the id it is ranked and paginated by.
+ * Produced by a single join over lostnfound, users, locations and media
+ */
+@Value
+public class LostnFoundSearchRowDto implements Serializable {
+    Long id;
+    String publicId;
+    String finderUserName;
+    String ownerUserName;
+    @With
+    String landmarkName;
+    LostnFoundType type;
+    String extraInfo;
+    Boolean status;
+    String mediaPublicId;
+    Instant createdAt;
+
+    public LostnFoundDto toDto() {
+        return new LostnFoundDto(publicId, finderUserName, ownerUserName, landmarkName, type, extraInfo, status, mediaPublicId);
+    }
+}
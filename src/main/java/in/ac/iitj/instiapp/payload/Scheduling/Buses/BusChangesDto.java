@@ -0,0 +1,19 @@
+package in.ac.iitj.instiapp.payload.Scheduling.Buses;
+
+import lombok.Value;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * Bus timetable changes after a given version, see {@link in.ac.iitj.instiapp.services.BusService#getBusChanges(long)}
+ */
+@Value
+public class BusChangesDto implements Serializable {
+    long version;
+    boolean fullResync;
+    List<BusRunDto> runs;
+    List<BusRouteDto> routes;
+    List<String> removedBusNumbers;
+    List<String> removedRouteNames;
+}
@@ -0,0 +1,20 @@
+package in.ac.iitj.instiapp.payload.Scheduling.Buses;
+
+import in.ac.iitj.instiapp.database.entities.Scheduling.Buses.ScheduleType;
+import lombok.Value;
+
+import java.io.Serializable;
+import java.sql.Time;
+
+/**
+ * A single departure of a bus run from a stop
+ */
+@Value
+public class BusDepartureDto implements Serializable {
+    String busNumber;
+    String routeName;
+    String locationName;
+    Integer stopOrder;
+    Time departureTime;
+    ScheduleType scheduleType;
+}
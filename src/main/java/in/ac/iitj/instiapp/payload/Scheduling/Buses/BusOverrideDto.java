@@ -1,10 +1,11 @@
 package in.ac.iitj.instiapp.payload.Scheduling.Buses;
 
+import in.ac.iitj.instiapp.database.entities.Scheduling.Buses.BusOverrideType;
 import lombok.*;
 
 import java.io.Serializable;
 import java.sql.Time;
-import java.util.Date;
+import java.time.LocalDate;
 
 
 /**
@@ -17,9 +18,10 @@ import java.util.Date;
 public class BusOverrideDto implements Serializable {
     String publicId;
     String busScheduleBusNumber;
-    Time timeOfDeparture;
-    String fromLocationName;
-    String toLocationName;
-    Date overrideDate;
+    BusOverrideType overrideType;
+    String routeName;
+    Time startTime;
+    LocalDate overrideDate;
+    LocalDate endDate;
     String description;
-}
\ No newline at end of file
+}
@@ -0,0 +1,16 @@
+package in.ac.iitj.instiapp.payload.Scheduling.Buses;
+
+import lombok.Value;
+
+import java.io.Serializable;
+
+/**
+ * Number of rows inserted by one bulk timetable import
+ */
+@Value
+public class BusTimetableImportResultDto implements Serializable {
+    int locationsCreated;
+    int routesCreated;
+    int stopsCreated;
+    int runsCreated;
+}
@@ -0,0 +1,28 @@
+package in.ac.iitj.instiapp.payload.Scheduling.Buses;
+
+import in.ac.iitj.instiapp.database.entities.Scheduling.Buses.ScheduleType;
+import lombok.Value;
+
+import java.io.Serializable;
+import java.sql.Time;
+
+/**
+ * One flattened (run, stop) row of the bus timetable.
+ * Produced by a single join over bus_run, bus_schedule, bus_route, route_stop and bus_location. The stop fields are null
+ * for a run whose route has no stops
+ */
+@Value
+public class BusTimetableRowDto implements Serializable {
+    String busNumber;
+    Long runId;
+    Time startTime;
+    ScheduleType scheduleType;
+    Long routeId;
+    String routeName;
+    // Null if the route has no stops, like the other stop fields below
+    Integer stopOrder;
+    Long locationId;
+    String locationName;
+    Time arrivalTime;
+    Time departureTime;
+}
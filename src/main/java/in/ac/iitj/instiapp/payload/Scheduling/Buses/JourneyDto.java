@@ -0,0 +1,20 @@
+package in.ac.iitj.instiapp.payload.Scheduling.Buses;
+
+import lombok.Value;
+
+import java.io.Serializable;
+import java.sql.Time;
+import java.util.List;
+
+/**
+ * Itinerary returned by the journey planner, one leg per bus ridden
+ */
+@Value
+public class JourneyDto implements Serializable {
+    String fromLocation;
+    String toLocation;
+    Time departureTime;
+    Time arrivalTime;
+    int transfers;
+    List<JourneyLegDto> legs;
+}
@@ -0,0 +1,19 @@
+package in.ac.iitj.instiapp.payload.Scheduling.Buses;
+
+import lombok.Value;
+
+import java.io.Serializable;
+import java.sql.Time;
+
+/**
+ * Part of a journey spent on one bus run
+ */
+@Value
+public class JourneyLegDto implements Serializable {
+    String busNumber;
+    String routeName;
+    String fromLocation;
+    String toLocation;
+    Time departureTime;
+    Time arrivalTime;
+}
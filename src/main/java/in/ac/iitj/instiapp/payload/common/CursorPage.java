@@ -0,0 +1,19 @@
+package in.ac.iitj.instiapp.payload.common;
+
+import lombok.Value;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * One page of a keyset paginated list, see {@link in.ac.iitj.instiapp.Utils.PageCursor}
+ */
+@Value
+public class CursorPage<T> implements Serializable {
+    List<T> items;
+
+    /**
+     * Opaque token to pass back as {@code ?cursor=} for the next page, null on the last page
+     */
+    String nextCursor;
+}
@@ -1,9 +1,13 @@
 package in.ac.iitj.instiapp.services;
 
+import in.ac.iitj.instiapp.payload.common.CursorPage;
+import in.ac.iitj.instiapp.Utils.PageCursor;
 import in.ac.iitj.instiapp.database.entities.Scheduling.Buses.*;
 import in.ac.iitj.instiapp.payload.Scheduling.Buses.*;
-import org.springframework.data.domain.Pageable;
 
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
 import java.util.List;
 
 public interface BusService {
@@ -15,10 +19,10 @@ public interface BusService {
     void saveBusLocation(String name);
 
     /**
-     * @param pageable  firstResult Max Value-INT_MAX,Min Value-0 PageSize-Max value-TODO
-     * @return Returns a list od all the bus locations (Pagination implementation)
+     * @param cursor keyset position, locations are ordered by id
+     * @return Returns a page of the bus locations
      */
-    List<String> getBusLocations(Pageable pageable);
+    CursorPage<String> getBusLocations(PageCursor cursor);
 
     /**
      * @param name
@@ -53,10 +57,10 @@ public interface BusService {
     BusScheduleDto getBusSchedule(String busNumber);
 
     /**
-     * @param pageable
-     * @return List of Name of current busses
+     * @param cursor keyset position, buses are ordered by id
+     * @return Page of Name of current busses
      */
-    List<String> getBusNumbers(Pageable pageable);
+    CursorPage<String> getBusNumbers(PageCursor cursor);
 
     /**
      * @param busNumber
@@ -95,7 +99,10 @@ public interface BusService {
 /*--------------------------------------------BUS OVERRIDE------------------------------------------------------------*/
     /**
      * @param busNumber
-     * @param busOverride
+     * @param busOverride route is referenced by name, a public id is generated if missing and a missing end date
+     *                    defaults to the override date
+     * @throws IllegalArgumentException if the override is incomplete or spans more than {@link BusOverride#MAX_SPAN_DAYS} days
+     * @throws org.springframework.dao.EmptyResultDataAccessException if the bus number or route does not exist
      */
     void saveBusOverride(String busNumber, BusOverride busOverride);
 
@@ -108,7 +115,7 @@ public interface BusService {
     /**
      * @param year
      * @param month
-     * @return
+     * @return overrides overlapping the month
      */
     List<BusOverrideDto> getBusOverrideForYearAndMonth(int year, int month);
 
@@ -123,6 +130,15 @@ public interface BusService {
      */
     void deleteBusOverride(List<String> busOverrideIds);
 
+    /**
+     * Served from the in-memory override index, does not query the database
+     * @param busNumber
+     * @param date
+     * @return regular runs of the date's schedule type merged with the overrides active on the date
+     * @throws org.springframework.dao.EmptyResultDataAccessException if the bus has neither runs nor overrides
+     */
+    BusScheduleDto getEffectiveBusSchedule(String busNumber, LocalDate date);
+
     // ------------------- BusRoute and RouteStop Operations -------------------
     void saveBusRoute(BusRouteDto busRouteDto);
 
@@ -143,4 +159,59 @@ public interface BusService {
     List<BusRunDto> getBusRunByBusNumber(String busNumber);
 
     BusRunDto updateBusRunWithRouteName(BusRunDto busRunDto);
+
+    /**
+     * Imports a whole timetable in one transaction with a constant number of round trips.
+     * Location names are resolved with one {@code IN} query, missing locations, new routes, their stops and the runs
+     * are inserted with JDBC batches. Routes that already exist are reused and their stops are left untouched.
+     * @param busRunDtos runs to create, the first run of a new route defines its stops
+     * @return number of rows created per table
+     * @throws jakarta.persistence.EntityNotFoundException if a bus number does not exist
+     * @throws org.springframework.dao.DataIntegrityViolationException if a bus already runs on one of the routes
+     * @throws IllegalArgumentException if a run has no bus number or route name, or a stop has no location name
+     */
+    BusTimetableImportResultDto importBusTimetable(List<BusRunDto> busRunDtos);
+
+/*--------------------------------------------------CHANGE FEED-------------------------------------------------------*/
+
+    /**
+     * @return version of the bus timetable, incremented by every write of this service. Used as the ETag of bus reads
+     */
+    long getBusVersion();
+
+    /**
+     * Delta sync for clients holding a copy of the timetable.
+     * Runs are returned per bus (all runs of every bus that changed), routes with all their stops.
+     * Runs reference routes by name, a client applies returned routes to every run using them.
+     * @param since version the client last synced to, 0 for a client without data
+     * @return current version with the runs and routes changed after {@code since}, or only the version with
+     * {@code fullResync} set if a change could affect every schedule and the client has to download everything again
+     */
+    BusChangesDto getBusChanges(long since);
+
+/*------------------------------------------------DEPARTURES BOARD----------------------------------------------------*/
+
+    /**
+     * Served from the bus_departure read model with index-only range scans
+     * @param locationName name of the stop
+     * @param scheduleType WEEKDAY or WEEKEND timetable
+     * @param from start of the window, inclusive
+     * @param window length of the window, a window passing midnight continues with the early morning departures
+     * @param limit maximum number of departures
+     * @return departures from the stop inside the window sorted by time, empty for unknown stops
+     */
+    List<BusDepartureDto> getDepartureBoard(String locationName, ScheduleType scheduleType, LocalTime from, Duration window, int limit);
+
+/*--------------------------------------------------TIMETABLE---------------------------------------------------------*/
+
+    /**
+     * Served from the in-memory timetable index, does not query the database
+     * @param locationName name of the stop
+     * @param scheduleType WEEKDAY or WEEKEND timetable
+     * @param after departures at or after this time are returned
+     * @param limit maximum number of departures
+     * @return departures from the stop sorted by time
+     * @throws org.springframework.dao.EmptyResultDataAccessException if no run stops at the location
+     */
+    List<BusDepartureDto> getNextDepartures(String locationName, ScheduleType scheduleType, LocalTime after, int limit);
 }
\ No newline at end of file
@@ -1,7 +1,8 @@
 package in.ac.iitj.instiapp.services;
 
+import in.ac.iitj.instiapp.payload.common.CursorPage;
+import in.ac.iitj.instiapp.Utils.PageCursor;
 import in.ac.iitj.instiapp.payload.GrievanceDto;
-import org.springframework.data.domain.Pageable;
 
 import java.util.List;
 import java.util.Optional;
@@ -12,7 +13,7 @@ public interface GrievanceService {
     public String save(GrievanceDto grievanceDto);
     public GrievanceDto getGrievance(String publicId);
     public void updateGrievance(String publicId, GrievanceDto grievanceDto);
-    public List<GrievanceDto> getGrievancesByFilter(Optional<String> title, Optional<String> description, Optional<String> organisationName, Optional<Boolean> resolved, Pageable pageable);
+    public CursorPage<GrievanceDto> getGrievancesByFilter(Optional<String> title, Optional<String> description, Optional<String> organisationName, Optional<Boolean> resolved, PageCursor cursor);
     public void deleteGrievance(String publicId);
 
     public boolean doesOwn(String publicId, String username);
@@ -0,0 +1,83 @@
+package in.ac.iitj.instiapp.services.JWTTokens;
+
+import in.ac.iitj.instiapp.Repository.JWTRefreshTokenRepository;
+import in.ac.iitj.instiapp.Repository.OAuth2TokenRepository;
+import in.ac.iitj.instiapp.Repository.RevokedTokenRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToIntFunction;
+
+/**
+ * Deletes rows of expired tokens so the token tables do not grow without bound.
+ * <p>
+ * Rows are deleted in batches of {@link #BATCH_SIZE}, every batch is its own statement so locks are held briefly,
+ * and a run stops after {@link #MAX_BATCHES_PER_TABLE} batches per table, the rest is left for the next run.
+ * Purged rows are counted in the {@code instiapp.tokens.purged} counter tagged with the table.
+ * <p>
+ * OAuth2 tokens are purged once unused for {@code oauth2.tokens.max-idle-days}, by default the lifetime of a refresh
+ * token, after which the device has to sign in again and saves new ones.
+ */
+@Component
+public class ExpiredTokenReaper {
+
+    private static final org.slf4j.Logger log = org.slf4j.LoggerFactory.getLogger(ExpiredTokenReaper.class);
+    private static final int BATCH_SIZE = 1000;
+    private static final int MAX_BATCHES_PER_TABLE = 100;
+
+    private final JWTRefreshTokenRepository jwtRefreshTokenRepository;
+    private final OAuth2TokenRepository oAuth2TokenRepository;
+    private final RevokedTokenRepository revokedTokenRepository;
+    private final Duration oauth2TokenMaxIdle;
+    private final Counter refreshTokensPurged;
+    private final Counter oauth2TokensPurged;
+    private final Counter revokedTokensPurged;
+
+    public ExpiredTokenReaper(JWTRefreshTokenRepository jwtRefreshTokenRepository, OAuth2TokenRepository oAuth2TokenRepository,
+                              RevokedTokenRepository revokedTokenRepository, MeterRegistry meterRegistry,
+                              @Value("${oauth2.tokens.max-idle-days:15}") long oauth2TokenMaxIdleDays) {
+        this.jwtRefreshTokenRepository = jwtRefreshTokenRepository;
+        this.oAuth2TokenRepository = oAuth2TokenRepository;
+        this.revokedTokenRepository = revokedTokenRepository;
+        this.oauth2TokenMaxIdle = Duration.ofDays(oauth2TokenMaxIdleDays);
+        this.refreshTokensPurged = purgedCounter(meterRegistry, "jwt_refresh_token");
+        this.oauth2TokensPurged = purgedCounter(meterRegistry, "oauth2tokens");
+        this.revokedTokensPurged = purgedCounter(meterRegistry, "revoked_token");
+    }
+
+    @Scheduled(fixedDelay = 1, initialDelay = 1, timeUnit = TimeUnit.HOURS)
+    public void purgeExpiredTokens() {
+        Instant now = Instant.now();
+        int refreshTokens = purge(batchSize -> jwtRefreshTokenRepository.deleteExpired(now, batchSize), refreshTokensPurged);
+        Instant oauth2Cutoff = now.minus(oauth2TokenMaxIdle);
+        int oauth2Tokens = purge(batchSize -> oAuth2TokenRepository.deleteUnusedSince(oauth2Cutoff, batchSize), oauth2TokensPurged);
+        int revokedTokens = purge(batchSize -> revokedTokenRepository.deleteExpired(now, batchSize), revokedTokensPurged);
+        log.info("Purged {} refresh tokens, {} OAuth2 tokens and {} revoked tokens", refreshTokens, oauth2Tokens, revokedTokens);
+    }
+
+    private static int purge(ToIntFunction<Integer> deleteBatch, Counter purged) {
+        int total = 0;
+        for (int batch = 0; batch < MAX_BATCHES_PER_TABLE; batch++) {
+            int deleted = deleteBatch.applyAsInt(BATCH_SIZE);
+            total += deleted;
+            purged.increment(deleted);
+            if (deleted < BATCH_SIZE) {
+                break;
+            }
+        }
+        return total;
+    }
+
+    private static Counter purgedCounter(MeterRegistry meterRegistry, String table) {
+        return Counter.builder("instiapp.tokens.purged")
+                .description("Rows of expired tokens deleted by the reaper")
+                .tag("table", table)
+                .register(meterRegistry);
+    }
+}
@@ -1,136 +1,166 @@
-//package in.ac.iitj.instiapp.services.JWTTokens;
-//
-//import com.nimbusds.jose.*;
-//import com.nimbusds.jose.crypto.RSADecrypter;
-//import com.nimbusds.jose.crypto.RSAEncrypter;
-//import com.nimbusds.jose.crypto.RSASSASigner;
-//import com.nimbusds.jwt.JWTClaimsSet;
-//import com.nimbusds.jwt.SignedJWT;
-//import jakarta.annotation.PostConstruct;
-//import org.springframework.beans.factory.annotation.Value;
-//import org.springframework.stereotype.Service;
-//
-//import java.security.*;
-//import java.security.interfaces.RSAPublicKey;
-//import java.security.spec.PKCS8EncodedKeySpec;
-//import java.security.spec.X509EncodedKeySpec;
-//import java.text.ParseException;
-//import java.util.Base64;
-//import java.util.Date;
-//
-//
-//@Service
-//public class JWEService {
-//
-//    private static final JWSHeader DEFAULT_JWS_HEADER = new JWSHeader(JWSAlgorithm.RS256);
-//    private static final JWEHeader DEFAULT_JWE_HEADER =
-//            new JWEHeader.Builder(JWEAlgorithm.RSA_OAEP_256, EncryptionMethod.A256GCM)
-//                    .contentType("JWT")
-//                    .build();
-//
-//
-//    private RSADecrypter rsaDecrypter;
-//    private RSAEncrypter rsaEncrypter;
-//    private JWSSigner jwsSigner;
-//
-//    @Value("${jwe.private-key}")
-//    private String base64PrivateKey;
-//
-//    @Value("${jwe.public-key}")
-//    private String base64PublicKey;
-//
-//    @PostConstruct
-//    private void init() {
-//        try {
-//            if (base64PrivateKey == null || base64PublicKey == null) {
-//                throw new IllegalStateException("❌ RSA keys not found in environment or properties");
-//            }
-//
-//            // 🔐 Decode clean base64-encoded DER key bytes
-//            byte[] privBytes = Base64.getDecoder().decode(base64PrivateKey.trim());
-//            byte[] pubBytes = Base64.getDecoder().decode(base64PublicKey.trim());
-//
-//            KeyFactory keyFactory = KeyFactory.getInstance("RSA");
-//
-//            // 🔧 Rebuild private and public keys
-//            PrivateKey privateKey = keyFactory.generatePrivate(new PKCS8EncodedKeySpec(privBytes));
-//            PublicKey publicKey = keyFactory.generatePublic(new X509EncodedKeySpec(pubBytes));
-//
-//            // 🛡️ Set up JWE and JWS logic
-//            this.jwsSigner = new RSASSASigner(privateKey);
-//            this.rsaDecrypter = new RSADecrypter(privateKey);
-//            this.rsaEncrypter = new RSAEncrypter((RSAPublicKey) publicKey);
-//
-//            System.out.println("✅ RSA keys successfully initialized");
-//
-//        } catch (Exception e) {
-//            System.err.println("❌ Error initializing RSA keys: " + e.getMessage());
-//            throw new RuntimeException("❌ Failed to load RSA keys", e);
-//        }
-//    }
-//
-//
-//
-//    private KeyPair generateRSAKeyPair() throws NoSuchAlgorithmException {
-//        KeyPairGenerator keyGen = KeyPairGenerator.getInstance("RSA");
-//        keyGen.initialize(2048);
-//        return keyGen.generateKeyPair();
-//    }
-//
-//    /**
-//     * Encrypts a JWT containing the given claims. The subject is updated to the provided value
-//     * and the token expiration is set to 60 seconds from now.
-//     *
-//     * @param claimsSet the base claims set, can be null
-//     * @param subject   the subject to be set in the claims, if null returns null
-//     * @return the serialized encrypted token
-//     * @throws Exception if encryption fails
-//     */
-//    public String encryptData(JWTClaimsSet claimsSet, String subject, JWEConstants.ExpirationDuration expirationDuration) throws ParseException, JOSEException {
-//
-//        if (subject == null) return null;
-//        claimsSet = claimsSet == null ? new JWTClaimsSet.Builder().build() : claimsSet;
-//
-//        // Build a new claims set with updated subject and expiration time.
-//        JWTClaimsSet updatedClaimsSet = new JWTClaimsSet.Builder(claimsSet)
-//                .issuer("instiapp")
-//                .subject(subject)
-//                .expirationTime(new Date(System.currentTimeMillis() + expirationDuration.getDuration()))
-//                .build();
-//
-//        SignedJWT signedJWT = new SignedJWT(DEFAULT_JWS_HEADER, updatedClaimsSet);
-//        signedJWT.sign(jwsSigner);
-//        JWEObject jweObject = new JWEObject(DEFAULT_JWE_HEADER, new Payload(signedJWT));
-//        jweObject.encrypt(rsaEncrypter);
-//        return jweObject.serialize();
-//    }
-//
-//    /**
-//     * Decrypts the provided JWE token and returns its claims after validating expiration.
-//     *
-//     * @param jweToken the encrypted token
-//     * @return the JWTClaimsSet contained in the token
-//     * @throws Exception if decryption fails or the token is expired
-//     */
-//    public JWTClaimsSet extractClaims(String jweToken) throws ParseException, JOSEException {
-//        JWTClaimsSet claimsSet = getSignedJWT(jweToken).getJWTClaimsSet();
-//        return claimsSet;
-//    }
-//
-//    // Consolidates the decryption logic to avoid duplication.
-//    private SignedJWT getSignedJWT(String jweToken) throws ParseException, JOSEException {
-//        JWEObject jweObject = JWEObject.parse(jweToken);
-//        jweObject.decrypt(rsaDecrypter);
-//        return jweObject.getPayload().toSignedJWT();
-//    }
-//
-//    public boolean isExpired(JWTClaimsSet claimsSet) throws ParseException, JOSEException {
-//        return claimsSet.
-//                getExpirationTime().
-//                getTime() < System.currentTimeMillis();
-//    }
-//
-//
-//
-//
-//}
+package in.ac.iitj.instiapp.services.JWTTokens;
+
+import com.nimbusds.jose.*;
+import com.nimbusds.jose.crypto.RSADecrypter;
+import com.nimbusds.jose.crypto.RSAEncrypter;
+import com.nimbusds.jose.crypto.RSASSASigner;
+import com.nimbusds.jose.crypto.RSASSAVerifier;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.security.*;
+import java.security.interfaces.RSAPublicKey;
+import java.security.spec.InvalidKeySpecException;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.text.ParseException;
+import java.util.Base64;
+import java.util.Date;
+
+
+@Service
+public class JWEService {
+
+    private static final org.slf4j.Logger log = org.slf4j.LoggerFactory.getLogger(JWEService.class);
+
+    private static final JWSHeader DEFAULT_JWS_HEADER = new JWSHeader(JWSAlgorithm.RS256);
+    private static final JWEHeader DEFAULT_JWE_HEADER =
+            new JWEHeader.Builder(JWEAlgorithm.RSA_OAEP_256, EncryptionMethod.A256GCM)
+                    .contentType("JWT")
+                    .build();
+
+    // Built once from the key pair. The Nimbus signers, verifiers, encrypters and decrypters are thread-safe,
+    // they take a Cipher per operation, so one instance of each serves every request
+    private final JWSSigner jwsSigner;
+    private final JWSVerifier jwsVerifier;
+    private final JWEEncrypter jweEncrypter;
+    private final JWEDecrypter jweDecrypter;
+
+    private final VerifiedClaimsCache verifiedClaimsCache;
+
+    /**
+     * @param base64PrivateKey base64 of the PKCS#8 DER encoded RSA private key
+     * @param base64PublicKey  base64 of the X.509 DER encoded RSA public key
+     * Every instance has to be configured with the same pair, without one a pair is generated that only this instance can read
+     */
+    @Autowired
+    public JWEService(@Value("${jwe.private-key:}") String base64PrivateKey,
+                      @Value("${jwe.public-key:}") String base64PublicKey,
+                      VerifiedClaimsCache verifiedClaimsCache) {
+        this(loadKeyPair(base64PrivateKey, base64PublicKey), verifiedClaimsCache);
+    }
+
+    public JWEService(KeyPair keyPair, VerifiedClaimsCache verifiedClaimsCache) {
+        this.verifiedClaimsCache = verifiedClaimsCache;
+        this.jwsSigner = new RSASSASigner(keyPair.getPrivate());
+        this.jwsVerifier = new RSASSAVerifier((RSAPublicKey) keyPair.getPublic());
+        this.jweEncrypter = new RSAEncrypter((RSAPublicKey) keyPair.getPublic());
+        this.jweDecrypter = new RSADecrypter(keyPair.getPrivate());
+    }
+
+    private static KeyPair loadKeyPair(String base64PrivateKey, String base64PublicKey) {
+        boolean hasPrivateKey = base64PrivateKey != null && !base64PrivateKey.isBlank();
+        boolean hasPublicKey = base64PublicKey != null && !base64PublicKey.isBlank();
+        if (hasPrivateKey != hasPublicKey) {
+            throw new IllegalStateException("jwe.private-key and jwe.public-key have to be configured together");
+        }
+
+        try {
+            if (!hasPrivateKey) {
+                log.warn("jwe.private-key and jwe.public-key are not configured, tokens encrypted by this instance can't be read by any other instance");
+                KeyPairGenerator keyGen = KeyPairGenerator.getInstance("RSA");
+                keyGen.initialize(2048);
+                return keyGen.generateKeyPair();
+            }
+
+            KeyFactory keyFactory = KeyFactory.getInstance("RSA");
+            PrivateKey privateKey = keyFactory.generatePrivate(new PKCS8EncodedKeySpec(Base64.getDecoder().decode(base64PrivateKey.trim())));
+            PublicKey publicKey = keyFactory.generatePublic(new X509EncodedKeySpec(Base64.getDecoder().decode(base64PublicKey.trim())));
+            log.info("RSA keys for JWE loaded from configuration");
+            return new KeyPair(publicKey, privateKey);
+        } catch (NoSuchAlgorithmException | InvalidKeySpecException | IllegalArgumentException e) {
+            throw new IllegalStateException("Failed to load RSA keys for JWE", e);
+        }
+    }
+
+    /**
+     * Encrypts a JWT containing the given claims. The subject is updated to the provided value
+     * and the token expiration is set to the given duration from now.
+     *
+     * @param claimsSet the base claims set, can be null
+     * @param subject   the subject to be set in the claims, if null returns null
+     * @return the serialized encrypted token
+     * @throws JOSEException if signing or encryption fails
+     */
+    public String encryptData(JWTClaimsSet claimsSet, String subject, JWEConstants.ExpirationDuration expirationDuration) throws ParseException, JOSEException {
+
+        if (subject == null) return null;
+        claimsSet = claimsSet == null ? new JWTClaimsSet.Builder().build() : claimsSet;
+
+        // Build a new claims set with updated subject and expiration time.
+        JWTClaimsSet updatedClaimsSet = new JWTClaimsSet.Builder(claimsSet)
+                .issuer("instiapp")
+                .subject(subject)
+                .expirationTime(new Date(System.currentTimeMillis() + expirationDuration.getDuration()))
+                .build();
+
+        SignedJWT signedJWT = new SignedJWT(DEFAULT_JWS_HEADER, updatedClaimsSet);
+        signedJWT.sign(jwsSigner);
+        JWEObject jweObject = new JWEObject(DEFAULT_JWE_HEADER, new Payload(signedJWT));
+        jweObject.encrypt(jweEncrypter);
+        return jweObject.serialize();
+    }
+
+    /**
+     * Decrypts the provided JWE token, verifies the signed JWT inside and returns its claims. Expiration is not checked,
+     * see {@link #isExpired(JWTClaimsSet)}. A token already seen is served from memory until its expiration without being decrypted again.
+     *
+     * @param jweToken the encrypted token
+     * @return the JWTClaimsSet contained in the token
+     * @throws ParseException if the token is malformed
+     * @throws JOSEException  if decryption or the signature check fails
+     */
+    public JWTClaimsSet extractClaims(String jweToken) throws ParseException, JOSEException {
+        JWTClaimsSet cached = verifiedClaimsCache.get(jweToken, JWTClaimsSet.class);
+        if (cached != null) {
+            return cached;
+        }
+
+        JWTClaimsSet claimsSet = getSignedJWT(jweToken).getJWTClaimsSet();
+        Date expiration = claimsSet.getExpirationTime();
+        // Expired tokens and tokens without exp are not cached, they are decrypted on every use
+        if (expiration != null) {
+            verifiedClaimsCache.put(jweToken, claimsSet, expiration.getTime());
+        }
+        return claimsSet;
+    }
+
+    /**
+     * Drops a token from the verified claims cache, the next use of the token is decrypted and verified again
+     */
+    public void evictToken(String jweToken) {
+        verifiedClaimsCache.evict(jweToken);
+    }
+
+    // Consolidates the decryption logic to avoid duplication.
+    private SignedJWT getSignedJWT(String jweToken) throws ParseException, JOSEException {
+        JWEObject jweObject = JWEObject.parse(jweToken);
+        jweObject.decrypt(jweDecrypter);
+        SignedJWT signedJWT = jweObject.getPayload().toSignedJWT();
+        if (signedJWT == null || !signedJWT.verify(jwsVerifier)) {
+            throw new JOSEException("Invalid signature of the encrypted JWT");
+        }
+        return signedJWT;
+    }
+
+    /**
+     * @return true if the token is expired or has no expiration
+     */
+    public boolean isExpired(JWTClaimsSet claimsSet) throws ParseException, JOSEException {
+        Date expirationTime = claimsSet.getExpirationTime();
+        return expirationTime == null || expirationTime.getTime() < System.currentTimeMillis();
+    }
+}
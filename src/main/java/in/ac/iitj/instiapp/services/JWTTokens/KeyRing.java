@@ -0,0 +1,264 @@
+package in.ac.iitj.instiapp.services.JWTTokens;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import in.ac.iitj.instiapp.Repository.KeyRingRepository;
+import in.ac.iitj.instiapp.database.entities.Auth.KeyRingKey.Purpose;
+import in.ac.iitj.instiapp.payload.Auth.KeyRingKeyDto;
+import lombok.Getter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.SecretKey;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.nio.file.*;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Versioned keys shared by every instance through the {@code key_ring} table, so a token signed or a value encrypted
+ * by one instance is accepted by all of them and no session affinity is needed.
+ * <p>
+ * The keys are loaded at startup and reloaded every few minutes. The newest key of a purpose whose {@code notBefore} has
+ * passed signs or encrypts, every unexpired key verifies or decrypts. A new key is published at least {@link #ACTIVATION_DELAY}
+ * before it takes over, longer than the reload interval, so every instance knows it before any instance uses it. The key
+ * it replaces is kept for {@link #RETENTION}, longer than the longest lived token, so keys rotate without downtime.
+ * <p>
+ * When the table can't be read the keys are loaded from the file at {@code keyring.file}, which is rewritten with the
+ * table's keys after every successful load. If the table and the file both fail, the keys loaded before stay in use
+ * until they expire.
+ */
+@Component
+public class KeyRing {
+
+    private static final org.slf4j.Logger log = org.slf4j.LoggerFactory.getLogger(KeyRing.class);
+
+    public static final Duration ROTATION_PERIOD = Duration.ofDays(30);
+    public static final Duration ACTIVATION_DELAY = Duration.ofMinutes(15);
+    // Successors are published this long before they are scheduled to take over, more than the activation delay plus
+    // a reload interval, so they keep the scheduled notBefore and every instance derives the same kid
+    private static final Duration PUBLISH_AHEAD = Duration.ofMinutes(30);
+    // Refresh tokens live 15 days
+    public static final Duration RETENTION = Duration.ofDays(16);
+    private static final int KEY_BYTES = 32;
+
+    private final KeyRingRepository keyRingRepository;
+    private final Path fallbackFile;
+    private final SecureRandom secureRandom = new SecureRandom();
+    private final ObjectMapper objectMapper = JsonMapper.builder()
+            .findAndAddModules()
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .build();
+
+    private volatile Snapshot snapshot;
+
+    /**
+     * @param fallbackFile path of the fallback file, blank for none
+     */
+    public KeyRing(KeyRingRepository keyRingRepository, @Value("${keyring.file:}") String fallbackFile) {
+        this.keyRingRepository = keyRingRepository;
+        this.fallbackFile = fallbackFile.isBlank() ? null : Path.of(fallbackFile);
+    }
+
+    /**
+     * @return key that signs or encrypts now, null if the ring has no usable key of the purpose
+     */
+    public Entry activeKey(Purpose purpose) {
+        return current().active(purpose, Instant.now());
+    }
+
+    /**
+     * @return unexpired key of the purpose with this kid, null if there is none
+     */
+    public SecretKey key(Purpose purpose, String kid) {
+        Entry entry = current().byKid.get(kid);
+        if (entry == null || entry.purpose != purpose || !entry.expiresAt.isAfter(Instant.now())) {
+            return null;
+        }
+        return entry.secretKey;
+    }
+
+    /**
+     * Reloads the keys, publishing the first key of a purpose or the successor of a key that is due for rotation
+     */
+    @Scheduled(fixedDelay = 5, timeUnit = TimeUnit.MINUTES)
+    public synchronized void refresh() {
+        Instant now = Instant.now();
+        List<KeyRingKeyDto> keys;
+        try {
+            keys = keyRingRepository.getUnexpiredKeys(now);
+            if (publishDueKeys(keys, now)) {
+                // Reloaded instead of adding our own keys, another instance may have published the same kid first
+                keys = keyRingRepository.getUnexpiredKeys(now);
+            }
+        } catch (DataAccessException e) {
+            log.warn("Key ring table could not be read: {}", e.getMessage());
+            keys = readFallbackFile(now);
+            if (keys == null) {
+                // Keys loaded before stay in use until they expire
+                if (snapshot == null) {
+                    snapshot = new Snapshot(List.of());
+                }
+                return;
+            }
+            snapshot = new Snapshot(keys);
+            log.info("Loaded {} keys from the key ring file", keys.size());
+            return;
+        }
+
+        snapshot = new Snapshot(keys);
+        writeFallbackFile(keys);
+        log.info("Loaded {} keys from the key ring", keys.size());
+    }
+
+    private Snapshot current() {
+        Snapshot current = snapshot;
+        if (current == null) {
+            synchronized (this) {
+                if (snapshot == null) {
+                    refresh();
+                }
+                current = snapshot;
+            }
+        }
+        return current;
+    }
+
+    /**
+     * @return true if a key was published, by this instance or by another one first
+     */
+    private boolean publishDueKeys(List<KeyRingKeyDto> keys, Instant now) {
+        boolean published = false;
+        for (Purpose purpose : Purpose.values()) {
+            KeyRingKeyDto newest = keys.stream()
+                    .filter(key -> key.getPurpose() == purpose)
+                    .max(Comparator.comparing(KeyRingKeyDto::getNotBefore))
+                    .orElse(null);
+
+            Instant notBefore;
+            if (newest == null) {
+                // Nothing to sign with yet, usable right away. Truncated so instances starting together publish the same kid
+                notBefore = now.truncatedTo(ChronoUnit.DAYS);
+            } else if (!now.isBefore(newest.getNotBefore().plus(ROTATION_PERIOD).minus(PUBLISH_AHEAD))) {
+                Instant scheduled = newest.getNotBefore().plus(ROTATION_PERIOD);
+                // Only later than scheduled if no instance could publish in time
+                Instant earliest = now.plus(ACTIVATION_DELAY).truncatedTo(ChronoUnit.MINUTES);
+                notBefore = scheduled.isBefore(earliest) ? earliest : scheduled;
+            } else {
+                continue;
+            }
+
+            byte[] secret = new byte[KEY_BYTES];
+            secureRandom.nextBytes(secret);
+            KeyRingKeyDto key = new KeyRingKeyDto(
+                    purpose.name().toLowerCase(Locale.ROOT) + "-" + notBefore.getEpochSecond(),
+                    purpose,
+                    Base64.getEncoder().encodeToString(secret),
+                    notBefore,
+                    notBefore.plus(ROTATION_PERIOD).plus(RETENTION));
+            if (keyRingRepository.insertKey(key)) {
+                log.info("Published key {} for {}, used from {}", key.getKid(), purpose, notBefore);
+            }
+            published = true;
+        }
+        return published;
+    }
+
+    private List<KeyRingKeyDto> readFallbackFile(Instant now) {
+        if (fallbackFile == null || !Files.isReadable(fallbackFile)) {
+            log.error("No key ring file to fall back to, tokens signed by other instances may be rejected");
+            return null;
+        }
+        try {
+            List<KeyRingKeyDto> keys = objectMapper.readValue(fallbackFile.toFile(), new TypeReference<List<KeyRingKeyDto>>() {
+            });
+            return keys.stream().filter(key -> key.getExpiresAt().isAfter(now)).toList();
+        } catch (IOException e) {
+            log.error("Key ring file {} could not be read: {}", fallbackFile, e.getMessage());
+            return null;
+        }
+    }
+
+    private void writeFallbackFile(List<KeyRingKeyDto> keys) {
+        if (fallbackFile == null) {
+            return;
+        }
+        try {
+            Path directory = fallbackFile.toAbsolutePath().getParent();
+            Files.createDirectories(directory);
+            Path temporary = Files.createTempFile(directory, fallbackFile.getFileName().toString(), ".tmp");
+            try {
+                if (Files.getFileStore(temporary).supportsFileAttributeView("posix")) {
+                    Files.setPosixFilePermissions(temporary, PosixFilePermissions.fromString("rw-------"));
+                }
+                objectMapper.writeValue(temporary.toFile(), keys);
+                // Readers see the old or the new file, never a partly written one
+                Files.move(temporary, fallbackFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(temporary);
+            }
+        } catch (IOException e) {
+            log.warn("Key ring file {} could not be written: {}", fallbackFile, e.getMessage());
+        }
+    }
+
+
+    @Getter
+    public static final class Entry {
+        private final String kid;
+        private final Purpose purpose;
+        private final SecretKey secretKey;
+        private final Instant notBefore;
+        private final Instant expiresAt;
+
+        Entry(KeyRingKeyDto key) {
+            this.kid = key.getKid();
+            this.purpose = key.getPurpose();
+            this.secretKey = new SecretKeySpec(Base64.getDecoder().decode(key.getSecret()), purpose == Purpose.JWT ? "HmacSHA256" : "AES");
+            this.notBefore = key.getNotBefore();
+            this.expiresAt = key.getExpiresAt();
+        }
+    }
+
+    private static final class Snapshot {
+        final Map<String, Entry> byKid = new HashMap<>();
+        // Newest notBefore first
+        final Map<Purpose, List<Entry>> byPurpose = new EnumMap<>(Purpose.class);
+
+        Snapshot(List<KeyRingKeyDto> keys) {
+            for (KeyRingKeyDto key : keys) {
+                Entry entry;
+                try {
+                    entry = new Entry(key);
+                } catch (IllegalArgumentException e) {
+                    log.error("Skipped key {} of the key ring: {}", key.getKid(), e.getMessage());
+                    continue;
+                }
+                byKid.put(entry.kid, entry);
+                byPurpose.computeIfAbsent(entry.purpose, purpose -> new ArrayList<>()).add(entry);
+            }
+            // Ties broken by kid so every instance picks the same key
+            byPurpose.values().forEach(entries -> entries.sort(Comparator.comparing(Entry::getNotBefore)
+                    .thenComparing(Entry::getKid).reversed()));
+        }
+
+        Entry active(Purpose purpose, Instant now) {
+            for (Entry entry : byPurpose.getOrDefault(purpose, List.of())) {
+                if (!entry.notBefore.isAfter(now) && entry.expiresAt.isAfter(now)) {
+                    return entry;
+                }
+            }
+            return null;
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package in.ac.iitj.instiapp.services.JWTTokens;
+
+import in.ac.iitj.instiapp.Repository.RevokedTokenRepository;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Answers "is the token with this jti revoked" without touching the database in the common case.
+ * <p>
+ * Revoked token ids from {@code revoked_token} are loaded into a Bloom filter that is rebuilt every few minutes.
+ * Revocations made by this instance since the last rebuild are kept in an exact overlay. A lookup checks the overlay,
+ * then the filter. Only a filter hit goes to the database, to tell a real revocation from a false positive, so a
+ * token that was never revoked is answered in memory. Revocations made by other instances are seen after their next rebuild.
+ * <p>
+ * The filter is built by the first lookup. A rebuild fills a new filter and replaces the old one when it is complete, so
+ * lookups never wait for it.
+ */
+@Component
+public class TokenRevocationList {
+
+    private static final org.slf4j.Logger log = org.slf4j.LoggerFactory.getLogger(TokenRevocationList.class);
+
+    private final RevokedTokenRepository revokedTokenRepository;
+
+    // jti -> time it was added, entries older than the running filter are covered by it and dropped on rebuild
+    private final Map<String, Long> recentlyRevoked = new ConcurrentHashMap<>();
+    private volatile BloomFilter filter;
+
+    public TokenRevocationList(RevokedTokenRepository revokedTokenRepository) {
+        this.revokedTokenRepository = revokedTokenRepository;
+    }
+
+    /**
+     * @param tokenId jti of the token
+     * @param expiresAt exp of the token
+     */
+    public void revoke(String tokenId, Instant expiresAt) {
+        revokedTokenRepository.revoke(tokenId, expiresAt);
+        recentlyRevoked.put(tokenId, System.currentTimeMillis());
+    }
+
+    public boolean isRevoked(String tokenId) {
+        if (recentlyRevoked.containsKey(tokenId)) {
+            return true;
+        }
+        return current().mightContain(tokenId) && revokedTokenRepository.isRevoked(tokenId);
+    }
+
+    /**
+     * Reloads the unexpired revoked token ids and replaces the filter
+     */
+    @Scheduled(fixedDelay = 5, initialDelay = 5, timeUnit = TimeUnit.MINUTES)
+    public synchronized void rebuild() {
+        long startedAt = System.currentTimeMillis();
+        List<String> tokenIds = revokedTokenRepository.getUnexpiredTokenIds();
+        BloomFilter rebuilt = new BloomFilter(tokenIds.size());
+        tokenIds.forEach(rebuilt::put);
+        filter = rebuilt;
+        // Revocations written before the query started are in the new filter
+        recentlyRevoked.values().removeIf(addedAt -> addedAt < startedAt);
+        log.info("Rebuilt token revocation filter with {} revoked tokens", tokenIds.size());
+    }
+
+    private BloomFilter current() {
+        BloomFilter current = filter;
+        if (current == null) {
+            synchronized (this) {
+                if (filter == null) {
+                    rebuild();
+                }
+                current = filter;
+            }
+        }
+        return current;
+    }
+
+
+    /**
+     * Bloom filter sized for about 1% false positives, bit positions come from double hashing of one 64 bit hash
+     */
+    private static final class BloomFilter {
+        private static final int MIN_EXPECTED = 1024;
+        private static final int BITS_PER_ENTRY = 10;
+        private static final int HASHES = 7;
+
+        final long[] bits;
+        final int size;
+
+        BloomFilter(int expected) {
+            long bitCount = (long) Math.max(expected, MIN_EXPECTED) * BITS_PER_ENTRY;
+            this.bits = new long[(int) Math.min((bitCount + 63) / 64, Integer.MAX_VALUE / 64)];
+            this.size = bits.length * 64;
+        }
+
+        void put(String value) {
+            long hash = hash(value);
+            int h1 = (int) hash, h2 = (int) (hash >>> 32);
+            for (int i = 0; i < HASHES; i++) {
+                int bit = Math.floorMod(h1 + i * h2, size);
+                bits[bit >>> 6] |= 1L << bit;
+            }
+        }
+
+        boolean mightContain(String value) {
+            long hash = hash(value);
+            int h1 = (int) hash, h2 = (int) (hash >>> 32);
+            for (int i = 0; i < HASHES; i++) {
+                int bit = Math.floorMod(h1 + i * h2, size);
+                if ((bits[bit >>> 6] & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private static long hash(String value) {
+            long hash = 0xcbf29ce484222325L;
+            for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+                hash ^= b & 0xff;
+                hash *= 0x100000001b3L;
+            }
+            // FNV mixes the high bits poorly, finish with the murmur3 avalanche step
+            hash ^= hash >>> 33;
+            hash *= 0xff51afd7ed558ccdL;
+            hash ^= hash >>> 33;
+            return hash;
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package in.ac.iitj.instiapp.services.JWTTokens;
+
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Claims of tokens whose signature has been verified, so a token used again is not verified or decrypted again.
+ * <p>
+ * One instance holds the claims of both the signed JWTs and the encrypted JWE tokens. They share the bound of
+ * {@link #MAX_CACHED_TOKENS} entries, and {@link #evict(String)} drops a token whatever its kind. Entries are keyed by the
+ * SHA-256 of the token, so no usable token is kept in memory, and are served until the {@code exp} of the token.
+ * Expired entries are evicted when the cache is full; while every entry is still valid, new tokens are not cached.
+ */
+@Component
+public class VerifiedClaimsCache {
+
+    public static final int MAX_CACHED_TOKENS = 10_000;
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final int maxCachedTokens;
+
+    public VerifiedClaimsCache() {
+        this(MAX_CACHED_TOKENS);
+    }
+
+    public VerifiedClaimsCache(int maxCachedTokens) {
+        this.maxCachedTokens = maxCachedTokens;
+    }
+
+    /**
+     * @return the claims of the token, null if the token is not cached, has expired or its claims are of another type
+     */
+    public <C> C get(String token, Class<C> claimsType) {
+        String hash = tokenHash(token);
+        Entry entry = entries.get(hash);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.expiresAt <= System.currentTimeMillis()) {
+            entries.remove(hash, entry);
+            return null;
+        }
+        return claimsType.isInstance(entry.claims) ? claimsType.cast(entry.claims) : null;
+    }
+
+    /**
+     * Caches verified claims until the token expires, tokens that have already expired are not cached
+     * @param expiresAt {@code exp} of the token in epoch milliseconds
+     */
+    public void put(String token, Object claims, long expiresAt) {
+        long now = System.currentTimeMillis();
+        if (expiresAt <= now) {
+            return;
+        }
+        if (entries.size() >= maxCachedTokens) {
+            entries.values().removeIf(entry -> entry.expiresAt <= now);
+        }
+        if (entries.size() < maxCachedTokens) {
+            entries.put(tokenHash(token), new Entry(claims, expiresAt));
+        }
+    }
+
+    /**
+     * Drops a token, its next use is verified again. Called on logout
+     */
+    public void evict(String token) {
+        if (token == null || token.isBlank()) {
+            return;
+        }
+        entries.remove(tokenHash(token));
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private static String tokenHash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private static final class Entry {
+        final Object claims;
+        final long expiresAt;
+
+        Entry(Object claims, long expiresAt) {
+            this.claims = claims;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
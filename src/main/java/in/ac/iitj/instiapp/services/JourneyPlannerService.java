@@ -0,0 +1,26 @@
+package in.ac.iitj.instiapp.services;
+
+import in.ac.iitj.instiapp.database.entities.Scheduling.Buses.ScheduleType;
+import in.ac.iitj.instiapp.payload.Scheduling.Buses.JourneyDto;
+
+import java.time.LocalTime;
+
+public interface JourneyPlannerService {
+
+    /**
+     * Earliest arrival itinerary between two stops, answered from an in-memory copy of the timetable without database access.
+     * Transfers between buses are allowed at any stop, a transfer needs the next bus to depart at or after the arrival.
+     * @param fromLocation name of the stop to start from
+     * @param toLocation name of the destination stop
+     * @param after earliest time to leave {@code fromLocation}
+     * @param scheduleType WEEKDAY or WEEKEND timetable
+     * @return itinerary arriving earliest, with the fewest legs among equal arrivals found first. Null if the destination can not be reached
+     * @throws org.springframework.dao.EmptyResultDataAccessException if no run stops at one of the locations
+     */
+    JourneyDto planJourney(String fromLocation, String toLocation, LocalTime after, ScheduleType scheduleType);
+
+    /**
+     * Reloads the timetable and replaces the journey graph
+     */
+    void rebuild();
+}
@@ -0,0 +1,95 @@
+package in.ac.iitj.instiapp.services.LostnFound;
+
+import in.ac.iitj.instiapp.Repository.LostnFoundRepository;
+import in.ac.iitj.instiapp.payload.LostnFound.LostnFoundArchiveBatchDto;
+import in.ac.iitj.instiapp.services.CloudinaryService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Moves resolved items, and items older than {@code lostnfound.archive.max-age-days} (a semester by default), from the
+ * lostnfound table to lostnfound_archive, so the lists, the search index and the match index only hold current items.
+ * <p>
+ * Items are moved in batches of {@link #BATCH_SIZE}, one statement each, and a run stops after {@link #MAX_BATCHES}
+ * batches. Media nothing else uses is deleted and its file queued for deletion with {@link CloudinaryService#deleteFileAsync}.
+ * Archived items are counted in {@code instiapp.lostnfound.archived}.
+ */
+@Component
+public class LostnFoundArchiver {
+
+    private static final org.slf4j.Logger log = org.slf4j.LoggerFactory.getLogger(LostnFoundArchiver.class);
+    static final int BATCH_SIZE = 500;
+    static final int MAX_BATCHES = 100;
+
+    private final LostnFoundRepository lostnFoundRepository;
+    private final CloudinaryService cloudinaryService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Duration maxAge;
+    private final Counter archived;
+    private final Counter mediaDeleted;
+
+    public LostnFoundArchiver(LostnFoundRepository lostnFoundRepository, CloudinaryService cloudinaryService,
+                              ApplicationEventPublisher eventPublisher, MeterRegistry meterRegistry,
+                              @Value("${lostnfound.archive.max-age-days:180}") long maxAgeDays) {
+        this.lostnFoundRepository = lostnFoundRepository;
+        this.cloudinaryService = cloudinaryService;
+        this.eventPublisher = eventPublisher;
+        this.maxAge = Duration.ofDays(maxAgeDays);
+        this.archived = Counter.builder("instiapp.lostnfound.archived")
+                .description("Lost and found items moved to the archive")
+                .register(meterRegistry);
+        this.mediaDeleted = Counter.builder("instiapp.lostnfound.archived.media")
+                .description("Media of archived lost and found items queued for deletion")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelay = 1, initialDelay = 1, timeUnit = TimeUnit.HOURS)
+    public void archive() {
+        Instant now = Instant.now();
+        int items = 0;
+        int media = 0;
+        for (int batch = 0; batch < MAX_BATCHES; batch++) {
+            LostnFoundArchiveBatchDto moved = lostnFoundRepository.archiveLostnFound(now.minus(maxAge), now, BATCH_SIZE);
+            items += moved.getArchived();
+            archived.increment(moved.getArchived());
+            media += deleteMedia(moved.getMediaIds());
+            if (moved.getArchived() < BATCH_SIZE) {
+                break;
+            }
+        }
+        if (items > 0) {
+            // Lists, the search index and the match index drop the archived items
+            eventPublisher.publishEvent(new LostnFoundChangedEvent("archiveLostnFound"));
+        }
+        log.info("Archived {} lost and found items and queued {} media for deletion", items, media);
+    }
+
+    private int deleteMedia(List<Long> mediaIds) {
+        if (mediaIds.isEmpty()) {
+            return 0;
+        }
+        List<String> publicIds;
+        try {
+            publicIds = lostnFoundRepository.deleteUnusedMedia(mediaIds);
+        } catch (DataAccessException e) {
+            // Still referenced elsewhere, the items are archived either way and the media is kept
+            log.warn("Could not delete the media {} of archived lost and found items", mediaIds, e);
+            return 0;
+        }
+        for (String publicId : publicIds) {
+            cloudinaryService.deleteFileAsync(publicId);
+        }
+        mediaDeleted.increment(publicIds.size());
+        return publicIds.size();
+    }
+}
@@ -0,0 +1,53 @@
+package in.ac.iitj.instiapp.services.LostnFound;
+
+import in.ac.iitj.instiapp.payload.LostnFound.LostnFoundSearchRowDto;
+
+import java.util.List;
+
+/**
+ * Published by {@link in.ac.iitj.instiapp.services.impl.LostnFoundServiceImpl} after every write to lost and found items or locations.
+ * It carries the changed items as the writing transaction left them, listeners holding in-memory copies of the items apply
+ * them once the transaction commits without loading them again.
+ */
+public class LostnFoundChangedEvent {
+
+    private final String operation;
+    private final List<LostnFoundSearchRowDto> changedRows;
+    private final List<String> deletedPublicIds;
+
+    /**
+     * For a change to any number of items, listeners reload every item
+     */
+    public LostnFoundChangedEvent(String operation) {
+        this.operation = operation;
+        this.changedRows = null;
+        this.deletedPublicIds = List.of();
+    }
+
+    public LostnFoundChangedEvent(String operation, List<LostnFoundSearchRowDto> changedRows, List<String> deletedPublicIds) {
+        this.operation = operation;
+        this.changedRows = List.copyOf(changedRows);
+        this.deletedPublicIds = List.copyOf(deletedPublicIds);
+    }
+
+    /**
+     * @return name of the service operation that caused the change, used for logging
+     */
+    public String getOperation() {
+        return operation;
+    }
+
+    /**
+     * @return the saved or updated items, null if any number of items may have changed, e.g. items were archived
+     */
+    public List<LostnFoundSearchRowDto> getChangedRows() {
+        return changedRows;
+    }
+
+    /**
+     * @return public ids of the deleted items
+     */
+    public List<String> getDeletedPublicIds() {
+        return deletedPublicIds;
+    }
+}
@@ -0,0 +1,211 @@
+package in.ac.iitj.instiapp.services.LostnFound;
+
+import in.ac.iitj.instiapp.Repository.LostnFoundRepository;
+import in.ac.iitj.instiapp.Utils.PageCursor;
+import in.ac.iitj.instiapp.database.entities.LostnFound.LostnFoundType;
+import in.ac.iitj.instiapp.payload.LostnFound.LostnFoundDto;
+import in.ac.iitj.instiapp.payload.LostnFound.LostnFoundSearchRowDto;
+import in.ac.iitj.instiapp.payload.common.CursorPage;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Caches the first {@link #MAX_PAGES} pages of {@link LostnFoundRepository#getLostnFoundByFilter} for every filter,
+ * without archived items.
+ * <p>
+ * A page is cached under its filter, page size and cursor. A later page is only cached when it is reached by following
+ * the cursor of a cached page, so deep pages and hand made cursors go to the database without filling the cache.
+ * <p>
+ * Pages are keyset paginated by id, so a page holds the items of its filter with ids from its cursor up to its last
+ * item, or every later id on the last page. After a committed {@link LostnFoundChangedEvent} only the pages holding a
+ * changed item, or whose filter and id range it now falls in, are evicted; archiving evicts every page. Pages expire
+ * after {@link #TTL_MILLIS} so changes made by other instances show up too.
+ * <p>
+ * Reads are counted in {@code instiapp.lostnfound.list.cache} tagged with the outcome: {@code hit}, {@code miss} for a
+ * read that was then cached, {@code bypass} for a page that isn't cached. Hits over all reads is the share of reads
+ * that didn't query the database. Cached pages are shared between callers and must not be modified.
+ */
+@Component
+public class LostnFoundListCache {
+
+    static final int MAX_PAGES = 3;
+    private static final int MAX_ENTRIES = 1000;
+    private static final long TTL_MILLIS = 60 * 1000;
+
+    private final LostnFoundRepository lostnFoundRepository;
+    private final Map<PageKey, CachedPage> pages = new ConcurrentHashMap<>();
+    // Pages reached from a cached page, with how many pages come before them
+    private final Map<PageKey, Integer> depths = new ConcurrentHashMap<>();
+
+    // Bumped by every change, a page loaded while a change was committed may be stale and isn't cached
+    private final AtomicLong invalidations = new AtomicLong();
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter bypasses;
+
+    public LostnFoundListCache(LostnFoundRepository lostnFoundRepository, MeterRegistry meterRegistry) {
+        this.lostnFoundRepository = lostnFoundRepository;
+        this.hits = readCounter(meterRegistry, "hit");
+        this.misses = readCounter(meterRegistry, "miss");
+        this.bypasses = readCounter(meterRegistry, "bypass");
+        Gauge.builder("instiapp.lostnfound.list.cache.pages", pages, Map::size)
+                .description("Lost and found list pages in the cache")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Same as {@link LostnFoundRepository#getLostnFoundByFilter} without archived items
+     */
+    public CursorPage<LostnFoundDto> getLostnFoundByFilter(LostnFoundType type, Optional<Boolean> status, Optional<String> owner,
+                                                           Optional<String> finder, Optional<String> landmark, PageCursor cursor) {
+        PageKey key = new PageKey(type, status.orElse(null), owner.orElse(null), finder.orElse(null), landmark.orElse(null),
+                cursor.afterId(), cursor.size());
+        long now = System.currentTimeMillis();
+        CachedPage cached = pages.get(key);
+        if (cached != null) {
+            if (cached.expiresAt > now) {
+                hits.increment();
+                return cached.page;
+            }
+            pages.remove(key, cached);
+        }
+
+        Integer depth = cursor.afterId() == 0 ? Integer.valueOf(0) : depths.get(key);
+        if (depth == null) {
+            bypasses.increment();
+            return lostnFoundRepository.getLostnFoundByFilter(type, status, owner, finder, landmark, false, cursor);
+        }
+
+        misses.increment();
+        long invalidationsBefore = invalidations.get();
+        CursorPage<LostnFoundDto> page = lostnFoundRepository.getLostnFoundByFilter(type, status, owner, finder, landmark, false, cursor);
+        if (pages.size() >= MAX_ENTRIES) {
+            evictExpired(now);
+        }
+        if (pages.size() < MAX_ENTRIES) {
+            long lastId = page.getNextCursor() == null ? Long.MAX_VALUE : PageCursor.of(page.getNextCursor(), cursor.size()).afterId();
+            pages.put(key, new CachedPage(page, lastId, now + TTL_MILLIS));
+            if (invalidations.get() != invalidationsBefore) {
+                // A change committed during the load may have missed this page
+                pages.remove(key);
+            } else if (page.getNextCursor() != null && depth + 1 < MAX_PAGES) {
+                if (depths.size() >= MAX_ENTRIES) {
+                    depths.clear();
+                }
+                depths.put(key.after(lastId), depth + 1);
+            }
+        }
+        return page;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onLostnFoundChanged(LostnFoundChangedEvent event) {
+        invalidations.incrementAndGet();
+        List<LostnFoundSearchRowDto> changedRows = event.getChangedRows();
+        if (changedRows == null) {
+            pages.clear();
+            depths.clear();
+            return;
+        }
+        if (pages.isEmpty()) {
+            return;
+        }
+        Set<String> publicIds = new HashSet<>(event.getDeletedPublicIds());
+        changedRows.forEach(row -> publicIds.add(row.getPublicId()));
+        // Deleted items only change the pages holding them
+        pages.entrySet().removeIf(entry -> !Collections.disjoint(entry.getValue().publicIds, publicIds)
+                || changedRows.stream().anyMatch(row -> entry.getKey().matches(row) && entry.getValue().covers(entry.getKey().afterId, row.getId())));
+    }
+
+    private void evictExpired(long now) {
+        pages.values().removeIf(cached -> cached.expiresAt <= now);
+    }
+
+    private static Counter readCounter(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("instiapp.lostnfound.list.cache")
+                .description("Lost and found list reads by whether the cache answered them")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+
+    private static final class PageKey {
+        final LostnFoundType type;
+        final Boolean status;
+        final String owner;
+        final String finder;
+        final String landmark;
+        final long afterId;
+        final int size;
+
+        PageKey(LostnFoundType type, Boolean status, String owner, String finder, String landmark, long afterId, int size) {
+            this.type = type;
+            this.status = status;
+            this.owner = owner;
+            this.finder = finder;
+            this.landmark = landmark;
+            this.afterId = afterId;
+            this.size = size;
+        }
+
+        PageKey after(long lastId) {
+            return new PageKey(type, status, owner, finder, landmark, lastId, size);
+        }
+
+        /**
+         * @return true if the item passes the filter, like the where clause of the query
+         */
+        boolean matches(LostnFoundSearchRowDto row) {
+            return type == row.getType()
+                    && (status == null || status.equals(row.getStatus()))
+                    && (owner == null || owner.equals(row.getOwnerUserName()))
+                    && (finder == null || finder.equals(row.getFinderUserName()))
+                    && (landmark == null || landmark.equals(row.getLandmarkName()));
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof PageKey other)) {
+                return false;
+            }
+            return afterId == other.afterId && size == other.size && type == other.type && Objects.equals(status, other.status)
+                    && Objects.equals(owner, other.owner) && Objects.equals(finder, other.finder) && Objects.equals(landmark, other.landmark);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(type, status, owner, finder, landmark, afterId, size);
+        }
+    }
+
+    private static final class CachedPage {
+        final CursorPage<LostnFoundDto> page;
+        final Set<String> publicIds;
+        // Id of the last item, Long.MAX_VALUE on the last page
+        final long lastId;
+        final long expiresAt;
+
+        CachedPage(CursorPage<LostnFoundDto> page, long lastId, long expiresAt) {
+            this.page = page;
+            this.lastId = lastId;
+            this.expiresAt = expiresAt;
+            Set<String> ids = new HashSet<>();
+            for (LostnFoundDto item : page.getItems()) {
+                ids.add(item.getPublicId());
+            }
+            this.publicIds = ids;
+        }
+
+        boolean covers(long afterId, long id) {
+            return id > afterId && id <= lastId;
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package in.ac.iitj.instiapp.services.LostnFound;
+
+import in.ac.iitj.instiapp.payload.LostnFound.LostnFoundMatchDto;
+
+import java.util.List;
+
+/**
+ * Published by {@link LostnFoundMatcher} after a committed change to an open item that has match suggestions, e.g. to
+ * notify the owner of a lost item that something similar was found.
+ */
+public class LostnFoundMatchSuggestedEvent {
+
+    private final String publicId;
+    private final List<LostnFoundMatchDto> suggestions;
+
+    public LostnFoundMatchSuggestedEvent(String publicId, List<LostnFoundMatchDto> suggestions) {
+        this.publicId = publicId;
+        this.suggestions = List.copyOf(suggestions);
+    }
+
+    /**
+     * @return public id of the item that was saved or updated
+     */
+    public String getPublicId() {
+        return publicId;
+    }
+
+    /**
+     * @return open items of the opposite type, best match first
+     */
+    public List<LostnFoundMatchDto> getSuggestions() {
+        return suggestions;
+    }
+}
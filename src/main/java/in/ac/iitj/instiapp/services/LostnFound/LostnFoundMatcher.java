@@ -0,0 +1,361 @@
+package in.ac.iitj.instiapp.services.LostnFound;
+
+import in.ac.iitj.instiapp.Repository.LostnFoundRepository;
+import in.ac.iitj.instiapp.database.entities.LostnFound.LostnFoundType;
+import in.ac.iitj.instiapp.payload.LostnFound.LostnFoundMatchDto;
+import in.ac.iitj.instiapp.payload.LostnFound.LostnFoundSearchRowDto;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Suggests which open FOUND items may be a LOST item and the other way round.
+ * <p>
+ * A pair is scored by the similarity of the words of their extra info, how close their landmarks are and how far apart
+ * they were reported; pairs reported more than {@link #WINDOW_DAYS} days apart are never suggested. Locations have no
+ * coordinates, so landmarks are close when they are the same or share words of their name, like two blocks of a hostel.
+ * <p>
+ * To avoid comparing an item with every open item, each open item is indexed by the MinHash signature of its words,
+ * split into {@link #BANDS} bands of {@link #ROWS} hashes. Only items sharing a band with the item are scored, which
+ * finds most pairs sharing a fifth of their words or more. Adding, removing or matching an item costs one lookup per
+ * band plus the items in those buckets.
+ * <p>
+ * The index is loaded lazily with {@link LostnFoundRepository#getSearchRows()}, kept up to date after every committed
+ * {@link LostnFoundChangedEvent} and reloaded every few minutes for changes made by other instances. When a changed
+ * open item has suggestions a {@link LostnFoundMatchSuggestedEvent} is published.
+ * <p>
+ * A reload builds a new index without holding any lock and replaces the old one with one volatile write, so suggestions
+ * are never blocked by the query. Only updating the index for a change is serialized, and changes committed while a
+ * reload was running are applied again to the new index.
+ */
+@Component
+public class LostnFoundMatcher {
+
+    private static final org.slf4j.Logger log = org.slf4j.LoggerFactory.getLogger(LostnFoundMatcher.class);
+
+    static final int BANDS = 32;
+    static final int ROWS = 2;
+    static final int WINDOW_DAYS = 30;
+    static final float MIN_SCORE = 0.35f;
+    static final int MAX_SUGGESTIONS = 10;
+
+    private static final float TEXT_WEIGHT = 0.6f;
+    private static final float LANDMARK_WEIGHT = 0.25f;
+    private static final float TIME_WEIGHT = 0.15f;
+    // Landmark or time similarity when either item doesn't have one
+    private static final float UNKNOWN_SIMILARITY = 0.5f;
+
+    private static final Set<String> STOP_WORDS = Set.of("a", "an", "and", "at", "by", "for", "from", "in", "is", "it",
+            "my", "near", "of", "on", "or", "the", "to", "was", "with", "lost", "found", "left", "someone");
+
+    private static final long[] SEEDS = new long[BANDS * ROWS];
+
+    static {
+        SplittableRandom random = new SplittableRandom(0x5EEDL);
+        for (int i = 0; i < SEEDS.length; i++) {
+            SEEDS[i] = random.nextLong();
+        }
+    }
+
+    private final LostnFoundRepository lostnFoundRepository;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private volatile Index index;
+    // publicId -> item as committed, null for a deleted item, guarded by this like the start of the published reload
+    private final Map<String, Change> recentlyChanged = new HashMap<>();
+    private long indexStartedAt;
+
+    public LostnFoundMatcher(LostnFoundRepository lostnFoundRepository, ApplicationEventPublisher eventPublisher) {
+        this.lostnFoundRepository = lostnFoundRepository;
+        this.eventPublisher = eventPublisher;
+    }
+
+    /**
+     * @param publicId public id of a lost or found item
+     * @return open items of the opposite type that may be the same object, best match first, empty if the item is
+     * resolved, doesn't exist or has no extra info to compare
+     */
+    public List<LostnFoundMatchDto> suggestions(String publicId) {
+        Index current = index;
+        if (current == null) {
+            // Concurrent first requests may load twice, the later reload is dropped
+            rebuild();
+            current = index;
+        }
+        Candidate candidate = current.candidates.get(publicId);
+        return candidate == null ? List.of() : current.match(candidate);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onLostnFoundChanged(LostnFoundChangedEvent event) {
+        List<LostnFoundSearchRowDto> changedRows = event.getChangedRows();
+        if (changedRows == null) {
+            if (index != null) {
+                log.debug("Lost and found changed by {}, rebuilding match index", event.getOperation());
+                rebuild();
+            }
+            return;
+        }
+
+        // Compared with the start of later reloads, which load the change themselves
+        long addedAt = System.currentTimeMillis();
+        if (index == null) {
+            // Loads the change too
+            rebuild();
+        } else {
+            synchronized (this) {
+                for (LostnFoundSearchRowDto row : changedRows) {
+                    index.update(row.getPublicId(), row);
+                    recentlyChanged.put(row.getPublicId(), new Change(row, addedAt));
+                }
+                for (String publicId : event.getDeletedPublicIds()) {
+                    index.update(publicId, null);
+                    recentlyChanged.put(publicId, new Change(null, addedAt));
+                }
+            }
+        }
+        Index current = index;
+        for (LostnFoundSearchRowDto row : changedRows) {
+            Candidate candidate = current.candidates.get(row.getPublicId());
+            List<LostnFoundMatchDto> suggestions = candidate == null ? List.of() : current.match(candidate);
+            if (!suggestions.isEmpty()) {
+                eventPublisher.publishEvent(new LostnFoundMatchSuggestedEvent(row.getPublicId(), suggestions));
+            }
+        }
+    }
+
+    /**
+     * Reloads every open item and replaces the index
+     */
+    @Scheduled(fixedDelay = 10, initialDelay = 10, timeUnit = TimeUnit.MINUTES)
+    public void rebuild() {
+        long startedAt = System.currentTimeMillis();
+        List<LostnFoundSearchRowDto> rows = lostnFoundRepository.getSearchRows();
+        Index rebuilt = new Index();
+        for (LostnFoundSearchRowDto row : rows) {
+            rebuilt.add(row);
+        }
+        synchronized (this) {
+            if (index != null && startedAt < indexStartedAt) {
+                // A reload that started later was published already
+                return;
+            }
+            // Only changes newer than the query are missing from the rows just loaded
+            recentlyChanged.values().removeIf(change -> change.addedAt < startedAt);
+            recentlyChanged.forEach((publicId, change) -> rebuilt.update(publicId, change.row));
+            index = rebuilt;
+            indexStartedAt = startedAt;
+        }
+        log.info("Rebuilt lost and found match index with {} open items in {} buckets in {} ms",
+                rebuilt.candidates.size(), rebuilt.buckets.size(), System.currentTimeMillis() - startedAt);
+    }
+
+    /**
+     * @return the match, null if the items were reported too far apart or are too different
+     */
+    private static LostnFoundMatchDto score(Candidate item, Candidate other) {
+        Long daysApart = null;
+        float timeSimilarity = UNKNOWN_SIMILARITY;
+        if (item.row.getCreatedAt() != null && other.row.getCreatedAt() != null) {
+            Duration apart = Duration.between(item.row.getCreatedAt(), other.row.getCreatedAt()).abs();
+            if (apart.toDays() > WINDOW_DAYS) {
+                return null;
+            }
+            daysApart = apart.toDays();
+            timeSimilarity = 1f - (float) apart.toHours() / TimeUnit.DAYS.toHours(WINDOW_DAYS);
+        }
+
+        float textSimilarity = estimateJaccard(item.signature, other.signature);
+        float landmarkSimilarity = landmarkSimilarity(item, other);
+        float score = TEXT_WEIGHT * textSimilarity + LANDMARK_WEIGHT * landmarkSimilarity + TIME_WEIGHT * timeSimilarity;
+        if (score < MIN_SCORE) {
+            return null;
+        }
+        return new LostnFoundMatchDto(other.row.toDto(), score, textSimilarity, landmarkSimilarity, daysApart);
+    }
+
+    private static float landmarkSimilarity(Candidate item, Candidate other) {
+        String landmark = item.row.getLandmarkName();
+        String otherLandmark = other.row.getLandmarkName();
+        if (landmark == null || otherLandmark == null) {
+            return UNKNOWN_SIMILARITY;
+        }
+        if (landmark.equalsIgnoreCase(otherLandmark)) {
+            return 1f;
+        }
+        if (item.landmarkWords.isEmpty() || other.landmarkWords.isEmpty()) {
+            return 0f;
+        }
+        int shared = 0;
+        for (String word : item.landmarkWords) {
+            if (other.landmarkWords.contains(word)) {
+                shared++;
+            }
+        }
+        return (float) shared / (item.landmarkWords.size() + other.landmarkWords.size() - shared);
+    }
+
+    /**
+     * Distinct words of the text without stop words, the shingles the signature is computed over
+     */
+    static Set<String> words(String text) {
+        Set<String> words = new HashSet<>();
+        for (String token : LostnFoundSearchIndex.tokenize(text)) {
+            if (!STOP_WORDS.contains(token)) {
+                words.add(token);
+            }
+        }
+        return words;
+    }
+
+    /**
+     * For every hash function the minimum hash of the words, two signatures agree at a position with a probability
+     * equal to the Jaccard similarity of their words
+     */
+    static long[] signature(Set<String> words) {
+        long[] signature = new long[SEEDS.length];
+        Arrays.fill(signature, Long.MAX_VALUE);
+        for (String word : words) {
+            long hash = fnv1a(word);
+            for (int i = 0; i < SEEDS.length; i++) {
+                signature[i] = Math.min(signature[i], mix(hash ^ SEEDS[i]));
+            }
+        }
+        return signature;
+    }
+
+    static float estimateJaccard(long[] signature, long[] other) {
+        int equal = 0;
+        for (int i = 0; i < signature.length; i++) {
+            if (signature[i] == other[i]) {
+                equal++;
+            }
+        }
+        return (float) equal / signature.length;
+    }
+
+    private static long bucketKey(LostnFoundType type, int band, long[] signature) {
+        long key = mix(type.ordinal() * 31L + band);
+        for (int row = 0; row < ROWS; row++) {
+            key = mix(key ^ signature[band * ROWS + row]);
+        }
+        return key;
+    }
+
+    private static long fnv1a(String word) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < word.length(); i++) {
+            hash ^= word.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    // SplitMix64 finalizer
+    private static long mix(long value) {
+        value = (value ^ (value >>> 30)) * 0xbf58476d1ce4e5b9L;
+        value = (value ^ (value >>> 27)) * 0x94d049bb133111ebL;
+        return value ^ (value >>> 31);
+    }
+
+
+    /**
+     * Open items and their buckets, read without locking and changed by one thread at a time
+     */
+    private static final class Index {
+        final Map<String, Candidate> candidates = new ConcurrentHashMap<>();
+        final Map<Long, Set<String>> buckets = new ConcurrentHashMap<>();
+
+        /**
+         * @param row the item as committed, null if it was deleted
+         */
+        void update(String publicId, LostnFoundSearchRowDto row) {
+            remove(publicId);
+            if (row != null) {
+                add(row);
+            }
+        }
+
+        void add(LostnFoundSearchRowDto row) {
+            if (Boolean.TRUE.equals(row.getStatus()) || row.getType() == null) {
+                return;
+            }
+            Set<String> words = words(row.getExtraInfo());
+            if (words.isEmpty()) {
+                return;
+            }
+            Candidate candidate = new Candidate(row, signature(words), words(row.getLandmarkName()));
+            candidates.put(row.getPublicId(), candidate);
+            for (int band = 0; band < BANDS; band++) {
+                buckets.computeIfAbsent(bucketKey(row.getType(), band, candidate.signature), key -> ConcurrentHashMap.newKeySet())
+                        .add(row.getPublicId());
+            }
+        }
+
+        private void remove(String publicId) {
+            Candidate candidate = candidates.remove(publicId);
+            if (candidate == null) {
+                return;
+            }
+            for (int band = 0; band < BANDS; band++) {
+                long key = bucketKey(candidate.row.getType(), band, candidate.signature);
+                Set<String> bucket = buckets.get(key);
+                if (bucket != null && bucket.remove(publicId) && bucket.isEmpty()) {
+                    buckets.remove(key);
+                }
+            }
+        }
+
+        List<LostnFoundMatchDto> match(Candidate item) {
+            LostnFoundType opposite = item.row.getType() == LostnFoundType.LOST ? LostnFoundType.FOUND : LostnFoundType.LOST;
+            Set<String> seen = new HashSet<>();
+            List<LostnFoundMatchDto> matches = new ArrayList<>();
+            for (int band = 0; band < BANDS; band++) {
+                Set<String> bucket = buckets.get(bucketKey(opposite, band, item.signature));
+                if (bucket == null) {
+                    continue;
+                }
+                for (String publicId : bucket) {
+                    // Null if the item was removed since the bucket was read
+                    Candidate other = candidates.get(publicId);
+                    if (other != null && seen.add(publicId)) {
+                        LostnFoundMatchDto match = score(item, other);
+                        if (match != null) {
+                            matches.add(match);
+                        }
+                    }
+                }
+            }
+            matches.sort(Comparator.comparingDouble((LostnFoundMatchDto match) -> match.getScore()).reversed());
+            return matches.size() > MAX_SUGGESTIONS ? List.copyOf(matches.subList(0, MAX_SUGGESTIONS)) : matches;
+        }
+    }
+
+    private static final class Change {
+        final LostnFoundSearchRowDto row;
+        final long addedAt;
+
+        Change(LostnFoundSearchRowDto row, long addedAt) {
+            this.row = row;
+            this.addedAt = addedAt;
+        }
+    }
+
+    private static final class Candidate {
+        final LostnFoundSearchRowDto row;
+        final long[] signature;
+        final Set<String> landmarkWords;
+
+        Candidate(LostnFoundSearchRowDto row, long[] signature, Set<String> landmarkWords) {
+            this.row = row;
+            this.signature = signature;
+            this.landmarkWords = landmarkWords;
+        }
+    }
+}
@@ -0,0 +1,470 @@
+package in.ac.iitj.instiapp.services.LostnFound;
+
+import in.ac.iitj.instiapp.Repository.LostnFoundRepository;
+import in.ac.iitj.instiapp.Utils.RankCursor;
+import in.ac.iitj.instiapp.database.entities.LostnFound.LostnFoundType;
+import in.ac.iitj.instiapp.payload.LostnFound.LostnFoundDto;
+import in.ac.iitj.instiapp.payload.LostnFound.LostnFoundSearchRowDto;
+import in.ac.iitj.instiapp.payload.common.CursorPage;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.text.Normalizer;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory full-text index over the extra info, landmark name and type of every lost and found item.
+ * <p>
+ * Items are loaded with one query ({@link LostnFoundRepository#getSearchRows()}) into an inverted index of terms. A query
+ * term matches index terms equal to it, starting with it, or sharing enough trigrams with it, so "walet" finds "wallet".
+ * Items matching more query terms are ranked first, items matching as many are ranked by BM25, where a landmark match
+ * counts {@link #LANDMARK_WEIGHT} times a match in the extra info.
+ * <p>
+ * The snapshot is built by the first search and rebuilt every few minutes. Items changed by this instance since the last
+ * rebuild are kept in an exact overlay, taken from every committed {@link LostnFoundChangedEvent}, and replace their
+ * copy in the snapshot. Changes made by other instances are seen after the next rebuild.
+ */
+@Component
+public class LostnFoundSearchIndex {
+
+    private static final org.slf4j.Logger log = org.slf4j.LoggerFactory.getLogger(LostnFoundSearchIndex.class);
+
+    static final float LANDMARK_WEIGHT = 2f;
+    private static final float K1 = 1.2f;
+    private static final float B = 0.75f;
+    private static final float MIN_SIMILARITY = 0.4f;
+    private static final float PREFIX_SIMILARITY = 0.8f;
+    private static final int MIN_PREFIX_LENGTH = 3;
+    private static final int MAX_EXPANSIONS = 16;
+    private static final int MAX_QUERY_TERMS = 8;
+    // A bigger overlay is folded into a new snapshot instead
+    private static final int MAX_OVERLAY = 1000;
+
+    private static final Pattern NON_WORD = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+
+    private final LostnFoundRepository lostnFoundRepository;
+
+    // publicId -> item as committed, null for a deleted item
+    private final Map<String, OverlayEntry> recentlyChanged = new ConcurrentHashMap<>();
+    private volatile Snapshot snapshot;
+
+    public LostnFoundSearchIndex(LostnFoundRepository lostnFoundRepository) {
+        this.lostnFoundRepository = lostnFoundRepository;
+    }
+
+    /**
+     * @param query  free text, matched against the extra info, landmark name and type
+     * @param type   only items of this type, empty for both
+     * @param status only items with this status, empty for both
+     * @return items ordered by relevance, empty if no word of the query matches
+     */
+    public CursorPage<LostnFoundDto> search(String query, Optional<LostnFoundType> type, Optional<Boolean> status, RankCursor cursor) {
+        List<String> queryTerms = tokenize(query).stream().distinct().limit(MAX_QUERY_TERMS).toList();
+        if (queryTerms.isEmpty()) {
+            return new CursorPage<>(List.of(), null);
+        }
+
+        Snapshot current = current();
+        Map<String, OverlayEntry> overlay = Map.copyOf(recentlyChanged);
+        // Worst result first, so the head is dropped when the page is full
+        PriorityQueue<Hit> best = new PriorityQueue<>(cursor.size() + 1, Hit.RANKING.reversed());
+
+        current.score(queryTerms, (doc, matchedTerms, score) -> {
+            LostnFoundSearchRowDto row = current.rows[doc];
+            if (!overlay.containsKey(row.getPublicId())) {
+                offer(best, new Hit(row, matchedTerms, score), type, status, cursor);
+            }
+        });
+        for (OverlayEntry entry : overlay.values()) {
+            if (entry.row != null) {
+                Hit hit = current.scoreRow(queryTerms, entry.row);
+                if (hit != null) {
+                    offer(best, hit, type, status, cursor);
+                }
+            }
+        }
+
+        List<Hit> hits = new ArrayList<>(best);
+        hits.sort(Hit.RANKING);
+        int count = Math.min(hits.size(), cursor.size());
+        List<LostnFoundDto> items = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            items.add(hits.get(i).row.toDto());
+        }
+        String next = null;
+        if (hits.size() > cursor.size()) {
+            Hit last = hits.get(count - 1);
+            next = RankCursor.encode(last.matchedTerms, last.score, last.row.getId());
+        }
+        return new CursorPage<>(items, next);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onLostnFoundChanged(LostnFoundChangedEvent event) {
+        List<LostnFoundSearchRowDto> changedRows = event.getChangedRows();
+        if (changedRows == null || recentlyChanged.size() + changedRows.size() + event.getDeletedPublicIds().size() > MAX_OVERLAY) {
+            log.debug("Lost and found changed by {}, rebuilding search index", event.getOperation());
+            rebuild();
+            return;
+        }
+        // A rebuild whose query starts after this time loads the change and may drop the overlay entry
+        long addedAt = System.currentTimeMillis();
+        for (LostnFoundSearchRowDto row : changedRows) {
+            recentlyChanged.put(row.getPublicId(), new OverlayEntry(row, addedAt));
+        }
+        for (String publicId : event.getDeletedPublicIds()) {
+            recentlyChanged.put(publicId, new OverlayEntry(null, addedAt));
+        }
+    }
+
+    /**
+     * Reloads every item and replaces the snapshot
+     */
+    @Scheduled(fixedDelay = 10, initialDelay = 10, timeUnit = TimeUnit.MINUTES)
+    public synchronized void rebuild() {
+        long startedAt = System.currentTimeMillis();
+        List<LostnFoundSearchRowDto> rows = lostnFoundRepository.getSearchRows();
+        Snapshot rebuilt = new Snapshot(rows);
+        snapshot = rebuilt;
+        // Entries older than the query are in the rows just loaded
+        recentlyChanged.values().removeIf(entry -> entry.addedAt < startedAt);
+        log.info("Rebuilt lost and found search index with {} items and {} terms in {} ms",
+                rows.size(), rebuilt.terms.length, System.currentTimeMillis() - startedAt);
+    }
+
+    private Snapshot current() {
+        Snapshot current = snapshot;
+        if (current == null) {
+            synchronized (this) {
+                if (snapshot == null) {
+                    rebuild();
+                }
+                current = snapshot;
+            }
+        }
+        return current;
+    }
+
+    private static void offer(PriorityQueue<Hit> best, Hit hit,
+                              Optional<LostnFoundType> type, Optional<Boolean> status, RankCursor cursor) {
+        LostnFoundSearchRowDto row = hit.row;
+        if (type.isPresent() && type.get() != row.getType()) {
+            return;
+        }
+        if (status.isPresent() && !status.get().equals(row.getStatus())) {
+            return;
+        }
+        if (!cursor.isAfter(hit.matchedTerms, hit.score, row.getId())) {
+            return;
+        }
+        if (best.size() <= cursor.size()) {
+            best.add(hit);
+        } else if (Hit.RANKING.compare(hit, best.peek()) < 0) {
+            best.poll();
+            best.add(hit);
+        }
+    }
+
+    /**
+     * Lower case words of the text without accents, one letter words are dropped
+     */
+    static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+        String normalized = MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("").toLowerCase(Locale.ROOT);
+        List<String> tokens = new ArrayList<>();
+        for (String token : NON_WORD.split(normalized)) {
+            if (token.length() >= 2) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * Trigrams of the word padded with two spaces in front and one behind, like PostgreSQL's pg_trgm
+     */
+    static Set<String> trigrams(String term) {
+        String padded = "  " + term + " ";
+        Set<String> trigrams = new HashSet<>();
+        for (int i = 0; i + 3 <= padded.length(); i++) {
+            trigrams.add(padded.substring(i, i + 3));
+        }
+        return trigrams;
+    }
+
+    /**
+     * @return how well the query term matches the index term, 1 if they are equal, 0 if they don't match
+     */
+    static float similarity(String queryTerm, String term, int sharedTrigrams, int queryTrigrams, int termTrigrams) {
+        if (queryTerm.equals(term)) {
+            return 1f;
+        }
+        float similarity = (float) sharedTrigrams / (queryTrigrams + termTrigrams - sharedTrigrams);
+        if (queryTerm.length() >= MIN_PREFIX_LENGTH && term.startsWith(queryTerm)) {
+            similarity = Math.max(similarity, PREFIX_SIMILARITY);
+        }
+        return similarity >= MIN_SIMILARITY ? similarity : 0f;
+    }
+
+    /**
+     * Terms of the item with their weighted frequency
+     */
+    static Map<String, Float> weightedTerms(LostnFoundSearchRowDto row) {
+        Map<String, Float> weights = new HashMap<>();
+        for (String token : tokenize(row.getExtraInfo())) {
+            weights.merge(token, 1f, Float::sum);
+        }
+        for (String token : tokenize(row.getLandmarkName())) {
+            weights.merge(token, LANDMARK_WEIGHT, Float::sum);
+        }
+        if (row.getType() != null) {
+            weights.merge(row.getType().name().toLowerCase(Locale.ROOT), 1f, Float::sum);
+        }
+        return weights;
+    }
+
+    private static float length(Map<String, Float> weights) {
+        float length = 0;
+        for (float weight : weights.values()) {
+            length += weight;
+        }
+        return length;
+    }
+
+
+    private static final class Snapshot {
+        final LostnFoundSearchRowDto[] rows;
+        final float[] docLengths;
+        final float averageLength;
+
+        final String[] terms;
+        final Map<String, Integer> termIds;
+        final int[][] postingDocs;
+        final float[][] postingWeights;
+        final int[] termTrigramCounts;
+        final Map<String, int[]> trigramTerms;
+
+        Snapshot(List<LostnFoundSearchRowDto> items) {
+            rows = items.toArray(new LostnFoundSearchRowDto[0]);
+            docLengths = new float[rows.length];
+
+            Map<String, Integer> ids = new HashMap<>();
+            List<String> termList = new ArrayList<>();
+            List<int[]> docs = new ArrayList<>();
+            List<float[]> weights = new ArrayList<>();
+            int[] sizes = new int[16];
+            float totalLength = 0;
+
+            for (int doc = 0; doc < rows.length; doc++) {
+                Map<String, Float> docTerms = weightedTerms(rows[doc]);
+                docLengths[doc] = length(docTerms);
+                totalLength += docLengths[doc];
+                for (Map.Entry<String, Float> entry : docTerms.entrySet()) {
+                    Integer termId = ids.get(entry.getKey());
+                    if (termId == null) {
+                        termId = termList.size();
+                        ids.put(entry.getKey(), termId);
+                        termList.add(entry.getKey());
+                        docs.add(new int[4]);
+                        weights.add(new float[4]);
+                        if (termId == sizes.length) {
+                            sizes = Arrays.copyOf(sizes, sizes.length * 2);
+                        }
+                    }
+                    int size = sizes[termId];
+                    if (size == docs.get(termId).length) {
+                        docs.set(termId, Arrays.copyOf(docs.get(termId), size * 2));
+                        weights.set(termId, Arrays.copyOf(weights.get(termId), size * 2));
+                    }
+                    docs.get(termId)[size] = doc;
+                    weights.get(termId)[size] = entry.getValue();
+                    sizes[termId] = size + 1;
+                }
+            }
+
+            averageLength = rows.length == 0 ? 1f : Math.max(totalLength / rows.length, 1f);
+            terms = termList.toArray(new String[0]);
+            termIds = ids;
+            postingDocs = new int[terms.length][];
+            postingWeights = new float[terms.length][];
+            termTrigramCounts = new int[terms.length];
+            Map<String, List<Integer>> trigramLists = new HashMap<>();
+            for (int termId = 0; termId < terms.length; termId++) {
+                postingDocs[termId] = Arrays.copyOf(docs.get(termId), sizes[termId]);
+                postingWeights[termId] = Arrays.copyOf(weights.get(termId), sizes[termId]);
+                Set<String> trigrams = trigrams(terms[termId]);
+                termTrigramCounts[termId] = trigrams.size();
+                for (String trigram : trigrams) {
+                    trigramLists.computeIfAbsent(trigram, key -> new ArrayList<>()).add(termId);
+                }
+            }
+            trigramTerms = new HashMap<>(trigramLists.size() * 2);
+            trigramLists.forEach((trigram, termIdList) -> trigramTerms.put(trigram, termIdList.stream().mapToInt(Integer::intValue).toArray()));
+        }
+
+        interface HitConsumer {
+            void accept(int doc, int matchedTerms, float score);
+        }
+
+        /**
+         * Scores every item matching at least one query term
+         */
+        void score(List<String> queryTerms, HitConsumer consumer) {
+            float[] scores = new float[rows.length];
+            // Contribution of the current query term, a term counts once with its best matching expansion
+            float[] termScores = new float[rows.length];
+            int[] lastTerm = new int[rows.length];
+            byte[] matchedTerms = new byte[rows.length];
+            Arrays.fill(lastTerm, -1);
+            int[] touched = new int[16];
+            int touchedCount = 0;
+
+            for (int q = 0; q < queryTerms.size(); q++) {
+                for (Expansion expansion : expand(queryTerms.get(q))) {
+                    int[] docs = postingDocs[expansion.termId];
+                    float[] weights = postingWeights[expansion.termId];
+                    float idf = idf(docs.length);
+                    for (int i = 0; i < docs.length; i++) {
+                        int doc = docs[i];
+                        float contribution = expansion.similarity * idf * saturate(weights[i], docLengths[doc]);
+                        if (lastTerm[doc] != q) {
+                            if (matchedTerms[doc] == 0) {
+                                if (touchedCount == touched.length) {
+                                    touched = Arrays.copyOf(touched, touchedCount * 2);
+                                }
+                                touched[touchedCount++] = doc;
+                            }
+                            lastTerm[doc] = q;
+                            matchedTerms[doc]++;
+                            termScores[doc] = contribution;
+                            scores[doc] += contribution;
+                        } else if (contribution > termScores[doc]) {
+                            scores[doc] += contribution - termScores[doc];
+                            termScores[doc] = contribution;
+                        }
+                    }
+                }
+            }
+
+            for (int i = 0; i < touchedCount; i++) {
+                int doc = touched[i];
+                consumer.accept(doc, matchedTerms[doc], scores[doc]);
+            }
+        }
+
+        /**
+         * Scores an item that isn't in the snapshot like {@link #score} would
+         *
+         * @return null if no query term matches the item
+         */
+        Hit scoreRow(List<String> queryTerms, LostnFoundSearchRowDto row) {
+            Map<String, Float> docTerms = weightedTerms(row);
+            float docLength = length(docTerms);
+            float score = 0;
+            int matched = 0;
+            for (String queryTerm : queryTerms) {
+                Set<String> queryTrigrams = trigrams(queryTerm);
+                float best = 0;
+                for (Map.Entry<String, Float> entry : docTerms.entrySet()) {
+                    Set<String> termTrigrams = trigrams(entry.getKey());
+                    int shared = 0;
+                    for (String trigram : queryTrigrams) {
+                        if (termTrigrams.contains(trigram)) {
+                            shared++;
+                        }
+                    }
+                    float similarity = similarity(queryTerm, entry.getKey(), shared, queryTrigrams.size(), termTrigrams.size());
+                    if (similarity > 0) {
+                        Integer termId = termIds.get(entry.getKey());
+                        // The item itself isn't counted in the snapshot's document frequency
+                        int df = termId == null ? 1 : postingDocs[termId].length + 1;
+                        best = Math.max(best, similarity * idf(df) * saturate(entry.getValue(), docLength));
+                    }
+                }
+                if (best > 0) {
+                    score += best;
+                    matched++;
+                }
+            }
+            return matched == 0 ? null : new Hit(row, matched, score);
+        }
+
+        /**
+         * @return index terms matching the query term, best match first
+         */
+        List<Expansion> expand(String queryTerm) {
+            Set<String> queryTrigrams = trigrams(queryTerm);
+            Map<Integer, Integer> sharedTrigrams = new HashMap<>();
+            for (String trigram : queryTrigrams) {
+                int[] termIdsWithTrigram = trigramTerms.get(trigram);
+                if (termIdsWithTrigram != null) {
+                    for (int termId : termIdsWithTrigram) {
+                        sharedTrigrams.merge(termId, 1, Integer::sum);
+                    }
+                }
+            }
+
+            List<Expansion> expansions = new ArrayList<>();
+            sharedTrigrams.forEach((termId, shared) -> {
+                float similarity = similarity(queryTerm, terms[termId], shared, queryTrigrams.size(), termTrigramCounts[termId]);
+                if (similarity > 0) {
+                    expansions.add(new Expansion(termId, similarity));
+                }
+            });
+            expansions.sort(Comparator.comparingDouble((Expansion expansion) -> expansion.similarity).reversed());
+            return expansions.size() > MAX_EXPANSIONS ? expansions.subList(0, MAX_EXPANSIONS) : expansions;
+        }
+
+        float idf(int documentFrequency) {
+            return (float) Math.log(1 + (rows.length - documentFrequency + 0.5) / (documentFrequency + 0.5));
+        }
+
+        float saturate(float termFrequency, float docLength) {
+            return termFrequency * (K1 + 1) / (termFrequency + K1 * (1 - B + B * docLength / averageLength));
+        }
+    }
+
+    private static final class Expansion {
+        final int termId;
+        final float similarity;
+
+        Expansion(int termId, float similarity) {
+            this.termId = termId;
+            this.similarity = similarity;
+        }
+    }
+
+    private static final class OverlayEntry {
+        final LostnFoundSearchRowDto row;
+        final long addedAt;
+
+        OverlayEntry(LostnFoundSearchRowDto row, long addedAt) {
+            this.row = row;
+            this.addedAt = addedAt;
+        }
+    }
+
+    private static final class Hit {
+        // Best first: more matched query terms, then higher score, then lower id
+        static final Comparator<Hit> RANKING = Comparator.comparingInt((Hit hit) -> hit.matchedTerms).reversed()
+                .thenComparing(Comparator.comparingDouble((Hit hit) -> hit.score).reversed())
+                .thenComparingLong(hit -> hit.row.getId());
+
+        final LostnFoundSearchRowDto row;
+        final int matchedTerms;
+        final float score;
+
+        Hit(LostnFoundSearchRowDto row, int matchedTerms, float score) {
+            this.row = row;
+            this.matchedTerms = matchedTerms;
+            this.score = score;
+        }
+    }
+}
@@ -1,8 +1,12 @@
 package in.ac.iitj.instiapp.services;
 
+import in.ac.iitj.instiapp.payload.common.CursorPage;
+import in.ac.iitj.instiapp.Utils.PageCursor;
+import in.ac.iitj.instiapp.Utils.RankCursor;
 import in.ac.iitj.instiapp.database.entities.LostnFound.Locations;
 import in.ac.iitj.instiapp.database.entities.LostnFound.LostnFoundType;
 import in.ac.iitj.instiapp.payload.LostnFound.LostnFoundDto;
+import in.ac.iitj.instiapp.payload.LostnFound.LostnFoundMatchDto;
 import org.springframework.data.domain.Pageable;
 
 import java.util.List;
@@ -57,10 +61,27 @@ public interface LostnFoundService {
      * @param owner
      * @param finder
      * @param landmark
-     * @param pageable
+     * @param includeArchived also return resolved and old items moved to the archive
+     * @param cursor keyset position, items are ordered by id
      * @return
      */
-    List<LostnFoundDto> getLostAndFoundByFilter(LostnFoundType type,Optional<Boolean> status , Optional<String> owner , Optional<String> finder, Optional<String> landmark , Pageable pageable);
+    CursorPage<LostnFoundDto> getLostAndFoundByFilter(LostnFoundType type,Optional<Boolean> status , Optional<String> owner , Optional<String> finder, Optional<String> landmark , boolean includeArchived, PageCursor cursor);
+
+    /**
+     * @param query free text matched against the extra info, landmark name and type, tolerating typos
+     * @param type empty for both types
+     * @param status empty for both statuses
+     * @param cursor position in the ranking
+     * @return items ordered by relevance
+     */
+    CursorPage<LostnFoundDto> searchLostAndFound(String query, Optional<LostnFoundType> type, Optional<Boolean> status, RankCursor cursor);
+
+    /**
+     * @param publicId public id of a lost or found item
+     * @return open items of the opposite type that may be the same object, best match first, empty if the item is resolved
+     * @throws org.springframework.dao.EmptyResultDataAccessException if no item has the public id
+     */
+    List<LostnFoundMatchDto> getMatchSuggestions(String publicId);
 
     boolean isOwner(String userName, String publicId);
     boolean isFinder(String userName, String publicId);
@@ -0,0 +1,31 @@
+package in.ac.iitj.instiapp.services.Scheduling.Buses;
+
+/**
+ * Published by {@link in.ac.iitj.instiapp.services.impl.BusServiceImpl} after every write to
+ * bus locations, schedules, runs, routes, stops or overrides.
+ * Listeners holding in-memory copies of the timetable rebuild themselves once the writing transaction commits.
+ */
+public class BusDataChangedEvent {
+
+    private final String operation;
+    private final long version;
+
+    public BusDataChangedEvent(String operation, long version) {
+        this.operation = operation;
+        this.version = version;
+    }
+
+    /**
+     * @return name of the service operation that caused the change, used for logging
+     */
+    public String getOperation() {
+        return operation;
+    }
+
+    /**
+     * @return bus timetable version stamped on the write, see {@link in.ac.iitj.instiapp.database.entities.Scheduling.Buses.BusVersion}
+     */
+    public long getVersion() {
+        return version;
+    }
+}
@@ -0,0 +1,234 @@
+package in.ac.iitj.instiapp.services.Scheduling.Buses;
+
+import in.ac.iitj.instiapp.Repository.BusRepository;
+import in.ac.iitj.instiapp.database.entities.Scheduling.Buses.BusOverride;
+import in.ac.iitj.instiapp.database.entities.Scheduling.Buses.BusOverrideType;
+import in.ac.iitj.instiapp.database.entities.Scheduling.Buses.ScheduleType;
+import in.ac.iitj.instiapp.mappers.Scheduling.Buses.BusRouteDtoMapper;
+import in.ac.iitj.instiapp.payload.Scheduling.Buses.BusRouteDto;
+import in.ac.iitj.instiapp.payload.Scheduling.Buses.BusRunDto;
+import in.ac.iitj.instiapp.payload.Scheduling.Buses.BusScheduleDto;
+import in.ac.iitj.instiapp.payload.Scheduling.Buses.BusTimetableRowDto;
+import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.sql.Time;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.*;
+
+/**
+ * In-memory copy of the regular runs and the overrides of every bus, answers "effective schedule of a bus on date D"
+ * without touching the database.
+ * <p>
+ * Overrides of a bus are kept as an interval index over epoch days: the start day and the day after the end of every
+ * override split the timeline into segments with a fixed set of active overrides. A lookup is a binary search over the
+ * segment boundaries, the active overrides of the segment are then merged with the regular runs of the day's
+ * {@link ScheduleType}.
+ * <p>
+ * The index is built by the first lookup and rebuilt after every committed {@link BusDataChangedEvent}. A lookup reads a
+ * single immutable snapshot, so it never mixes overrides from before and after a change.
+ */
+@Component
+public class BusOverrideIndex {
+
+    private static final org.slf4j.Logger log = org.slf4j.LoggerFactory.getLogger(BusOverrideIndex.class);
+
+    private final BusRepository busRepository;
+    private final BusRouteDtoMapper busRouteDtoMapper;
+    private volatile Snapshot snapshot;
+
+    public BusOverrideIndex(BusRepository busRepository, BusRouteDtoMapper busRouteDtoMapper) {
+        this.busRepository = busRepository;
+        this.busRouteDtoMapper = busRouteDtoMapper;
+    }
+
+    /**
+     * @return regular runs of the day's schedule type without cancelled runs, plus extra runs
+     * @throws EmptyResultDataAccessException if the bus has neither runs nor overrides
+     */
+    public BusScheduleDto getEffectiveSchedule(String busNumber, LocalDate date) {
+        Snapshot current = current();
+        List<BusRunDto> runs = current.runsByBus.get(busNumber);
+        OverrideIntervals overrides = current.overridesByBus.get(busNumber);
+        if (runs == null && overrides == null) {
+            throw new EmptyResultDataAccessException("No runs or overrides for bus " + busNumber, 1);
+        }
+
+        ScheduleType scheduleType = scheduleTypeOf(date);
+        List<OverrideEntry> active = overrides == null ? List.of() : overrides.activeOn(date.toEpochDay());
+
+        Set<BusRunDto> effective = new HashSet<>();
+        if (runs != null) {
+            for (BusRunDto run : runs) {
+                if (run.getScheduleType() == scheduleType && active.stream().noneMatch(entry -> entry.cancels(run))) {
+                    effective.add(run);
+                }
+            }
+        }
+        for (OverrideEntry entry : active) {
+            if (entry.type == BusOverrideType.EXTRA_RUN) {
+                BusRouteDto route = current.routes.getOrDefault(entry.routeName, BusRouteDto.builder().routeName(entry.routeName).build());
+                effective.add(BusRunDto.builder().busNumber(busNumber).route(route).startTime(entry.startTime).scheduleType(scheduleType).build());
+            }
+        }
+        return new BusScheduleDto(busNumber, effective);
+    }
+
+    /**
+     * Reloads runs, routes and overrides from the database and atomically replaces the current snapshot.
+     */
+    public synchronized void rebuild() {
+        Map<String, BusRouteDto> routes = new HashMap<>();
+        busRepository.getAllBusRoutes().forEach(route -> routes.put(route.getRouteName(), busRouteDtoMapper.toDto(route)));
+
+        Map<String, List<BusRunDto>> runsByBus = new HashMap<>();
+        Long previousRunId = null;
+        // Runs whose route has no stops are listed too, their only row has no stop
+        for (BusTimetableRowDto row : busRepository.getTimetableRows()) {
+            if (row.getRunId().equals(previousRunId)) {
+                continue;
+            }
+            previousRunId = row.getRunId();
+            runsByBus.computeIfAbsent(row.getBusNumber(), k -> new ArrayList<>())
+                    .add(BusRunDto.builder()
+                            .busNumber(row.getBusNumber())
+                            .route(routes.get(row.getRouteName()))
+                            .startTime(row.getStartTime())
+                            .scheduleType(row.getScheduleType())
+                            .build());
+        }
+
+        Map<String, List<OverrideEntry>> entriesByBus = new HashMap<>();
+        List<BusOverride> overrides = busRepository.getAllBusOverrides();
+        for (BusOverride override : overrides) {
+            entriesByBus.computeIfAbsent(override.getBusSchedule().getBusNumber(), k -> new ArrayList<>())
+                    .add(new OverrideEntry(override));
+        }
+        Map<String, OverrideIntervals> overridesByBus = new HashMap<>();
+        entriesByBus.forEach((busNumber, entries) -> overridesByBus.put(busNumber, OverrideIntervals.build(entries)));
+
+        snapshot = new Snapshot(routes, runsByBus, overridesByBus);
+        log.info("Rebuilt bus override index with {} overrides for {} buses", overrides.size(), overridesByBus.size());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBusDataChanged(BusDataChangedEvent event) {
+        log.debug("Bus data changed by {}, rebuilding override index", event.getOperation());
+        rebuild();
+    }
+
+    public static ScheduleType scheduleTypeOf(LocalDate date) {
+        DayOfWeek day = date.getDayOfWeek();
+        return (day == DayOfWeek.SATURDAY || day == DayOfWeek.SUNDAY) ? ScheduleType.WEEKEND : ScheduleType.WEEKDAY;
+    }
+
+    private Snapshot current() {
+        Snapshot current = snapshot;
+        if (current == null) {
+            synchronized (this) {
+                if (snapshot == null) {
+                    rebuild();
+                }
+                current = snapshot;
+            }
+        }
+        return current;
+    }
+
+
+    private static final class Snapshot {
+        final Map<String, BusRouteDto> routes;
+        final Map<String, List<BusRunDto>> runsByBus;
+        final Map<String, OverrideIntervals> overridesByBus;
+
+        Snapshot(Map<String, BusRouteDto> routes, Map<String, List<BusRunDto>> runsByBus, Map<String, OverrideIntervals> overridesByBus) {
+            this.routes = routes;
+            this.runsByBus = runsByBus;
+            this.overridesByBus = overridesByBus;
+        }
+    }
+
+    private static final class OverrideEntry {
+        final BusOverrideType type;
+        final String routeName;
+        final Time startTime;
+        final long fromDay;
+        final long toDay;
+
+        OverrideEntry(BusOverride override) {
+            this.type = override.getOverrideType();
+            this.routeName = override.getRoute() == null ? null : override.getRoute().getRouteName();
+            this.startTime = override.getStartTime();
+            this.fromDay = override.getOverrideDate().toEpochDay();
+            this.toDay = (override.getEndDate() == null ? override.getOverrideDate() : override.getEndDate()).toEpochDay();
+        }
+
+        boolean cancels(BusRunDto run) {
+            if (type != BusOverrideType.CANCELLATION) {
+                return false;
+            }
+            if (routeName == null) {
+                return true;
+            }
+            return run.getRoute() != null && routeName.equals(run.getRoute().getRouteName())
+                    && (startTime == null || startTime.equals(run.getStartTime()));
+        }
+    }
+
+    /**
+     * Timeline of one bus split at every override boundary. Segment {@code i} covers the days
+     * {@code [boundaries[i], boundaries[i + 1])} and the overrides in {@code active[i]} are in effect on all of them.
+     */
+    private static final class OverrideIntervals {
+        final long[] boundaries;
+        final List<List<OverrideEntry>> active;
+
+        private OverrideIntervals(long[] boundaries, List<List<OverrideEntry>> active) {
+            this.boundaries = boundaries;
+            this.active = active;
+        }
+
+        /**
+         * Sorts the boundaries and the overrides by start once, then sweeps the boundaries in order: overrides starting at
+         * or before a boundary join the active set, overrides that ended before it leave
+         */
+        static OverrideIntervals build(List<OverrideEntry> entries) {
+            long[] points = new long[entries.size() * 2];
+            for (int i = 0; i < entries.size(); i++) {
+                points[2 * i] = entries.get(i).fromDay;
+                points[2 * i + 1] = entries.get(i).toDay + 1;
+            }
+            Arrays.sort(points);
+            int distinct = 0;
+            for (long point : points) {
+                if (distinct == 0 || points[distinct - 1] != point) {
+                    points[distinct++] = point;
+                }
+            }
+            long[] boundaries = Arrays.copyOf(points, distinct);
+
+            List<OverrideEntry> byStart = new ArrayList<>(entries);
+            byStart.sort(Comparator.comparingLong(entry -> entry.fromDay));
+            List<List<OverrideEntry>> active = new ArrayList<>(boundaries.length);
+            List<OverrideEntry> current = new ArrayList<>();
+            int next = 0;
+            for (long start : boundaries) {
+                while (next < byStart.size() && byStart.get(next).fromDay <= start) {
+                    current.add(byStart.get(next++));
+                }
+                current.removeIf(entry -> entry.toDay < start);
+                active.add(List.copyOf(current));
+            }
+            return new OverrideIntervals(boundaries, active);
+        }
+
+        List<OverrideEntry> activeOn(long epochDay) {
+            int index = Arrays.binarySearch(boundaries, epochDay);
+            // Not a boundary, use the segment starting at the closest boundary before the day
+            int segment = index >= 0 ? index : -index - 2;
+            return segment < 0 ? List.of() : active.get(segment);
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package in.ac.iitj.instiapp.services.Scheduling.Buses;
+
+import in.ac.iitj.instiapp.database.entities.Scheduling.Buses.ScheduleType;
+import in.ac.iitj.instiapp.payload.Scheduling.Buses.BusRouteDto;
+import in.ac.iitj.instiapp.payload.Scheduling.Buses.BusRunDto;
+import in.ac.iitj.instiapp.payload.Scheduling.Buses.RouteStopDto;
+
+import java.sql.Time;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Parses a timetable exported as CSV into the {@link BusRunDto}s accepted by the bulk import.
+ * <p>
+ * One line per (run, stop), with a header line:
+ * <pre>
+ * bus_number,route_name,start_time,schedule_type,stop_order,location_name,arrival_time,departure_time
+ * B1,CAMPUS_CITY_MORNING,08:00:00,WEEKDAY,1,IIT Jodhpur,08:00:00,08:00:00
+ * B1,CAMPUS_CITY_MORNING,08:00:00,WEEKDAY,2,Paota,08:40:00,08:42:00
+ * </pre>
+ * Lines with the same bus number, route name, start time and schedule type form one run.
+ * Values can not contain commas, blank lines are ignored.
+ */
+public final class BusTimetableCsvParser {
+
+    static final String HEADER = "bus_number,route_name,start_time,schedule_type,stop_order,location_name,arrival_time,departure_time";
+    private static final int COLUMNS = 8;
+
+    private BusTimetableCsvParser() {
+    }
+
+    /**
+     * @throws IllegalArgumentException if the header is missing or a line is malformed, the message contains the line number
+     */
+    public static List<BusRunDto> parse(String csv) {
+        String[] lines = csv.split("\\r?\\n");
+        int lineNumber = 0;
+        while (lineNumber < lines.length && lines[lineNumber].isBlank()) {
+            lineNumber++;
+        }
+        if (lineNumber == lines.length || !HEADER.equalsIgnoreCase(lines[lineNumber].strip())) {
+            throw new IllegalArgumentException("Timetable CSV must start with the header " + HEADER);
+        }
+
+        Map<String, BusRunDto> runs = new LinkedHashMap<>();
+        Map<String, List<RouteStopDto>> stops = new LinkedHashMap<>();
+        for (lineNumber++; lineNumber < lines.length; lineNumber++) {
+            String line = lines[lineNumber];
+            if (line.isBlank()) {
+                continue;
+            }
+            String[] values = line.split(",", -1);
+            if (values.length != COLUMNS) {
+                throw new IllegalArgumentException("Line " + (lineNumber + 1) + ": expected " + COLUMNS + " values but found " + values.length);
+            }
+            for (int i = 0; i < values.length; i++) {
+                values[i] = values[i].strip();
+            }
+
+            try {
+                String key = values[0] + ',' + values[1] + ',' + values[2] + ',' + values[3];
+                runs.computeIfAbsent(key, k -> BusRunDto.builder()
+                        .busNumber(values[0])
+                        .route(BusRouteDto.builder().routeName(values[1]).build())
+                        .startTime(Time.valueOf(values[2]))
+                        .scheduleType(ScheduleType.valueOf(values[3].toUpperCase()))
+                        .build());
+                stops.computeIfAbsent(key, k -> new ArrayList<>()).add(RouteStopDto.builder()
+                        .stopOrder(Integer.parseInt(values[4]))
+                        .locationName(values[5])
+                        .arrivalTime(Time.valueOf(values[6]))
+                        .departureTime(Time.valueOf(values[7]))
+                        .build());
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Line " + (lineNumber + 1) + ": " + e.getMessage(), e);
+            }
+        }
+
+        List<BusRunDto> result = new ArrayList<>(runs.size());
+        runs.forEach((key, run) -> result.add(run.withRoute(run.getRoute().withStops(stops.get(key)))));
+        return result;
+    }
+}
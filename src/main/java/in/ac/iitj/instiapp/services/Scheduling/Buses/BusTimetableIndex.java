@@ -0,0 +1,249 @@
+package in.ac.iitj.instiapp.services.Scheduling.Buses;
+
+import in.ac.iitj.instiapp.Repository.BusRepository;
+import in.ac.iitj.instiapp.database.entities.Scheduling.Buses.ScheduleType;
+import in.ac.iitj.instiapp.payload.Scheduling.Buses.BusDepartureDto;
+import in.ac.iitj.instiapp.payload.Scheduling.Buses.BusTimetableRowDto;
+import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.sql.Time;
+import java.time.LocalTime;
+import java.util.*;
+
+/**
+ * In-memory copy of the whole bus timetable used to answer "next departures from a stop" without touching the database.
+ * <p>
+ * The timetable is loaded with one query ({@link BusRepository#getTimetableRows()}) and flattened into one
+ * time-sorted {@code int[]} of departure seconds per ({@link ScheduleType}, {@link in.ac.iitj.instiapp.database.entities.Scheduling.Buses.BusLocation})
+ * bucket, so a lookup is a binary search followed by a linear copy of at most {@code limit} entries.
+ * <p>
+ * Stop times of a route are shifted by the run's start time, i.e. a stop departs at
+ * {@code run.startTime + (stop.departureTime - firstStop.departureTime)}. Runs whose start time equals the first stop's
+ * departure therefore use the stop times unchanged.
+ * <p>
+ * Snapshots are immutable and swapped atomically after every committed {@link BusDataChangedEvent},
+ * readers never observe a half built index.
+ */
+@Component
+public class BusTimetableIndex {
+
+    private static final org.slf4j.Logger log = org.slf4j.LoggerFactory.getLogger(BusTimetableIndex.class);
+    private static final int SECONDS_PER_DAY = 24 * 60 * 60;
+
+    private final BusRepository busRepository;
+    private volatile Snapshot snapshot;
+
+    public BusTimetableIndex(BusRepository busRepository) {
+        this.busRepository = busRepository;
+    }
+
+    /**
+     * @param locationName name of the stop
+     * @param scheduleType WEEKDAY or WEEKEND timetable
+     * @param after        departures at or after this time are returned
+     * @param limit        maximum number of departures to return
+     * @return departures sorted by time, empty if nothing departs after {@code after}
+     * @throws EmptyResultDataAccessException if no run stops at the location
+     */
+    public List<BusDepartureDto> getNextDepartures(String locationName, ScheduleType scheduleType, LocalTime after, int limit) {
+        Snapshot current = current();
+        Integer location = current.locationIndex.get(locationName);
+        if (location == null) {
+            throw new EmptyResultDataAccessException("No bus stops at location " + locationName, 1);
+        }
+
+        int bucket = current.bucket(scheduleType, location);
+        int[] departures = current.departureSeconds[bucket];
+        int[] entries = current.entries[bucket];
+
+        int from = lowerBound(departures, after.toSecondOfDay());
+        int to = Math.min(departures.length, from + Math.max(limit, 0));
+
+        List<BusDepartureDto> result = new ArrayList<>(to - from);
+        for (int i = from; i < to; i++) {
+            int entry = entries[i];
+            int run = current.entryRun[entry];
+            result.add(new BusDepartureDto(
+                    current.runBusNumber[run],
+                    current.runRouteName[run],
+                    locationName,
+                    current.entryStopOrder[entry],
+                    toTime(departures[i]),
+                    scheduleType
+            ));
+        }
+        return result;
+    }
+
+    /**
+     * Reloads the timetable from the database and atomically replaces the current snapshot.
+     */
+    public synchronized void rebuild() {
+        List<BusTimetableRowDto> rows = busRepository.getTimetableRows();
+        snapshot = Snapshot.build(rows);
+        log.info("Rebuilt bus timetable index with {} stop departures", rows.size());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBusDataChanged(BusDataChangedEvent event) {
+        log.debug("Bus data changed by {}, rebuilding timetable index", event.getOperation());
+        rebuild();
+    }
+
+    private Snapshot current() {
+        Snapshot current = snapshot;
+        if (current == null) {
+            synchronized (this) {
+                if (snapshot == null) {
+                    rebuild();
+                }
+                current = snapshot;
+            }
+        }
+        return current;
+    }
+
+    /**
+     * @return index of the first element {@code >= key}, or {@code values.length} if there is none
+     */
+    static int lowerBound(int[] values, int key) {
+        int low = 0, high = values.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (values[mid] < key) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    static int toSeconds(Time time) {
+        return time.toLocalTime().toSecondOfDay();
+    }
+
+    static Time toTime(int secondOfDay) {
+        return Time.valueOf(LocalTime.ofSecondOfDay(secondOfDay));
+    }
+
+
+    private static final class Snapshot {
+
+        private static final ScheduleType[] SCHEDULE_TYPES = ScheduleType.values();
+
+        final Map<String, Integer> locationIndex;
+        final int locationCount;
+
+        // Per run, indexed by dense run slot
+        final String[] runBusNumber;
+        final String[] runRouteName;
+
+        // Per (run, stop) entry
+        final int[] entryRun;
+        final int[] entryStopOrder;
+
+        // Per (scheduleType, location) bucket, departureSeconds sorted ascending and entries parallel to it
+        final int[][] departureSeconds;
+        final int[][] entries;
+
+        private Snapshot(Map<String, Integer> locationIndex, String[] runBusNumber, String[] runRouteName,
+                         int[] entryRun, int[] entryStopOrder, int[][] departureSeconds, int[][] entries) {
+            this.locationIndex = locationIndex;
+            this.locationCount = locationIndex.size();
+            this.runBusNumber = runBusNumber;
+            this.runRouteName = runRouteName;
+            this.entryRun = entryRun;
+            this.entryStopOrder = entryStopOrder;
+            this.departureSeconds = departureSeconds;
+            this.entries = entries;
+        }
+
+        int bucket(ScheduleType scheduleType, int location) {
+            return scheduleType.ordinal() * locationCount + location;
+        }
+
+        /**
+         * @param rows ordered by run id and stop order, as returned by {@link BusRepository#getTimetableRows()}
+         */
+        static Snapshot build(List<BusTimetableRowDto> rows) {
+            Map<String, Integer> locationIndex = new HashMap<>();
+            for (BusTimetableRowDto row : rows) {
+                if (row.getStopOrder() != null) {
+                    locationIndex.putIfAbsent(row.getLocationName(), locationIndex.size());
+                }
+            }
+            int locationCount = locationIndex.size();
+
+            List<String> runBusNumber = new ArrayList<>();
+            List<String> runRouteName = new ArrayList<>();
+            int[] entryRun = new int[rows.size()];
+            int[] entryStopOrder = new int[rows.size()];
+            int[] entryDeparture = new int[rows.size()];
+            int[] entryBucket = new int[rows.size()];
+            int[] bucketSizes = new int[SCHEDULE_TYPES.length * locationCount];
+
+            int entryCount = 0;
+            Long previousRunId = null;
+            int runSlot = -1;
+            int offset = 0;
+            for (BusTimetableRowDto row : rows) {
+                // A run without stops never departs
+                if (row.getScheduleType() == null || row.getStopOrder() == null) {
+                    continue;
+                }
+                if (!row.getRunId().equals(previousRunId)) {
+                    previousRunId = row.getRunId();
+                    runSlot++;
+                    runBusNumber.add(row.getBusNumber());
+                    runRouteName.add(row.getRouteName());
+                    // first row of a run is its first stop
+                    offset = toSeconds(row.getStartTime()) - toSeconds(row.getDepartureTime());
+                }
+                int bucket = row.getScheduleType().ordinal() * locationCount + locationIndex.get(row.getLocationName());
+                entryRun[entryCount] = runSlot;
+                entryStopOrder[entryCount] = row.getStopOrder();
+                entryDeparture[entryCount] = Math.floorMod(toSeconds(row.getDepartureTime()) + offset, SECONDS_PER_DAY);
+                entryBucket[entryCount] = bucket;
+                bucketSizes[bucket]++;
+                entryCount++;
+            }
+
+            // Pack (departure, entry) into longs so each bucket sorts with a primitive sort
+            long[][] packed = new long[bucketSizes.length][];
+            int[] fill = new int[bucketSizes.length];
+            for (int b = 0; b < bucketSizes.length; b++) {
+                packed[b] = new long[bucketSizes[b]];
+            }
+            for (int e = 0; e < entryCount; e++) {
+                int b = entryBucket[e];
+                packed[b][fill[b]++] = ((long) entryDeparture[e] << 32) | e;
+            }
+
+            int[][] departureSeconds = new int[bucketSizes.length][];
+            int[][] entries = new int[bucketSizes.length][];
+            for (int b = 0; b < bucketSizes.length; b++) {
+                long[] values = packed[b];
+                Arrays.sort(values);
+                departureSeconds[b] = new int[values.length];
+                entries[b] = new int[values.length];
+                for (int i = 0; i < values.length; i++) {
+                    departureSeconds[b][i] = (int) (values[i] >>> 32);
+                    entries[b][i] = (int) values[i];
+                }
+            }
+
+            return new Snapshot(
+                    Collections.unmodifiableMap(locationIndex),
+                    runBusNumber.toArray(new String[0]),
+                    runRouteName.toArray(new String[0]),
+                    Arrays.copyOf(entryRun, entryCount),
+                    Arrays.copyOf(entryStopOrder, entryCount),
+                    departureSeconds,
+                    entries
+            );
+        }
+    }
+}
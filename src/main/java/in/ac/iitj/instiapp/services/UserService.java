@@ -1,6 +1,9 @@
 package in.ac.iitj.instiapp.services;
 
+import in.ac.iitj.instiapp.payload.common.CursorPage;
+import in.ac.iitj.instiapp.Utils.PageCursor;
 import in.ac.iitj.instiapp.database.entities.User.Usertype;
+import in.ac.iitj.instiapp.payload.Auth.OAuth2LoginUserDto;
 import in.ac.iitj.instiapp.payload.Auth.SignupDto;
 import in.ac.iitj.instiapp.payload.User.Organisation.OrganisationRoleDto;
 import in.ac.iitj.instiapp.payload.User.UserBaseDto;
@@ -20,8 +23,18 @@ public interface UserService {
     public Long save(@Valid SignupDto signupDto);
     public Long updateUserDetails(UserDetailedDto userDetailedDto);
 
+    /**
+     * Username derived from the names and the email only, the same email always gives the same username
+     * and different emails collide only on a 32 bit hash collision of emails sharing names and local part
+     */
     public String createUsername(String firstName, String lastName, String email);
 
+    /**
+     * Resolves the user of a Google login, creating a Student on the first login, with one query
+     * @throws org.springframework.dao.EmptyResultDataAccessException if the Student user type doesn't exist
+     */
+    public OAuth2LoginUserDto getOrCreateOauth2User(String email, String firstName, String lastName);
+
     public void save(Usertype usertype);
 
     public List<String> getAllUserTypes(Pageable pageable);
@@ -39,7 +52,7 @@ public interface UserService {
 
     public UserDetailedDto getUserDetailed(String username);
 
-    public List<UserBaseDto> getListUserLimitedByUsertype(String usertype, Pageable pageable);
+    public CursorPage<UserBaseDto> getListUserLimitedByUsertype(String usertype, PageCursor cursor);
 
     public Optional<OrganisationRoleDto> getOrganisationPermission(String username, String organisationUsername);
 
@@ -51,6 +64,11 @@ public interface UserService {
 
     public void updateOauth2Info(String newName, String avatarURL, String userName);
 
+    /**
+     * {@link #updateOauth2Info} on the task executor, failures are logged and do not affect the login that triggered it
+     */
+    public void syncOauth2ProfileAsync(String newName, String avatarURL, String userName);
+
     public void setUserType(String username, String newUserType);
 
     public void updatePhoneNumber(String username, String newPhoneNumber);
@@ -1,5 +1,7 @@
 package in.ac.iitj.instiapp.services.impl;
 
+import in.ac.iitj.instiapp.payload.common.CursorPage;
+import in.ac.iitj.instiapp.Utils.PageCursor;
 import in.ac.iitj.instiapp.Repository.BusRepository;
 import in.ac.iitj.instiapp.database.entities.Scheduling.Buses.*;
 import in.ac.iitj.instiapp.mappers.Scheduling.Buses.BusOverrideDtoMapper;
@@ -8,84 +10,171 @@ import in.ac.iitj.instiapp.mappers.Scheduling.Buses.BusRunDtoMapper;
 import in.ac.iitj.instiapp.mappers.Scheduling.Buses.RouteStopDtoMapper;
 import in.ac.iitj.instiapp.payload.Scheduling.Buses.*;
 import in.ac.iitj.instiapp.services.BusService;
+import in.ac.iitj.instiapp.services.Scheduling.Buses.BusDataChangedEvent;
+import in.ac.iitj.instiapp.services.Scheduling.Buses.BusOverrideIndex;
+import in.ac.iitj.instiapp.services.Scheduling.Buses.BusTimetableIndex;
 import jakarta.persistence.EntityNotFoundException;
 import jakarta.transaction.Transactional;
 import org.mapstruct.ap.shaded.freemarker.core.NonDateException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.dao.DataIntegrityViolationException;
-import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.hibernate.Hibernate;
-import java.util.ArrayList;
-import java.util.List;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 public class BusServiceImpl implements BusService {
 
+    private static final int SECONDS_PER_DAY = 24 * 60 * 60;
+
     private final BusRepository busRepository;
     private final BusRouteDtoMapper busRouteDtoMapper;
     private final BusOverrideDtoMapper busOverrideDtoMapper;
     private final RouteStopDtoMapper routeStopDtoMapper;
     private final BusRunDtoMapper busRunDtoMapper;
+    private final BusTimetableIndex busTimetableIndex;
+    private final BusOverrideIndex busOverrideIndex;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Autowired
     public BusServiceImpl(BusRepository busRepository,
                           BusRouteDtoMapper busRouteDtoMapper,
                           BusOverrideDtoMapper busOverrideDtoMapper,
                           RouteStopDtoMapper routeStopDtoMapper,
-                          BusRunDtoMapper busRunDtoMapper) {
+                          BusRunDtoMapper busRunDtoMapper,
+                          BusTimetableIndex busTimetableIndex,
+                          BusOverrideIndex busOverrideIndex,
+                          ApplicationEventPublisher eventPublisher) {
         this.busRepository = busRepository;
         this.busRouteDtoMapper = busRouteDtoMapper;
         this.busOverrideDtoMapper = busOverrideDtoMapper;
         this.routeStopDtoMapper = routeStopDtoMapper;
         this.busRunDtoMapper = busRunDtoMapper;
+        this.busTimetableIndex = busTimetableIndex;
+        this.busOverrideIndex = busOverrideIndex;
+        this.eventPublisher = eventPublisher;
+    }
+
+    /**
+     * Stamps the write with a new bus timetable version, rewrites the departures board rows of the touched buses and routes
+     * and notifies in-memory timetable copies, they rebuild after the surrounding transaction commits
+     * @param busNumbers buses whose runs changed
+     * @param routeNames routes whose stops changed
+     */
+    private void publishBusDataChanged(String operation, Collection<String> busNumbers, Collection<String> routeNames) {
+        long version = busRepository.saveBusChange(operation, busNumbers, routeNames);
+        busRepository.refreshBusDepartures(busNumbers, routeNames);
+        eventPublisher.publishEvent(new BusDataChangedEvent(operation, version));
+    }
+
+    /**
+     * Overrides do not change the regular timetable, the departures board is left as it is
+     */
+    private void publishBusOverrideChanged(String operation) {
+        long version = busRepository.saveBusChange(operation, List.of(), List.of());
+        eventPublisher.publishEvent(new BusDataChangedEvent(operation, version));
+    }
+
+    /**
+     * A location is only part of the timetable through the routes stopping there, only those routes are changed. The
+     * departures keep their times, only the location name in the departures board rows is rewritten
+     */
+    private void publishBusLocationRenamed(String oldName, String newName) {
+        List<String> routeNames = busRepository.getRouteNamesByLocationName(newName);
+        if (routeNames.isEmpty()) {
+            return;
+        }
+        long version = busRepository.saveBusChange("updateBusLocation", List.of(), routeNames);
+        busRepository.renameBusDepartureLocation(oldName, newName);
+        eventPublisher.publishEvent(new BusDataChangedEvent("updateBusLocation", version));
     }
 
     // Bus Location
 
     @Override
     @Transactional
-    public void saveBusLocation(String name) { busRepository.saveBusLocation(name); }
+    public void saveBusLocation(String name) {
+        // No route stops at a new location yet, the timetable is unchanged
+        busRepository.saveBusLocation(name);
+    }
 
     @Override
-    public List<String> getBusLocations(Pageable pageable) { return busRepository.getListOfBusLocations(pageable); }
+    public CursorPage<String> getBusLocations(PageCursor cursor) { return busRepository.getListOfBusLocations(cursor); }
 
     @Override
     public Long isBusLocationExist(String name) { return busRepository.isBusLocationExists(name); }
 
     @Override
-    public void updateBusLocation(String oldName, String newName) { busRepository.updateBusLocation(oldName, newName); }
+    @Transactional
+    public void updateBusLocation(String oldName, String newName) {
+        busRepository.updateBusLocation(oldName, newName);
+        publishBusLocationRenamed(oldName, newName);
+    }
 
     @Override
     @Transactional
-    public void deleteBusLocation(String name) { busRepository.deleteBusLocation(name); }
+    public void deleteBusLocation(String name) {
+        // Fails while a route stops there, so a deleted location was not part of the timetable
+        busRepository.deleteBusLocation(name);
+    }
 
     // Bus Schedule
 
     @Override
     @Transactional
-    public void saveBusSchedule(String busNumber) { busRepository.saveBusSchedule(busNumber); }
+    public void saveBusSchedule(String busNumber) {
+        busRepository.saveBusSchedule(busNumber);
+        publishBusDataChanged("saveBusSchedule", List.of(busNumber), List.of());
+    }
 
     @Override
     public BusScheduleDto getBusSchedule(String busNumber) { return busRepository.getBusSchedule(busNumber); }
 
     @Override
-    public List<String> getBusNumbers(Pageable pageable) { return busRepository.getBusNumbers(pageable); }
+    public CursorPage<String> getBusNumbers(PageCursor cursor) { return busRepository.getBusNumbers(cursor); }
 
     @Override
     public Long existsBusSchedule(String busNumber) { return busRepository.existsBusSchedule(busNumber); }
 
     @Override
-    public void updateBusSchedule(String oldBusNumber, String newBusNumber) { busRepository.updateBusSchedule(oldBusNumber, newBusNumber); }
+    @Transactional
+    public void updateBusSchedule(String oldBusNumber, String newBusNumber) {
+        busRepository.updateBusSchedule(oldBusNumber, newBusNumber);
+        publishBusDataChanged("updateBusSchedule", List.of(oldBusNumber, newBusNumber), List.of());
+    }
 
     @Override
-    public void deleteBusSchedule(String busNumber) { busRepository.deleteBusSchedule(busNumber); }
+    @Transactional
+    public void deleteBusSchedule(String busNumber) {
+        busRepository.deleteBusSchedule(busNumber);
+        publishBusDataChanged("deleteBusSchedule", List.of(busNumber), List.of());
+    }
 
     // BusRun with Route
 
     @Override
-    public void saveBusRunWithRoute(BusRun busRun) { busRepository.saveBusRunWithRoute(busRun); }
+    @Transactional
+    public void saveBusRunWithRoute(BusRun busRun) {
+        busRepository.saveBusRunWithRoute(busRun);
+        if (busRun.getBusSchedule() == null) {
+            // Not part of any bus timetable
+            return;
+        }
+        // The schedule may be a reference holding only its id
+        String busNumber = busRun.getBusSchedule().getBusNumber() != null
+                ? busRun.getBusSchedule().getBusNumber()
+                : busRepository.getBusNumberByScheduleId(busRun.getBusSchedule().getId());
+        if (busNumber != null) {
+            publishBusDataChanged("saveBusRunWithRoute", List.of(busNumber), List.of());
+        }
+    }
 
     @Override
     public List<BusRun> getBusRunsForRoute(String busNumber, Long routeId) { return busRepository.getBusRunsForRoute(busNumber, routeId); }
@@ -97,15 +186,10 @@ public class BusServiceImpl implements BusService {
         BusRoute busRoute = new BusRoute(busRouteDto.getRouteName());
         busRepository.saveBusRoute(busRoute);
 
-        Long routeId = busRepository.isBusRouteExists(busRouteDto.getRouteName());
-
-        for(int i=0; i<busRouteDto.getStops().size(); i++){
-            Long Id = busRepository.isBusLocationExists(busRouteDto.getStops().get(i).getLocationName());
-            RouteStop routeStop = routeStopDtoMapper.toEntity(busRouteDto.getStops().get(i));
-            routeStop.setLocation(new BusLocation(Id));
-            routeStop.setRoute(new BusRoute(routeId));
-            busRepository.saveRouteStop(routeStop);
+        if (busRouteDto.getStops() != null) {
+            saveRouteStops(Map.of(busRoute.getId(), busRouteDto.getStops()));
         }
+        publishBusDataChanged("saveBusRoute", List.of(), List.of(busRouteDto.getRouteName()));
     }
 
     @Override
@@ -115,7 +199,9 @@ public class BusServiceImpl implements BusService {
             BusRoute existingRoute = busRepository.getBusRouteByRouteId(routeId);
             BusRoute updatedRoute = busRouteDtoMapper.toEntity(busRouteDto);
             updatedRoute.setId(existingRoute.getId()); // Preserve the ID
+            String oldRouteName = existingRoute.getRouteName();
             busRepository.saveBusRoute(updatedRoute); // Using merge through persist
+            publishBusDataChanged("updateBusRoute", List.of(), Stream.of(oldRouteName, busRouteDto.getRouteName()).filter(Objects::nonNull).distinct().toList());
             return busRouteDtoMapper.toDto(updatedRoute);
         } catch (Exception e) {
             return null;
@@ -143,15 +229,28 @@ public class BusServiceImpl implements BusService {
 
 
     @Override
-    public void saveRouteStop(RouteStop stop) { busRepository.saveRouteStop(stop); }
+    @Transactional
+    public void saveRouteStop(RouteStop stop) {
+        // Loads the route, its name is known afterwards
+        busRepository.saveRouteStop(stop);
+        publishBusDataChanged("saveRouteStop", List.of(), List.of(stop.getRoute().getRouteName()));
+    }
 
     @Override
     public List<RouteStop> getRouteStopsByRouteId(Long routeId) { return busRepository.getRouteStopsByRouteId(routeId); }
 
-    // BusOverride (if still needed)
+    // BusOverride
 
     @Override
-    public void saveBusOverride(String busNumber, BusOverride busOverride) { busRepository.saveBusOverride(busNumber, busOverride); }
+    @Transactional
+    public void saveBusOverride(String busNumber, BusOverride busOverride) {
+        if (busOverride.getPublicId() == null) {
+            busOverride.setPublicId(UUID.randomUUID().toString());
+        }
+        validateBusOverride(busOverride);
+        busRepository.saveBusOverride(busNumber, busOverride);
+        publishBusOverrideChanged("saveBusOverride");
+    }
 
     @Override
     public boolean existsBusOverrideByPublicId(String publicId) { return busRepository.existsBusOverrideByPublicId(publicId); }
@@ -160,16 +259,53 @@ public class BusServiceImpl implements BusService {
     public List<BusOverrideDto> getBusOverrideForYearAndMonth(int year, int month) { return busRepository.getBusOverrideForYearAndMonth(year, month); }
 
     @Override
-    public void updateBusOverride(String publicId, BusOverride newBusOverride) { busRepository.updateBusOverride(publicId, newBusOverride); }
+    @Transactional
+    public void updateBusOverride(String publicId, BusOverride newBusOverride) {
+        validateBusOverride(newBusOverride);
+        busRepository.updateBusOverride(publicId, newBusOverride);
+        publishBusOverrideChanged("updateBusOverride");
+    }
 
     @Override
-    public void deleteBusOverride(List<String> busOverrideIds) { busRepository.deleteBusOverride(busOverrideIds); }
+    @Transactional
+    public void deleteBusOverride(List<String> busOverrideIds) {
+        busRepository.deleteBusOverride(busOverrideIds);
+        publishBusOverrideChanged("deleteBusOverride");
+    }
+
+    @Override
+    public BusScheduleDto getEffectiveBusSchedule(String busNumber, LocalDate date) {
+        return busOverrideIndex.getEffectiveSchedule(busNumber, date);
+    }
+
+    /**
+     * Fills a missing end date with the start date
+     * @throws IllegalArgumentException if the override has no type or start date, spans more than {@link BusOverride#MAX_SPAN_DAYS}
+     * days, or is an extra run without route and start time
+     */
+    private void validateBusOverride(BusOverride busOverride) {
+        if (busOverride.getOverrideType() == null || busOverride.getOverrideDate() == null) {
+            throw new IllegalArgumentException("Bus override needs a type and a date");
+        }
+        if (busOverride.getEndDate() == null) {
+            busOverride.setEndDate(busOverride.getOverrideDate());
+        }
+        long days = ChronoUnit.DAYS.between(busOverride.getOverrideDate(), busOverride.getEndDate());
+        if (days < 0 || days >= BusOverride.MAX_SPAN_DAYS) {
+            throw new IllegalArgumentException("Bus override must end on or after its start and span at most " + BusOverride.MAX_SPAN_DAYS + " days");
+        }
+        if (busOverride.getOverrideType() == BusOverrideType.EXTRA_RUN
+                && (busOverride.getRoute() == null || busOverride.getRoute().getRouteName() == null || busOverride.getStartTime() == null)) {
+            throw new IllegalArgumentException("Extra run needs a route name and a start time");
+        }
+    }
 
     @Override
     @Transactional
     public RouteStopDto addRouteStop(String routeName, RouteStopDto stopDto) {
         RouteStop stop = routeStopDtoMapper.toEntity(stopDto);
         busRepository.saveRouteStop(stop);
+        publishBusDataChanged("addRouteStop", List.of(), List.of(routeName));
         return routeStopDtoMapper.toDto(stop);
     }
 
@@ -192,46 +328,15 @@ public class BusServiceImpl implements BusService {
         }
 
         BusRoute route = busRepository.findBusRouteByRouteName(busRunDto.getRoute().getRouteName());
-        if (route == null) {
-            // Create and save new BusRoute
-            route = busRouteDtoMapper.toEntity(busRunDto.getRoute());
-
-            busRepository.saveBusRoute(new BusRoute(route.getRouteName()));
-
-            Long id = busRepository.isBusRouteExists(busRunDto.getRoute().getRouteName());
-            route = busRepository.getBusRouteByRouteId(id);
-
-            // Save RouteStops, referencing the now-persisted route
+        boolean newRoute = route == null;
+        if (newRoute) {
+            route = new BusRoute(busRunDto.getRoute().getRouteName());
+            busRepository.saveBusRoute(route);
             if (busRunDto.getRoute().getStops() != null) {
-                for (RouteStopDto stopDto : busRunDto.getRoute().getStops()) {
-                    RouteStop stop = routeStopDtoMapper.toEntity(stopDto);
-                    stop.setRoute(route);
-
-                    // Ensure BusLocation exists
-                    Long locationId = busRepository.isBusLocationExists(stopDto.getLocationName());
-                    BusLocation location;
-                    if (locationId == -1L) {
-                        // Create new location
-                        busRepository.saveBusLocation(stopDto.getLocationName());
-                        locationId = busRepository.isBusLocationExists(stopDto.getLocationName());
-                    }
-                    location = busRepository.getLocationById(locationId);
-
-                    stop.setLocation(location);
-
-                    System.out.println("Saving stop: " + stop + ", location: " + stop.getLocation());
-                    if (stop.getLocation() == null) {
-                        throw new IllegalStateException("Location is null for stop: " + stopDto.getLocationName());
-                    }
-
-                    busRepository.saveRouteStop(stop);
-                }
+                saveRouteStops(Map.of(route.getId(), busRunDto.getRoute().getStops()));
             }
         }
 
-        Long id = busRepository.isBusRouteExists(busRunDto.getRoute().getRouteName());
-        route = busRepository.getBusRouteByRouteId(id);
-
         BusRun busRun = new BusRun();
         busRun.setBusSchedule(bus);
         busRun.setRoute(route);
@@ -239,7 +344,92 @@ public class BusServiceImpl implements BusService {
         busRun.setScheduleType(busRunDto.getScheduleType());
 
         busRepository.saveBusRunWithRoute(busRun);
-        return busRunDtoMapper.toDto(busRun);
+        publishBusDataChanged("createBusRunWithRoute", List.of(busRunDto.getBusNumber()), List.of(busRunDto.getRoute().getRouteName()));
+
+        // Stops of a new route were batch inserted behind the persistence context, echo them from the request
+        BusRunDto created = busRunDtoMapper.toDto(busRun);
+        return newRoute ? created.withRoute(busRunDto.getRoute()) : created;
+    }
+
+    @Override
+    @Transactional
+    public BusTimetableImportResultDto importBusTimetable(List<BusRunDto> busRunDtos) {
+        Set<String> busNumbers = new HashSet<>();
+        Map<String, List<RouteStopDto>> routes = new LinkedHashMap<>();
+        for (BusRunDto busRunDto : busRunDtos) {
+            if (busRunDto.getBusNumber() == null || busRunDto.getRoute() == null || busRunDto.getRoute().getRouteName() == null) {
+                throw new IllegalArgumentException("Every bus run needs a bus number and a route name");
+            }
+            busNumbers.add(busRunDto.getBusNumber());
+            // The first run of a route defines its stops
+            routes.putIfAbsent(busRunDto.getRoute().getRouteName(),
+                    busRunDto.getRoute().getStops() == null ? List.of() : busRunDto.getRoute().getStops());
+        }
+
+        Map<String, Long> busIds = busRepository.getBusScheduleIdsByBusNumbers(busNumbers);
+        if (busIds.size() != busNumbers.size()) {
+            busNumbers.removeAll(busIds.keySet());
+            throw new EntityNotFoundException("BusSchedule not found for busNumbers: " + busNumbers);
+        }
+
+        // Existing routes are reused as they are, only new routes get stops
+        Map<String, Long> routeIds = busRepository.getBusRouteIdsByNames(routes.keySet());
+        List<String> newRoutes = routes.keySet().stream().filter(name -> !routeIds.containsKey(name)).toList();
+        if (!newRoutes.isEmpty()) {
+            busRepository.saveBusRoutes(newRoutes);
+            routeIds.putAll(busRepository.getBusRouteIdsByNames(newRoutes));
+        }
+
+        Map<Long, List<RouteStopDto>> stopsByRouteId = new LinkedHashMap<>();
+        newRoutes.forEach(name -> stopsByRouteId.put(routeIds.get(name), routes.get(name)));
+        int[] created = saveRouteStops(stopsByRouteId);
+
+        List<BusRun> busRuns = new ArrayList<>(busRunDtos.size());
+        for (BusRunDto busRunDto : busRunDtos) {
+            BusSchedule bus = new BusSchedule();
+            bus.setId(busIds.get(busRunDto.getBusNumber()));
+            busRuns.add(new BusRun(bus, new BusRoute(routeIds.get(busRunDto.getRoute().getRouteName())),
+                    busRunDto.getStartTime(), busRunDto.getScheduleType()));
+        }
+        busRepository.saveBusRuns(busRuns);
+
+        publishBusDataChanged("importBusTimetable", busIds.keySet(), newRoutes);
+        return new BusTimetableImportResultDto(created[0], newRoutes.size(), created[1], busRuns.size());
+    }
+
+    /**
+     * Inserts the stops of every route with a constant number of round trips: one {@code IN} query resolving all location
+     * names, one batch inserting the missing locations (plus one query reading their ids) and one batch inserting the stops.
+     * @param stopsByRouteId stops keyed by the id of an existing route
+     * @return number of locations created and number of stops inserted
+     */
+    private int[] saveRouteStops(Map<Long, List<RouteStopDto>> stopsByRouteId) {
+        Set<String> locationNames = new LinkedHashSet<>();
+        stopsByRouteId.values().forEach(stops -> stops.forEach(stop -> locationNames.add(stop.getLocationName())));
+        if (locationNames.contains(null)) {
+            throw new IllegalArgumentException("Every route stop needs a location name");
+        }
+
+        Map<String, Long> locationIds = busRepository.getBusLocationIdsByNames(locationNames);
+        List<String> newLocations = locationNames.stream().filter(name -> !locationIds.containsKey(name)).toList();
+        if (!newLocations.isEmpty()) {
+            busRepository.saveBusLocations(newLocations);
+            locationIds.putAll(busRepository.getBusLocationIdsByNames(newLocations));
+        }
+
+        List<RouteStop> routeStops = new ArrayList<>();
+        stopsByRouteId.forEach((routeId, stops) -> {
+            for (RouteStopDto stopDto : stops) {
+                RouteStop stop = routeStopDtoMapper.toEntity(stopDto);
+                stop.setRoute(new BusRoute(routeId));
+                stop.setLocation(new BusLocation(locationIds.get(stopDto.getLocationName())));
+                routeStops.add(stop);
+            }
+        });
+        if (!routeStops.isEmpty()) {
+            busRepository.saveRouteStops(routeStops);
+        }
+        return new int[]{newLocations.size(), routeStops.size()};
     }
 
     @Override
@@ -324,6 +514,7 @@ public class BusServiceImpl implements BusService {
 
         // Save the updated bus run
         busRepository.saveBusRunWithRoute(existingBusRun);
+        publishBusDataChanged("updateBusRunWithRouteName", List.of(busRunDto.getBusNumber()), List.of(busRunDto.getRoute().getRouteName()));
 
         // Ensure stops are loaded before mapping to DTO
         Hibernate.initialize(existingBusRun.getRoute().getStops());
@@ -331,6 +522,84 @@ public class BusServiceImpl implements BusService {
         return busRunDtoMapper.toDto(existingBusRun);
     }
 
+    // Change feed
 
+    @Override
+    public long getBusVersion() {
+        return busRepository.getBusVersion();
+    }
 
+    @Override
+    public BusChangesDto getBusChanges(long since) {
+        long version = busRepository.getBusVersion();
+        if (since == version) {
+            return new BusChangesDto(version, false, List.of(), List.of(), List.of(), List.of());
+        }
+        if (since > version) {
+            // Client is ahead of the server, e.g. after a database restore
+            return new BusChangesDto(version, true, List.of(), List.of(), List.of(), List.of());
+        }
+
+        Set<String> busNumbers = new LinkedHashSet<>();
+        Set<String> routeNames = new LinkedHashSet<>();
+        for (BusChange change : busRepository.getBusChangesSince(since)) {
+            if (change.getVersion() > version) {
+                // Committed after the version was read, picked up by the next sync
+                break;
+            }
+            if (change.getBusNumber() == null && change.getRouteName() == null) {
+                return new BusChangesDto(version, true, List.of(), List.of(), List.of(), List.of());
+            }
+            if (change.getBusNumber() != null) {
+                busNumbers.add(change.getBusNumber());
+            }
+            if (change.getRouteName() != null) {
+                routeNames.add(change.getRouteName());
+            }
+        }
+
+        List<BusRunDto> runs = busRepository.getBusRunsByBusNumbers(busNumbers).stream()
+                .map(busRunDtoMapper::toDto)
+                .toList();
+        List<BusRouteDto> routes = busRepository.getBusRoutesByNames(routeNames).stream()
+                .map(busRouteDtoMapper::toDto)
+                .toList();
+
+        Set<String> removedBusNumbers = new LinkedHashSet<>(busNumbers);
+        removedBusNumbers.removeAll(busRepository.getBusScheduleIdsByBusNumbers(busNumbers).keySet());
+        Set<String> removedRouteNames = new LinkedHashSet<>(routeNames);
+        routes.forEach(route -> removedRouteNames.remove(route.getRouteName()));
+
+        return new BusChangesDto(version, false, runs, routes, List.copyOf(removedBusNumbers), List.copyOf(removedRouteNames));
+    }
+
+    // Departures board
+
+    @Override
+    public List<BusDepartureDto> getDepartureBoard(String locationName, ScheduleType scheduleType, LocalTime from, Duration window, int limit) {
+        int start = from.toSecondOfDay();
+        long end = start + window.toSeconds(); // exclusive
+        if (end <= start) {
+            return List.of();
+        }
+        if (end <= SECONDS_PER_DAY) {
+            return busRepository.getBusDepartures(locationName, scheduleType, from, LocalTime.ofSecondOfDay(end - 1), limit);
+        }
+        // Window passes midnight, continue with the early morning departures
+        List<BusDepartureDto> departures = new ArrayList<>(busRepository.getBusDepartures(
+                locationName, scheduleType, from, LocalTime.ofSecondOfDay(SECONDS_PER_DAY - 1), limit));
+        long wrappedEnd = Math.min(end - SECONDS_PER_DAY, start);
+        if (departures.size() < limit && wrappedEnd > 0) {
+            departures.addAll(busRepository.getBusDepartures(
+                    locationName, scheduleType, LocalTime.MIDNIGHT, LocalTime.ofSecondOfDay(wrappedEnd - 1), limit - departures.size()));
+        }
+        return departures;
+    }
+
+    // Timetable
+
+    @Override
+    public List<BusDepartureDto> getNextDepartures(String locationName, ScheduleType scheduleType, LocalTime after, int limit) {
+        return busTimetableIndex.getNextDepartures(locationName, scheduleType, after, limit);
+    }
 }
\ No newline at end of file
@@ -1,5 +1,7 @@
 package in.ac.iitj.instiapp.services.impl;
 
+import in.ac.iitj.instiapp.payload.common.CursorPage;
+import in.ac.iitj.instiapp.Utils.PageCursor;
 import in.ac.iitj.instiapp.Repository.GrievanceRepository;
 import in.ac.iitj.instiapp.Repository.MediaRepository;
 import in.ac.iitj.instiapp.Repository.OrganisationRoleRepository;
@@ -17,7 +19,6 @@ import in.ac.iitj.instiapp.services.GrievanceService;
 import in.ac.iitj.instiapp.mappers.GrievanceDtoMapper;
 
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -92,8 +93,8 @@ public class GrievanceServiceImpl implements GrievanceService {
     }
 
     @Override
-    public List<GrievanceDto> getGrievancesByFilter(Optional<String> title, Optional<String> description, Optional<String> organisationName, Optional<Boolean> resolved, Pageable pageable){
-        return grievanceRepository.getGrievancesByFilter(title, description, organisationName, resolved, pageable);
+    public CursorPage<GrievanceDto> getGrievancesByFilter(Optional<String> title, Optional<String> description, Optional<String> organisationName, Optional<Boolean> resolved, PageCursor cursor){
+        return grievanceRepository.getGrievancesByFilter(title, description, organisationName, resolved, cursor);
     }
 
     @Transactional
@@ -0,0 +1,283 @@
+package in.ac.iitj.instiapp.services.impl;
+
+import in.ac.iitj.instiapp.Repository.BusRepository;
+import in.ac.iitj.instiapp.database.entities.Scheduling.Buses.ScheduleType;
+import in.ac.iitj.instiapp.payload.Scheduling.Buses.BusTimetableRowDto;
+import in.ac.iitj.instiapp.payload.Scheduling.Buses.JourneyDto;
+import in.ac.iitj.instiapp.payload.Scheduling.Buses.JourneyLegDto;
+import in.ac.iitj.instiapp.services.JourneyPlannerService;
+import in.ac.iitj.instiapp.services.Scheduling.Buses.BusDataChangedEvent;
+import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.sql.Time;
+import java.time.LocalTime;
+import java.util.*;
+
+/**
+ * Connection scan over a time-expanded graph of the bus network.
+ * <p>
+ * Every pair of consecutive stops of a run is one connection (departure stop and time, arrival stop and time, run).
+ * Connections of each {@link ScheduleType} are stored column-wise in parallel {@code int[]} arrays sorted by departure,
+ * a query binary searches the first connection at or after {@code after} and scans forward once, relaxing the earliest
+ * arrival of every stop. A run can be ridden on once it has been boarded, so transfers fall out of the scan.
+ * <p>
+ * Stop times follow {@link in.ac.iitj.instiapp.services.Scheduling.Buses.BusTimetableIndex}: a stop of a run is at
+ * {@code run.startTime + (stop time - firstStop.departureTime)}. The graph is rebuilt after every committed {@link BusDataChangedEvent}.
+ */
+@Service
+public class JourneyPlannerServiceImpl implements JourneyPlannerService {
+
+    private static final org.slf4j.Logger log = org.slf4j.LoggerFactory.getLogger(JourneyPlannerServiceImpl.class);
+    private static final int SECONDS_PER_DAY = 24 * 60 * 60;
+    private static final int UNREACHED = Integer.MAX_VALUE;
+
+    private final BusRepository busRepository;
+    private volatile Graph graph;
+
+    public JourneyPlannerServiceImpl(BusRepository busRepository) {
+        this.busRepository = busRepository;
+    }
+
+    @Override
+    public JourneyDto planJourney(String fromLocation, String toLocation, LocalTime after, ScheduleType scheduleType) {
+        Graph current = current();
+        Integer from = current.locationIndex.get(fromLocation);
+        Integer to = current.locationIndex.get(toLocation);
+        if (from == null || to == null) {
+            throw new EmptyResultDataAccessException("No bus stops at location " + (from == null ? fromLocation : toLocation), 1);
+        }
+        int start = after.toSecondOfDay();
+        if (from.equals(to)) {
+            return new JourneyDto(fromLocation, toLocation, toTime(start), toTime(start), 0, List.of());
+        }
+
+        Connections connections = current.connections[scheduleType.ordinal()];
+        int[] earliest = new int[current.locationNames.length];
+        int[] enterConnection = new int[current.locationNames.length];
+        int[] exitConnection = new int[current.locationNames.length];
+        int[] boardedAt = new int[current.runBusNumber.length];
+        Arrays.fill(earliest, UNREACHED);
+        Arrays.fill(boardedAt, -1);
+        earliest[from] = start;
+
+        for (int c = lowerBound(connections.departure, start); c < connections.size; c++) {
+            if (connections.departure[c] > earliest[to]) {
+                break;
+            }
+            int run = connections.run[c];
+            if (boardedAt[run] < 0 && earliest[connections.fromStop[c]] <= connections.departure[c]) {
+                boardedAt[run] = c;
+            }
+            if (boardedAt[run] >= 0 && connections.arrival[c] < earliest[connections.toStop[c]]) {
+                earliest[connections.toStop[c]] = connections.arrival[c];
+                enterConnection[connections.toStop[c]] = boardedAt[run];
+                exitConnection[connections.toStop[c]] = c;
+            }
+        }
+        if (earliest[to] == UNREACHED) {
+            return null;
+        }
+
+        LinkedList<JourneyLegDto> legs = new LinkedList<>();
+        for (int stop = to; stop != from; ) {
+            int enter = enterConnection[stop];
+            int exit = exitConnection[stop];
+            int run = connections.run[enter];
+            legs.addFirst(new JourneyLegDto(
+                    current.runBusNumber[run],
+                    current.runRouteName[run],
+                    current.locationNames[connections.fromStop[enter]],
+                    current.locationNames[connections.toStop[exit]],
+                    toTime(connections.departure[enter]),
+                    toTime(connections.arrival[exit])
+            ));
+            stop = connections.fromStop[enter];
+        }
+        return new JourneyDto(fromLocation, toLocation, legs.getFirst().getDepartureTime(), toTime(earliest[to]),
+                legs.size() - 1, List.copyOf(legs));
+    }
+
+    @Override
+    public synchronized void rebuild() {
+        List<BusTimetableRowDto> rows = busRepository.getTimetableRows();
+        graph = Graph.build(rows);
+        log.info("Rebuilt journey planner graph from {} stop departures", rows.size());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBusDataChanged(BusDataChangedEvent event) {
+        log.debug("Bus data changed by {}, rebuilding journey planner graph", event.getOperation());
+        rebuild();
+    }
+
+    private Graph current() {
+        Graph current = graph;
+        if (current == null) {
+            synchronized (this) {
+                if (graph == null) {
+                    rebuild();
+                }
+                current = graph;
+            }
+        }
+        return current;
+    }
+
+    /**
+     * @return index of the first element {@code >= key}, or {@code values.length} if there is none
+     */
+    private static int lowerBound(int[] values, int key) {
+        int low = 0, high = values.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (values[mid] < key) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static int toSeconds(Time time) {
+        return time.toLocalTime().toSecondOfDay();
+    }
+
+    private static Time toTime(int seconds) {
+        return Time.valueOf(LocalTime.ofSecondOfDay(Math.floorMod(seconds, SECONDS_PER_DAY)));
+    }
+
+
+    /**
+     * Connections of one schedule type, parallel arrays sorted by departure
+     */
+    private static final class Connections {
+        final int size;
+        final int[] departure;
+        final int[] arrival;
+        final int[] fromStop;
+        final int[] toStop;
+        final int[] run;
+
+        Connections(int[] departure, int[] arrival, int[] fromStop, int[] toStop, int[] run) {
+            this.size = departure.length;
+            this.departure = departure;
+            this.arrival = arrival;
+            this.fromStop = fromStop;
+            this.toStop = toStop;
+            this.run = run;
+        }
+
+        static Connections sorted(IntList departure, IntList arrival, IntList fromStop, IntList toStop, IntList run) {
+            long[] order = new long[departure.size];
+            for (int i = 0; i < order.length; i++) {
+                order[i] = ((long) departure.values[i] << 32) | i;
+            }
+            Arrays.sort(order);
+            int[][] columns = new int[5][order.length];
+            for (int i = 0; i < order.length; i++) {
+                int source = (int) order[i];
+                columns[0][i] = departure.values[source];
+                columns[1][i] = arrival.values[source];
+                columns[2][i] = fromStop.values[source];
+                columns[3][i] = toStop.values[source];
+                columns[4][i] = run.values[source];
+            }
+            return new Connections(columns[0], columns[1], columns[2], columns[3], columns[4]);
+        }
+    }
+
+    private static final class Graph {
+        final Map<String, Integer> locationIndex;
+        final String[] locationNames;
+        final String[] runBusNumber;
+        final String[] runRouteName;
+        final Connections[] connections;
+
+        private Graph(Map<String, Integer> locationIndex, String[] locationNames, String[] runBusNumber,
+                      String[] runRouteName, Connections[] connections) {
+            this.locationIndex = locationIndex;
+            this.locationNames = locationNames;
+            this.runBusNumber = runBusNumber;
+            this.runRouteName = runRouteName;
+            this.connections = connections;
+        }
+
+        /**
+         * @param rows ordered by run id and stop order, as returned by {@link BusRepository#getTimetableRows()}
+         */
+        static Graph build(List<BusTimetableRowDto> rows) {
+            Map<String, Integer> locationIndex = new HashMap<>();
+            List<String> locationNames = new ArrayList<>();
+            List<String> runBusNumber = new ArrayList<>();
+            List<String> runRouteName = new ArrayList<>();
+
+            int types = ScheduleType.values().length;
+            IntList[] departure = new IntList[types], arrival = new IntList[types], fromStop = new IntList[types],
+                    toStop = new IntList[types], run = new IntList[types];
+            for (int t = 0; t < types; t++) {
+                departure[t] = new IntList();
+                arrival[t] = new IntList();
+                fromStop[t] = new IntList();
+                toStop[t] = new IntList();
+                run[t] = new IntList();
+            }
+
+            BusTimetableRowDto previous = null;
+            int offset = 0;
+            for (BusTimetableRowDto row : rows) {
+                // A run without stops connects nothing
+                if (row.getScheduleType() == null || row.getStopOrder() == null) {
+                    continue;
+                }
+                int location = locationIndex.computeIfAbsent(row.getLocationName(), name -> {
+                    locationNames.add(name);
+                    return locationNames.size() - 1;
+                });
+                if (previous == null || !previous.getRunId().equals(row.getRunId())) {
+                    runBusNumber.add(row.getBusNumber());
+                    runRouteName.add(row.getRouteName());
+                    // first row of a run is its first stop
+                    offset = toSeconds(row.getStartTime()) - toSeconds(row.getDepartureTime());
+                } else {
+                    int t = row.getScheduleType().ordinal();
+                    departure[t].add(toSeconds(previous.getDepartureTime()) + offset);
+                    arrival[t].add(toSeconds(row.getArrivalTime()) + offset);
+                    fromStop[t].add(locationIndex.get(previous.getLocationName()));
+                    toStop[t].add(location);
+                    run[t].add(runBusNumber.size() - 1);
+                }
+                previous = row;
+            }
+
+            Connections[] connections = new Connections[types];
+            for (int t = 0; t < types; t++) {
+                connections[t] = Connections.sorted(departure[t], arrival[t], fromStop[t], toStop[t], run[t]);
+            }
+            return new Graph(
+                    Collections.unmodifiableMap(locationIndex),
+                    locationNames.toArray(new String[0]),
+                    runBusNumber.toArray(new String[0]),
+                    runRouteName.toArray(new String[0]),
+                    connections
+            );
+        }
+    }
+
+    /**
+     * Growable int array, avoids boxing while the graph is built
+     */
+    private static final class IntList {
+        int[] values = new int[64];
+        int size;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+    }
+}
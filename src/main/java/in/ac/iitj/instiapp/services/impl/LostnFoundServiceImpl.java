@@ -1,21 +1,25 @@
 package in.ac.iitj.instiapp.services.impl;
 
+import in.ac.iitj.instiapp.payload.common.CursorPage;
+import in.ac.iitj.instiapp.Utils.PageCursor;
+import in.ac.iitj.instiapp.Utils.RankCursor;
 import in.ac.iitj.instiapp.Repository.LostnFoundRepository;
-import in.ac.iitj.instiapp.Repository.MediaRepository;
-import in.ac.iitj.instiapp.Repository.UserRepository;
 import in.ac.iitj.instiapp.Repository.impl.BusRepositoryImpl;
 import in.ac.iitj.instiapp.database.entities.LostnFound.Locations;
-import in.ac.iitj.instiapp.database.entities.LostnFound.LostnFound;
 import in.ac.iitj.instiapp.database.entities.LostnFound.LostnFoundType;
-import in.ac.iitj.instiapp.database.entities.Media.Media;
-import in.ac.iitj.instiapp.database.entities.User.User;
 import in.ac.iitj.instiapp.mappers.LostnFoundDtoMapper;
 import in.ac.iitj.instiapp.payload.LostnFound.LostnFoundDto;
+import in.ac.iitj.instiapp.payload.LostnFound.LostnFoundMatchDto;
+import in.ac.iitj.instiapp.payload.LostnFound.LostnFoundSearchRowDto;
 import in.ac.iitj.instiapp.services.LostnFoundService;
-import jakarta.persistence.EntityManager;
+import in.ac.iitj.instiapp.services.LostnFound.LostnFoundChangedEvent;
+import in.ac.iitj.instiapp.services.LostnFound.LostnFoundListCache;
+import in.ac.iitj.instiapp.services.LostnFound.LostnFoundMatcher;
+import in.ac.iitj.instiapp.services.LostnFound.LostnFoundSearchIndex;
 import jakarta.transaction.Transactional;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.EmptyResultDataAccessException;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 
@@ -27,17 +31,20 @@ import java.util.concurrent.atomic.AtomicMarkableReference;
 public class LostnFoundServiceImpl implements LostnFoundService {
 
     private final LostnFoundRepository lostnFoundRepository;
-    private final UserRepository userRepository;
-    private final MediaRepository mediaRepository;
-    private final EntityManager entityManager;
+    private final LostnFoundSearchIndex lostnFoundSearchIndex;
+    private final LostnFoundMatcher lostnFoundMatcher;
+    private final LostnFoundListCache lostnFoundListCache;
+    private final ApplicationEventPublisher eventPublisher;
     private static final org.slf4j.Logger log = org.slf4j.LoggerFactory.getLogger(LostnFoundServiceImpl.class);
 
     @Autowired
-    public LostnFoundServiceImpl(LostnFoundRepository lostnFoundRepository, EntityManager entityManager, UserRepository userRepository, MediaRepository mediaRepository) {
+    public LostnFoundServiceImpl(LostnFoundRepository lostnFoundRepository, LostnFoundSearchIndex lostnFoundSearchIndex, LostnFoundMatcher lostnFoundMatcher,
+                                 LostnFoundListCache lostnFoundListCache, ApplicationEventPublisher eventPublisher) {
         this.lostnFoundRepository = lostnFoundRepository;
-        this.userRepository = userRepository;
-        this.mediaRepository = mediaRepository;
-        this.entityManager = entityManager;
+        this.lostnFoundSearchIndex = lostnFoundSearchIndex;
+        this.lostnFoundMatcher = lostnFoundMatcher;
+        this.lostnFoundListCache = lostnFoundListCache;
+        this.eventPublisher = eventPublisher;
     }
 
     @Override
@@ -54,7 +61,11 @@ public class LostnFoundServiceImpl implements LostnFoundService {
     @Override
     @Transactional
     public void deleteLocationByName(String locationName) {
+        List<LostnFoundSearchRowDto> atLocation = lostnFoundRepository.getSearchRowsByLandmark(locationName);
         lostnFoundRepository.deleteLocationByName(locationName);
+        // The items stay, without a landmark
+        List<LostnFoundSearchRowDto> changed = atLocation.stream().map(row -> row.withLandmarkName(null)).toList();
+        eventPublisher.publishEvent(new LostnFoundChangedEvent("deleteLocationByName", changed, List.of()));
     }
 
     @Override
@@ -63,137 +74,51 @@ public class LostnFoundServiceImpl implements LostnFoundService {
         Locations location = new Locations();
         location.setName(newLocationName);
         lostnFoundRepository.updateLocation(oldLocationName, location);
+        List<LostnFoundSearchRowDto> changed = lostnFoundRepository.getSearchRowsByLandmark(newLocationName);
+        eventPublisher.publishEvent(new LostnFoundChangedEvent("updateLocation", changed, List.of()));
     }
 
     @Override
     @Transactional
     public void saveLostAndFound(LostnFoundDto lostnFoundDto) {
-        LostnFound lostnFound = new LostnFound();
-
-        lostnFound.setPublicId(lostnFoundDto.getPublicId());
-        lostnFound.setExtraInfo(lostnFoundDto.getExtraInfo());
-        lostnFound.setStatus(lostnFoundDto.getStatus());
-        lostnFound.setType(lostnFoundDto.getType());
-
-
-        // Set managed User (finder)
-        if (lostnFoundDto.getFinder() != null && lostnFoundDto.getFinder().getUserName() != null) {
-            Long finderId = userRepository.getUserIdFromUsername(lostnFoundDto.getFinder().getUserName());
-            User finder = entityManager.getReference(User.class, finderId);
-            lostnFound.setFinder(finder);
-        } else {
-            lostnFound.setFinder(null);
-        }
-
-        // Set managed User (owner)
-        if (lostnFoundDto.getOwner() != null && lostnFoundDto.getOwner().getUserName() != null) {
-            Long ownerId = userRepository.getUserIdFromUsername(lostnFoundDto.getOwner().getUserName());
-            User owner = entityManager.getReference(User.class, ownerId);
-            lostnFound.setOwner(owner);
-        } else {
-            lostnFound.setOwner(null);
-        }
-
-        log.info("Looking for location: " + lostnFoundDto.getLandmarkName());
-
-        // Set managed Locations (landmark)
-        if (lostnFoundDto.getLandmarkName() != null) {
-            Long landmarkId = lostnFoundRepository.existLocation(lostnFoundDto.getLandmarkName());
-            if (landmarkId != -1) {
-                Locations landmark = entityManager.getReference(Locations.class, landmarkId);
-                lostnFound.setLandmark(landmark);
-            } else {
-                throw new DataIntegrityViolationException("Location with name '" + lostnFoundDto.getLandmarkName() + "' does not exist.");
-            }
-        } else {
-            lostnFound.setLandmark(null);
-        }
-
-        // Set managed Media (if present)
-        if (lostnFoundDto.getMedia() != null && lostnFoundDto.getMedia().getPublicId() != null) {
-            Long mediaId = mediaRepository.getIdByPublicId(lostnFoundDto.getMedia().getPublicId());
-            if (mediaId != null) {
-                Media media = entityManager.getReference(Media.class, mediaId);
-                lostnFound.setMedia(media);
-            } else {
-                throw new DataIntegrityViolationException("Media with publicId '" + lostnFoundDto.getMedia().getPublicId() + "' does not exist.");
-            }
-        } else {
-            lostnFound.setMedia(null);
-        }
-
-        // Persist the fully prepared entity
-        lostnFoundRepository.saveLostnFoundDetails(lostnFound);
+        // Finder, owner, landmark and media are resolved by the insert itself
+        lostnFoundRepository.saveLostnFound(lostnFoundDto);
+        publishItemChanged("saveLostAndFound", lostnFoundDto.getPublicId());
     }
 
     @Override
     @Transactional
     public void updateLostAndFound(LostnFoundDto lostnFoundDto) {
-
-        LostnFound lostnFound = new LostnFound();
-
-        lostnFound.setPublicId(lostnFoundDto.getPublicId());
-        lostnFound.setExtraInfo(lostnFoundDto.getExtraInfo());
-        lostnFound.setStatus(lostnFoundDto.getStatus());
-
-
-        // Set managed User (finder)
-        if (lostnFoundDto.getFinder() != null && lostnFoundDto.getFinder().getUserName() != null) {
-            Long finderId = userRepository.getUserIdFromUsername(lostnFoundDto.getFinder().getUserName());
-            User finder = entityManager.getReference(User.class, finderId);
-            lostnFound.setFinder(finder);
-        } else {
-            lostnFound.setFinder(null);
-        }
-
-        // Set managed User (owner)
-        if (lostnFoundDto.getOwner() != null && lostnFoundDto.getOwner().getUserName() != null) {
-            Long ownerId = userRepository.getUserIdFromUsername(lostnFoundDto.getOwner().getUserName());
-            User owner = entityManager.getReference(User.class, ownerId);
-            lostnFound.setOwner(owner);
-        } else {
-            lostnFound.setOwner(null);
-        }
-
-        // Set managed Locations (landmark)
-        if (lostnFoundDto.getLandmarkName() != null) {
-            Long landmarkId = lostnFoundRepository.existLocation(lostnFoundDto.getLandmarkName());
-            if (landmarkId != -1) {
-                Locations landmark = entityManager.getReference(Locations.class, landmarkId);
-                lostnFound.setLandmark(landmark);
-            } else {
-                throw new DataIntegrityViolationException("Location with name '" + lostnFoundDto.getLandmarkName() + "' does not exist.");
-            }
-        } else {
-            lostnFound.setLandmark(null);
-        }
-
-        // Set managed Media (if present)
-        if (lostnFoundDto.getMedia() != null && lostnFoundDto.getMedia().getPublicId() != null) {
-            Long mediaId = mediaRepository.getIdByPublicId(lostnFoundDto.getMedia().getPublicId());
-            if (mediaId != null) {
-                Media media = entityManager.getReference(Media.class, mediaId);
-                lostnFound.setMedia(media);
-            } else {
-                throw new DataIntegrityViolationException("Media with publicId '" + lostnFoundDto.getMedia().getPublicId() + "' does not exist.");
-            }
-        } else {
-            lostnFound.setMedia(null);
-        }
-
-        //LostnFound lostnFound = LostnFoundDtoMapper.INSTANCE.toEntity(lostnFoundDto);
-        lostnFoundRepository.updateLostnFound(lostnFound , lostnFound.getPublicId());
+        lostnFoundRepository.updateLostnFound(lostnFoundDto);
+        publishItemChanged("updateLostAndFound", lostnFoundDto.getPublicId());
     }
 
     @Override
     @Transactional
     public void deleteLostAndFound(String publicId) {
         lostnFoundRepository.deleteLostnFound(publicId);
+        eventPublisher.publishEvent(new LostnFoundChangedEvent("deleteLostAndFound", List.of(), List.of(publicId)));
+    }
+
+    @Override
+    public CursorPage<LostnFoundDto> getLostAndFoundByFilter(LostnFoundType type, Optional<Boolean> status, Optional<String> owner, Optional<String> finder, Optional<String> landmark, boolean includeArchived, PageCursor cursor) {
+        if (includeArchived) {
+            return lostnFoundRepository.getLostnFoundByFilter(type, status, owner, finder, landmark, true, cursor);
+        }
+        return lostnFoundListCache.getLostnFoundByFilter(type, status, owner, finder, landmark, cursor);
+    }
+
+    @Override
+    public CursorPage<LostnFoundDto> searchLostAndFound(String query, Optional<LostnFoundType> type, Optional<Boolean> status, RankCursor cursor) {
+        return lostnFoundSearchIndex.search(query, type, status, cursor);
     }
 
     @Override
-    public List<LostnFoundDto> getLostAndFoundByFilter(LostnFoundType type, Optional<Boolean> status, Optional<String> owner, Optional<String> finder, Optional<String> landmark, Pageable pageable) {
-        return lostnFoundRepository.getLostnFoundByFilter(type, status, owner, finder, landmark, pageable);
+    public List<LostnFoundMatchDto> getMatchSuggestions(String publicId) {
+        if (lostnFoundRepository.exsitLostnFound(publicId) == -1L) {
+            throw new EmptyResultDataAccessException("Lost and Found item not found: " + publicId, 1);
+        }
+        return lostnFoundMatcher.suggestions(publicId);
     }
 
     public boolean isOwner(String userName, String publicId){
@@ -206,4 +131,12 @@ public class LostnFoundServiceImpl implements LostnFoundService {
     public LostnFoundType findTypeByPublicId(String publicId){
         return lostnFoundRepository.findTypeByPublicId(publicId);
     }
+
+    /**
+     * Publishes the item as this transaction left it, loaded once for every listener
+     */
+    private void publishItemChanged(String operation, String publicId) {
+        List<LostnFoundSearchRowDto> changed = lostnFoundRepository.getSearchRow(publicId).stream().toList();
+        eventPublisher.publishEvent(new LostnFoundChangedEvent(operation, changed, List.of()));
+    }
 }
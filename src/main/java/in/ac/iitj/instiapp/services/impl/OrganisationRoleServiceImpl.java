@@ -3,6 +3,7 @@ package in.ac.iitj.instiapp.services.impl;
 import in.ac.iitj.instiapp.Repository.User.Organisation.OrganisationRepository;
 import in.ac.iitj.instiapp.Repository.User.Organisation.OrganisationRoleRepository;
 import in.ac.iitj.instiapp.Repository.UserRepository;
+import in.ac.iitj.instiapp.authfiles.AuthorizationSnapshotCache;
 import in.ac.iitj.instiapp.database.entities.User.Organisation.Organisation;
 import in.ac.iitj.instiapp.database.entities.User.Organisation.OrganisationRole;
 import in.ac.iitj.instiapp.payload.User.Organisation.OrganisationRoleDto;
@@ -25,16 +26,19 @@ public class OrganisationRoleServiceImpl implements OrganisationRoleService {
     private final OrganisationRepository organisationRepository;
     private final UserRepository userRepository;
     private final EntityManager entityManager;
+    private final AuthorizationSnapshotCache authorizationSnapshotCache;
 
     @Autowired
     public OrganisationRoleServiceImpl(OrganisationRoleRepository organisationRoleRepository,
                                        OrganisationRepository organisationRepository,
                                        UserRepository userRepository,
-                                       EntityManager entityManager) {
+                                       EntityManager entityManager,
+                                       AuthorizationSnapshotCache authorizationSnapshotCache) {
         this.organisationRoleRepository = organisationRoleRepository;
         this.organisationRepository = organisationRepository;
         this.userRepository = userRepository;
         this.entityManager = entityManager;
+        this.authorizationSnapshotCache = authorizationSnapshotCache;
     }
 
     @Override
@@ -86,12 +90,15 @@ public class OrganisationRoleServiceImpl implements OrganisationRoleService {
         OrganisationRole newRole = convertDtoToEntity(newOrganisationRoleDto, organisationId);
 
         organisationRoleRepository.updateOrganisationRole(oldRole, newRole);
+        // The permission may have changed for every member of the role
+        authorizationSnapshotCache.evictOrganisation(organisationUsername);
     }
 
     @Override
     @Transactional
     public void deleteOrganisationRole(String organisationUsername, String roleName, String deletedRoleName) {
         organisationRoleRepository.deleteOrganisationRole(roleName, organisationUsername, deletedRoleName);
+        authorizationSnapshotCache.evictOrganisation(organisationUsername);
     }
 
     @Override
@@ -104,6 +111,7 @@ public class OrganisationRoleServiceImpl implements OrganisationRoleService {
         }
 
         organisationRoleRepository.insertIntoOrganisationRole(organisationUsername, roleName, userId);
+        authorizationSnapshotCache.evictUser(userUsername);
     }
 
     @Override
@@ -132,6 +140,7 @@ public class OrganisationRoleServiceImpl implements OrganisationRoleService {
         }
 
         organisationRoleRepository.removePersonFromOrganisationRole(organisationId, roleName, userId);
+        authorizationSnapshotCache.evictUser(userUsername);
     }
 
     /*--------------------------------------------------------HELPER METHODS---------------------------------------------------*/
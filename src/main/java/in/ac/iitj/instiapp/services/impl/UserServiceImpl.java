@@ -1,5 +1,7 @@
 package in.ac.iitj.instiapp.services.impl;
 
+import in.ac.iitj.instiapp.payload.common.CursorPage;
+import in.ac.iitj.instiapp.Utils.PageCursor;
 import in.ac.iitj.instiapp.Repository.CalendarRepository;
 import jakarta.persistence.EntityManager;
 import in.ac.iitj.instiapp.Repository.OAuth2TokenRepository;
@@ -10,6 +12,7 @@ import in.ac.iitj.instiapp.database.entities.User.User;
 import in.ac.iitj.instiapp.database.entities.User.Usertype;
 import in.ac.iitj.instiapp.mappers.User.UserBaseDtoMapper;
 import in.ac.iitj.instiapp.mappers.User.UserDetailedDtoMapper;
+import in.ac.iitj.instiapp.payload.Auth.OAuth2LoginUserDto;
 import in.ac.iitj.instiapp.payload.Auth.SignupDto;
 import in.ac.iitj.instiapp.payload.User.Organisation.OrganisationRoleDto;
 import in.ac.iitj.instiapp.payload.User.UserBaseDto;
@@ -25,14 +28,17 @@ import org.springframework.dao.EmptyResultDataAccessException;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Async;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.*;
-import java.util.concurrent.ThreadLocalRandom;
 
 @Slf4j
 @Service
@@ -117,14 +123,25 @@ public class UserServiceImpl implements UserService {
                 email.substring(0, email.indexOf('@'))
         ).toLowerCase().replaceAll("[^a-z0-9.]", "");
 
-        String username;
-        do {
-            int suffix = ThreadLocalRandom.current().nextInt(1000, 10000);
-            username = base + suffix;
-        }  while (userRepository.usernameExists(username) > -1L);
-            // Check for uniqueness in DB
+        // Suffix from the email instead of random digits, no lookups are needed to find a free username
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(email.toLowerCase().getBytes(StandardCharsets.UTF_8));
+            return base + "." + HexFormat.of().formatHex(digest, 0, 4);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
 
-        return username;
+    @Override
+    public OAuth2LoginUserDto getOrCreateOauth2User(String email, String firstName, String lastName) {
+        validationUtil.validateEmail(email);
+        return userRepository.getOrCreateOauth2User(
+                email,
+                firstName,
+                createUsername(firstName, lastName == null ? "" : lastName, email),
+                UUID.randomUUID().toString(),
+                "Student"
+        );
     }
 
 
@@ -166,8 +183,8 @@ public class UserServiceImpl implements UserService {
         return userDetailedDto;
     }
 
-    public List<UserBaseDto> getListUserLimitedByUsertype(String usertype, Pageable pageable){
-        return userRepository.getListUserLimitedByUsertype(usertype, pageable);
+    public CursorPage<UserBaseDto> getListUserLimitedByUsertype(String usertype, PageCursor cursor){
+        return userRepository.getListUserLimitedByUsertype(usertype, cursor);
     }
 
     public Optional<OrganisationRoleDto> getOrganisationPermission(String username, String organisationUsername){
@@ -191,6 +208,17 @@ public class UserServiceImpl implements UserService {
         userRepository.updateOauth2Info(newName, avatarURL, userName);
     }
 
+    @Async
+    @Transactional
+    @Override
+    public void syncOauth2ProfileAsync(String newName, String avatarURL, String userName) {
+        try {
+            userRepository.updateOauth2Info(newName, avatarURL, userName);
+        } catch (RuntimeException e) {
+            log.warn("Could not sync OAuth2 profile of {}", userName, e);
+        }
+    }
+
     public void setUserType(String username, String newUserType){
         userRepository.setUserType(username, newUserType);
     }
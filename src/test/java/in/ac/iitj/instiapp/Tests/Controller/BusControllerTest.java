@@ -0,0 +1,86 @@
+package in.ac.iitj.instiapp.Tests.Controller;
+
+import in.ac.iitj.instiapp.controllers.BusController;
+import in.ac.iitj.instiapp.payload.Scheduling.Buses.BusLocationDto;
+import in.ac.iitj.instiapp.services.BusService;
+import in.ac.iitj.instiapp.services.JourneyPlannerService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.http.HttpStatus;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.doThrow;
+
+@ExtendWith(MockitoExtension.class)
+public class BusControllerTest {
+
+    @Mock
+    private BusService busService;
+    @Mock
+    private JourneyPlannerService journeyPlannerService;
+
+    @InjectMocks
+    private BusController busController;
+
+    @Test
+    public void testSaveBusLocationConflict() {
+        BusLocationDto busLocationDto = new BusLocationDto();
+        busLocationDto.setName("MBM");
+        doThrow(new DataIntegrityViolationException("Bus location already exists")).when(busService).saveBusLocation("MBM");
+
+        assertThat(busController.saveBusLocation(busLocationDto).getStatusCode()).isEqualTo(HttpStatus.CONFLICT);
+    }
+
+    @Test
+    public void testUpdateBusLocationNotFoundAndConflict() {
+        doThrow(new EmptyResultDataAccessException(1)).when(busService).updateBusLocation("MBM", "Paota");
+        doThrow(new DataIntegrityViolationException("duplicate")).when(busService).updateBusLocation("Paota", "MBM");
+
+        assertThat(busController.updateBusLocation("MBM", "Paota").getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+        assertThat(busController.updateBusLocation("Paota", "MBM").getStatusCode()).isEqualTo(HttpStatus.CONFLICT);
+    }
+
+    @Test
+    public void testDeleteBusLocationNotFoundAndConflict() {
+        doThrow(new EmptyResultDataAccessException(1)).when(busService).deleteBusLocation("MBM");
+        doThrow(new DataIntegrityViolationException("foreign key")).when(busService).deleteBusLocation("Paota");
+
+        assertThat(busController.deleteBusLocation("MBM").getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+        assertThat(busController.deleteBusLocation("Paota").getStatusCode()).isEqualTo(HttpStatus.CONFLICT);
+    }
+
+    @Test
+    public void testSaveBusScheduleConflict() {
+        doThrow(new DataIntegrityViolationException("Bus Number already exists")).when(busService).saveBusSchedule("B1");
+
+        assertThat(busController.saveBusSchedule("B1").getStatusCode()).isEqualTo(HttpStatus.CONFLICT);
+    }
+
+    @Test
+    public void testUpdateBusScheduleNotFoundAndConflict() {
+        doThrow(new EmptyResultDataAccessException(1)).when(busService).updateBusSchedule("B1", "B2");
+        doThrow(new DataIntegrityViolationException("duplicate")).when(busService).updateBusSchedule("B2", "B1");
+
+        assertThat(busController.updateBusSchedule("B1", "B2").getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+        assertThat(busController.updateBusSchedule("B2", "B1").getStatusCode()).isEqualTo(HttpStatus.CONFLICT);
+    }
+
+    @Test
+    public void testDeleteBusScheduleNotFoundAndConflict() {
+        doThrow(new EmptyResultDataAccessException(1)).when(busService).deleteBusSchedule("B1");
+        doThrow(new DataIntegrityViolationException("foreign key")).when(busService).deleteBusSchedule("B2");
+
+        assertThat(busController.deleteBusSchedule("B1").getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+        assertThat(busController.deleteBusSchedule("B2").getStatusCode()).isEqualTo(HttpStatus.CONFLICT);
+    }
+
+    @Test
+    public void testDeleteBusSchedule() {
+        assertThat(busController.deleteBusSchedule("B1").getStatusCode()).isEqualTo(HttpStatus.OK);
+    }
+}
@@ -0,0 +1,90 @@
+package in.ac.iitj.instiapp.Tests.Controller;
+
+import in.ac.iitj.instiapp.authfiles.RateLimiter;
+import in.ac.iitj.instiapp.config.GoogleOAuth2SuccessHandler;
+import in.ac.iitj.instiapp.config.JwtProvider;
+import in.ac.iitj.instiapp.config.SecurityConfig;
+import in.ac.iitj.instiapp.controllers.BusController;
+import in.ac.iitj.instiapp.services.BusService;
+import in.ac.iitj.instiapp.services.JourneyPlannerService;
+import org.junit.jupiter.api.Test;
+import org.mockito.Answers;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.oauth2.client.registration.ClientRegistrationRepository;
+import org.springframework.test.web.servlet.MockMvc;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(controllers = BusController.class)
+@Import(SecurityConfig.class)
+public class SecurityConfigTest {
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @MockBean
+    BusService busService;
+    @MockBean
+    JourneyPlannerService journeyPlannerService;
+    @MockBean
+    JwtProvider jwtProvider;
+    @MockBean
+    RateLimiter rateLimiter;
+    @MockBean
+    GoogleOAuth2SuccessHandler googleOAuth2SuccessHandler;
+    @MockBean
+    ClientRegistrationRepository clientRegistrationRepository;
+    // InstiappApplication logs the database URL on startup
+    @MockBean(answer = Answers.RETURNS_DEEP_STUBS)
+    DataSource dataSource;
+
+    @Test
+    public void testUnauthenticatedWriteIsRejected() throws Exception {
+        mockMvc.perform(post("/api/bus-schedule").param("busNumber", "B1"))
+                .andExpect(status().isUnauthorized());
+        mockMvc.perform(delete("/api/bus-schedule").param("busNumber", "B1"))
+                .andExpect(status().isUnauthorized());
+
+        verifyNoInteractions(busService);
+    }
+
+    @Test
+    public void testWriteWithInvalidTokenIsRejected() throws Exception {
+        mockMvc.perform(post("/api/bus-schedule").param("busNumber", "B1").header("Authorization", "Bearer invalid"))
+                .andExpect(status().isUnauthorized());
+
+        verifyNoInteractions(busService);
+    }
+
+    @Test
+    public void testAuthenticatedWrite() throws Exception {
+        when(jwtProvider.getAuthentication("token"))
+                .thenReturn(UsernamePasswordAuthenticationToken.authenticated("username", null, List.of()));
+
+        mockMvc.perform(post("/api/bus-schedule").param("busNumber", "B1").header("Authorization", "Bearer token"))
+                .andExpect(status().isCreated());
+
+        verify(busService).saveBusSchedule("B1");
+    }
+
+    @Test
+    public void testUnauthenticatedReadIsAllowed() throws Exception {
+        when(busService.getBusNumbers(any())).thenReturn(null);
+
+        mockMvc.perform(get("/api/bus-numbers"))
+                .andExpect(status().isOk());
+
+        verify(jwtProvider, never()).getAuthentication(anyString());
+    }
+}
@@ -32,7 +32,8 @@ public enum OAuth2TokensTestData {
                 null,
                 this.deviceId,
                 this.accessToken,
-                this.refreshToken
+                this.refreshToken,
+                null
         );
     }
 }
@@ -24,6 +24,6 @@ public enum LostnFoundData {
     }
 
     public LostnFound toEntity() {
-        return new LostnFound(null ,this.publicId , null , null , null ,this.lostnFoundType, this.extraInfo , this.status , null);
+        return new LostnFound(null ,this.publicId , null , null , null ,this.lostnFoundType, this.extraInfo , this.status , null, null);
     }
 }
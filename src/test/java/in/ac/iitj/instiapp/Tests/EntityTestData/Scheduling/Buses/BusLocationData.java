@@ -1,20 +1,20 @@
-//package in.ac.iitj.instiapp.Tests.EntityTestData.Scheduling.Buses;
-//
-//import in.ac.iitj.instiapp.database.entities.Scheduling.Buses.BusLocation;
-//
-//public enum BusLocationData {
-//    BUS_LOCATION1("MBM College"),
-//    BUS_LOCATION2("IIT Jodhpur"),
-//    BUS_LOCATION3("Railway Station"),
-//    BUS_LOCATION4("Paota")
-//    ;
-//
-//
-//    public final String name;
-//    BusLocationData(String name) {
-//        this.name = name;
-//    }
-//    public BusLocation toEntity() {
-//        return new BusLocation(this.name);
-//    }
-//}
+package in.ac.iitj.instiapp.Tests.EntityTestData.Scheduling.Buses;
+
+import in.ac.iitj.instiapp.database.entities.Scheduling.Buses.BusLocation;
+
+public enum BusLocationData {
+    BUS_LOCATION1("MBM College"),
+    BUS_LOCATION2("IIT Jodhpur"),
+    BUS_LOCATION3("Railway Station"),
+    BUS_LOCATION4("Paota")
+    ;
+
+
+    public final String name;
+    BusLocationData(String name) {
+        this.name = name;
+    }
+    public BusLocation toEntity() {
+        return new BusLocation(null, this.name);
+    }
+}
@@ -0,0 +1,89 @@
+package in.ac.iitj.instiapp.Tests.Repository;
+
+import in.ac.iitj.instiapp.Repository.BusRepository;
+import in.ac.iitj.instiapp.Repository.impl.BusRepositoryImpl;
+import in.ac.iitj.instiapp.database.entities.Scheduling.Buses.*;
+import in.ac.iitj.instiapp.mappers.Scheduling.Buses.BusOverrideDtoMapperImpl;
+import in.ac.iitj.instiapp.mappers.Scheduling.Buses.BusRouteDtoMapperImpl;
+import in.ac.iitj.instiapp.mappers.Scheduling.Buses.BusRunDtoMapperImpl;
+import in.ac.iitj.instiapp.mappers.Scheduling.Buses.RouteStopDtoMapperImpl;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Time;
+import java.time.LocalDate;
+
+import static in.ac.iitj.instiapp.Tests.EntityTestData.Scheduling.Buses.BusScheduleData.*;
+
+@DataJpaTest
+@Import({BusRepositoryImpl.class, BusRunDtoMapperImpl.class, BusOverrideDtoMapperImpl.class, BusRouteDtoMapperImpl.class, RouteStopDtoMapperImpl.class})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+public class BusScheduleDeleteTest {
+
+    @Autowired
+    BusRepository busRepository;
+
+    @Autowired
+    TestEntityManager entityManager;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    Long busSchedule1Id;
+    Long busSchedule2Id;
+
+    @BeforeEach
+    public void setUp() {
+        BusRoute route = entityManager.persist(new BusRoute("ROUTE1"));
+        BusSchedule busSchedule1 = entityManager.persist(BUS_SCHEDULE1.toEntity());
+        BusSchedule busSchedule2 = entityManager.persist(BUS_SCHEDULE2.toEntity());
+
+        for (BusSchedule busSchedule : new BusSchedule[]{busSchedule1, busSchedule2}) {
+            entityManager.persist(new BusRun(busSchedule, route, Time.valueOf("08:00:00"), ScheduleType.WEEKDAY));
+            BusOverride busOverride = new BusOverride("OVERRIDE_" + busSchedule.getBusNumber(), BusOverrideType.CANCELLATION, null, null,
+                    LocalDate.of(2024, 12, 19), LocalDate.of(2024, 12, 20), "Bus is cancelled due to winter");
+            busOverride.setBusSchedule(busSchedule);
+            entityManager.persist(busOverride);
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        busSchedule1Id = busSchedule1.getId();
+        busSchedule2Id = busSchedule2.getId();
+    }
+
+    private int count(String table, Long busScheduleId) {
+        return jdbcTemplate.queryForObject("select count(*) from " + table + " where bus_schedule_id = ?", Integer.class, busScheduleId);
+    }
+
+    @Test
+    public void testDeleteBusScheduleWithRunsAndOverrides() {
+        busRepository.deleteBusSchedule(BUS_SCHEDULE1.busname);
+
+        Assertions.assertThat(busRepository.existsBusSchedule(BUS_SCHEDULE1.busname)).isEqualTo(-1L);
+        Assertions.assertThat(count("bus_run", busSchedule1Id)).isZero();
+        Assertions.assertThat(count("bus_override", busSchedule1Id)).isZero();
+
+        // The other bus keeps its runs and overrides
+        Assertions.assertThat(busRepository.existsBusSchedule(BUS_SCHEDULE2.busname)).isEqualTo(busSchedule2Id);
+        Assertions.assertThat(count("bus_run", busSchedule2Id)).isEqualTo(1);
+        Assertions.assertThat(count("bus_override", busSchedule2Id)).isEqualTo(1);
+    }
+
+    @Test
+    public void testDeleteBusScheduleNotFound() {
+        Assertions.assertThatThrownBy(() -> busRepository.deleteBusSchedule(BUS_SCHEDULE3.busname))
+                .isInstanceOf(EmptyResultDataAccessException.class);
+
+        Assertions.assertThat(count("bus_run", busSchedule1Id)).isEqualTo(1);
+        Assertions.assertThat(count("bus_run", busSchedule2Id)).isEqualTo(1);
+    }
+}
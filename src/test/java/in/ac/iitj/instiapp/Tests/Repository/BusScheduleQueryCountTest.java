@@ -0,0 +1,122 @@
+package in.ac.iitj.instiapp.Tests.Repository;
+
+import in.ac.iitj.instiapp.Repository.BusRepository;
+import in.ac.iitj.instiapp.Repository.impl.BusRepositoryImpl;
+import in.ac.iitj.instiapp.database.entities.Scheduling.Buses.*;
+import in.ac.iitj.instiapp.mappers.Scheduling.Buses.BusOverrideDtoMapperImpl;
+import in.ac.iitj.instiapp.mappers.Scheduling.Buses.BusRouteDtoMapperImpl;
+import in.ac.iitj.instiapp.mappers.Scheduling.Buses.BusRunDtoMapperImpl;
+import in.ac.iitj.instiapp.mappers.Scheduling.Buses.RouteStopDtoMapperImpl;
+import in.ac.iitj.instiapp.payload.Scheduling.Buses.BusRouteDto;
+import in.ac.iitj.instiapp.payload.Scheduling.Buses.BusRunDto;
+import in.ac.iitj.instiapp.payload.Scheduling.Buses.BusScheduleDto;
+import in.ac.iitj.instiapp.payload.Scheduling.Buses.RouteStopDto;
+import org.assertj.core.api.Assertions;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.EmptyResultDataAccessException;
+
+import java.sql.Time;
+import java.util.List;
+
+import static in.ac.iitj.instiapp.Tests.EntityTestData.Scheduling.Buses.BusLocationData.*;
+import static in.ac.iitj.instiapp.Tests.EntityTestData.Scheduling.Buses.BusScheduleData.*;
+
+/**
+ * Regression gate on the number of SQL statements issued by the bus timetable read paths.
+ * Counts are taken from Hibernate statistics after the persistence context has been cleared.
+ */
+@DataJpaTest
+@Import({BusRepositoryImpl.class, BusRunDtoMapperImpl.class, BusOverrideDtoMapperImpl.class, BusRouteDtoMapperImpl.class, RouteStopDtoMapperImpl.class})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+public class BusScheduleQueryCountTest {
+
+    private static final int RUNS = 6;
+    private static final int STOPS_PER_ROUTE = 3;
+
+    @Autowired
+    BusRepository busRepository;
+
+    @Autowired
+    TestEntityManager entityManager;
+
+    Statistics statistics;
+
+    @BeforeEach
+    public void setUp() {
+        List<BusLocation> locations = List.of(BUS_LOCATION1.toEntity(), BUS_LOCATION2.toEntity(), BUS_LOCATION3.toEntity());
+        locations.forEach(entityManager::persist);
+
+        BusSchedule busSchedule = entityManager.persist(BUS_SCHEDULE1.toEntity());
+        entityManager.persist(BUS_SCHEDULE2.toEntity());
+
+        for (int run = 0; run < RUNS; run++) {
+            BusRoute route = entityManager.persist(new BusRoute("ROUTE" + run));
+            for (int stop = 0; stop < STOPS_PER_ROUTE; stop++) {
+                Time time = Time.valueOf(String.format("%02d:%02d:00", 6 + run, stop * 10));
+                entityManager.persist(new RouteStop(route, locations.get(stop), stop + 1, time, time));
+            }
+            entityManager.persist(new BusRun(busSchedule, route, Time.valueOf(String.format("%02d:00:00", 6 + run)), ScheduleType.WEEKDAY));
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManager.getEntityManager().getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+    }
+
+    @Test
+    public void testGetBusScheduleStatementCount() {
+        BusScheduleDto busScheduleDto = busRepository.getBusSchedule(BUS_SCHEDULE1.busname);
+
+        Assertions.assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(2);
+        Assertions.assertThat(busScheduleDto.getRuns()).hasSize(RUNS);
+        Assertions.assertThat(busScheduleDto.getRuns())
+                .extracting(BusRunDto::getRoute)
+                .extracting(BusRouteDto::getStops)
+                .allSatisfy(stops -> Assertions.assertThat(stops)
+                        .hasSize(STOPS_PER_ROUTE)
+                        .extracting(RouteStopDto::getLocationName)
+                        .containsExactly(BUS_LOCATION1.name, BUS_LOCATION2.name, BUS_LOCATION3.name));
+    }
+
+    @Test
+    public void testGetBusScheduleWithoutRuns() {
+        BusScheduleDto busScheduleDto = busRepository.getBusSchedule(BUS_SCHEDULE2.busname);
+
+        Assertions.assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(2);
+        Assertions.assertThat(busScheduleDto.getRuns()).isEmpty();
+    }
+
+    @Test
+    public void testGetBusScheduleNotFound() {
+        Assertions.assertThatThrownBy(() -> busRepository.getBusSchedule(BUS_SCHEDULE3.busname))
+                .isInstanceOf(EmptyResultDataAccessException.class);
+    }
+
+    @Test
+    public void testGetBusRunsByBusNumberStatementCount() {
+        List<BusRun> busRuns = busRepository.getBusRunsByBusNumber(BUS_SCHEDULE1.busname);
+        busRuns.forEach(busRun -> busRun.getRoute().getStops().forEach(stop -> stop.getLocation().getName()));
+
+        Assertions.assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(2);
+        Assertions.assertThat(busRuns).hasSize(RUNS);
+    }
+
+    @Test
+    public void testGetAllBusRoutesStatementCount() {
+        List<BusRoute> routes = busRepository.getAllBusRoutes();
+        routes.forEach(route -> route.getStops().forEach(stop -> stop.getLocation().getName()));
+
+        Assertions.assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        Assertions.assertThat(routes).hasSize(RUNS);
+    }
+}
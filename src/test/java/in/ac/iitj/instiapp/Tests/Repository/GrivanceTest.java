@@ -1,5 +1,6 @@
 package in.ac.iitj.instiapp.Tests.Repository;
 
+import in.ac.iitj.instiapp.Utils.PageCursor;
 import in.ac.iitj.instiapp.Repository.GrievanceRepository;
 import in.ac.iitj.instiapp.Repository.User.Organisation.OrganisationRepository;
 import in.ac.iitj.instiapp.Repository.impl.GrievanceRepositoryImpl;
@@ -28,8 +29,6 @@ import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.context.annotation.Import;
 import org.springframework.core.annotation.Order;
 import in.ac.iitj.instiapp.Tests.Utilities.Utils;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
 import org.springframework.test.annotation.Rollback;
 
 
@@ -82,22 +81,22 @@ public class GrivanceTest {
     @Test
     @Order(2)
     public void testGetGrievancesByFilter() {
-        Pageable pageable = PageRequest.of(0, 10);
+        PageCursor cursor = PageCursor.of(null, 10);
 
         // Test case 1: Filter by title
-        List<GrievanceDto> grievanceDtoList = grievanceRepository.getGrievancesByFilter(Optional.of("Regarding the Water coolers"), Optional.empty(), Optional.empty(),Optional.empty(), pageable);
+        List<GrievanceDto> grievanceDtoList = grievanceRepository.getGrievancesByFilter(Optional.of("Regarding the Water coolers"), Optional.empty(), Optional.empty(),Optional.empty(), cursor).getItems();
         Utils.matchGrievanceDto(grievanceDtoList.get(0), GrievanceData.GRIEVANCE1,OrganisationRoleData.ORGANISATION_ROLE1);
 
         // Test case 2: Filter by description
-        grievanceDtoList = grievanceRepository.getGrievancesByFilter(Optional.empty(), Optional.of("The water coolers are not properly functioning"), Optional.empty(),Optional.empty(), pageable);
+        grievanceDtoList = grievanceRepository.getGrievancesByFilter(Optional.empty(), Optional.of("The water coolers are not properly functioning"), Optional.empty(),Optional.empty(), cursor).getItems();
         Utils.matchGrievanceDto(grievanceDtoList.get(0), GrievanceData.GRIEVANCE1,OrganisationRoleData.ORGANISATION_ROLE1);
 
         // Test case 3: Filter by resolved
-        grievanceDtoList = grievanceRepository.getGrievancesByFilter(Optional.empty(), Optional.empty(), Optional.empty(),Optional.of(false), pageable);
+        grievanceDtoList = grievanceRepository.getGrievancesByFilter(Optional.empty(), Optional.empty(), Optional.empty(),Optional.of(false), cursor).getItems();
         Utils.matchGrievanceDto(grievanceDtoList.get(0), GrievanceData.GRIEVANCE1,OrganisationRoleData.ORGANISATION_ROLE1);
 
         // Test case 4: Filter by all fields
-        grievanceDtoList = grievanceRepository.getGrievancesByFilter(Optional.of("Regarding the Water coolers"), Optional.of("The water coolers are not properly functioning"), Optional.empty(),Optional.of(false), pageable);
+        grievanceDtoList = grievanceRepository.getGrievancesByFilter(Optional.of("Regarding the Water coolers"), Optional.of("The water coolers are not properly functioning"), Optional.empty(),Optional.of(false), cursor).getItems();
         Utils.matchGrievanceDto(grievanceDtoList.get(0), GrievanceData.GRIEVANCE1,OrganisationRoleData.ORGANISATION_ROLE1);
     }
 
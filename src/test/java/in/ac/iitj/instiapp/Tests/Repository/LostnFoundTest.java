@@ -1,6 +1,8 @@
 package in.ac.iitj.instiapp.Tests.Repository;
 
 import in.ac.iitj.instiapp.Repository.LostnFoundRepository;
+import in.ac.iitj.instiapp.Repository.MediaRepository;
+import in.ac.iitj.instiapp.Repository.UserRepository;
 import in.ac.iitj.instiapp.Repository.impl.*;
 import in.ac.iitj.instiapp.Tests.EntityTestData.LocationData;
 import in.ac.iitj.instiapp.Tests.EntityTestData.LostnFoundData;
@@ -8,18 +10,33 @@ import in.ac.iitj.instiapp.Tests.EntityTestData.MediaData;
 import in.ac.iitj.instiapp.Tests.EntityTestData.UserData;
 import in.ac.iitj.instiapp.Tests.InitialiseEntities.InitialiseLostnFound;
 import in.ac.iitj.instiapp.Tests.Utilities.InitialiseEntities;
+import in.ac.iitj.instiapp.Utils.PageCursor;
+import in.ac.iitj.instiapp.database.entities.Announcements;
+import in.ac.iitj.instiapp.database.entities.Media.Media;
+import in.ac.iitj.instiapp.database.entities.User.User;
+import in.ac.iitj.instiapp.payload.LostnFound.LostnFoundArchiveBatchDto;
 import in.ac.iitj.instiapp.payload.LostnFound.LostnFoundDto;
+import in.ac.iitj.instiapp.payload.common.CursorPage;
+import in.ac.iitj.instiapp.payload.LostnFound.LostnFoundSearchRowDto;
+import in.ac.iitj.instiapp.payload.User.UserBaseDto;
 import org.junit.jupiter.api.*;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.EmptyResultDataAccessException;
 import org.springframework.context.annotation.Import;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.test.annotation.Rollback;
 
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 @DataJpaTest
 @Import({LostnFoundRepositoryImpl.class , InitialiseLostnFound.class})
@@ -29,10 +46,17 @@ public class LostnFoundTest {
 
 
     private final LostnFoundRepository lostnFoundRepository;
+    private final UserRepository userRepository;
+    private final MediaRepository mediaRepository;
+    private final TestEntityManager entityManager;
 
     @Autowired
-    public LostnFoundTest(LostnFoundRepository lostnFoundRepository) {
+    public LostnFoundTest(LostnFoundRepository lostnFoundRepository, UserRepository userRepository,
+                          MediaRepository mediaRepository, TestEntityManager entityManager) {
         this.lostnFoundRepository = lostnFoundRepository;
+        this.userRepository = userRepository;
+        this.mediaRepository = mediaRepository;
+        this.entityManager = entityManager;
     }
 
     @BeforeAll
@@ -144,6 +168,89 @@ public class LostnFoundTest {
         Assertions.assertEquals(-1, id);
     }
 
+    @Test
+    @Order(9)
+    @Rollback(value = true)
+    public void testSaveLostnFound(){
+        LostnFoundDto dto = new LostnFoundDto(LostnFoundData.LOST_N_FOUND4.publicId, UserData.USER14.userName, null, LocationData.LOCATION2.name,
+                LostnFoundData.LOST_N_FOUND4.lostnFoundType, LostnFoundData.LOST_N_FOUND4.extraInfo, LostnFoundData.LOST_N_FOUND4.status, null);
+        lostnFoundRepository.saveLostnFound(dto);
+        Assertions.assertNotEquals(-1, lostnFoundRepository.exsitLostnFound(LostnFoundData.LOST_N_FOUND4.publicId));
+
+        dto.setLandmarkName(LocationData.LOCATION4.name);
+        dto.setPublicId("PUBLIC_ID5");
+        DataIntegrityViolationException exception = Assertions.assertThrows(DataIntegrityViolationException.class, () -> lostnFoundRepository.saveLostnFound(dto));
+        Assertions.assertTrue(exception.getMessage().contains(LocationData.LOCATION4.name));
+        Assertions.assertEquals(-1, lostnFoundRepository.exsitLostnFound("PUBLIC_ID5"));
+    }
+
+    @Test
+    @Order(10)
+    @Rollback(value = true)
+    public void testUpdateLostnFound(){
+        LostnFoundDto dto = new LostnFoundDto(LostnFoundData.LOST_N_FOUND2.publicId, UserData.USER14.userName, UserData.USER15.userName, null,
+                LostnFoundData.LOST_N_FOUND2.lostnFoundType, LostnFoundData.LOST_N_FOUND4.extraInfo, null, null);
+        lostnFoundRepository.updateLostnFound(dto);
+        Optional<LostnFoundSearchRowDto> row = lostnFoundRepository.getSearchRow(LostnFoundData.LOST_N_FOUND2.publicId);
+        Assertions.assertTrue(row.isPresent());
+        Assertions.assertEquals(UserData.USER14.userName, row.get().getFinderUserName());
+        Assertions.assertEquals(LocationData.LOCATION2.name, row.get().getLandmarkName());
+        Assertions.assertEquals(LostnFoundData.LOST_N_FOUND4.extraInfo, row.get().getExtraInfo());
+
+        dto.setOwner(new UserBaseDto("MISSING_USER"));
+        Assertions.assertThrows(DataIntegrityViolationException.class, () -> lostnFoundRepository.updateLostnFound(dto));
+        dto.setPublicId(LostnFoundData.LOST_N_FOUND4.publicId);
+        dto.setOwner(new UserBaseDto(UserData.USER15.userName));
+        Assertions.assertThrows(EmptyResultDataAccessException.class, () -> lostnFoundRepository.updateLostnFound(dto));
+    }
+
+    @Test
+    @Order(11)
+    @Rollback(value = true)
+    public void testArchiveLostnFound(){
+        // Only LOST_N_FOUND1 is resolved, the others were created just now
+        LostnFoundArchiveBatchDto batch = lostnFoundRepository.archiveLostnFound(Instant.now().minus(Duration.ofDays(180)), Instant.now(), 10);
+        Assertions.assertEquals(1, batch.getArchived());
+        Assertions.assertEquals(-1, lostnFoundRepository.exsitLostnFound(LostnFoundData.LOST_N_FOUND1.publicId));
+
+        PageCursor cursor = PageCursor.of(null, 10);
+        CursorPage<LostnFoundDto> hot = lostnFoundRepository.getLostnFoundByFilter(LostnFoundData.LOST_N_FOUND1.lostnFoundType,
+                Optional.empty(), Optional.empty(), Optional.empty(), Optional.empty(), false, cursor);
+        CursorPage<LostnFoundDto> all = lostnFoundRepository.getLostnFoundByFilter(LostnFoundData.LOST_N_FOUND1.lostnFoundType,
+                Optional.empty(), Optional.empty(), Optional.empty(), Optional.empty(), true, cursor);
+        Assertions.assertEquals(hot.getItems().size() + 1, all.getItems().size());
+        Assertions.assertEquals(LostnFoundData.LOST_N_FOUND1.publicId, all.getItems().get(0).getPublicId());
+
+        Assertions.assertEquals(List.of(MediaData.MEDIA1.publicId), lostnFoundRepository.deleteUnusedMedia(batch.getMediaIds()));
+    }
+
+    @Test
+    @Order(12)
+    @Rollback(value = true)
+    public void testDeleteUnusedMediaKeepsSharedMedia(){
+        // An announcement shows the media of the resolved LOST_N_FOUND1 too
+        Announcements announcement = new Announcements();
+        announcement.setUser(new User(userRepository.usernameExists(UserData.USER14.userName)));
+        announcement.setTitle("TITLE");
+        announcement.setDateOfAnnouncement(new Date());
+        announcement.setMedia(Set.of(new Media(mediaRepository.getIdByPublicId(MediaData.MEDIA1.publicId))));
+        entityManager.persistAndFlush(announcement);
+
+        LostnFoundArchiveBatchDto batch = lostnFoundRepository.archiveLostnFound(Instant.now().minus(Duration.ofDays(180)), Instant.now(), 10);
+        Assertions.assertEquals(1, batch.getArchived());
+        Assertions.assertTrue(lostnFoundRepository.deleteUnusedMedia(batch.getMediaIds()).isEmpty());
+        Assertions.assertNotEquals(-1, mediaRepository.getIdByPublicId(MediaData.MEDIA1.publicId));
+    }
+
+    @Test
+    @Order(13)
+    public void testGetSearchRowsByLandmark(){
+        List<LostnFoundSearchRowDto> rows = lostnFoundRepository.getSearchRowsByLandmark(LocationData.LOCATION2.name);
+        Assertions.assertEquals(1, rows.size());
+        Assertions.assertEquals(LostnFoundData.LOST_N_FOUND2.publicId, rows.get(0).getPublicId());
+        Assertions.assertTrue(lostnFoundRepository.getSearchRowsByLandmark(LocationData.LOCATION4.name).isEmpty());
+    }
+
 
 
 
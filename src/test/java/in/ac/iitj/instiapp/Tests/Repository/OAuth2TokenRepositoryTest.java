@@ -15,6 +15,8 @@ import org.springframework.context.annotation.Import;
 import org.springframework.core.annotation.Order;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Duration;
+import java.time.Instant;
 import java.util.Optional;
 
 import static in.ac.iitj.instiapp.Tests.EntityTestData.UserData.USER1;
@@ -129,6 +131,21 @@ public class OAuth2TokenRepositoryTest {
         Assertions.assertThat(result).isEmpty();
     }
 
+    @Test
+    @Order(5)
+    public void testDeleteUnusedSince(){
+        String username = USER1.userName;
+        String deviceId = OAuth2TokensTestData.OAUTH2_TOKEN_1.deviceId;
+
+        // Every row was saved just now
+        Assertions.assertThat(oauth2TokenRepository.deleteUnusedSince(Instant.now().minus(Duration.ofDays(15)), 1000)).isZero();
+        Assertions.assertThat(oauth2TokenRepository.getByUsernameAndDeviceId(username, deviceId)).isPresent();
+
+        Assertions.assertThat(oauth2TokenRepository.deleteUnusedSince(Instant.now().plusSeconds(60), 1)).isEqualTo(1);
+        Assertions.assertThat(oauth2TokenRepository.deleteUnusedSince(Instant.now().plusSeconds(60), 1000)).isPositive();
+        Assertions.assertThat(oauth2TokenRepository.getByUsernameAndDeviceId(username, deviceId)).isEmpty();
+    }
+
 
 
 }
@@ -1,6 +1,7 @@
 package in.ac.iitj.instiapp.Tests.Repository;
 
 
+import in.ac.iitj.instiapp.Utils.PageCursor;
 import in.ac.iitj.instiapp.Repository.UserRepository;
 import in.ac.iitj.instiapp.Repository.impl.UserRepositoryImpl;
 import in.ac.iitj.instiapp.Tests.InitialiseEntities.User.InitialiseUser;
@@ -163,7 +164,7 @@ public class UserTest {
     @Test
     @Order(8)
     public void testGetListUserLimitedByUserType(){
-        List<UserBaseDto> userBaseDtoList = userRepository.getListUserLimitedByUsertype(USER_TYPE1.name, PageRequest.of(0,10));
+        List<UserBaseDto> userBaseDtoList = userRepository.getListUserLimitedByUsertype(USER_TYPE1.name, PageCursor.of(null, 10)).getItems();
 
         Assertions.assertThat(userBaseDtoList.size()).isEqualTo(1);
 
@@ -236,7 +237,7 @@ public class UserTest {
             userRepository.setUserType(USER1.userName, USER_TYPE4.name);
         }).isInstanceOf(EmptyResultDataAccessException.class);
 
-        Assertions.assertThat(userRepository.getListUserLimitedByUsertype(USER_TYPE1.name, PageRequest.of(0,10)).get(0).getUserName())
+        Assertions.assertThat(userRepository.getListUserLimitedByUsertype(USER_TYPE1.name, PageCursor.of(null, 10)).getItems().get(0).getUserName())
                 .isEqualTo(USER1.userName);
 
 
@@ -0,0 +1,101 @@
+package in.ac.iitj.instiapp.Tests.Service;
+
+import in.ac.iitj.instiapp.Repository.KeyRingRepository;
+import in.ac.iitj.instiapp.Utils.AESUtil;
+import in.ac.iitj.instiapp.database.entities.Auth.KeyRingKey;
+import in.ac.iitj.instiapp.payload.Auth.KeyRingKeyDto;
+import in.ac.iitj.instiapp.services.JWTTokens.KeyRing;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+public class AESUtilTest {
+
+    @AfterEach
+    void tearDown() {
+        AESUtil.useKeyRing(null);
+        AESUtil.reloadKey();
+    }
+
+    @Test
+    void testConcurrentEncryptAndDecrypt() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Callable<Boolean>> tasks = new ArrayList<>();
+            for (int i = 0; i < 64; i++) {
+                String payload = "payload-" + i;
+                tasks.add(() -> {
+                    for (int j = 0; j < 100; j++) {
+                        if (!payload.equals(AESUtil.decrypt(AESUtil.encrypt(payload)))) {
+                            return false;
+                        }
+                    }
+                    return true;
+                });
+            }
+            for (Future<Boolean> result : executor.invokeAll(tasks)) {
+                assertThat(result.get()).isTrue();
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void testConfiguredKeyIsShared() {
+        String key = Base64.getEncoder().encodeToString(new byte[32]);
+        AESUtil.loadKey(key);
+        String encrypted = AESUtil.encrypt("payload");
+        assertThat(AESUtil.encrypt("payload")).isNotEqualTo(encrypted);
+
+        // Another instance loading the same key decrypts it, after a key change it can't
+        AESUtil.reloadKey();
+        AESUtil.loadKey(key);
+        assertThat(AESUtil.decrypt(encrypted)).isEqualTo("payload");
+        AESUtil.reloadKey();
+        assertThatThrownBy(() -> AESUtil.decrypt(encrypted)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> AESUtil.loadKey(Base64.getEncoder().encodeToString(new byte[10]))).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static KeyRingKeyDto aesKey(String kid, byte fill, Instant notBefore) {
+        byte[] secret = new byte[32];
+        java.util.Arrays.fill(secret, fill);
+        return new KeyRingKeyDto(kid, KeyRingKey.Purpose.AES, Base64.getEncoder().encodeToString(secret),
+                notBefore, notBefore.plus(KeyRing.ROTATION_PERIOD).plus(KeyRing.RETENTION));
+    }
+
+    @Test
+    void testValuesOfRotatedKeysAreDecrypted() {
+        KeyRingKeyDto first = aesKey("aes-1", (byte) 1, Instant.now().minus(Duration.ofDays(31)));
+        KeyRingKeyDto second = aesKey("aes-2", (byte) 2, Instant.now().minus(Duration.ofMinutes(1)));
+        KeyRingRepository keyRingRepository = mock(KeyRingRepository.class);
+        when(keyRingRepository.getUnexpiredKeys(any())).thenReturn(List.of(first));
+        KeyRing keyRing = new KeyRing(keyRingRepository, "");
+        AESUtil.useKeyRing(keyRing);
+
+        String encrypted = AESUtil.encrypt("payload");
+        assertThat(encrypted).startsWith("aes-1.");
+
+        when(keyRingRepository.getUnexpiredKeys(any())).thenReturn(List.of(first, second));
+        keyRing.refresh();
+        assertThat(AESUtil.encrypt("payload")).startsWith("aes-2.");
+        assertThat(AESUtil.decrypt(encrypted)).isEqualTo("payload");
+
+        when(keyRingRepository.getUnexpiredKeys(any())).thenReturn(List.of(second));
+        keyRing.refresh();
+        assertThatThrownBy(() -> AESUtil.decrypt(encrypted)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,109 @@
+package in.ac.iitj.instiapp.Tests.Service;
+
+import in.ac.iitj.instiapp.Repository.UserRepository;
+import in.ac.iitj.instiapp.authfiles.AuthorizationSnapshotCache;
+import in.ac.iitj.instiapp.database.entities.User.Organisation.OrganisationPermission;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+public class AuthorizationSnapshotCacheTest {
+
+    private UserRepository userRepository;
+    private AuthorizationSnapshotCache cache;
+
+    @BeforeEach
+    void setUp() {
+        userRepository = mock(UserRepository.class);
+        cache = new AuthorizationSnapshotCache(userRepository);
+    }
+
+    private static Authentication authentication(String username) {
+        return new UsernamePasswordAuthenticationToken(username, null, List.of());
+    }
+
+    @Test
+    void testSnapshotIsLoadedOnce() {
+        when(userRepository.getOrganisationPermissions("user1")).thenReturn(Map.of("org1", OrganisationPermission.INTERMEDIATE));
+
+        assertThat(cache.hasPermission("org1", "READ", authentication("user1"))).isTrue();
+        assertThat(cache.hasPermission("org1", "INTERMEDIATE", authentication("user1"))).isTrue();
+        assertThat(cache.hasPermission("org1", "MASTER", authentication("user1"))).isFalse();
+        assertThat(cache.hasPermission("org2", "READ", authentication("user1"))).isFalse();
+
+        verify(userRepository, times(1)).getOrganisationPermissions("user1");
+    }
+
+    @Test
+    void testOrganisationAccountHasEveryPermission() {
+        assertThat(cache.hasPermission("org1", "MASTER", authentication("org1"))).isTrue();
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    void testControllerChecksShareTheSnapshot() {
+        when(userRepository.getOrganisationPermissions("user1")).thenReturn(Map.of("org1", OrganisationPermission.MASTER));
+
+        assertThat(cache.hasPermission("org1", OrganisationPermission.MASTER, "user1")).isTrue();
+        assertThat(cache.hasPermission("org1", "INTERMEDIATE", authentication("user1"))).isTrue();
+        assertThat(cache.hasPermission("org2", OrganisationPermission.READ, "user1")).isFalse();
+        assertThat(cache.hasPermission(null, OrganisationPermission.READ, "user1")).isFalse();
+
+        verify(userRepository, times(1)).getOrganisationPermissions("user1");
+    }
+
+    @Test
+    void testEvictUserReloadsSnapshot() {
+        when(userRepository.getOrganisationPermissions("user1"))
+                .thenReturn(Map.of())
+                .thenReturn(Map.of("org1", OrganisationPermission.MASTER));
+
+        assertThat(cache.hasPermission("org1", "MASTER", authentication("user1"))).isFalse();
+        cache.evictUser("user1");
+        assertThat(cache.hasPermission("org1", "MASTER", authentication("user1"))).isTrue();
+    }
+
+    @Test
+    void testEvictOrganisationOnlyEvictsItsMembers() {
+        when(userRepository.getOrganisationPermissions("user1")).thenReturn(Map.of("org1", OrganisationPermission.READ));
+        when(userRepository.getOrganisationPermissions("user2")).thenReturn(Map.of("org2", OrganisationPermission.READ));
+        cache.getSnapshot("user1");
+        cache.getSnapshot("user2");
+
+        cache.evictOrganisation("org1");
+        cache.getSnapshot("user1");
+        cache.getSnapshot("user2");
+
+        verify(userRepository, times(2)).getOrganisationPermissions("user1");
+        verify(userRepository, times(1)).getOrganisationPermissions("user2");
+    }
+
+    @Test
+    void testEvictionRunsAgainAfterCommit() {
+        when(userRepository.getOrganisationPermissions("user1"))
+                .thenReturn(Map.of("org1", OrganisationPermission.MASTER))
+                .thenReturn(Map.of());
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            cache.evictUser("user1");
+            // Loaded before the commit, still sees the old role
+            assertThat(cache.getSnapshot("user1").hasPermission("org1", OrganisationPermission.MASTER)).isTrue();
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertThat(cache.getSnapshot("user1").getPermission("org1")).isEmpty();
+    }
+}
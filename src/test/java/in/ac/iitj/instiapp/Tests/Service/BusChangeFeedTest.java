@@ -0,0 +1,141 @@
+package in.ac.iitj.instiapp.Tests.Service;
+
+import in.ac.iitj.instiapp.Repository.BusRepository;
+import in.ac.iitj.instiapp.database.entities.Scheduling.Buses.BusChange;
+import in.ac.iitj.instiapp.database.entities.Scheduling.Buses.BusRoute;
+import in.ac.iitj.instiapp.database.entities.Scheduling.Buses.BusRun;
+import in.ac.iitj.instiapp.mappers.Scheduling.Buses.BusOverrideDtoMapper;
+import in.ac.iitj.instiapp.mappers.Scheduling.Buses.BusRouteDtoMapper;
+import in.ac.iitj.instiapp.mappers.Scheduling.Buses.BusRunDtoMapper;
+import in.ac.iitj.instiapp.mappers.Scheduling.Buses.RouteStopDtoMapper;
+import in.ac.iitj.instiapp.payload.Scheduling.Buses.BusChangesDto;
+import in.ac.iitj.instiapp.payload.Scheduling.Buses.BusRouteDto;
+import in.ac.iitj.instiapp.payload.Scheduling.Buses.BusRunDto;
+import in.ac.iitj.instiapp.services.Scheduling.Buses.BusDataChangedEvent;
+import in.ac.iitj.instiapp.services.Scheduling.Buses.BusTimetableIndex;
+import in.ac.iitj.instiapp.services.impl.BusServiceImpl;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class BusChangeFeedTest {
+
+    @Mock
+    private BusRepository busRepository;
+    @Mock
+    private BusRouteDtoMapper busRouteDtoMapper;
+    @Mock
+    private BusOverrideDtoMapper busOverrideDtoMapper;
+    @Mock
+    private RouteStopDtoMapper routeStopDtoMapper;
+    @Mock
+    private BusRunDtoMapper busRunDtoMapper;
+    @Mock
+    private BusTimetableIndex busTimetableIndex;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @InjectMocks
+    private BusServiceImpl busService;
+
+    private static BusChange change(long version, String busNumber, String routeName) {
+        return new BusChange(version, "test", busNumber, routeName, Instant.now());
+    }
+
+    @Test
+    void testWritesAreStampedWithVersion() {
+        when(busRepository.saveBusChange("updateBusSchedule", List.of("B1", "B5"), List.of())).thenReturn(7L);
+
+        busService.updateBusSchedule("B1", "B5");
+
+        ArgumentCaptor<BusDataChangedEvent> event = ArgumentCaptor.forClass(BusDataChangedEvent.class);
+        verify(eventPublisher).publishEvent(event.capture());
+        assertThat(event.getValue().getVersion()).isEqualTo(7L);
+    }
+
+    @Test
+    void testNewLocationLeavesTheTimetableUnchanged() {
+        busService.saveBusLocation("Paota");
+
+        verify(busRepository, never()).saveBusChange(any(), any(), any());
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
+    @Test
+    void testRenamedLocationChangesTheRoutesStoppingThere() {
+        when(busRepository.getRouteNamesByLocationName("Paota Circle")).thenReturn(List.of("CAMPUS_CITY", "NIGHT"));
+
+        busService.updateBusLocation("Paota", "Paota Circle");
+
+        verify(busRepository).saveBusChange("updateBusLocation", List.of(), List.of("CAMPUS_CITY", "NIGHT"));
+    }
+
+    @Test
+    void testChangesUpToDate() {
+        when(busRepository.getBusVersion()).thenReturn(4L);
+
+        BusChangesDto changes = busService.getBusChanges(4L);
+
+        assertThat(changes.getVersion()).isEqualTo(4L);
+        assertThat(changes.isFullResync()).isFalse();
+        assertThat(changes.getRuns()).isEmpty();
+        verify(busRepository, never()).getBusChangesSince(anyLong());
+    }
+
+    @Test
+    void testChangesReturnOnlyTouchedBusesAndRoutes() {
+        BusRun run = new BusRun();
+        BusRoute route = new BusRoute("CAMPUS_CITY");
+        BusRunDto runDto = BusRunDto.builder().busNumber("B1").build();
+        BusRouteDto routeDto = BusRouteDto.builder().routeName("CAMPUS_CITY").stops(List.of()).build();
+
+        when(busRepository.getBusVersion()).thenReturn(6L);
+        when(busRepository.getBusChangesSince(3L)).thenReturn(List.of(
+                change(4, "B1", null),
+                change(5, null, "CAMPUS_CITY"),
+                change(5, null, "OLD_NAME"),
+                change(6, "B9", null),
+                // committed after the version was read
+                change(7, null, null)
+        ));
+        when(busRepository.getBusRunsByBusNumbers(any())).thenReturn(List.of(run));
+        when(busRepository.getBusRoutesByNames(any())).thenReturn(List.of(route));
+        when(busRepository.getBusScheduleIdsByBusNumbers(any())).thenReturn(Map.of("B1", 1L));
+        when(busRunDtoMapper.toDto(run)).thenReturn(runDto);
+        when(busRouteDtoMapper.toDto(route)).thenReturn(routeDto);
+
+        BusChangesDto changes = busService.getBusChanges(3L);
+
+        assertThat(changes.getVersion()).isEqualTo(6L);
+        assertThat(changes.isFullResync()).isFalse();
+        assertThat(changes.getRuns()).containsExactly(runDto);
+        assertThat(changes.getRoutes()).containsExactly(routeDto);
+        assertThat(changes.getRemovedBusNumbers()).containsExactly("B9");
+        assertThat(changes.getRemovedRouteNames()).containsExactly("OLD_NAME");
+    }
+
+    @Test
+    void testGlobalChangeRequiresFullResync() {
+        when(busRepository.getBusVersion()).thenReturn(5L);
+        when(busRepository.getBusChangesSince(3L)).thenReturn(List.of(change(4, "B1", null), change(5, null, null)));
+
+        BusChangesDto changes = busService.getBusChanges(3L);
+
+        assertThat(changes.isFullResync()).isTrue();
+        assertThat(changes.getRuns()).isEmpty();
+        verify(busRepository, never()).getBusRunsByBusNumbers(any());
+    }
+}
@@ -0,0 +1,100 @@
+package in.ac.iitj.instiapp.Tests.Service;
+
+import in.ac.iitj.instiapp.Repository.BusRepository;
+import in.ac.iitj.instiapp.database.entities.Scheduling.Buses.BusOverride;
+import in.ac.iitj.instiapp.database.entities.Scheduling.Buses.BusOverrideType;
+import in.ac.iitj.instiapp.database.entities.Scheduling.Buses.ScheduleType;
+import in.ac.iitj.instiapp.mappers.Scheduling.Buses.BusOverrideDtoMapper;
+import in.ac.iitj.instiapp.mappers.Scheduling.Buses.BusRouteDtoMapper;
+import in.ac.iitj.instiapp.mappers.Scheduling.Buses.BusRunDtoMapper;
+import in.ac.iitj.instiapp.mappers.Scheduling.Buses.RouteStopDtoMapper;
+import in.ac.iitj.instiapp.payload.Scheduling.Buses.BusDepartureDto;
+import in.ac.iitj.instiapp.services.Scheduling.Buses.BusOverrideIndex;
+import in.ac.iitj.instiapp.services.Scheduling.Buses.BusTimetableIndex;
+import in.ac.iitj.instiapp.services.impl.BusServiceImpl;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.sql.Time;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class BusDepartureBoardTest {
+
+    @Mock
+    private BusRepository busRepository;
+    @Mock
+    private BusRouteDtoMapper busRouteDtoMapper;
+    @Mock
+    private BusOverrideDtoMapper busOverrideDtoMapper;
+    @Mock
+    private RouteStopDtoMapper routeStopDtoMapper;
+    @Mock
+    private BusRunDtoMapper busRunDtoMapper;
+    @Mock
+    private BusTimetableIndex busTimetableIndex;
+    @Mock
+    private BusOverrideIndex busOverrideIndex;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @InjectMocks
+    private BusServiceImpl busService;
+
+    private static BusDepartureDto departure(String time) {
+        return new BusDepartureDto("B1", "NIGHT", "Paota", 1, Time.valueOf(time), ScheduleType.WEEKDAY);
+    }
+
+    @Test
+    void testWindowIsOneRangeScan() {
+        when(busRepository.getBusDepartures("Paota", ScheduleType.WEEKDAY, LocalTime.of(8, 0), LocalTime.of(8, 59, 59), 10))
+                .thenReturn(List.of(departure("08:40:00")));
+
+        assertThat(busService.getDepartureBoard("Paota", ScheduleType.WEEKDAY, LocalTime.of(8, 0), Duration.ofHours(1), 10))
+                .hasSize(1);
+        verify(busRepository, times(1)).getBusDepartures(any(), any(), any(), any(), anyInt());
+    }
+
+    @Test
+    void testWindowPassingMidnightContinuesInTheMorning() {
+        when(busRepository.getBusDepartures("Paota", ScheduleType.WEEKDAY, LocalTime.of(23, 30), LocalTime.of(23, 59, 59), 10))
+                .thenReturn(List.of(departure("23:45:00")));
+        when(busRepository.getBusDepartures("Paota", ScheduleType.WEEKDAY, LocalTime.MIDNIGHT, LocalTime.of(0, 29, 59), 9))
+                .thenReturn(List.of(departure("00:10:00")));
+
+        assertThat(busService.getDepartureBoard("Paota", ScheduleType.WEEKDAY, LocalTime.of(23, 30), Duration.ofHours(1), 10))
+                .extracting(BusDepartureDto::getDepartureTime)
+                .containsExactly(Time.valueOf("23:45:00"), Time.valueOf("00:10:00"));
+    }
+
+    @Test
+    void testWritesRefreshOnlyTouchedRows() {
+        busService.updateBusSchedule("B1", "B5");
+        verify(busRepository).refreshBusDepartures(List.of("B1", "B5"), List.of());
+
+        busService.saveBusOverride("B5", new BusOverride(null, BusOverrideType.CANCELLATION, null, null,
+                LocalDate.of(2024, 3, 4), null, null));
+        verify(busRepository, times(1)).refreshBusDepartures(any(), any());
+    }
+
+    @Test
+    void testLocationWritesRewriteOnlyItsRows() {
+        busService.saveBusLocation("Paota");
+        when(busRepository.getRouteNamesByLocationName("Paota Circle")).thenReturn(List.of("NIGHT"));
+        busService.updateBusLocation("Paota", "Paota Circle");
+
+        verify(busRepository).renameBusDepartureLocation("Paota", "Paota Circle");
+        verify(busRepository, never()).refreshBusDepartures(any(), any());
+    }
+}
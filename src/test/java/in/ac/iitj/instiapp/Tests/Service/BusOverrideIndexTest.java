@@ -0,0 +1,124 @@
+package in.ac.iitj.instiapp.Tests.Service;
+
+import in.ac.iitj.instiapp.Repository.BusRepository;
+import in.ac.iitj.instiapp.database.entities.Scheduling.Buses.*;
+import in.ac.iitj.instiapp.mappers.Scheduling.Buses.BusRouteDtoMapper;
+import in.ac.iitj.instiapp.payload.Scheduling.Buses.BusRouteDto;
+import in.ac.iitj.instiapp.payload.Scheduling.Buses.BusRunDto;
+import in.ac.iitj.instiapp.payload.Scheduling.Buses.BusTimetableRowDto;
+import in.ac.iitj.instiapp.services.Scheduling.Buses.BusOverrideIndex;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.EmptyResultDataAccessException;
+
+import java.sql.Time;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.groups.Tuple.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class BusOverrideIndexTest {
+
+    // 2024-03-04 is a Monday
+    private static final LocalDate MONDAY = LocalDate.of(2024, 3, 4);
+
+    @Mock
+    private BusRepository busRepository;
+
+    @Mock
+    private BusRouteDtoMapper busRouteDtoMapper;
+
+    @InjectMocks
+    private BusOverrideIndex busOverrideIndex;
+
+    private static BusTimetableRowDto row(String busNumber, long runId, String start, ScheduleType type, String routeName) {
+        return new BusTimetableRowDto(busNumber, runId, Time.valueOf(start), type, runId, routeName,
+                1, 1L, "IIT Jodhpur", Time.valueOf(start), Time.valueOf(start));
+    }
+
+    private static BusOverride override(String busNumber, BusOverrideType type, String routeName, String startTime,
+                                        LocalDate from, LocalDate to) {
+        BusOverride override = new BusOverride(busNumber + from, type, routeName == null ? null : new BusRoute(routeName),
+                startTime == null ? null : Time.valueOf(startTime), from, to, null);
+        override.setBusSchedule(new BusSchedule(busNumber));
+        return override;
+    }
+
+    @BeforeEach
+    void setUp() {
+        List<BusRoute> routes = List.of(new BusRoute("MORNING"), new BusRoute("EVENING"), new BusRoute("SPECIAL"));
+        when(busRepository.getAllBusRoutes()).thenReturn(routes);
+        when(busRouteDtoMapper.toDto(any())).thenAnswer(invocation ->
+                BusRouteDto.builder().routeName(invocation.<BusRoute>getArgument(0).getRouteName()).stops(List.of()).build());
+        when(busRepository.getTimetableRows()).thenReturn(List.of(
+                row("B1", 1, "08:00:00", ScheduleType.WEEKDAY, "MORNING"),
+                row("B1", 2, "18:00:00", ScheduleType.WEEKDAY, "EVENING"),
+                row("B1", 3, "10:00:00", ScheduleType.WEEKEND, "MORNING"),
+                row("B2", 4, "09:00:00", ScheduleType.WEEKDAY, "MORNING"),
+                // Route without stops
+                new BusTimetableRowDto("B3", 5L, Time.valueOf("07:00:00"), ScheduleType.WEEKDAY, 5L, "SPECIAL",
+                        null, null, null, null, null)
+        ));
+        when(busRepository.getAllBusOverrides()).thenReturn(List.of(
+                // Whole week without the morning run, extra run on the Wednesday
+                override("B1", BusOverrideType.CANCELLATION, "MORNING", null, MONDAY, MONDAY.plusDays(6)),
+                override("B1", BusOverrideType.EXTRA_RUN, "SPECIAL", "12:00:00", MONDAY.plusDays(2), MONDAY.plusDays(2)),
+                // B2 does not run at all on the Tuesday
+                override("B2", BusOverrideType.CANCELLATION, null, null, MONDAY.plusDays(1), MONDAY.plusDays(1))
+        ));
+    }
+
+    @Test
+    void testRegularScheduleWithoutOverrides() {
+        assertThat(busOverrideIndex.getEffectiveSchedule("B1", MONDAY.minusDays(2)).getRuns())
+                .extracting(BusRunDto::getStartTime)
+                .containsExactly(Time.valueOf("10:00:00"));
+        assertThat(busOverrideIndex.getEffectiveSchedule("B2", MONDAY).getRuns()).hasSize(1);
+    }
+
+    @Test
+    void testOverridesAreMergedIntoRegularRuns() {
+        assertThat(busOverrideIndex.getEffectiveSchedule("B1", MONDAY).getRuns())
+                .extracting(run -> run.getRoute().getRouteName(), BusRunDto::getStartTime)
+                .containsExactly(tuple("EVENING", Time.valueOf("18:00:00")));
+
+        assertThat(busOverrideIndex.getEffectiveSchedule("B1", MONDAY.plusDays(2)).getRuns())
+                .extracting(run -> run.getRoute().getRouteName(), BusRunDto::getStartTime, BusRunDto::getScheduleType)
+                .containsExactlyInAnyOrder(
+                        tuple("EVENING", Time.valueOf("18:00:00"), ScheduleType.WEEKDAY),
+                        tuple("SPECIAL", Time.valueOf("12:00:00"), ScheduleType.WEEKDAY)
+                );
+
+        // Saturday inside the cancellation range also loses the weekend morning run
+        assertThat(busOverrideIndex.getEffectiveSchedule("B1", MONDAY.plusDays(5)).getRuns()).isEmpty();
+        // First day after the range
+        assertThat(busOverrideIndex.getEffectiveSchedule("B1", MONDAY.plusDays(7)).getRuns()).hasSize(2);
+
+        assertThat(busOverrideIndex.getEffectiveSchedule("B2", MONDAY.plusDays(1)).getRuns()).isEmpty();
+        assertThat(busOverrideIndex.getEffectiveSchedule("B2", MONDAY.plusDays(2)).getRuns()).hasSize(1);
+
+        verify(busRepository, times(1)).getAllBusOverrides();
+    }
+
+    @Test
+    void testRunsOnRoutesWithoutStopsAreKept() {
+        assertThat(busOverrideIndex.getEffectiveSchedule("B3", MONDAY).getRuns())
+                .extracting(run -> run.getRoute().getRouteName(), BusRunDto::getStartTime)
+                .containsExactly(tuple("SPECIAL", Time.valueOf("07:00:00")));
+    }
+
+    @Test
+    void testUnknownBus() {
+        assertThatThrownBy(() -> busOverrideIndex.getEffectiveSchedule("B9", MONDAY))
+                .isInstanceOf(EmptyResultDataAccessException.class);
+    }
+}
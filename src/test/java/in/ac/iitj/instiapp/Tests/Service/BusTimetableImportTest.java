@@ -0,0 +1,167 @@
+package in.ac.iitj.instiapp.Tests.Service;
+
+import in.ac.iitj.instiapp.Repository.BusRepository;
+import in.ac.iitj.instiapp.database.entities.Scheduling.Buses.BusRun;
+import in.ac.iitj.instiapp.database.entities.Scheduling.Buses.RouteStop;
+import in.ac.iitj.instiapp.database.entities.Scheduling.Buses.ScheduleType;
+import in.ac.iitj.instiapp.mappers.Scheduling.Buses.BusOverrideDtoMapper;
+import in.ac.iitj.instiapp.mappers.Scheduling.Buses.BusRouteDtoMapper;
+import in.ac.iitj.instiapp.mappers.Scheduling.Buses.BusRunDtoMapper;
+import in.ac.iitj.instiapp.mappers.Scheduling.Buses.RouteStopDtoMapperImpl;
+import in.ac.iitj.instiapp.payload.Scheduling.Buses.BusRunDto;
+import in.ac.iitj.instiapp.payload.Scheduling.Buses.BusTimetableImportResultDto;
+import in.ac.iitj.instiapp.payload.Scheduling.Buses.RouteStopDto;
+import in.ac.iitj.instiapp.services.Scheduling.Buses.BusDataChangedEvent;
+import in.ac.iitj.instiapp.services.Scheduling.Buses.BusOverrideIndex;
+import in.ac.iitj.instiapp.services.Scheduling.Buses.BusTimetableCsvParser;
+import in.ac.iitj.instiapp.services.Scheduling.Buses.BusTimetableIndex;
+import in.ac.iitj.instiapp.services.impl.BusServiceImpl;
+import jakarta.persistence.EntityNotFoundException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.IncorrectResultSizeDataAccessException;
+
+import java.sql.Time;
+import java.util.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.groups.Tuple.tuple;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class BusTimetableImportTest {
+
+    private static final String CSV = """
+            bus_number,route_name,start_time,schedule_type,stop_order,location_name,arrival_time,departure_time
+            B1,CAMPUS_CITY_MORNING,08:00:00,WEEKDAY,1,IIT Jodhpur,08:00:00,08:00:00
+            B1,CAMPUS_CITY_MORNING,08:00:00,WEEKDAY,2,Paota,08:40:00,08:42:00
+            B1,CAMPUS_CITY_MORNING,08:00:00,WEEKDAY,3,Railway Station,09:00:00,09:00:00
+
+            B2,CAMPUS_CITY_MORNING,10:00:00,weekday,1,IIT Jodhpur,08:00:00,08:00:00
+            B2,CAMPUS_CITY_MORNING,10:00:00,weekday,2,Paota,08:40:00,08:42:00
+            B2,CAMPUS_CITY_MORNING,10:00:00,weekday,3,Railway Station,09:00:00,09:00:00
+            B2,CITY_CAMPUS_EVENING,18:00:00,WEEKEND,1,Paota,18:00:00,18:00:00
+            """;
+
+    @Mock
+    private BusRepository busRepository;
+    @Mock
+    private BusRouteDtoMapper busRouteDtoMapper;
+    @Mock
+    private BusOverrideDtoMapper busOverrideDtoMapper;
+    @Mock
+    private BusRunDtoMapper busRunDtoMapper;
+    @Mock
+    private BusTimetableIndex busTimetableIndex;
+    @Mock
+    private BusOverrideIndex busOverrideIndex;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private BusServiceImpl busService;
+
+    @BeforeEach
+    void setUp() {
+        busService = new BusServiceImpl(busRepository, busRouteDtoMapper, busOverrideDtoMapper, new RouteStopDtoMapperImpl(),
+                busRunDtoMapper, busTimetableIndex, busOverrideIndex, eventPublisher);
+    }
+
+    @Test
+    void testParseCsvGroupsStopsIntoRuns() {
+        List<BusRunDto> runs = BusTimetableCsvParser.parse(CSV);
+
+        assertThat(runs)
+                .extracting(BusRunDto::getBusNumber, run -> run.getRoute().getRouteName(), BusRunDto::getStartTime, BusRunDto::getScheduleType)
+                .containsExactly(
+                        tuple("B1", "CAMPUS_CITY_MORNING", Time.valueOf("08:00:00"), ScheduleType.WEEKDAY),
+                        tuple("B2", "CAMPUS_CITY_MORNING", Time.valueOf("10:00:00"), ScheduleType.WEEKDAY),
+                        tuple("B2", "CITY_CAMPUS_EVENING", Time.valueOf("18:00:00"), ScheduleType.WEEKEND)
+                );
+        assertThat(runs.get(0).getRoute().getStops())
+                .extracting(RouteStopDto::getStopOrder, RouteStopDto::getLocationName, RouteStopDto::getDepartureTime)
+                .containsExactly(
+                        tuple(1, "IIT Jodhpur", Time.valueOf("08:00:00")),
+                        tuple(2, "Paota", Time.valueOf("08:42:00")),
+                        tuple(3, "Railway Station", Time.valueOf("09:00:00"))
+                );
+    }
+
+    @Test
+    void testParseCsvRejectsMalformedLines() {
+        assertThatThrownBy(() -> BusTimetableCsvParser.parse("B1,ROUTE,08:00:00,WEEKDAY,1,Paota,08:00:00,08:00:00"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("header");
+        assertThatThrownBy(() -> BusTimetableCsvParser.parse(CSV + "B3,ROUTE,8 AM,WEEKDAY,1,Paota,08:00:00,08:00:00\n"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageStartingWith("Line 10");
+        assertThatThrownBy(() -> BusTimetableCsvParser.parse(CSV + "B3,ROUTE\n"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageStartingWith("Line 10");
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testImportUsesConstantNumberOfRoundTrips() {
+        when(busRepository.getBusScheduleIdsByBusNumbers(anyCollection())).thenReturn(new HashMap<>(Map.of("B1", 1L, "B2", 2L)));
+        // CITY_CAMPUS_EVENING already exists, CAMPUS_CITY_MORNING is new
+        when(busRepository.getBusRouteIdsByNames(anyCollection()))
+                .thenReturn(new HashMap<>(Map.of("CITY_CAMPUS_EVENING", 20L)), new HashMap<>(Map.of("CAMPUS_CITY_MORNING", 10L)));
+        when(busRepository.getBusLocationIdsByNames(anyCollection()))
+                .thenReturn(new HashMap<>(Map.of("IIT Jodhpur", 100L)), new HashMap<>(Map.of("Paota", 101L, "Railway Station", 102L)));
+
+        BusTimetableImportResultDto result = busService.importBusTimetable(BusTimetableCsvParser.parse(CSV));
+
+        assertThat(result).isEqualTo(new BusTimetableImportResultDto(2, 1, 3, 3));
+        verify(busRepository, times(1)).getBusScheduleIdsByBusNumbers(anyCollection());
+        verify(busRepository, times(2)).getBusRouteIdsByNames(anyCollection());
+        verify(busRepository, times(2)).getBusLocationIdsByNames(anyCollection());
+        verify(busRepository).saveBusLocations(List.of("Paota", "Railway Station"));
+        verify(busRepository).saveBusRoutes(List.of("CAMPUS_CITY_MORNING"));
+        verify(busRepository, never()).saveRouteStop(any());
+        verify(busRepository, never()).isBusLocationExists(any());
+        verify(eventPublisher).publishEvent(any(BusDataChangedEvent.class));
+
+        ArgumentCaptor<List<RouteStop>> stops = ArgumentCaptor.forClass(List.class);
+        verify(busRepository).saveRouteStops(stops.capture());
+        assertThat(stops.getValue())
+                .extracting(stop -> stop.getRoute().getId(), stop -> stop.getLocation().getId(), RouteStop::getStopOrder)
+                .containsExactly(tuple(10L, 100L, 1), tuple(10L, 101L, 2), tuple(10L, 102L, 3));
+
+        ArgumentCaptor<List<BusRun>> runs = ArgumentCaptor.forClass(List.class);
+        verify(busRepository).saveBusRuns(runs.capture());
+        assertThat(runs.getValue())
+                .extracting(run -> run.getBusSchedule().getId(), run -> run.getRoute().getId())
+                .containsExactly(tuple(1L, 10L), tuple(2L, 10L), tuple(2L, 20L));
+    }
+
+    @Test
+    void testImportFailsForUnknownBus() {
+        when(busRepository.getBusScheduleIdsByBusNumbers(anyCollection())).thenReturn(new HashMap<>(Map.of("B1", 1L)));
+
+        assertThatThrownBy(() -> busService.importBusTimetable(BusTimetableCsvParser.parse(CSV)))
+                .isInstanceOf(EntityNotFoundException.class)
+                .hasMessageContaining("B2");
+        verify(busRepository, never()).saveBusRuns(any());
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
+    @Test
+    void testImportFailsForAmbiguousRouteName() {
+        when(busRepository.getBusScheduleIdsByBusNumbers(anyCollection())).thenReturn(new HashMap<>(Map.of("B1", 1L, "B2", 2L)));
+        when(busRepository.getBusRouteIdsByNames(anyCollection()))
+                .thenThrow(new IncorrectResultSizeDataAccessException("More than one row named CAMPUS_CITY_MORNING", 1, 2));
+
+        assertThatThrownBy(() -> busService.importBusTimetable(BusTimetableCsvParser.parse(CSV)))
+                .isInstanceOf(IncorrectResultSizeDataAccessException.class);
+        verify(busRepository, never()).saveBusRoutes(any());
+        verify(busRepository, never()).saveBusRuns(any());
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+}
@@ -0,0 +1,106 @@
+package in.ac.iitj.instiapp.Tests.Service;
+
+import in.ac.iitj.instiapp.Repository.BusRepository;
+import in.ac.iitj.instiapp.database.entities.Scheduling.Buses.ScheduleType;
+import in.ac.iitj.instiapp.payload.Scheduling.Buses.BusDepartureDto;
+import in.ac.iitj.instiapp.payload.Scheduling.Buses.BusTimetableRowDto;
+import in.ac.iitj.instiapp.services.Scheduling.Buses.BusDataChangedEvent;
+import in.ac.iitj.instiapp.services.Scheduling.Buses.BusTimetableIndex;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.EmptyResultDataAccessException;
+
+import java.sql.Time;
+import java.time.LocalTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.groups.Tuple.tuple;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class BusTimetableIndexTest {
+
+    @Mock
+    private BusRepository busRepository;
+
+    @InjectMocks
+    private BusTimetableIndex busTimetableIndex;
+
+    private static BusTimetableRowDto row(String busNumber, long runId, String start, ScheduleType type, String routeName,
+                                          int stopOrder, long locationId, String location, String time) {
+        return new BusTimetableRowDto(busNumber, runId, Time.valueOf(start), type, runId, routeName,
+                stopOrder, locationId, location, Time.valueOf(time), Time.valueOf(time));
+    }
+
+    private static List<BusTimetableRowDto> timetable() {
+        return List.of(
+                row("B1", 1, "08:00:00", ScheduleType.WEEKDAY, "CAMPUS_CITY_MORNING", 1, 1, "IIT Jodhpur", "08:00:00"),
+                row("B1", 1, "08:00:00", ScheduleType.WEEKDAY, "CAMPUS_CITY_MORNING", 2, 2, "Paota", "08:40:00"),
+                // Route template starts at 07:00 but the run starts at 10:00, stops are shifted by 3 hours
+                row("B2", 2, "10:00:00", ScheduleType.WEEKDAY, "CAMPUS_CITY_LATE", 1, 1, "IIT Jodhpur", "07:00:00"),
+                row("B2", 2, "10:00:00", ScheduleType.WEEKDAY, "CAMPUS_CITY_LATE", 2, 2, "Paota", "07:30:00"),
+                row("B1", 3, "09:00:00", ScheduleType.WEEKEND, "CAMPUS_CITY_WEEKEND", 1, 1, "IIT Jodhpur", "09:00:00"),
+                // Route without stops, never departs
+                new BusTimetableRowDto("B3", 4L, Time.valueOf("08:30:00"), ScheduleType.WEEKDAY, 4L, "EMPTY",
+                        null, null, null, null, null)
+        );
+    }
+
+    @Test
+    void testNextDeparturesAreSortedAndLimited() {
+        when(busRepository.getTimetableRows()).thenReturn(timetable());
+
+        List<BusDepartureDto> departures = busTimetableIndex.getNextDepartures("Paota", ScheduleType.WEEKDAY, LocalTime.of(8, 0), 5);
+
+        assertThat(departures)
+                .extracting(BusDepartureDto::getBusNumber, BusDepartureDto::getDepartureTime)
+                .containsExactly(
+                        tuple("B1", Time.valueOf("08:40:00")),
+                        tuple("B2", Time.valueOf("10:30:00"))
+                );
+
+        assertThat(busTimetableIndex.getNextDepartures("Paota", ScheduleType.WEEKDAY, LocalTime.of(8, 0), 1)).hasSize(1);
+        assertThat(busTimetableIndex.getNextDepartures("Paota", ScheduleType.WEEKDAY, LocalTime.of(8, 41), 5))
+                .extracting(BusDepartureDto::getRouteName)
+                .containsExactly("CAMPUS_CITY_LATE");
+        assertThat(busTimetableIndex.getNextDepartures("Paota", ScheduleType.WEEKDAY, LocalTime.of(11, 0), 5)).isEmpty();
+
+        // Index is built once and reused by every lookup
+        verify(busRepository, times(1)).getTimetableRows();
+    }
+
+    @Test
+    void testScheduleTypesAreSeparated() {
+        when(busRepository.getTimetableRows()).thenReturn(timetable());
+
+        assertThat(busTimetableIndex.getNextDepartures("IIT Jodhpur", ScheduleType.WEEKEND, LocalTime.MIDNIGHT, 5))
+                .extracting(BusDepartureDto::getRouteName)
+                .containsExactly("CAMPUS_CITY_WEEKEND");
+        assertThat(busTimetableIndex.getNextDepartures("Paota", ScheduleType.WEEKEND, LocalTime.MIDNIGHT, 5)).isEmpty();
+    }
+
+    @Test
+    void testUnknownLocation() {
+        when(busRepository.getTimetableRows()).thenReturn(timetable());
+
+        assertThatThrownBy(() -> busTimetableIndex.getNextDepartures("Unknown", ScheduleType.WEEKDAY, LocalTime.MIDNIGHT, 5))
+                .isInstanceOf(EmptyResultDataAccessException.class);
+    }
+
+    @Test
+    void testRebuildOnBusDataChanged() {
+        when(busRepository.getTimetableRows()).thenReturn(timetable().subList(0, 2), timetable());
+
+        assertThat(busTimetableIndex.getNextDepartures("Paota", ScheduleType.WEEKDAY, LocalTime.MIDNIGHT, 5)).hasSize(1);
+
+        busTimetableIndex.onBusDataChanged(new BusDataChangedEvent("createBusRunWithRoute", 1L));
+
+        assertThat(busTimetableIndex.getNextDepartures("Paota", ScheduleType.WEEKDAY, LocalTime.MIDNIGHT, 5)).hasSize(2);
+        verify(busRepository, times(2)).getTimetableRows();
+    }
+}
@@ -0,0 +1,83 @@
+package in.ac.iitj.instiapp.Tests.Service;
+
+import in.ac.iitj.instiapp.Repository.JWTRefreshTokenRepository;
+import in.ac.iitj.instiapp.Repository.OAuth2TokenRepository;
+import in.ac.iitj.instiapp.Repository.RevokedTokenRepository;
+import in.ac.iitj.instiapp.services.JWTTokens.ExpiredTokenReaper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class ExpiredTokenReaperTest {
+
+    @Mock
+    private JWTRefreshTokenRepository jwtRefreshTokenRepository;
+
+    @Mock
+    private OAuth2TokenRepository oAuth2TokenRepository;
+
+    @Mock
+    private RevokedTokenRepository revokedTokenRepository;
+
+    private SimpleMeterRegistry meterRegistry;
+    private ExpiredTokenReaper expiredTokenReaper;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        expiredTokenReaper = new ExpiredTokenReaper(jwtRefreshTokenRepository, oAuth2TokenRepository, revokedTokenRepository, meterRegistry, 15);
+    }
+
+    private double purged(String table) {
+        return meterRegistry.get("instiapp.tokens.purged").tag("table", table).counter().count();
+    }
+
+    @Test
+    void testPurgeDeletesInBatchesUntilExhausted() {
+        when(jwtRefreshTokenRepository.deleteExpired(any(), anyInt())).thenReturn(1000, 1000, 250);
+        when(oAuth2TokenRepository.deleteUnusedSince(any(), anyInt())).thenReturn(40);
+        when(revokedTokenRepository.deleteExpired(any(), anyInt())).thenReturn(0);
+
+        expiredTokenReaper.purgeExpiredTokens();
+
+        verify(jwtRefreshTokenRepository, times(3)).deleteExpired(any(), eq(1000));
+        verify(oAuth2TokenRepository, times(1)).deleteUnusedSince(any(), eq(1000));
+        assertThat(purged("jwt_refresh_token")).isEqualTo(2250);
+        assertThat(purged("oauth2tokens")).isEqualTo(40);
+        assertThat(purged("revoked_token")).isZero();
+    }
+
+    @Test
+    void testOAuth2TokensArePurgedAfterMaxIdle() {
+        Instant before = Instant.now();
+
+        expiredTokenReaper.purgeExpiredTokens();
+
+        ArgumentCaptor<Instant> cutoff = ArgumentCaptor.forClass(Instant.class);
+        verify(oAuth2TokenRepository).deleteUnusedSince(cutoff.capture(), anyInt());
+        assertThat(cutoff.getValue()).isBetween(before.minus(Duration.ofDays(15)), Instant.now().minus(Duration.ofDays(15)));
+    }
+
+    @Test
+    void testPurgeIsBoundedPerRun() {
+        when(jwtRefreshTokenRepository.deleteExpired(any(), anyInt())).thenReturn(1000);
+
+        expiredTokenReaper.purgeExpiredTokens();
+
+        verify(jwtRefreshTokenRepository, times(100)).deleteExpired(any(), anyInt());
+        assertThat(purged("jwt_refresh_token")).isEqualTo(100_000);
+    }
+}
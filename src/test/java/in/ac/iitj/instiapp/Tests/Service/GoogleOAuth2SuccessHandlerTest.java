@@ -0,0 +1,98 @@
+package in.ac.iitj.instiapp.Tests.Service;
+
+import in.ac.iitj.instiapp.config.GoogleOAuth2SuccessHandler;
+import in.ac.iitj.instiapp.config.JwtProvider;
+import in.ac.iitj.instiapp.payload.Auth.OAuth2LoginUserDto;
+import in.ac.iitj.instiapp.services.UserService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.core.user.DefaultOAuth2User;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class GoogleOAuth2SuccessHandlerTest {
+
+    @Mock
+    private UserService userService;
+
+    @Mock
+    private JwtProvider jwtProvider;
+
+    @InjectMocks
+    private GoogleOAuth2SuccessHandler googleOAuth2SuccessHandler;
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    private static Authentication googleLogin() {
+        DefaultOAuth2User oauthUser = new DefaultOAuth2User(List.of(new SimpleGrantedAuthority("OAUTH2_USER")), Map.of(
+                "email", "b22cs001@iitj.ac.in",
+                "given_name", "First",
+                "family_name", "Last",
+                "name", "First Last",
+                "picture", "https://example.com/avatar.png"
+        ), "email");
+        return new TestingAuthenticationToken(oauthUser, null);
+    }
+
+    @Test
+    void testLoginResolvesUserOnceAndDefersProfileSync() throws Exception {
+        when(userService.getOrCreateOauth2User("b22cs001@iitj.ac.in", "First", "Last"))
+                .thenReturn(new OAuth2LoginUserDto("first.last.b22cs001.1a2b3c4d", "Student", "First", null, true));
+        when(jwtProvider.generateAccessToken(any())).thenReturn("access");
+        when(jwtProvider.generateRefreshToken(any())).thenReturn("refresh");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        googleOAuth2SuccessHandler.onAuthenticationSuccess(new MockHttpServletRequest(), response, googleLogin());
+
+        verify(userService).syncOauth2ProfileAsync("First Last", "https://example.com/avatar.png", "first.last.b22cs001.1a2b3c4d");
+        verifyNoMoreInteractions(userService);
+        verify(jwtProvider).generateAccessToken(argThat(auth -> auth.getName().equals("first.last.b22cs001.1a2b3c4d")
+                && auth.getAuthorities().stream().anyMatch(authority -> authority.getAuthority().equals("Student"))));
+        assertThat(response.getCookie("accessToken").getValue()).isEqualTo("access");
+        assertThat(response.getCookie("refreshToken").getValue()).isEqualTo("refresh");
+        assertThat(response.getContentAsString()).contains("Auto-signup via Google successful");
+    }
+
+    @Test
+    void testLoginWithUnchangedProfileDoesNotSyncIt() throws Exception {
+        when(userService.getOrCreateOauth2User("b22cs001@iitj.ac.in", "First", "Last"))
+                .thenReturn(new OAuth2LoginUserDto("first.last.b22cs001.1a2b3c4d", "Student", "First Last", "https://example.com/avatar.png", false));
+        when(jwtProvider.generateAccessToken(any())).thenReturn("access");
+        when(jwtProvider.generateRefreshToken(any())).thenReturn("refresh");
+
+        googleOAuth2SuccessHandler.onAuthenticationSuccess(new MockHttpServletRequest(), new MockHttpServletResponse(), googleLogin());
+
+        verify(userService, never()).syncOauth2ProfileAsync(any(), any(), any());
+    }
+
+    @Test
+    void testLoginFailsWhenUserCannotBeResolved() throws Exception {
+        when(userService.getOrCreateOauth2User(any(), any(), any()))
+                .thenThrow(new org.springframework.dao.EmptyResultDataAccessException("User Type Student doesn't exist in database", 1));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        googleOAuth2SuccessHandler.onAuthenticationSuccess(new MockHttpServletRequest(), response, googleLogin());
+
+        assertThat(response.getStatus()).isEqualTo(500);
+        verify(userService, never()).syncOauth2ProfileAsync(any(), any(), any());
+        verifyNoInteractions(jwtProvider);
+    }
+}
@@ -8,6 +8,7 @@ import in.ac.iitj.instiapp.database.entities.Grievance;
 import in.ac.iitj.instiapp.database.entities.Media.Mediatype;
 import in.ac.iitj.instiapp.database.entities.User.Organisation.OrganisationPermission;
 import in.ac.iitj.instiapp.payload.GrievanceDto;
+import in.ac.iitj.instiapp.payload.common.CursorPage;
 
 import in.ac.iitj.instiapp.payload.Media.MediaBaseDto;
 import in.ac.iitj.instiapp.payload.User.Organisation.OrganisationRoleDto;
@@ -30,8 +31,7 @@ import org.mockito.Mockito;
 import org.mockito.MockitoAnnotations;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.core.annotation.Order;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
+import in.ac.iitj.instiapp.Utils.PageCursor;
 
 import java.util.Arrays;
 import java.util.List;
@@ -175,7 +175,7 @@ public class GrievanceServiceTest {
         String description = "Sample Description";
         String organisationName = "Organisation1";
         Boolean resolved = true;
-        Pageable pageable = PageRequest.of(0, 10); // Example Pageable for pagination
+        PageCursor cursor = PageCursor.of(null, 10); // First page of the keyset pagination
 
         // Creating sample GrievanceDto objects
         GrievanceDto grievanceDto1 = new GrievanceDto(
@@ -211,20 +211,22 @@ public class GrievanceServiceTest {
                 Optional.of(description),
                 Optional.of(organisationName),
                 Optional.of(resolved),
-                pageable
-        )).thenReturn(grievanceDtos);
+                cursor
+        )).thenReturn(new CursorPage<>(grievanceDtos, null));
 
         // Act
-        List<GrievanceDto> result = grievanceService.getGrievancesByFilter(
+        CursorPage<GrievanceDto> page = grievanceService.getGrievancesByFilter(
                 Optional.of(title),
                 Optional.of(description),
                 Optional.of(organisationName),
                 Optional.of(resolved),
-                pageable
+                cursor
         );
 
         // Assert using AssertJ
-        assertThat(result).isNotNull();
+        assertThat(page).isNotNull();
+        assertThat(page.getNextCursor()).isNull();
+        List<GrievanceDto> result = page.getItems();
         assertThat(result).hasSize(2); // We expect 2 grievances as returned by mock
 
         // Validate GrievanceDto fields
@@ -246,7 +248,7 @@ public class GrievanceServiceTest {
                 Optional.of(description),
                 Optional.of(organisationName),
                 Optional.of(resolved),
-                pageable
+                cursor
         );
     }
 
@@ -0,0 +1,108 @@
+package in.ac.iitj.instiapp.Tests.Service;
+
+import com.nimbusds.jose.*;
+import com.nimbusds.jose.crypto.RSAEncrypter;
+import com.nimbusds.jose.crypto.RSASSASigner;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import in.ac.iitj.instiapp.services.JWTTokens.JWEApprovedTokens;
+import in.ac.iitj.instiapp.services.JWTTokens.JWEConstants;
+import in.ac.iitj.instiapp.services.JWTTokens.JWEService;
+import in.ac.iitj.instiapp.services.JWTTokens.VerifiedClaimsCache;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.CredentialsExpiredException;
+
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.interfaces.RSAPublicKey;
+import java.util.Base64;
+import java.util.Date;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class JWEServiceTest {
+
+    private static KeyPair keyPair;
+    private static KeyPair otherKeyPair;
+
+    private JWEService jweService;
+    private JWEApprovedTokens jweApprovedTokens;
+
+    @BeforeAll
+    static void generateKeys() throws Exception {
+        KeyPairGenerator keyGen = KeyPairGenerator.getInstance("RSA");
+        keyGen.initialize(2048);
+        keyPair = keyGen.generateKeyPair();
+        otherKeyPair = keyGen.generateKeyPair();
+    }
+
+    @BeforeEach
+    void setUp() {
+        jweService = new JWEService(keyPair, new VerifiedClaimsCache());
+        jweApprovedTokens = new JWEApprovedTokens(jweService);
+    }
+
+    @Test
+    void testRepeatedExtractionIsServedFromCache() throws Exception {
+        String token = jweApprovedTokens.generateToken("username", new JWTClaimsSet.Builder().claim(JWEConstants.KEYS_DEVICE_ID, "device").build()).orElseThrow();
+
+        JWTClaimsSet first = jweApprovedTokens.getClaimSet(token).orElseThrow();
+        assertThat(first.getSubject()).isEqualTo("username");
+        assertThat(first.getStringClaim(JWEConstants.KEYS_DEVICE_ID)).isEqualTo("device");
+        assertThat(first.getStringClaim(JWEConstants.KEYS_STATE)).isEqualTo(JWEConstants.STATES.STATE_APPROVED.name());
+        assertThat(jweService.extractClaims(token)).isSameAs(first);
+
+        // After eviction the token is decrypted again
+        jweService.evictToken(token);
+        JWTClaimsSet decryptedAgain = jweService.extractClaims(token);
+        assertThat(decryptedAgain).isNotSameAs(first);
+        assertThat(decryptedAgain.getClaims()).isEqualTo(first.getClaims());
+    }
+
+    @Test
+    void testInstancesConfiguredWithSameKeysReadEachOthersTokens() throws Exception {
+        JWEService configured = new JWEService(
+                Base64.getEncoder().encodeToString(keyPair.getPrivate().getEncoded()),
+                Base64.getEncoder().encodeToString(keyPair.getPublic().getEncoded()), new VerifiedClaimsCache());
+        String token = configured.encryptData(null, "username", JWEConstants.ExpirationDuration.SHORT);
+
+        assertThat(jweService.extractClaims(token).getSubject()).isEqualTo("username");
+        assertThatThrownBy(() -> new JWEService(otherKeyPair, new VerifiedClaimsCache()).extractClaims(token)).isInstanceOf(JOSEException.class);
+        assertThatThrownBy(() -> new JWEService(Base64.getEncoder().encodeToString(keyPair.getPrivate().getEncoded()), "", new VerifiedClaimsCache()))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void testTokenSignedWithAnotherKeyIsRejected() throws Exception {
+        SignedJWT signedJWT = new SignedJWT(new JWSHeader(JWSAlgorithm.RS256), new JWTClaimsSet.Builder()
+                .subject("username")
+                .expirationTime(new Date(System.currentTimeMillis() + 60_000))
+                .build());
+        signedJWT.sign(new RSASSASigner(otherKeyPair.getPrivate()));
+        JWEObject jweObject = new JWEObject(new JWEHeader.Builder(JWEAlgorithm.RSA_OAEP_256, EncryptionMethod.A256GCM).contentType("JWT").build(),
+                new Payload(signedJWT));
+        jweObject.encrypt(new RSAEncrypter((RSAPublicKey) keyPair.getPublic()));
+
+        assertThatThrownBy(() -> jweService.extractClaims(jweObject.serialize())).isInstanceOf(JOSEException.class);
+        assertThat(jweApprovedTokens.getClaimSet(jweObject.serialize())).isEmpty();
+    }
+
+    @Test
+    void testExpiredTokenIsNotCached() throws Exception {
+        SignedJWT signedJWT = new SignedJWT(new JWSHeader(JWSAlgorithm.RS256), new JWTClaimsSet.Builder()
+                .subject("username")
+                .expirationTime(new Date(System.currentTimeMillis() - 1_000))
+                .build());
+        signedJWT.sign(new RSASSASigner(keyPair.getPrivate()));
+        JWEObject jweObject = new JWEObject(new JWEHeader.Builder(JWEAlgorithm.RSA_OAEP_256, EncryptionMethod.A256GCM).contentType("JWT").build(),
+                new Payload(signedJWT));
+        jweObject.encrypt(new RSAEncrypter((RSAPublicKey) keyPair.getPublic()));
+        String token = jweObject.serialize();
+
+        assertThat(jweService.extractClaims(token)).isNotSameAs(jweService.extractClaims(token));
+        assertThatThrownBy(() -> jweApprovedTokens.getClaimSet(token)).isInstanceOf(CredentialsExpiredException.class);
+    }
+}
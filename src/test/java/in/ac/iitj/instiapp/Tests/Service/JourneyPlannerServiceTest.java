@@ -0,0 +1,95 @@
+package in.ac.iitj.instiapp.Tests.Service;
+
+import in.ac.iitj.instiapp.Repository.BusRepository;
+import in.ac.iitj.instiapp.database.entities.Scheduling.Buses.ScheduleType;
+import in.ac.iitj.instiapp.payload.Scheduling.Buses.BusTimetableRowDto;
+import in.ac.iitj.instiapp.payload.Scheduling.Buses.JourneyDto;
+import in.ac.iitj.instiapp.payload.Scheduling.Buses.JourneyLegDto;
+import in.ac.iitj.instiapp.services.impl.JourneyPlannerServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.EmptyResultDataAccessException;
+
+import java.sql.Time;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.groups.Tuple.tuple;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class JourneyPlannerServiceTest {
+
+    @Mock
+    private BusRepository busRepository;
+
+    @InjectMocks
+    private JourneyPlannerServiceImpl journeyPlannerService;
+
+    /**
+     * @param stops alternating location name and time, arrival and departure are equal
+     */
+    private static List<BusTimetableRowDto> run(String busNumber, long runId, String routeName, String... stops) {
+        List<BusTimetableRowDto> rows = new ArrayList<>();
+        for (int i = 0; i < stops.length; i += 2) {
+            Time time = Time.valueOf(stops[i + 1]);
+            rows.add(new BusTimetableRowDto(busNumber, runId, Time.valueOf(stops[1]), ScheduleType.WEEKDAY, runId, routeName,
+                    i / 2 + 1, (long) stops[i].hashCode(), stops[i], time, time));
+        }
+        return rows;
+    }
+
+    @BeforeEach
+    void setUp() {
+        List<BusTimetableRowDto> rows = new ArrayList<>();
+        // Campus -> Paota -> Station, slow
+        rows.addAll(run("B1", 1, "CAMPUS_STATION", "Campus", "08:00:00", "Paota", "08:40:00", "Station", "09:30:00"));
+        // Campus -> Paota, then B2 Paota -> Station is faster than staying on B1
+        rows.addAll(run("B2", 2, "PAOTA_STATION", "Paota", "08:50:00", "Station", "09:10:00"));
+        // Later direct run
+        rows.addAll(run("B3", 3, "CAMPUS_STATION_LATE", "Campus", "10:00:00", "Station", "10:45:00"));
+        when(busRepository.getTimetableRows()).thenReturn(rows);
+    }
+
+    @Test
+    void testEarliestArrivalUsesTransfer() {
+        JourneyDto journey = journeyPlannerService.planJourney("Campus", "Station", LocalTime.of(7, 30), ScheduleType.WEEKDAY);
+
+        assertThat(journey.getArrivalTime()).isEqualTo(Time.valueOf("09:10:00"));
+        assertThat(journey.getDepartureTime()).isEqualTo(Time.valueOf("08:00:00"));
+        assertThat(journey.getTransfers()).isEqualTo(1);
+        assertThat(journey.getLegs())
+                .extracting(JourneyLegDto::getBusNumber, JourneyLegDto::getFromLocation, JourneyLegDto::getToLocation, JourneyLegDto::getArrivalTime)
+                .containsExactly(
+                        tuple("B1", "Campus", "Paota", Time.valueOf("08:40:00")),
+                        tuple("B2", "Paota", "Station", Time.valueOf("09:10:00"))
+                );
+    }
+
+    @Test
+    void testLaterDepartureAndUnreachable() {
+        JourneyDto journey = journeyPlannerService.planJourney("Campus", "Station", LocalTime.of(8, 1), ScheduleType.WEEKDAY);
+        assertThat(journey.getLegs()).extracting(JourneyLegDto::getBusNumber).containsExactly("B3");
+        assertThat(journey.getTransfers()).isZero();
+
+        assertThat(journeyPlannerService.planJourney("Campus", "Station", LocalTime.of(11, 0), ScheduleType.WEEKDAY)).isNull();
+        assertThat(journeyPlannerService.planJourney("Station", "Campus", LocalTime.of(7, 0), ScheduleType.WEEKDAY)).isNull();
+        assertThat(journeyPlannerService.planJourney("Campus", "Station", LocalTime.of(7, 0), ScheduleType.WEEKEND)).isNull();
+
+        // Graph is built once and reused by every query
+        verify(busRepository, times(1)).getTimetableRows();
+    }
+
+    @Test
+    void testUnknownLocation() {
+        assertThatThrownBy(() -> journeyPlannerService.planJourney("Campus", "Airport", LocalTime.of(7, 0), ScheduleType.WEEKDAY))
+                .isInstanceOf(EmptyResultDataAccessException.class);
+    }
+}
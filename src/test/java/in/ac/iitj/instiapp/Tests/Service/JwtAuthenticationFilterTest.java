@@ -0,0 +1,102 @@
+package in.ac.iitj.instiapp.Tests.Service;
+
+import in.ac.iitj.instiapp.authfiles.JwtAuthenticationFilter;
+import in.ac.iitj.instiapp.Repository.KeyRingRepository;
+import in.ac.iitj.instiapp.Repository.RevokedTokenRepository;
+import in.ac.iitj.instiapp.config.JwtProvider;
+import in.ac.iitj.instiapp.database.entities.Auth.KeyRingKey;
+import in.ac.iitj.instiapp.payload.Auth.KeyRingKeyDto;
+import in.ac.iitj.instiapp.services.JWTTokens.KeyRing;
+import in.ac.iitj.instiapp.services.JWTTokens.TokenRevocationList;
+import in.ac.iitj.instiapp.services.JWTTokens.VerifiedClaimsCache;
+import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+public class JwtAuthenticationFilterTest {
+
+    private RevokedTokenRepository revokedTokenRepository;
+    private JwtProvider jwtProvider;
+    private JwtAuthenticationFilter filter;
+    private String accessToken;
+
+    @BeforeEach
+    void setUp() {
+        revokedTokenRepository = mock(RevokedTokenRepository.class);
+        KeyRingRepository keyRingRepository = mock(KeyRingRepository.class);
+        Instant notBefore = Instant.now().minus(Duration.ofDays(1));
+        when(keyRingRepository.getUnexpiredKeys(any())).thenReturn(List.of(new KeyRingKeyDto("jwt-1", KeyRingKey.Purpose.JWT,
+                Base64.getEncoder().encodeToString(new byte[32]), notBefore, notBefore.plus(KeyRing.ROTATION_PERIOD))));
+        jwtProvider = new JwtProvider(new TokenRevocationList(revokedTokenRepository), new KeyRing(keyRingRepository, ""), new VerifiedClaimsCache());
+        filter = new JwtAuthenticationFilter(jwtProvider);
+        accessToken = jwtProvider.generateAccessToken(new UsernamePasswordAuthenticationToken(
+                "username", null, List.of(new SimpleGrantedAuthority("Student"))));
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    private Authentication filter(MockHttpServletRequest request) throws Exception {
+        AtomicReference<Authentication> seen = new AtomicReference<>();
+        MockFilterChain chain = new MockFilterChain(new jakarta.servlet.http.HttpServlet() {
+            @Override
+            protected void service(jakarta.servlet.http.HttpServletRequest req, jakarta.servlet.http.HttpServletResponse res) {
+                seen.set(SecurityContextHolder.getContext().getAuthentication());
+            }
+        });
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+        return seen.get();
+    }
+
+    @Test
+    void testBearerHeaderAuthenticatesWithoutSession() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/users/me");
+        request.addHeader("Authorization", "Bearer " + accessToken);
+
+        Authentication authentication = filter(request);
+
+        assertThat(authentication.getName()).isEqualTo("username");
+        assertThat(authentication.getAuthorities()).extracting(Object::toString).containsExactly("Student");
+        assertThat(request.getSession(false)).isNull();
+    }
+
+    @Test
+    void testAccessTokenCookieAuthenticates() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/users/me");
+        request.setCookies(new Cookie("accessToken", accessToken));
+
+        assertThat(filter(request).getName()).isEqualTo("username");
+    }
+
+    @Test
+    void testInvalidOrMissingTokenContinuesUnauthenticated() throws Exception {
+        MockHttpServletRequest invalid = new MockHttpServletRequest("GET", "/api/users/me");
+        invalid.addHeader("Authorization", "Bearer " + accessToken.substring(0, accessToken.length() - 2) + (accessToken.endsWith("A") ? "BB" : "AA"));
+        MockHttpServletRequest refresh = new MockHttpServletRequest("GET", "/api/users/me");
+        refresh.addHeader("Authorization", "Bearer " + jwtProvider.generateRefreshToken(
+                new UsernamePasswordAuthenticationToken("username", null, List.of())));
+
+        assertThat(filter(invalid)).isNull();
+        assertThat(filter(refresh)).isNull();
+        assertThat(filter(new MockHttpServletRequest("GET", "/api/users/me"))).isNull();
+    }
+}
@@ -0,0 +1,206 @@
+package in.ac.iitj.instiapp.Tests.Service;
+
+import in.ac.iitj.instiapp.config.JwtConstant;
+import in.ac.iitj.instiapp.Repository.KeyRingRepository;
+import in.ac.iitj.instiapp.Repository.RevokedTokenRepository;
+import in.ac.iitj.instiapp.config.JwtProvider;
+import in.ac.iitj.instiapp.database.entities.Auth.KeyRingKey;
+import in.ac.iitj.instiapp.exception.InvalidTokenException;
+import in.ac.iitj.instiapp.payload.Auth.KeyRingKeyDto;
+import in.ac.iitj.instiapp.services.JWTTokens.KeyRing;
+import in.ac.iitj.instiapp.services.JWTTokens.TokenRevocationList;
+import in.ac.iitj.instiapp.services.JWTTokens.VerifiedClaimsCache;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Date;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class JwtProviderTest {
+
+    private static final SecretKey KEY = Keys.hmacShaKeyFor(JwtConstant.SECRET_KEY.getBytes(StandardCharsets.UTF_8));
+
+    private RevokedTokenRepository revokedTokenRepository;
+    private KeyRingRepository keyRingRepository;
+    private KeyRing keyRing;
+    private JwtProvider jwtProvider;
+    private String accessToken;
+
+    @BeforeEach
+    void setUp() {
+        revokedTokenRepository = mock(RevokedTokenRepository.class);
+        keyRingRepository = mock(KeyRingRepository.class);
+        when(keyRingRepository.getUnexpiredKeys(any())).thenReturn(List.of(jwtKey("jwt-1", Instant.now().minus(Duration.ofDays(1)))));
+        keyRing = new KeyRing(keyRingRepository, "");
+        jwtProvider = new JwtProvider(new TokenRevocationList(revokedTokenRepository), keyRing, new VerifiedClaimsCache());
+        accessToken = jwtProvider.generateAccessToken(new UsernamePasswordAuthenticationToken(
+                "username", null, List.of(new SimpleGrantedAuthority("ROLE_USER"))));
+    }
+
+    private static KeyRingKeyDto jwtKey(String kid, Instant notBefore) {
+        return new KeyRingKeyDto(kid, KeyRingKey.Purpose.JWT, Base64.getEncoder().encodeToString(kid.repeat(8).getBytes(StandardCharsets.UTF_8)),
+                notBefore, notBefore.plus(KeyRing.ROTATION_PERIOD).plus(KeyRing.RETENTION));
+    }
+
+    private static String header(String jwt) {
+        return new String(Base64.getUrlDecoder().decode(jwt.substring(0, jwt.indexOf('.'))), StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void testRepeatedValidationOfSameToken() {
+        // Second round is served from the verified claims cache and must give the same answers
+        for (int i = 0; i < 2; i++) {
+            assertThat(jwtProvider.validateAccessToken(accessToken)).isTrue();
+            assertThat(jwtProvider.getUsernameFromToken("Bearer " + accessToken)).isEqualTo("username");
+            assertThat(jwtProvider.validateRefreshToken(accessToken)).isFalse();
+        }
+    }
+
+    @Test
+    void testTamperedAndForeignTokensAreRejected() {
+        jwtProvider.validateAccessToken(accessToken);
+        String tampered = accessToken.substring(0, accessToken.length() - 2) + (accessToken.endsWith("A") ? "BB" : "AA");
+        String foreign = Jwts.builder()
+                .claim("username", "username")
+                .expiration(new Date(System.currentTimeMillis() + 60_000))
+                .signWith(Keys.hmacShaKeyFor("another-secret-key-that-is-long-enough-for-hs256".getBytes(StandardCharsets.UTF_8)))
+                .compact();
+
+        assertThat(jwtProvider.validateAccessToken(tampered)).isFalse();
+        assertThat(jwtProvider.validateAccessToken(foreign)).isFalse();
+        assertThatThrownBy(() -> jwtProvider.getUsernameFromToken("Bearer " + foreign)).isInstanceOf(JwtException.class);
+    }
+
+    @Test
+    void testTokenWithoutBearerPrefixIsRejected() {
+        assertThatThrownBy(() -> jwtProvider.getUsernameFromToken(accessToken)).isInstanceOf(InvalidTokenException.class);
+        assertThatThrownBy(() -> jwtProvider.getUsernameFromToken("Basic " + accessToken)).isInstanceOf(InvalidTokenException.class);
+        assertThatThrownBy(() -> jwtProvider.getUsernameFromToken("Bearer")).isInstanceOf(InvalidTokenException.class);
+        assertThatThrownBy(() -> jwtProvider.getUsernameFromToken(null)).isInstanceOf(InvalidTokenException.class);
+    }
+
+    @Test
+    void testExpiredTokenIsRejected() {
+        String expired = Jwts.builder()
+                .claim("username", "username")
+                .expiration(new Date(System.currentTimeMillis() - 60_000))
+                .header().keyId("jwt-1").and()
+                .signWith(Keys.hmacShaKeyFor("jwt-1".repeat(8).getBytes(StandardCharsets.UTF_8)))
+                .compact();
+
+        assertThat(jwtProvider.validateAccessToken(expired)).isFalse();
+        assertThatThrownBy(() -> jwtProvider.getUsernameFromToken("Bearer " + expired)).isInstanceOf(ExpiredJwtException.class);
+    }
+
+    @Test
+    void testEvictedTokenIsVerifiedAgain() {
+        assertThat(jwtProvider.validateAccessToken(accessToken)).isTrue();
+
+        jwtProvider.evictToken("Bearer " + accessToken);
+        jwtProvider.evictToken(null);
+
+        assertThat(jwtProvider.validateAccessToken(accessToken)).isTrue();
+    }
+
+    @Test
+    void testAuthenticationFromAccessTokenClaims() {
+        Authentication authentication = jwtProvider.getAuthentication(accessToken);
+
+        assertThat(authentication.isAuthenticated()).isTrue();
+        assertThat(authentication.getName()).isEqualTo("username");
+        assertThat(authentication.getAuthorities()).extracting(GrantedAuthority::getAuthority).containsExactly("ROLE_USER");
+    }
+
+    @Test
+    void testAuthenticationRejectsRefreshAndInvalidTokens() {
+        String refreshToken = jwtProvider.generateRefreshToken(new UsernamePasswordAuthenticationToken("username", null, List.of()));
+
+        assertThat(jwtProvider.getAuthentication(refreshToken)).isNull();
+        assertThat(jwtProvider.getAuthentication("not-a-token")).isNull();
+        assertThat(jwtProvider.getAuthentication("")).isNull();
+    }
+
+    @Test
+    void testRevokedTokenIsRejected() {
+        assertThat(jwtProvider.validateAccessToken(accessToken)).isTrue();
+
+        jwtProvider.revokeToken("Bearer " + accessToken);
+
+        verify(revokedTokenRepository).revoke(anyString(), any());
+        assertThat(jwtProvider.validateAccessToken(accessToken)).isFalse();
+        assertThat(jwtProvider.getAuthentication(accessToken)).isNull();
+        assertThatThrownBy(() -> jwtProvider.getUsernameFromToken("Bearer " + accessToken)).isInstanceOf(JwtException.class);
+    }
+
+    @Test
+    void testTokensAreVerifiedWithTheKeyNamedByKid() {
+        String refreshToken = jwtProvider.generateRefreshToken(new UsernamePasswordAuthenticationToken("username", null, List.of()));
+        assertThat(header(accessToken)).contains("\"kid\":\"jwt-1\"");
+
+        // jwt-2 takes over, tokens of jwt-1 stay valid
+        when(keyRingRepository.getUnexpiredKeys(any())).thenReturn(List.of(
+                jwtKey("jwt-1", Instant.now().minus(Duration.ofDays(31))),
+                jwtKey("jwt-2", Instant.now().minus(Duration.ofMinutes(1)))));
+        keyRing.refresh();
+        String rotatedToken = jwtProvider.generateAccessToken(new UsernamePasswordAuthenticationToken("username", null, List.of()));
+        assertThat(header(rotatedToken)).contains("\"kid\":\"jwt-2\"");
+        assertThat(jwtProvider.validateAccessToken(rotatedToken)).isTrue();
+        assertThat(jwtProvider.validateRefreshToken(refreshToken)).isTrue();
+
+        // Once jwt-1 has expired its tokens are rejected
+        when(keyRingRepository.getUnexpiredKeys(any())).thenReturn(List.of(jwtKey("jwt-2", Instant.now().minus(Duration.ofMinutes(1)))));
+        keyRing.refresh();
+        jwtProvider.evictToken(refreshToken);
+        assertThat(jwtProvider.validateRefreshToken(refreshToken)).isFalse();
+        assertThat(jwtProvider.validateAccessToken(rotatedToken)).isTrue();
+    }
+
+    @Test
+    void testTokensWithoutKidAreRejected() {
+        // Signed with the secret from the source, as tokens were before the key ring
+        String forgedAccess = Jwts.builder()
+                .claim("username", "username")
+                .claim("token_type", "access")
+                .claim("authorities", List.of("ROLE_ADMIN"))
+                .expiration(new Date(System.currentTimeMillis() + 60_000))
+                .signWith(KEY)
+                .compact();
+        String forgedRefresh = Jwts.builder()
+                .claim("username", "username")
+                .claim("token_type", "refresh")
+                .expiration(new Date(System.currentTimeMillis() + 60_000))
+                .signWith(KEY)
+                .compact();
+
+        assertThat(jwtProvider.validateAccessToken(forgedAccess)).isFalse();
+        assertThat(jwtProvider.getAuthentication(forgedAccess)).isNull();
+        assertThatThrownBy(() -> jwtProvider.getUsernameFromToken("Bearer " + forgedAccess)).isInstanceOf(JwtException.class);
+        assertThat(jwtProvider.validateRefreshToken(forgedRefresh)).isFalse();
+    }
+
+    @Test
+    void testTokensAreNotSignedWithoutKeyRingKey() {
+        when(keyRingRepository.getUnexpiredKeys(any())).thenReturn(List.of());
+        keyRing.refresh();
+
+        assertThatThrownBy(() -> jwtProvider.generateAccessToken(new UsernamePasswordAuthenticationToken("username", null, List.of())))
+                .isInstanceOf(IllegalStateException.class);
+    }
+}
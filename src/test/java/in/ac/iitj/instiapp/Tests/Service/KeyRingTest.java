@@ -0,0 +1,108 @@
+package in.ac.iitj.instiapp.Tests.Service;
+
+import in.ac.iitj.instiapp.Repository.KeyRingRepository;
+import in.ac.iitj.instiapp.database.entities.Auth.KeyRingKey.Purpose;
+import in.ac.iitj.instiapp.payload.Auth.KeyRingKeyDto;
+import in.ac.iitj.instiapp.services.JWTTokens.KeyRing;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Base64;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+public class KeyRingTest {
+
+    private KeyRingRepository keyRingRepository;
+
+    @BeforeEach
+    void setUp() {
+        keyRingRepository = mock(KeyRingRepository.class);
+    }
+
+    private static KeyRingKeyDto key(String kid, Purpose purpose, Instant notBefore) {
+        return new KeyRingKeyDto(kid, purpose, Base64.getEncoder().encodeToString(new byte[32]),
+                notBefore, notBefore.plus(KeyRing.ROTATION_PERIOD).plus(KeyRing.RETENTION));
+    }
+
+    @Test
+    void testFirstKeysArePublishedWhenTheRingIsEmpty() {
+        Instant today = Instant.now().truncatedTo(ChronoUnit.DAYS);
+        List<KeyRingKeyDto> published = List.of(
+                key("jwt-" + today.getEpochSecond(), Purpose.JWT, today),
+                key("aes-" + today.getEpochSecond(), Purpose.AES, today));
+        when(keyRingRepository.getUnexpiredKeys(any())).thenReturn(List.of(), published);
+        KeyRing keyRing = new KeyRing(keyRingRepository, "");
+
+        assertThat(keyRing.activeKey(Purpose.JWT).getKid()).isEqualTo("jwt-" + today.getEpochSecond());
+        assertThat(keyRing.activeKey(Purpose.AES).getKid()).isEqualTo("aes-" + today.getEpochSecond());
+
+        ArgumentCaptor<KeyRingKeyDto> inserted = ArgumentCaptor.forClass(KeyRingKeyDto.class);
+        verify(keyRingRepository, times(2)).insertKey(inserted.capture());
+        // Every instance derives the same kid, the table keeps only the first insert
+        assertThat(inserted.getAllValues()).extracting(KeyRingKeyDto::getKid)
+                .containsExactlyInAnyOrder("jwt-" + today.getEpochSecond(), "aes-" + today.getEpochSecond());
+        assertThat(inserted.getAllValues()).allSatisfy(key -> assertThat(Base64.getDecoder().decode(key.getSecret())).hasSize(32));
+    }
+
+    @Test
+    void testSuccessorIsPublishedAheadOfRotation() {
+        Instant notBefore = Instant.now().minus(KeyRing.ROTATION_PERIOD).plus(Duration.ofMinutes(20)).truncatedTo(ChronoUnit.SECONDS);
+        KeyRingKeyDto current = key("jwt-1", Purpose.JWT, notBefore);
+        KeyRingKeyDto aes = key("aes-1", Purpose.AES, Instant.now().minus(Duration.ofDays(1)));
+        Instant successorNotBefore = notBefore.plus(KeyRing.ROTATION_PERIOD);
+        KeyRingKeyDto successor = key("jwt-" + successorNotBefore.getEpochSecond(), Purpose.JWT, successorNotBefore);
+        when(keyRingRepository.getUnexpiredKeys(any())).thenReturn(List.of(current, aes), List.of(current, aes, successor));
+        KeyRing keyRing = new KeyRing(keyRingRepository, "");
+
+        // The successor is known, so tokens it signs are accepted, but the current key keeps signing until it takes over
+        assertThat(keyRing.activeKey(Purpose.JWT).getKid()).isEqualTo("jwt-1");
+        assertThat(keyRing.key(Purpose.JWT, successor.getKid())).isNotNull();
+        assertThat(keyRing.key(Purpose.AES, successor.getKid())).isNull();
+        verify(keyRingRepository).insertKey(argThat(key -> key.getKid().equals(successor.getKid())
+                && key.getNotBefore().equals(successorNotBefore)));
+        verify(keyRingRepository, never()).insertKey(argThat(key -> key.getPurpose() == Purpose.AES));
+    }
+
+    @Test
+    void testFileIsUsedWhenTheTableCannotBeRead(@TempDir Path directory) {
+        Path file = directory.resolve("keyring.json");
+        List<KeyRingKeyDto> keys = List.of(
+                key("jwt-1", Purpose.JWT, Instant.now().minus(Duration.ofDays(1))),
+                key("aes-1", Purpose.AES, Instant.now().minus(Duration.ofDays(1))));
+        when(keyRingRepository.getUnexpiredKeys(any())).thenReturn(keys);
+        new KeyRing(keyRingRepository, file.toString()).refresh();
+
+        KeyRingRepository unavailable = mock(KeyRingRepository.class);
+        when(unavailable.getUnexpiredKeys(any())).thenThrow(new DataAccessResourceFailureException("Connection refused"));
+        KeyRing keyRing = new KeyRing(unavailable, file.toString());
+
+        assertThat(keyRing.activeKey(Purpose.JWT).getKid()).isEqualTo("jwt-1");
+        assertThat(keyRing.key(Purpose.AES, "aes-1")).isNotNull();
+        verify(unavailable, never()).insertKey(any());
+    }
+
+    @Test
+    void testKeysStayInUseWhenNothingCanBeLoaded() {
+        when(keyRingRepository.getUnexpiredKeys(any()))
+                .thenReturn(List.of(
+                        key("jwt-1", Purpose.JWT, Instant.now().minus(Duration.ofDays(1))),
+                        key("aes-1", Purpose.AES, Instant.now().minus(Duration.ofDays(1)))))
+                .thenThrow(new DataAccessResourceFailureException("Connection refused"));
+        KeyRing keyRing = new KeyRing(keyRingRepository, "");
+        assertThat(keyRing.activeKey(Purpose.JWT)).isNotNull();
+
+        keyRing.refresh();
+
+        assertThat(keyRing.activeKey(Purpose.JWT).getKid()).isEqualTo("jwt-1");
+    }
+}
@@ -0,0 +1,81 @@
+package in.ac.iitj.instiapp.Tests.Service;
+
+import in.ac.iitj.instiapp.Repository.LostnFoundRepository;
+import in.ac.iitj.instiapp.payload.LostnFound.LostnFoundArchiveBatchDto;
+import in.ac.iitj.instiapp.services.CloudinaryService;
+import in.ac.iitj.instiapp.services.LostnFound.LostnFoundArchiver;
+import in.ac.iitj.instiapp.services.LostnFound.LostnFoundChangedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+public class LostnFoundArchiverTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private LostnFoundRepository lostnFoundRepository;
+    private CloudinaryService cloudinaryService;
+    private ApplicationEventPublisher eventPublisher;
+    private LostnFoundArchiver archiver;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        lostnFoundRepository = mock(LostnFoundRepository.class);
+        cloudinaryService = mock(CloudinaryService.class);
+        eventPublisher = mock(ApplicationEventPublisher.class);
+        archiver = new LostnFoundArchiver(lostnFoundRepository, cloudinaryService, eventPublisher, meterRegistry, 180);
+    }
+
+    @Test
+    void testArchivesInBatchesAndDeletesTheirMedia() {
+        when(lostnFoundRepository.archiveLostnFound(any(), any(), anyInt()))
+                .thenReturn(new LostnFoundArchiveBatchDto(500, List.of(1L, 2L)))
+                .thenReturn(new LostnFoundArchiveBatchDto(3, List.of()));
+        when(lostnFoundRepository.deleteUnusedMedia(List.of(1L, 2L))).thenReturn(List.of("media1"));
+
+        Instant before = Instant.now();
+        archiver.archive();
+
+        ArgumentCaptor<Instant> createdBefore = ArgumentCaptor.forClass(Instant.class);
+        verify(lostnFoundRepository, times(2)).archiveLostnFound(createdBefore.capture(), any(), eq(500));
+        assertThat(createdBefore.getValue()).isBetween(before.minus(Duration.ofDays(180)), Instant.now().minus(Duration.ofDays(180)));
+        // Media 2 is still used by another item
+        verify(cloudinaryService).deleteFileAsync("media1");
+        verifyNoMoreInteractions(cloudinaryService);
+        verify(eventPublisher).publishEvent(any(LostnFoundChangedEvent.class));
+        assertThat(meterRegistry.get("instiapp.lostnfound.archived").counter().count()).isEqualTo(503);
+        assertThat(meterRegistry.get("instiapp.lostnfound.archived.media").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void testNothingToArchive() {
+        when(lostnFoundRepository.archiveLostnFound(any(), any(), anyInt())).thenReturn(new LostnFoundArchiveBatchDto(0, List.of()));
+
+        archiver.archive();
+
+        verify(lostnFoundRepository, never()).deleteUnusedMedia(any());
+        verifyNoInteractions(eventPublisher, cloudinaryService);
+    }
+
+    @Test
+    void testMediaThatCannotBeDeletedIsKept() {
+        when(lostnFoundRepository.archiveLostnFound(any(), any(), anyInt())).thenReturn(new LostnFoundArchiveBatchDto(1, List.of(7L)));
+        when(lostnFoundRepository.deleteUnusedMedia(List.of(7L))).thenThrow(new DataIntegrityViolationException("still referenced"));
+
+        archiver.archive();
+
+        verifyNoInteractions(cloudinaryService);
+        verify(eventPublisher).publishEvent(any(LostnFoundChangedEvent.class));
+    }
+}
@@ -0,0 +1,144 @@
+package in.ac.iitj.instiapp.Tests.Service;
+
+import in.ac.iitj.instiapp.Repository.LostnFoundRepository;
+import in.ac.iitj.instiapp.Utils.PageCursor;
+import in.ac.iitj.instiapp.database.entities.LostnFound.LostnFoundType;
+import in.ac.iitj.instiapp.payload.LostnFound.LostnFoundDto;
+import in.ac.iitj.instiapp.payload.LostnFound.LostnFoundSearchRowDto;
+import in.ac.iitj.instiapp.payload.common.CursorPage;
+import in.ac.iitj.instiapp.services.LostnFound.LostnFoundChangedEvent;
+import in.ac.iitj.instiapp.services.LostnFound.LostnFoundListCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.Mockito.*;
+
+public class LostnFoundListCacheTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private LostnFoundRepository lostnFoundRepository;
+    private LostnFoundListCache cache;
+
+    // Open LOST items with ids 1 to 10, public id "item" + id
+    private static CursorPage<LostnFoundDto> page(PageCursor cursor) {
+        List<Object[]> rows = new ArrayList<>();
+        for (long id = cursor.afterId() + 1; id <= 10 && rows.size() < cursor.limit(); id++) {
+            rows.add(new Object[]{id, new LostnFoundDto("item" + id, null, "owner", "Library", LostnFoundType.LOST, "Wallet", false, null)});
+        }
+        return cursor.toPage(rows);
+    }
+
+    private static LostnFoundSearchRowDto row(long id, LostnFoundType type, boolean status) {
+        return new LostnFoundSearchRowDto(id, "item" + id, null, "owner", "Library", type, "Wallet", status, null, null);
+    }
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        lostnFoundRepository = mock(LostnFoundRepository.class);
+        when(lostnFoundRepository.getLostnFoundByFilter(any(), any(), any(), any(), any(), anyBoolean(), any()))
+                .thenAnswer(invocation -> page(invocation.getArgument(6)));
+        cache = new LostnFoundListCache(lostnFoundRepository, meterRegistry);
+    }
+
+    private CursorPage<LostnFoundDto> openLost(String cursor) {
+        return cache.getLostnFoundByFilter(LostnFoundType.LOST, Optional.of(false), Optional.empty(), Optional.empty(), Optional.empty(),
+                PageCursor.of(cursor, 3));
+    }
+
+    private double reads(String outcome) {
+        return meterRegistry.get("instiapp.lostnfound.list.cache").tag("outcome", outcome).counter().count();
+    }
+
+    private int queries() {
+        return mockingDetails(lostnFoundRepository).getInvocations().stream()
+                .filter(invocation -> invocation.getMethod().getName().equals("getLostnFoundByFilter"))
+                .toList().size();
+    }
+
+    @Test
+    void testCachesTheFirstPages() {
+        String cursor = null;
+        for (int page = 0; page < 4; page++) {
+            cursor = openLost(cursor).getNextCursor();
+        }
+        cursor = null;
+        for (int page = 0; page < 4; page++) {
+            CursorPage<LostnFoundDto> items = openLost(cursor);
+            assertThat(items.getItems()).hasSizeLessThanOrEqualTo(3);
+            cursor = items.getNextCursor();
+        }
+        assertThat(cursor).isNull();
+
+        // The fourth page is past MAX_PAGES
+        assertThat(reads("miss")).isEqualTo(3);
+        assertThat(reads("hit")).isEqualTo(3);
+        assertThat(reads("bypass")).isEqualTo(2);
+        assertThat(queries()).isEqualTo(5);
+    }
+
+    @Test
+    void testCursorsNotReachedFromACachedPageBypassTheCache() {
+        openLost(PageCursor.encode(5));
+        openLost(PageCursor.encode(5));
+        assertThat(reads("bypass")).isEqualTo(2);
+        assertThat(queries()).isEqualTo(2);
+    }
+
+    @Test
+    void testChangesEvictOnlyThePagesTheyFallIn() {
+        String second = openLost(null).getNextCursor();
+        openLost(second);
+
+        // A FOUND item and a resolved item are in neither page
+        cache.onLostnFoundChanged(new LostnFoundChangedEvent("saveLostAndFound", List.of(row(11, LostnFoundType.FOUND, false)), List.of()));
+        cache.onLostnFoundChanged(new LostnFoundChangedEvent("saveLostAndFound", List.of(row(12, LostnFoundType.LOST, true)), List.of()));
+        openLost(null);
+        openLost(second);
+        assertThat(queries()).isEqualTo(2);
+
+        // Deleting an item of the second page leaves the first one cached
+        cache.onLostnFoundChanged(new LostnFoundChangedEvent("deleteLostAndFound", List.of(), List.of("item5")));
+        openLost(null);
+        openLost(second);
+        assertThat(queries()).isEqualTo(3);
+
+        // Deleting the landmark of an item of the first page leaves the second one cached
+        cache.onLostnFoundChanged(new LostnFoundChangedEvent("deleteLocationByName",
+                List.of(row(2, LostnFoundType.LOST, false).withLandmarkName(null)), List.of()));
+        openLost(null);
+        openLost(second);
+        assertThat(queries()).isEqualTo(4);
+
+        // Archiving may remove any item
+        cache.onLostnFoundChanged(new LostnFoundChangedEvent("archiveLostnFound"));
+        openLost(null);
+        assertThat(queries()).isEqualTo(5);
+    }
+
+    @Test
+    void testNewItemsEvictTheLastPage() {
+        doAnswer(invocation -> {
+            PageCursor cursor = invocation.getArgument(6);
+            CursorPage<LostnFoundDto> page = page(cursor);
+            // Only 4 items so far, the second page is the last
+            return cursor.afterId() == 0 ? page : new CursorPage<>(page.getItems().subList(0, 1), null);
+        }).when(lostnFoundRepository).getLostnFoundByFilter(any(), any(), any(), any(), any(), anyBoolean(), any());
+        String second = openLost(null).getNextCursor();
+        openLost(second);
+
+        cache.onLostnFoundChanged(new LostnFoundChangedEvent("saveLostAndFound", List.of(row(11, LostnFoundType.LOST, false)), List.of()));
+        openLost(null);
+        openLost(second);
+        assertThat(queries()).isEqualTo(3);
+        assertThat(reads("hit")).isEqualTo(1);
+    }
+}
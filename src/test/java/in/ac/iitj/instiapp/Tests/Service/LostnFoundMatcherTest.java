@@ -0,0 +1,107 @@
+package in.ac.iitj.instiapp.Tests.Service;
+
+import in.ac.iitj.instiapp.Repository.LostnFoundRepository;
+import in.ac.iitj.instiapp.database.entities.LostnFound.LostnFoundType;
+import in.ac.iitj.instiapp.payload.LostnFound.LostnFoundMatchDto;
+import in.ac.iitj.instiapp.payload.LostnFound.LostnFoundSearchRowDto;
+import in.ac.iitj.instiapp.services.LostnFound.LostnFoundChangedEvent;
+import in.ac.iitj.instiapp.services.LostnFound.LostnFoundMatchSuggestedEvent;
+import in.ac.iitj.instiapp.services.LostnFound.LostnFoundMatcher;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+public class LostnFoundMatcherTest {
+
+    private static final Instant NOW = Instant.parse("2025-03-01T10:00:00Z");
+
+    private LostnFoundRepository lostnFoundRepository;
+    private ApplicationEventPublisher eventPublisher;
+    private LostnFoundMatcher matcher;
+
+    private static LostnFoundSearchRowDto row(long id, LostnFoundType type, String landmark, String extraInfo, boolean status, int daysAgo) {
+        return new LostnFoundSearchRowDto(id, "item" + id, null, "owner", landmark, type, extraInfo, status, null,
+                NOW.minus(Duration.ofDays(daysAgo)));
+    }
+
+    @BeforeEach
+    void setUp() {
+        lostnFoundRepository = mock(LostnFoundRepository.class);
+        eventPublisher = mock(ApplicationEventPublisher.class);
+        when(lostnFoundRepository.getSearchRows()).thenReturn(List.of(
+                row(1, LostnFoundType.LOST, "Library", "Black leather wallet with college ID", false, 3),
+                row(2, LostnFoundType.FOUND, "Library", "Black wallet, leather, ID card inside", false, 1),
+                row(3, LostnFoundType.FOUND, "Mess", "Blue water bottle", false, 1),
+                row(4, LostnFoundType.LOST, "Hostel B5", "Black leather wallet", false, 2),
+                row(5, LostnFoundType.FOUND, "Library", "Black leather wallet with college ID", true, 2),
+                row(6, LostnFoundType.FOUND, "Hostel B3", "Brown leather wallet", false, 90)));
+        matcher = new LostnFoundMatcher(lostnFoundRepository, eventPublisher);
+    }
+
+    private List<String> suggested(String publicId) {
+        return matcher.suggestions(publicId).stream().map(match -> match.getItem().getPublicId()).toList();
+    }
+
+    @Test
+    void testSuggestsOpenItemsOfTheOppositeType() {
+        // Not the other LOST wallet, the resolved FOUND wallet, the bottle or the wallet found months ago
+        assertThat(suggested("item1")).containsExactly("item2");
+        assertThat(suggested("item2")).containsExactly("item1", "item4");
+        assertThat(suggested("item5")).isEmpty();
+        assertThat(suggested("missing")).isEmpty();
+    }
+
+    @Test
+    void testScoreExplainsTheMatch() {
+        LostnFoundMatchDto sameLibrary = matcher.suggestions("item2").get(0);
+        LostnFoundMatchDto otherHostel = matcher.suggestions("item2").get(1);
+        assertThat(sameLibrary.getLandmarkSimilarity()).isEqualTo(1f);
+        assertThat(sameLibrary.getDaysApart()).isEqualTo(2L);
+        assertThat(otherHostel.getLandmarkSimilarity()).isZero();
+        assertThat(sameLibrary.getScore()).isGreaterThan(otherHostel.getScore());
+        assertThat(sameLibrary.getTextSimilarity()).isBetween(0.2f, 1f);
+    }
+
+    @Test
+    void testChangedItemsAreMatchedWithoutReloading() {
+        matcher.suggestions("item1");
+
+        matcher.onLostnFoundChanged(new LostnFoundChangedEvent("saveLostAndFound",
+                List.of(row(7, LostnFoundType.FOUND, "Hostel B5", "Black leather wallet", false, 0)), List.of()));
+        matcher.onLostnFoundChanged(new LostnFoundChangedEvent("updateLostAndFound",
+                List.of(row(2, LostnFoundType.FOUND, "Library", "Black leather wallet with college ID", true, 1)), List.of()));
+
+        ArgumentCaptor<LostnFoundMatchSuggestedEvent> event = ArgumentCaptor.forClass(LostnFoundMatchSuggestedEvent.class);
+        verify(eventPublisher, times(1)).publishEvent(event.capture());
+        assertThat(event.getValue().getPublicId()).isEqualTo("item7");
+        assertThat(event.getValue().getSuggestions().get(0).getItem().getPublicId()).isEqualTo("item4");
+        // item2 was resolved
+        assertThat(suggested("item1")).containsExactly("item7");
+        verify(lostnFoundRepository, times(1)).getSearchRows();
+        verify(lostnFoundRepository, never()).getSearchRow(anyString());
+    }
+
+    @Test
+    void testChangesCommittedDuringAReloadAreKept() {
+        List<LostnFoundSearchRowDto> rows = lostnFoundRepository.getSearchRows();
+        matcher.suggestions("item1");
+        // item7 is committed after the reload read the items
+        doAnswer(invocation -> {
+            matcher.onLostnFoundChanged(new LostnFoundChangedEvent("saveLostAndFound",
+                    List.of(row(7, LostnFoundType.FOUND, "Hostel B5", "Black leather wallet", false, 0)), List.of()));
+            return rows;
+        }).when(lostnFoundRepository).getSearchRows();
+
+        matcher.rebuild();
+
+        assertThat(suggested("item4")).contains("item7");
+    }
+}
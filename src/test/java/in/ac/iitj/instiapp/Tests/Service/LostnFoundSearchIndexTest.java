@@ -0,0 +1,126 @@
+package in.ac.iitj.instiapp.Tests.Service;
+
+import in.ac.iitj.instiapp.Repository.LostnFoundRepository;
+import in.ac.iitj.instiapp.Utils.RankCursor;
+import in.ac.iitj.instiapp.database.entities.LostnFound.LostnFoundType;
+import in.ac.iitj.instiapp.payload.LostnFound.LostnFoundDto;
+import in.ac.iitj.instiapp.payload.LostnFound.LostnFoundSearchRowDto;
+import in.ac.iitj.instiapp.payload.common.CursorPage;
+import in.ac.iitj.instiapp.services.LostnFound.LostnFoundChangedEvent;
+import in.ac.iitj.instiapp.services.LostnFound.LostnFoundSearchIndex;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+public class LostnFoundSearchIndexTest {
+
+    private LostnFoundRepository lostnFoundRepository;
+    private LostnFoundSearchIndex searchIndex;
+
+    private static LostnFoundSearchRowDto row(long id, LostnFoundType type, String landmark, String extraInfo, boolean status) {
+        return new LostnFoundSearchRowDto(id, "item" + id, null, "owner", landmark, type, extraInfo, status, null, null);
+    }
+
+    @BeforeEach
+    void setUp() {
+        lostnFoundRepository = mock(LostnFoundRepository.class);
+        when(lostnFoundRepository.getSearchRows()).thenReturn(List.of(
+                row(1, LostnFoundType.LOST, "Library", "Black leather wallet with college ID", false),
+                row(2, LostnFoundType.FOUND, "Mess", "Blue water bottle", false),
+                row(3, LostnFoundType.FOUND, "Library", "Brown wallet, no cards inside", false),
+                row(4, LostnFoundType.LOST, "Sports Complex", "Black earphones", true),
+                row(5, LostnFoundType.LOST, "Hostel B5", "Calculator left in the library reading room", false)));
+        searchIndex = new LostnFoundSearchIndex(lostnFoundRepository);
+    }
+
+    private List<String> search(String query, Optional<LostnFoundType> type, Optional<Boolean> status) {
+        return searchIndex.search(query, type, status, RankCursor.of(null, 10)).getItems().stream()
+                .map(LostnFoundDto::getPublicId)
+                .toList();
+    }
+
+    @Test
+    void testRanksItemsMatchingEveryTermFirst() {
+        List<String> blackWallet = search("black wallet", Optional.empty(), Optional.empty());
+        assertThat(blackWallet).hasSize(3).first().isEqualTo("item1");
+        assertThat(blackWallet).containsExactlyInAnyOrder("item1", "item3", "item4");
+        // Landmark matches weigh more than a mention in the extra info
+        List<String> library = search("library", Optional.empty(), Optional.empty());
+        assertThat(library).hasSize(3).last().isEqualTo("item5");
+    }
+
+    @Test
+    void testPartialMatchesNeverOutrankFullMatches() {
+        when(lostnFoundRepository.getSearchRows()).thenReturn(List.of(
+                row(1, LostnFoundType.LOST, "Black Gate", "Black, black", false),
+                row(2, LostnFoundType.LOST, "Hostel B5", "Cloth bag with a black pouch and a small wallet among notebooks, pens, chargers, a calculator, an umbrella and a lot of other stationery from the first semester", false),
+                row(3, LostnFoundType.FOUND, "Mess", "Brown wallet", false),
+                row(4, LostnFoundType.FOUND, "Library", "Leather wallet", false),
+                row(5, LostnFoundType.FOUND, "Hostel B5", "Wallet with cards", false),
+                row(6, LostnFoundType.FOUND, "Mess", "Blue water bottle", false)));
+        searchIndex.rebuild();
+
+        // Item 1 has a higher score than item 2 but only matches "black"
+        assertThat(search("black wallet", Optional.empty(), Optional.empty()))
+                .containsExactly("item2", "item1", "item3", "item4", "item5");
+    }
+
+    @Test
+    void testToleratesTyposAndPrefixes() {
+        assertThat(search("walet", Optional.empty(), Optional.empty())).containsExactlyInAnyOrder("item1", "item3");
+        assertThat(search("earph", Optional.empty(), Optional.empty())).containsExactly("item4");
+        assertThat(search("umbrella", Optional.empty(), Optional.empty())).isEmpty();
+    }
+
+    @Test
+    void testFiltersByTypeAndStatus() {
+        assertThat(search("wallet", Optional.of(LostnFoundType.FOUND), Optional.empty())).containsExactly("item3");
+        assertThat(search("black", Optional.empty(), Optional.of(false))).containsExactly("item1");
+    }
+
+    @Test
+    void testCursorWalksTheRanking() {
+        List<String> all = search("library wallet black", Optional.empty(), Optional.empty());
+
+        List<String> paged = new ArrayList<>();
+        String cursor = null;
+        do {
+            CursorPage<LostnFoundDto> page = searchIndex.search("library wallet black", Optional.empty(), Optional.empty(), RankCursor.of(cursor, 1));
+            page.getItems().forEach(item -> paged.add(item.getPublicId()));
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+
+        assertThat(paged).isEqualTo(all).hasSize(4);
+    }
+
+    @Test
+    void testCommittedChangesAreSearchableBeforeTheRebuild() {
+        search("wallet", Optional.empty(), Optional.empty());
+
+        searchIndex.onLostnFoundChanged(new LostnFoundChangedEvent("saveLostAndFound",
+                List.of(row(6, LostnFoundType.FOUND, "Mess", "Red wallet", false)), List.of()));
+        searchIndex.onLostnFoundChanged(new LostnFoundChangedEvent("deleteLostAndFound", List.of(), List.of("item1")));
+
+        assertThat(search("wallet", Optional.empty(), Optional.empty())).containsExactlyInAnyOrder("item3", "item6");
+        verify(lostnFoundRepository, times(1)).getSearchRows();
+        verify(lostnFoundRepository, never()).getSearchRow(anyString());
+    }
+
+    @Test
+    void testRenamedLocationsAreSearchableWithoutRebuilding() {
+        search("library", Optional.empty(), Optional.empty());
+
+        searchIndex.onLostnFoundChanged(new LostnFoundChangedEvent("updateLocation", List.of(
+                row(1, LostnFoundType.LOST, "Central Library", "Black leather wallet with college ID", false),
+                row(3, LostnFoundType.FOUND, "Central Library", "Brown wallet, no cards inside", false)), List.of()));
+
+        assertThat(search("central", Optional.empty(), Optional.empty())).containsExactlyInAnyOrder("item1", "item3");
+        verify(lostnFoundRepository, times(1)).getSearchRows();
+    }
+}
@@ -8,6 +8,9 @@ import in.ac.iitj.instiapp.Tests.EntityTestData.UserData;
 import in.ac.iitj.instiapp.database.entities.LostnFound.Locations;
 import in.ac.iitj.instiapp.database.entities.LostnFound.LostnFound;
 import in.ac.iitj.instiapp.payload.LostnFound.LostnFoundDto;
+import in.ac.iitj.instiapp.payload.LostnFound.LostnFoundSearchRowDto;
+import in.ac.iitj.instiapp.services.LostnFound.LostnFoundChangedEvent;
+import in.ac.iitj.instiapp.services.LostnFound.LostnFoundMatcher;
 import in.ac.iitj.instiapp.services.impl.LostnFoundServiceImpl;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -15,6 +18,9 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.EmptyResultDataAccessException;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 
@@ -23,6 +29,7 @@ import java.util.List;
 import java.util.Optional;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.Mockito.*;
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -32,6 +39,12 @@ public class LostnFoundServiceTest {
     @Mock
     private LostnFoundRepository lostnFoundRepository;
 
+    @Mock
+    private LostnFoundMatcher lostnFoundMatcher;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private LostnFoundServiceImpl lostnFoundService;  // Changed from interface to implementation
 
@@ -73,12 +86,16 @@ public class LostnFoundServiceTest {
     void testDeleteLocationByName() {
         // Arrange
         String locationName = LocationData.LOCATION1.name;
+        when(lostnFoundRepository.getSearchRowsByLandmark(locationName)).thenReturn(List.of(createSampleSearchRow()));
 
         // Act
         lostnFoundService.deleteLocationByName(locationName);
 
         // Assert
         verify(lostnFoundRepository).deleteLocationByName(locationName);
+        verify(eventPublisher).publishEvent(argThat((Object event) -> event instanceof LostnFoundChangedEvent changed
+                && changed.getChangedRows().size() == 1 && changed.getChangedRows().get(0).getLandmarkName() == null));
+        verify(lostnFoundRepository, never()).getSearchRows();
     }
 
     @Test
@@ -95,29 +112,51 @@ public class LostnFoundServiceTest {
         verify(lostnFoundRepository).updateLocation(oldLocationName, newLocation);
     }
 
-//    @Test
-//    void testSaveLostAndFound() {
-//        // Arrange
-//        LostnFoundDto dto = createSampleLostnFoundDto();
-//
-//        // Act
-//        lostnFoundService.saveLostAndFound(dto);
-//
-//        // Assert
-//        verify(lostnFoundRepository).saveLostnFoundDetails(any(LostnFound.class));
-//    }
+    @Test
+    void testSaveLostAndFound() {
+        // Arrange
+        LostnFoundDto dto = createSampleLostnFoundDto();
 
-//    @Test
-//    void testUpdateLostAndFound() {
-//        // Arrange
-//        LostnFoundDto dto = createSampleLostnFoundDto();
-//
-//        // Act
-//        lostnFoundService.updateLostAndFound(dto);
-//
-//        // Assert
-//        verify(lostnFoundRepository).updateLostnFound(any(LostnFound.class), eq(dto.getPublicId()));
-//    }
+        LostnFoundSearchRowDto row = createSampleSearchRow();
+        when(lostnFoundRepository.getSearchRow(dto.getPublicId())).thenReturn(Optional.of(row));
+
+        // Act
+        lostnFoundService.saveLostAndFound(dto);
+
+        // Assert
+        verify(lostnFoundRepository).saveLostnFound(dto);
+        verify(eventPublisher).publishEvent(argThat((Object event) -> event instanceof LostnFoundChangedEvent changed
+                && changed.getChangedRows().equals(List.of(row))));
+    }
+
+    @Test
+    void testUpdateLostAndFound() {
+        // Arrange
+        LostnFoundDto dto = createSampleLostnFoundDto();
+
+        LostnFoundSearchRowDto row = createSampleSearchRow();
+        when(lostnFoundRepository.getSearchRow(dto.getPublicId())).thenReturn(Optional.of(row));
+
+        // Act
+        lostnFoundService.updateLostAndFound(dto);
+
+        // Assert
+        verify(lostnFoundRepository).updateLostnFound(dto);
+        verify(eventPublisher).publishEvent(argThat((Object event) -> event instanceof LostnFoundChangedEvent changed
+                && changed.getChangedRows().equals(List.of(row))));
+    }
+
+    @Test
+    void testUpdateLostAndFoundWithMissingReference() {
+        // Arrange
+        LostnFoundDto dto = createSampleLostnFoundDto();
+        doThrow(new DataIntegrityViolationException("Location with name '" + dto.getLandmarkName() + "' does not exist."))
+                .when(lostnFoundRepository).updateLostnFound(dto);
+
+        // Act & Assert
+        assertThrows(DataIntegrityViolationException.class, () -> lostnFoundService.updateLostAndFound(dto));
+        verifyNoInteractions(eventPublisher);
+    }
 
     @Test
     void testDeleteLostAndFound() {
@@ -131,6 +170,20 @@ public class LostnFoundServiceTest {
         verify(lostnFoundRepository).deleteLostnFound(publicId);
     }
 
+    @Test
+    void testGetMatchSuggestions() {
+        // Arrange
+        String publicId = LostnFoundData.LOST_N_FOUND1.publicId;
+        when(lostnFoundRepository.exsitLostnFound(publicId)).thenReturn(1L);
+        when(lostnFoundRepository.exsitLostnFound(LostnFoundData.LOST_N_FOUND4.publicId)).thenReturn(-1L);
+        when(lostnFoundMatcher.suggestions(publicId)).thenReturn(List.of());
+
+        // Act & Assert
+        assertEquals(List.of(), lostnFoundService.getMatchSuggestions(publicId));
+        assertThrows(EmptyResultDataAccessException.class, () -> lostnFoundService.getMatchSuggestions(LostnFoundData.LOST_N_FOUND4.publicId));
+        verify(lostnFoundMatcher, never()).suggestions(LostnFoundData.LOST_N_FOUND4.publicId);
+    }
+
 //    @Test
 //    void testGetLostAndFoundByFilter() {
 //        // Arrange
@@ -182,16 +235,23 @@ public class LostnFoundServiceTest {
 //        assertEquals(expectedResults, actualResults);
 //        verify(lostnFoundRepository).getLostnFoundByFilter(status, owner, finder, landmark, pageable);
 //    }
-//
-//    private LostnFoundDto createSampleLostnFoundDto() {
-//        return new LostnFoundDto(
-//                LostnFoundData.LOST_N_FOUND1.publicId,  // publicId
-//                UserData.USER1.userName,           // finder_username
-//                UserData.USER2.userName,           // owner_username
-//                LocationData.LOCATION1.name,        // landmark_name
-//                LostnFoundData.LOST_N_FOUND1.extraInfo,    // extra_info
-//                LostnFoundData.LOST_N_FOUND1.status,            // status
-//                MediaData.MEDIA1.publicId              // media_publicId (assuming no media for sample)
-//        );
-//    }
+
+    private LostnFoundDto createSampleLostnFoundDto() {
+        return new LostnFoundDto(
+                LostnFoundData.LOST_N_FOUND1.publicId,  // publicId
+                UserData.USER1.userName,           // finder_username
+                UserData.USER2.userName,           // owner_username
+                LocationData.LOCATION1.name,        // landmark_name
+                LostnFoundData.LOST_N_FOUND1.lostnFoundType,    // type
+                LostnFoundData.LOST_N_FOUND1.extraInfo,    // extra_info
+                LostnFoundData.LOST_N_FOUND1.status,            // status
+                MediaData.MEDIA1.publicId              // media_publicId
+        );
+    }
+
+    private LostnFoundSearchRowDto createSampleSearchRow() {
+        return new LostnFoundSearchRowDto(1L, LostnFoundData.LOST_N_FOUND1.publicId, UserData.USER1.userName, UserData.USER2.userName,
+                LocationData.LOCATION1.name, LostnFoundData.LOST_N_FOUND1.lostnFoundType, LostnFoundData.LOST_N_FOUND1.extraInfo,
+                LostnFoundData.LOST_N_FOUND1.status, MediaData.MEDIA1.publicId, null);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,56 @@
+package in.ac.iitj.instiapp.Tests.Service;
+
+import in.ac.iitj.instiapp.Utils.PageCursor;
+import in.ac.iitj.instiapp.payload.common.CursorPage;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class PageCursorTest {
+
+    private static List<Object[]> rows(long... ids) {
+        return Arrays.stream(ids).mapToObj(id -> new Object[]{id, "item" + id}).toList();
+    }
+
+    @Test
+    void testFirstPage() {
+        PageCursor cursor = PageCursor.of(null, null);
+
+        assertThat(cursor.afterId()).isZero();
+        assertThat(cursor.size()).isEqualTo(PageCursor.DEFAULT_SIZE);
+        assertThat(cursor.limit()).isEqualTo(PageCursor.DEFAULT_SIZE + 1);
+        assertThat(PageCursor.of(" ", 5).afterId()).isZero();
+    }
+
+    @Test
+    void testNextCursorPointsAfterLastItem() {
+        PageCursor cursor = PageCursor.of(null, 2);
+
+        // One row more than the page size means there is a next page
+        CursorPage<String> page = cursor.toPage(rows(3, 7, 9));
+
+        assertThat(page.getItems()).containsExactly("item3", "item7");
+        assertThat(page.getNextCursor()).isNotNull();
+        assertThat(PageCursor.of(page.getNextCursor(), 2).afterId()).isEqualTo(7L);
+    }
+
+    @Test
+    void testLastPageHasNoCursor() {
+        PageCursor cursor = PageCursor.of(PageCursor.encode(9), 2);
+
+        assertThat(cursor.toPage(rows(11, 12)).getNextCursor()).isNull();
+        assertThat(cursor.toPage(rows()).getItems()).isEmpty();
+    }
+
+    @Test
+    void testInvalidCursorAndSize() {
+        assertThatThrownBy(() -> PageCursor.of("not a cursor", 10)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> PageCursor.of(PageCursor.encode(-1), 10)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> PageCursor.of(null, 0)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> PageCursor.of(null, PageCursor.MAX_SIZE + 1)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
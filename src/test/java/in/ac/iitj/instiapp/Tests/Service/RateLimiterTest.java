@@ -0,0 +1,109 @@
+package in.ac.iitj.instiapp.Tests.Service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import in.ac.iitj.instiapp.authfiles.RateLimitFilter;
+import in.ac.iitj.instiapp.authfiles.RateLimiter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class RateLimiterTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private AtomicLong clock;
+    private RateLimiter.Rule rule;
+    private RateLimiter rateLimiter;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        clock = new AtomicLong(TimeUnit.HOURS.toNanos(1));
+        // 3 requests in a burst, then one every 10 seconds
+        rule = new RateLimiter.Rule("grievance-create", "/api/grievance/create", "POST", 3, 6);
+        rateLimiter = new RateLimiter(List.of(rule), meterRegistry, clock::get);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    private static MockHttpServletRequest request(String method, String path) {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, path);
+        // Matched like behind the DispatcherServlet, on the servlet path
+        request.setServletPath(path);
+        return request;
+    }
+
+    private double requests(String outcome) {
+        return meterRegistry.get("instiapp.ratelimit.requests").tag("rule", "grievance-create").tag("outcome", outcome).counter().count();
+    }
+
+    @Test
+    void testBurstThenRefill() {
+        for (int i = 0; i < 3; i++) {
+            assertThat(rateLimiter.tryAcquire(rule, "user:a")).isZero();
+        }
+        assertThat(rateLimiter.tryAcquire(rule, "user:a")).isEqualTo(TimeUnit.SECONDS.toNanos(10));
+        // Other clients have their own bucket
+        assertThat(rateLimiter.tryAcquire(rule, "user:b")).isZero();
+
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(10));
+        assertThat(rateLimiter.tryAcquire(rule, "user:a")).isZero();
+        assertThat(rateLimiter.tryAcquire(rule, "user:a")).isPositive();
+
+        assertThat(requests("admitted")).isEqualTo(5);
+        assertThat(requests("throttled")).isEqualTo(2);
+    }
+
+    @Test
+    void testIdleBucketsAreEvicted() {
+        rateLimiter.tryAcquire(rule, "user:a");
+        clock.addAndGet(TimeUnit.MINUTES.toNanos(5));
+        rateLimiter.evictIdleBuckets();
+        assertThat(rateLimiter.bucketCount()).isEqualTo(1);
+
+        clock.addAndGet(TimeUnit.MINUTES.toNanos(10));
+        rateLimiter.evictIdleBuckets();
+        assertThat(rateLimiter.bucketCount()).isZero();
+    }
+
+    @Test
+    void testFilterAnswers429WithRetryAfter() throws Exception {
+        RateLimitFilter filter = new RateLimitFilter(rateLimiter, new ObjectMapper());
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken("user", null, List.of()));
+
+        MockHttpServletResponse response = null;
+        for (int i = 0; i < 4; i++) {
+            response = new MockHttpServletResponse();
+            filter.doFilter(request("POST", "/api/grievance/create"), response, new MockFilterChain());
+        }
+
+        assertThat(response.getStatus()).isEqualTo(429);
+        assertThat(response.getHeader("Retry-After")).isEqualTo("10");
+        assertThat(response.getContentAsString()).contains("RATE_LIMITED");
+    }
+
+    @Test
+    void testFilterIgnoresUnmatchedRequests() throws Exception {
+        RateLimitFilter filter = new RateLimitFilter(rateLimiter, new ObjectMapper());
+        for (int i = 0; i < 10; i++) {
+            MockHttpServletResponse response = new MockHttpServletResponse();
+            filter.doFilter(request("GET", "/api/grievance/create"), response, new MockFilterChain());
+            assertThat(response.getStatus()).isEqualTo(200);
+        }
+        assertThat(rateLimiter.bucketCount()).isZero();
+    }
+}
@@ -0,0 +1,101 @@
+package in.ac.iitj.instiapp.Tests.Service;
+
+import in.ac.iitj.instiapp.config.SchemaMigrations;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+public class SchemaMigrationsTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @InjectMocks
+    private SchemaMigrations schemaMigrations;
+
+    private final Set<String> tables = new HashSet<>();
+    private final Set<String> constraints = new HashSet<>();
+    private final Set<String> uniqueColumns = new HashSet<>();
+    private final Set<String> nullableColumns = new HashSet<>();
+
+    @BeforeEach
+    void setUp() {
+        when(jdbcTemplate.queryForObject(contains("to_regclass"), eq(Boolean.class), anyString()))
+                .thenAnswer(invocation -> tables.contains(invocation.<String>getArgument(2)));
+        when(jdbcTemplate.queryForObject(contains("pg_constraint"), eq(Boolean.class), anyString()))
+                .thenAnswer(invocation -> constraints.contains(invocation.<String>getArgument(2)));
+        when(jdbcTemplate.queryForObject(contains("pg_index"), eq(Boolean.class), anyString(), anyString()))
+                .thenAnswer(invocation -> uniqueColumns.contains(invocation.getArgument(2) + "." + invocation.getArgument(3)));
+        when(jdbcTemplate.queryForObject(contains("information_schema.columns"), eq(Boolean.class), anyString(), anyString()))
+                .thenAnswer(invocation -> nullableColumns.contains(invocation.getArgument(2) + "." + invocation.getArgument(3)));
+    }
+
+    @Test
+    void testNewDatabaseIsLeftAlone() {
+        schemaMigrations.afterPropertiesSet();
+
+        verify(jdbcTemplate, never()).update(anyString());
+        verify(jdbcTemplate, never()).execute(anyString());
+    }
+
+    @Test
+    void testDuplicateTokensAreDeletedBeforeTheConstraintExists() {
+        tables.addAll(Set.of("jwt_refresh_token", "oauth2tokens"));
+
+        schemaMigrations.afterPropertiesSet();
+
+        verify(jdbcTemplate).update(startsWith("delete from jwt_refresh_token a using jwt_refresh_token b"));
+        verify(jdbcTemplate).update(startsWith("delete from oauth2tokens a using oauth2tokens b"));
+    }
+
+    @Test
+    void testDuplicateUsersAreRenamedBeforeTheColumnsAreUnique() {
+        tables.add("users");
+        uniqueColumns.add("users.user_name");
+
+        schemaMigrations.afterPropertiesSet();
+
+        verify(jdbcTemplate).update(startsWith("update users u set email = u.email || '.duplicate-' || u.id"));
+        verify(jdbcTemplate, never()).update(startsWith("update users u set user_name"));
+    }
+
+    @Test
+    void testMissingCreationTimesAreBackfilledBeforeTheColumnBecomesNotNull() {
+        tables.add("lostnfound");
+        nullableColumns.add("lostnfound.created_at");
+
+        schemaMigrations.afterPropertiesSet();
+
+        InOrder inOrder = inOrder(jdbcTemplate);
+        inOrder.verify(jdbcTemplate).update("update lostnfound set created_at = now() where created_at is null");
+        inOrder.verify(jdbcTemplate).execute("alter table lostnfound alter column created_at set default current_timestamp");
+        inOrder.verify(jdbcTemplate).execute("alter table lostnfound alter column created_at set not null");
+    }
+
+    @Test
+    void testTablesWithTheConstraintAreLeftAlone() {
+        tables.addAll(Set.of("jwt_refresh_token", "oauth2tokens", "users", "lostnfound"));
+        constraints.addAll(Set.of("uk_jwt_refresh_token_user_device", "uk_oauth2tokens_user_device"));
+        uniqueColumns.addAll(Set.of("users.email", "users.user_name"));
+
+        schemaMigrations.afterPropertiesSet();
+
+        verify(jdbcTemplate, never()).update(anyString());
+        verify(jdbcTemplate, never()).execute(anyString());
+    }
+}
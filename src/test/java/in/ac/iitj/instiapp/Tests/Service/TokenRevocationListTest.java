@@ -0,0 +1,65 @@
+package in.ac.iitj.instiapp.Tests.Service;
+
+import in.ac.iitj.instiapp.Repository.RevokedTokenRepository;
+import in.ac.iitj.instiapp.services.JWTTokens.TokenRevocationList;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class TokenRevocationListTest {
+
+    @Mock
+    private RevokedTokenRepository revokedTokenRepository;
+
+    @InjectMocks
+    private TokenRevocationList tokenRevocationList;
+
+    @Test
+    void testUnrevokedTokensAreAnsweredWithoutDatabase() {
+        List<String> revoked = IntStream.range(0, 2000).mapToObj(i -> UUID.randomUUID().toString()).toList();
+        when(revokedTokenRepository.getUnexpiredTokenIds()).thenReturn(revoked);
+        lenient().when(revokedTokenRepository.isRevoked(anyString())).thenReturn(false);
+
+        for (int i = 0; i < 10_000; i++) {
+            assertThat(tokenRevocationList.isRevoked(UUID.randomUUID().toString())).isFalse();
+        }
+        long falsePositives = mockingDetails(revokedTokenRepository).getInvocations().stream()
+                .filter(invocation -> invocation.getMethod().getName().equals("isRevoked"))
+                .count();
+
+        // Only filter hits are confirmed against the database, about 1% of unrevoked tokens
+        assertThat(falsePositives).isLessThan(300);
+        verify(revokedTokenRepository, times(1)).getUnexpiredTokenIds();
+    }
+
+    @Test
+    void testRevokedTokensFromFilterAreConfirmed() {
+        when(revokedTokenRepository.getUnexpiredTokenIds()).thenReturn(List.of("revoked"));
+        when(revokedTokenRepository.isRevoked("revoked")).thenReturn(true);
+
+        assertThat(tokenRevocationList.isRevoked("revoked")).isTrue();
+    }
+
+    @Test
+    void testRecentRevocationIsSeenBeforeRebuild() {
+        when(revokedTokenRepository.getUnexpiredTokenIds()).thenReturn(List.of());
+        tokenRevocationList.rebuild();
+
+        tokenRevocationList.revoke("jti", Instant.now().plusSeconds(60));
+
+        verify(revokedTokenRepository).revoke(eq("jti"), any());
+        assertThat(tokenRevocationList.isRevoked("jti")).isTrue();
+        verify(revokedTokenRepository, never()).isRevoked("jti");
+    }
+}
@@ -0,0 +1,58 @@
+package in.ac.iitj.instiapp.Tests.Service;
+
+import com.nimbusds.jwt.JWTClaimsSet;
+import in.ac.iitj.instiapp.services.JWTTokens.VerifiedClaimsCache;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class VerifiedClaimsCacheTest {
+
+    private static final long IN_A_MINUTE = System.currentTimeMillis() + 60_000;
+
+    @Test
+    void testClaimsOfBothTokenKindsShareOneCache() {
+        VerifiedClaimsCache cache = new VerifiedClaimsCache();
+        Claims jwtClaims = Jwts.claims().subject("username").build();
+        JWTClaimsSet jweClaims = new JWTClaimsSet.Builder().subject("username").build();
+
+        cache.put("jwt", jwtClaims, IN_A_MINUTE);
+        cache.put("jwe", jweClaims, IN_A_MINUTE);
+
+        assertThat(cache.size()).isEqualTo(2);
+        assertThat(cache.get("jwt", Claims.class)).isSameAs(jwtClaims);
+        assertThat(cache.get("jwe", JWTClaimsSet.class)).isSameAs(jweClaims);
+        // A token is never served as claims of the other kind
+        assertThat(cache.get("jwt", JWTClaimsSet.class)).isNull();
+
+        cache.evict("jwt");
+        cache.evict("jwe");
+        cache.evict(null);
+        assertThat(cache.get("jwt", Claims.class)).isNull();
+        assertThat(cache.get("jwe", JWTClaimsSet.class)).isNull();
+    }
+
+    @Test
+    void testExpiredTokensAreNotCached() {
+        VerifiedClaimsCache cache = new VerifiedClaimsCache();
+
+        cache.put("expired", Jwts.claims().build(), System.currentTimeMillis() - 1);
+
+        assertThat(cache.get("expired", Claims.class)).isNull();
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    void testCacheIsBounded() {
+        VerifiedClaimsCache cache = new VerifiedClaimsCache(2);
+
+        cache.put("first", Jwts.claims().build(), IN_A_MINUTE);
+        cache.put("second", new JWTClaimsSet.Builder().build(), IN_A_MINUTE);
+        cache.put("third", Jwts.claims().build(), IN_A_MINUTE);
+
+        assertThat(cache.size()).isEqualTo(2);
+        assertThat(cache.get("third", Claims.class)).isNull();
+    }
+}